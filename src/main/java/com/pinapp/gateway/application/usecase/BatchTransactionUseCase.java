@@ -1,15 +1,31 @@
 package com.pinapp.gateway.application.usecase;
 
+import com.pinapp.gateway.domain.exception.DispatchRejectedException;
+import com.pinapp.gateway.domain.model.BatchSubmission;
+import com.pinapp.gateway.domain.model.BatchSummary;
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
 import com.pinapp.gateway.domain.model.Transaction;
 import com.pinapp.gateway.domain.model.TransactionStatusInfo;
 import com.pinapp.gateway.domain.ports.in.BatchTransactionService;
-import com.pinapp.gateway.domain.ports.out.NotificationPort;
+import com.pinapp.gateway.domain.ports.out.BatchProgressPort;
+import com.pinapp.gateway.domain.ports.out.IdempotencyPort;
 import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Caso de uso para el procesamiento en lote (batch) de transacciones.
@@ -25,24 +41,32 @@ import java.util.List;
  * <strong>Estrategia de Notificación para Batch:</strong>
  * </p>
  * <p>
- * Utiliza el canal <strong>Push</strong> para todas las notificaciones de batch porque:
+ * Cada transacción se enruta según su estado con las mismas reglas que el procesamiento unitario
+ * ({@link NotificationRouter}): COMPLETED por Email, REJECTED por SMS y PENDING por Push. El lote
+ * se reparte en un carril por canal; cada carril es una cola acotada que un hilo virtual propio
+ * despacha en orden. Así un lote mixto usa los tres proveedores a la vez, y la espera en la
+ * ventana de envío de un canal saturado no frena a los otros dos. Los envíos de los carriles
+ * entran al {@link com.pinapp.gateway.infrastructure.notification.PriorityDispatchScheduler} con
+ * la prioridad de su estado, de modo que las alertas SMS de un lote no esperan detrás de sus Push.
+ * </p>
+ * <p>
+ * <strong>Duplicados:</strong> una transacción cuyo ID ya se recibió con el mismo estado dentro de
+ * la ventana de idempotencia ({@link IdempotencyPort}), en este lote, en otro o como petición individual, se
+ * omite sin registrarla ni notificarla, y se cuenta en el resultado del lote. Las que no llegan a
+ * despacharse (canal saturado) se liberan para que el cliente pueda reenviarlas. El recordatorio
+ * de cada transacción ({@link NotificationRouter#updateReminder}) se programa o cancela antes de
+ * ese control, igual que en el procesamiento unitario.
  * </p>
- * <ul>
- *   <li>Es un canal no bloqueante que permite procesar grandes volúmenes sin afectar
- *       el rendimiento del sistema</li>
- *   <li>Las notificaciones push son ideales para actualizaciones de estado en tiempo real
- *       que no requieren confirmación inmediata del usuario</li>
- *   <li>Permite procesar el lote de forma asíncrona mientras el cliente recibe una
- *       respuesta inmediata con los IDs de las transacciones registradas</li>
- * </ul>
  * <p>
  * <strong>Flujo de Ejecución Asíncrono:</strong>
  * </p>
  * <ol>
- *   <li>Registra cada transacción con estado "PROCESSING" en el puerto de persistencia</li>
- *   <li>Dispara notificación push de forma asíncrona (fire-and-forget) para cada transacción</li>
- *   <li>Retorna inmediatamente la lista de IDs de transacciones sin esperar el procesamiento</li>
- *   <li>El SDK procesa las notificaciones en segundo plano</li>
+ *   <li>Registra cada transacción con estado "PROCESSING" en el puerto de persistencia, en tramos
+ *       de hasta 256 con {@link TransactionStatusPort#saveAll} para que un store durable pague una
+ *       sola espera por tramo</li>
+ *   <li>La encola en el carril de su canal; si el carril está lleno, la lectura del lote espera</li>
+ *   <li>El carril dispara la notificación de forma asíncrona (fire-and-forget)</li>
+ *   <li>Retorna cuando todas las transacciones fueron entregadas al SDK, sin esperar su resultado</li>
  *   <li>El {@link com.pinapp.gateway.infrastructure.notification.TransactionAuditListener}
  *       captura los eventos del SDK y actualiza automáticamente los estados finales
  *       ("COMPLETED" o "FAILED") en el store</li>
@@ -61,15 +85,28 @@ import java.util.List;
 @Service
 public class BatchTransactionUseCase implements BatchTransactionService {
 
-    private final NotificationPort pushAdapter;
+    private static final Logger log = LoggerFactory.getLogger(BatchTransactionUseCase.class);
+
+    private static final int LANE_CAPACITY = 1024;
+    private static final long LANE_POLL_MILLIS = 50;
+    // Transacciones cuyo "PROCESSING" se registra con un solo saveAll
+    private static final int REGISTER_CHUNK = 256;
+
+    private final NotificationRouter router;
     private final TransactionStatusPort statusPort;
+    private final BatchProgressPort batchProgressPort;
+    private final IdempotencyPort idempotencyPort;
 
     public BatchTransactionUseCase(
-            @Qualifier("pushAdapter") NotificationPort pushAdapter,
-            TransactionStatusPort statusPort
+            NotificationRouter router,
+            TransactionStatusPort statusPort,
+            BatchProgressPort batchProgressPort,
+            IdempotencyPort idempotencyPort
     ) {
-        this.pushAdapter = pushAdapter;
+        this.router = router;
         this.statusPort = statusPort;
+        this.batchProgressPort = batchProgressPort;
+        this.idempotencyPort = idempotencyPort;
     }
 
     /**
@@ -79,8 +116,9 @@ public class BatchTransactionUseCase implements BatchTransactionService {
      * </p>
      * <ul>
      *   <li>Registra cada transacción con estado inicial "PROCESSING" en el store</li>
-     *   <li>Dispara notificaciones push de forma asíncrona sin esperar el resultado</li>
-     *   <li>Retorna inmediatamente con los IDs de las transacciones registradas</li>
+     *   <li>Dispara la notificación del canal que corresponde a su estado, sin esperar el resultado</li>
+     *   <li>Retorna con los IDs de las transacciones registradas en cuanto los tres canales
+     *       terminaron de despachar</li>
      * </ul>
      * <p>
      * <strong>Actualización de Estado mediante Eventos:</strong>
@@ -95,8 +133,7 @@ public class BatchTransactionUseCase implements BatchTransactionService {
      * <p>
      * <strong>No bloqueante:</strong> Este método no realiza llamadas bloqueantes
      * (como {@code .join()} o {@code .get()}) sobre los {@link java.util.concurrent.CompletableFuture}
-     * retornados por el adaptador. El hilo principal retorna inmediatamente después
-     * de disparar las notificaciones.
+     * retornados por los adaptadores. Solo espera a que los carriles entreguen sus envíos al SDK.
      * </p>
      * <p>
      * El cliente puede consultar el estado de cada transacción posteriormente mediante
@@ -105,26 +142,270 @@ public class BatchTransactionUseCase implements BatchTransactionService {
      * actualice el estado.
      * </p>
      *
+     * <p>
+     * El lote recibe un ID cuyo progreso agregado puede consultarse sin revisar cada transacción;
+     * el {@link BatchProgressPort} guarda además sus IDs para suscribirse a sus estados por
+     * {@code batchId}.
+     * </p>
+     *
      * @param transactions Lista de transacciones a procesar en lote
-     * @return Lista de IDs de las transacciones registradas (en formato String)
+     * @return El ID del lote, los IDs de las transacciones registradas (en formato String) y la
+     *         cantidad de duplicadas omitidas
+     * @throws DispatchRejectedException si un canal está saturado; las transacciones que no
+     *         llegaron a despacharse quedan en "FAILED"
      */
     @Override
-    public List<String> processBatch(List<Transaction> transactions) {
-        List<String> transactionIds = new ArrayList<>();
+    public BatchSubmission processBatch(List<Transaction> transactions) {
+        String batchId = batchProgressPort.open(true);
+        List<String> transactionIds = new ArrayList<>(transactions.size());
+        BatchDispatch dispatch = dispatchAll(batchId, transactions.iterator(), transactionIds);
+        return new BatchSubmission(batchId, transactionIds, dispatch.duplicates, dispatch.rejected);
+    }
 
-        for (Transaction transaction : transactions) {
-            String id = transaction.id().toString();
-            transactionIds.add(id);
+    /**
+     * Procesa un lote a medida que llega, sin materializarlo.
+     * <p>
+     * Cada transacción se registra y se encola en el carril de su canal en cuanto el iterador la
+     * entrega (por ejemplo, mientras el cuerpo de la petición todavía se está recibiendo), con el
+     * mismo flujo fire-and-forget que {@link #processBatch(List)}. Solo se conserva el conteo, no
+     * los IDs: ni en la respuesta ni en el {@link BatchProgressPort}, por lo que el lote no admite
+     * suscripciones por {@code batchId}.
+     * </p>
+     *
+     * @param transactions Transacciones del lote, en orden de llegada
+     * @return Resumen con el ID del lote y la cantidad de transacciones aceptadas y duplicadas
+     * @throws DispatchRejectedException si un canal está saturado
+     */
+    @Override
+    public BatchSummary processStream(Iterator<Transaction> transactions) {
+        String batchId = batchProgressPort.open(false);
+        BatchDispatch dispatch = dispatchAll(batchId, transactions, null);
+        return new BatchSummary(batchId, dispatch.dispatched.sum(), dispatch.duplicates, dispatch.rejected);
+    }
+
+    /**
+     * Registra cada transacción y la reparte en los carriles por canal.
+     * <p>
+     * Si un canal rechaza un envío por saturación, el lote se corta: el productor deja de leer,
+     * la transacción rechazada y las que todavía esperaban en cualquier carril quedan en "FAILED"
+     * (no llegaron al SDK), y la excepción informa cuántas se despacharon. Como los canales
+     * avanzan en paralelo, las despachadas no son un prefijo del lote; el cliente identifica las
+     * que debe reenviar por su estado "FAILED" tras el {@code Retry-After}.
+     * </p>
+     * <p>
+     * Las transacciones sin ID o sin estado no tienen canal posible: se omiten y se cuentan como
+     * rechazadas, sin tocar la ventana de idempotencia ni el store.
+     * </p>
+     * <p>
+     * Las aceptadas se registran en tramos ({@link #register}); un tramo se despacha cuando se
+     * completa o cuando termina el lote.
+     * </p>
+     *
+     * @param ids Lista donde acumular los IDs registrados, o {@code null} para no conservarlos
+     * @return El lote despachado, con sus contadores
+     */
+    private BatchDispatch dispatchAll(String batchId, Iterator<Transaction> transactions, List<String> ids) {
+        BatchDispatch dispatch = new BatchDispatch(batchId);
+        List<Transaction> claimed = new ArrayList<>(REGISTER_CHUNK);
+        try {
+            while (dispatch.rejection == null && transactions.hasNext()) {
+                Transaction transaction = transactions.next();
+                // Sin estado no hay canal: se descarta antes de reservar el ID o registrar "PROCESSING"
+                if (transaction.id() == null || transaction.status() == null) {
+                    dispatch.rejected++;
+                    continue;
+                }
+                router.updateReminder(transaction);
+                if (!idempotencyPort.claim(transaction.id(), transaction.status())) {
+                    dispatch.duplicates++;
+                    continue;
+                }
+                batchProgressPort.track(batchId, transaction.id().toString(),
+                        router.routeFor(transaction.status()).channel());
+                claimed.add(transaction);
+                if (claimed.size() == REGISTER_CHUNK) {
+                    dispatch.register(claimed, ids);
+                }
+            }
+        } finally {
+            try {
+                dispatch.register(claimed, ids);
+            } finally {
+                dispatch.close();
+                batchProgressPort.seal(batchId);
+            }
+        }
+
+        DispatchRejectedException rejection = dispatch.rejection;
+        if (rejection != null) {
+            throw new DispatchRejectedException(rejection.channel(), rejection.retryAfter(),
+                    batchId, dispatch.dispatched.sum());
+        }
+        return dispatch;
+    }
+
+    /**
+     * Marca como fallida una transacción que no llegó al SDK y la libera de la ventana de
+     * idempotencia para que el cliente pueda reenviarla.
+     */
+    private void fail(Transaction transaction, String reason) {
+        String id = transaction.id().toString();
+        statusPort.transition(new TransactionStatusInfo(id, ProcessingStatus.FAILED.name(), new NotificationStatus(false, id, null, reason)));
+        batchProgressPort.recordOutcome(id, router.routeFor(transaction.status()).channel(), false);
+        idempotencyPort.release(transaction.id(), transaction.status());
+    }
+
+    /**
+     * Estado de un lote en curso: un carril por canal, creado al llegar la primera transacción
+     * de ese canal.
+     */
+    private final class BatchDispatch {
 
-            // Register initial status using domain model and port
-            statusPort.save(new TransactionStatusInfo(id, "PROCESSING", null));
+        private final String batchId;
+        private final Map<String, Lane> lanes = new HashMap<>();
+        private final LongAdder dispatched = new LongAdder();
+        // Solo los modifica el hilo que lee el lote
+        private long duplicates;
+        private long rejected;
+        private volatile DispatchRejectedException rejection;
 
+        private BatchDispatch(String batchId) {
+            this.batchId = batchId;
+        }
+
+        /**
+         * Registra el tramo como "PROCESSING" con un solo {@link TransactionStatusPort#saveAll} y
+         * lo reparte en los carriles. Si se interrumpe, las transacciones del tramo que no llegaron
+         * a un carril quedan en "FAILED".
+         */
+        private void register(List<Transaction> claimed, List<String> ids) {
+            if (claimed.isEmpty()) {
+                return;
+            }
+            List<TransactionStatusInfo> statusInfos = new ArrayList<>(claimed.size());
+            for (Transaction transaction : claimed) {
+                statusInfos.add(new TransactionStatusInfo(transaction.id().toString(),
+                        ProcessingStatus.PROCESSING.name(), null));
+            }
+            statusPort.saveAll(statusInfos);
+            int next = 0;
+            try {
+                while (next < claimed.size()) {
+                    if (ids != null) {
+                        ids.add(statusInfos.get(next).id());
+                    }
+                    enqueue(claimed.get(next++));
+                }
+            } catch (RuntimeException e) {
+                for (int i = next; i < claimed.size(); i++) {
+                    fail(claimed.get(i), "Lote interrumpido antes del envío");
+                }
+                throw e;
+            } finally {
+                claimed.clear();
+            }
+        }
+
+        private void enqueue(Transaction transaction) {
+            NotificationRouter.Route route = router.routeFor(transaction.status());
+            Lane lane = lanes.computeIfAbsent(route.channel(), channel -> new Lane(this, route));
+            try {
+                lane.queue.put(transaction);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(transaction, "Lote interrumpido antes del envío");
+                throw new IllegalStateException("Lote " + batchId + " interrumpido", e);
+            }
+        }
+
+        private synchronized void reject(DispatchRejectedException e) {
+            if (rejection == null) {
+                rejection = e;
+            }
+        }
+
+        /**
+         * Indica a los carriles que no llegarán más transacciones y espera a que vacíen sus colas.
+         */
+        private void close() {
+            lanes.values().forEach(lane -> lane.closed = true);
+            boolean interrupted = false;
+            for (Lane lane : lanes.values()) {
+                while (true) {
+                    try {
+                        lane.thread.join();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Cola acotada de un canal, despachada en orden por un hilo virtual.
+     */
+    private final class Lane implements Runnable {
+
+        private final BatchDispatch batch;
+        private final NotificationRouter.Route route;
+        private final BlockingQueue<Transaction> queue = new ArrayBlockingQueue<>(LANE_CAPACITY);
+        private final Thread thread;
+        private volatile boolean closed;
+
+        private Lane(BatchDispatch batch, NotificationRouter.Route route) {
+            this.batch = batch;
+            this.route = route;
+            this.thread = Thread.ofVirtual()
+                    .name("batch-" + route.channel().toLowerCase(Locale.ROOT) + "-lane")
+                    .start(this);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Transaction transaction;
+                try {
+                    transaction = queue.poll(LANE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // Only the batch owns this thread; keep draining so no transaction stays PROCESSING
+                    continue;
+                }
+                if (transaction == null) {
+                    if (closed && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                send(transaction);
+            }
+        }
+
+        private void send(Transaction transaction) {
+            String id = transaction.id().toString();
+            DispatchRejectedException rejection = batch.rejection;
+            if (rejection != null) {
+                fail(transaction, rejection.getMessage());
+                return;
+            }
             // Dispatch async notification (fire-and-forget)
             // The TransactionAuditListener will update the final status via SDK events
-            pushAdapter.sendAsync(transaction, "Transaction " + transaction.id() + " PROCESSING");
+            try {
+                route.adapter().sendAsync(transaction, route.message());
+                batch.dispatched.increment();
+            } catch (DispatchRejectedException e) {
+                batch.reject(e);
+                fail(transaction, e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("Error dispatching batch transaction transactionId={} channel={} error={}",
+                        id, route.channel(), e.getMessage());
+                fail(transaction, e.getMessage());
+            }
             // CRITICAL: No .join(), .get(), or any blocking call here
         }
-
-        return transactionIds;
     }
 }
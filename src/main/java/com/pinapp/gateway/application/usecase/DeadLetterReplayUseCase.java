@@ -0,0 +1,158 @@
+package com.pinapp.gateway.application.usecase;
+
+import com.pinapp.gateway.domain.exception.DispatchRejectedException;
+import com.pinapp.gateway.domain.model.BatchSummary;
+import com.pinapp.gateway.domain.model.DeadLetter;
+import com.pinapp.gateway.domain.model.DeadLetterFilter;
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.domain.ports.in.DeadLetterService;
+import com.pinapp.gateway.domain.ports.out.BatchProgressPort;
+import com.pinapp.gateway.domain.ports.out.DeadLetterPort;
+import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Caso de uso para inspeccionar y reenviar en bloque las notificaciones que fallaron de forma
+ * definitiva (dead letters).
+ * <p>
+ * <strong>Reenvío:</strong> las dead letters seleccionadas se reservan en el store (ver
+ * {@link DeadLetterPort#reserve}) y se despachan como un lote, en un hilo virtual propio, por el
+ * mismo camino que {@link BatchTransactionUseCase}: estado "PROCESSING", {@link NotificationRouter}
+ * y {@code sendAsync} del adaptador, con su outbox, reintentos, circuit breaker y limitadores.
+ * Cada una se retira del store recién después de despacharla; las que el reenvío no llega a
+ * despachar (por un error inesperado del hilo) se liberan para un reenvío posterior. El progreso
+ * se consulta como el de cualquier lote.
+ * </p>
+ * <p>
+ * <strong>Throttling:</strong> los envíos se espacian a {@code permitsPerSecond} para no volver a
+ * saturar a un proveedor que acaba de recuperarse. Si el canal rechaza un envío por saturación,
+ * el reenvío espera el {@code Retry-After} y lo vuelve a intentar en lugar de cortar el lote.
+ * </p>
+ * <p>
+ * Una notificación que vuelve a fallar la registra de nuevo el adaptador como dead letter.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see DeadLetterService
+ */
+@Service
+public class DeadLetterReplayUseCase implements DeadLetterService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayUseCase.class);
+
+    private final DeadLetterPort deadLetterPort;
+    private final NotificationRouter router;
+    private final TransactionStatusPort statusPort;
+    private final BatchProgressPort batchProgressPort;
+    private final double defaultPermitsPerSecond;
+    private final int maxReplay;
+
+    public DeadLetterReplayUseCase(
+            DeadLetterPort deadLetterPort,
+            NotificationRouter router,
+            TransactionStatusPort statusPort,
+            BatchProgressPort batchProgressPort,
+            @Value("${pinapp.gateway.dead-letter.replay.permits-per-second:50}") double defaultPermitsPerSecond,
+            @Value("${pinapp.gateway.dead-letter.replay.max-size:100000}") int maxReplay) {
+        this.deadLetterPort = deadLetterPort;
+        this.router = router;
+        this.statusPort = statusPort;
+        this.batchProgressPort = batchProgressPort;
+        this.defaultPermitsPerSecond = defaultPermitsPerSecond;
+        this.maxReplay = maxReplay;
+    }
+
+    @Override
+    public List<DeadLetter> find(DeadLetterFilter filter, int limit) {
+        return deadLetterPort.find(filter, Math.clamp(limit, 0, maxReplay));
+    }
+
+    /**
+     * Reserva las dead letters seleccionadas y las reenvía en segundo plano.
+     *
+     * @param filter Criterio de selección
+     * @param limit Máximo de dead letters a reenviar (acotado por {@code replay.max-size})
+     * @param permitsPerSecond Ritmo del reenvío, o {@code <= 0} para el configurado
+     * @return El ID del lote de reenvío y la cantidad de notificaciones que enviará
+     */
+    @Override
+    public BatchSummary replay(DeadLetterFilter filter, int limit, double permitsPerSecond) {
+        List<DeadLetter> letters = deadLetterPort.reserve(filter, Math.clamp(limit, 0, maxReplay));
+        String batchId = batchProgressPort.open(true);
+        double rate = permitsPerSecond > 0 ? permitsPerSecond : defaultPermitsPerSecond;
+        log.info("Replaying dead letters batchId={} count={} ratePerSecond={}", batchId, letters.size(), rate);
+        Thread.ofVirtual()
+                .name("dead-letter-replay-" + batchId)
+                .start(() -> replayAll(batchId, letters, rate));
+        return new BatchSummary(batchId, letters.size(), 0, 0);
+    }
+
+    private void replayAll(String batchId, List<DeadLetter> letters, double permitsPerSecond) {
+        long intervalNanos = permitsPerSecond > 0 ? Math.round(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        long nextSend = System.nanoTime();
+        int dispatched = 0;
+        try {
+            for (DeadLetter letter : letters) {
+                for (long wait = nextSend - System.nanoTime(); wait > 0; wait = nextSend - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                nextSend = Math.max(nextSend, System.nanoTime() - intervalNanos) + intervalNanos;
+
+                String id = letter.transaction().id().toString();
+                batchProgressPort.track(batchId, id, letter.channel());
+                statusPort.save(new TransactionStatusInfo(id, ProcessingStatus.PROCESSING.name(), null));
+                dispatch(letter);
+                dispatched++;
+            }
+        } finally {
+            // Las que no llegaron a despacharse vuelven a estar disponibles
+            for (DeadLetter letter : letters.subList(dispatched, letters.size())) {
+                deadLetterPort.release(letter);
+            }
+            batchProgressPort.seal(batchId);
+            log.info("Dead letter replay dispatched batchId={} dispatched={}", batchId, dispatched);
+        }
+    }
+
+    /**
+     * Despacha una dead letter y la retira del store. Si vuelve a fallar, el adaptador (o este
+     * método, si el despacho no llega al adaptador) registra la falla nueva, que reemplaza a la
+     * reservada y no se retira.
+     */
+
+    private void dispatch(DeadLetter letter) {
+        Transaction transaction = letter.transaction();
+        NotificationRouter.Route route = router.routeFor(transaction.status());
+        while (true) {
+            try {
+                route.adapter().sendAsync(transaction, letter.message());
+                deadLetterPort.remove(letter);
+                return;
+            } catch (DispatchRejectedException e) {
+                LockSupport.parkNanos(e.retryAfter().toNanos());
+            } catch (RuntimeException e) {
+                log.warn("Error replaying dead letter transactionId={} channel={} error={}",
+                        transaction.id(), route.channel(), e.getMessage());
+                String id = transaction.id().toString();
+                statusPort.transition(new TransactionStatusInfo(id, ProcessingStatus.FAILED.name(),
+                        new NotificationStatus(false, id, letter.provider(), e.getMessage())));
+                batchProgressPort.recordOutcome(id, letter.channel(), false);
+                deadLetterPort.record(new DeadLetter(transaction, letter.channel(), letter.message(),
+                        letter.provider(), e.getMessage(), Instant.now()));
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.pinapp.gateway.application.usecase;
+
+import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.model.TransactionStatus;
+import com.pinapp.gateway.domain.ports.out.NotificationPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Reglas de selección de canal compartidas por el procesamiento unitario y por lotes.
+ * <p>
+ * <strong>Reglas de Negocio:</strong>
+ * </p>
+ * <ul>
+ *   <li><strong>COMPLETED → Email</strong> con el mensaje "¡Pago Exitoso!"</li>
+ *   <li><strong>PENDING → Push</strong> con el mensaje "Tu pago está siendo procesado."</li>
+ *   <li><strong>REJECTED → SMS</strong> con el mensaje "Alerta: Transacción Rechazada."</li>
+ * </ul>
+ * <p>
+ * <strong>Recordatorio:</strong> con {@code pinapp.gateway.reminder.pending-after} configurado, una
+ * transacción PENDING programa además un Push de recordatorio para ese plazo
+ * ({@link NotificationPort#sendAt}). Si antes llega la misma transacción con otro estado, el
+ * recordatorio ya no tiene sentido y se cancela. El plazo no puede superar
+ * {@code pinapp.gateway.scheduled.max-delay}; se valida al arrancar.
+ * </p>
+ * <p>
+ * Centralizar el switch evita que {@link ProcessTransactionUseCase} y
+ * {@link BatchTransactionUseCase} apliquen reglas distintas a una misma transacción.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+public class NotificationRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRouter.class);
+
+    /**
+     * Canal elegido para una transacción: nombre del canal, adaptador y mensaje de negocio.
+     */
+    public record Route(String channel, NotificationPort adapter, String message) {
+    }
+
+    private final Route email;
+    private final Route sms;
+    private final Route push;
+    private final Route reminder;
+    private final Duration pendingReminderDelay;
+
+    public NotificationRouter(
+            @Qualifier("emailAdapter") NotificationPort emailAdapter,
+            @Qualifier("smsAdapter") NotificationPort smsAdapter,
+            @Qualifier("pushAdapter") NotificationPort pushAdapter,
+            @Value("${pinapp.gateway.reminder.pending-after:0s}") Duration pendingReminderDelay,
+            @Value("${pinapp.gateway.scheduled.max-delay:24h}") Duration maxScheduleDelay
+    ) {
+        if (pendingReminderDelay.compareTo(maxScheduleDelay) > 0) {
+            throw new IllegalArgumentException("pinapp.gateway.reminder.pending-after (" + pendingReminderDelay
+                    + ") no puede superar pinapp.gateway.scheduled.max-delay (" + maxScheduleDelay + ")");
+        }
+        this.email = new Route("EMAIL", emailAdapter, "¡Pago Exitoso!");
+        this.sms = new Route("SMS", smsAdapter, "Alerta: Transacción Rechazada.");
+        this.push = new Route("PUSH", pushAdapter, "Tu pago está siendo procesado.");
+        this.reminder = new Route("PUSH", pushAdapter, "Recordatorio: tu pago sigue en proceso.");
+        this.pendingReminderDelay = pendingReminderDelay;
+    }
+
+    public Route routeFor(TransactionStatus status) {
+        return switch (status) {
+            case COMPLETED -> email;
+            case PENDING -> push;
+            case REJECTED -> sms;
+        };
+    }
+
+    /**
+     * Programa el recordatorio de una transacción PENDING o cancela el de una que ya cambió de
+     * estado. No hace nada si los recordatorios están deshabilitados.
+     *
+     * @param transaction La transacción recibida
+     */
+    public void updateReminder(Transaction transaction) {
+        if (!pendingReminderDelay.isPositive()) {
+            return;
+        }
+        if (transaction.status() != TransactionStatus.PENDING) {
+            reminder.adapter().cancelScheduled(transaction.id());
+            return;
+        }
+        Instant remindAt = Instant.now().plus(pendingReminderDelay);
+        if (!reminder.adapter().sendAt(transaction, reminder.message(), remindAt)) {
+            log.warn("No room to schedule reminder transactionId={}", transaction.id());
+        }
+    }
+
+    public List<Route> routes() {
+        return List.of(email, sms, push);
+    }
+}
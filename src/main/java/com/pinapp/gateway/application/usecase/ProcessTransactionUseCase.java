@@ -2,13 +2,18 @@ package com.pinapp.gateway.application.usecase;
 
 import com.pinapp.gateway.domain.model.NotificationStatus;
 import com.pinapp.gateway.domain.model.ProcessingResult;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
 import com.pinapp.gateway.domain.model.Transaction;
-import com.pinapp.gateway.domain.model.TransactionStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
 import com.pinapp.gateway.domain.ports.in.TransactionService;
+import com.pinapp.gateway.domain.ports.out.IdempotencyPort;
 import com.pinapp.gateway.domain.ports.out.NotificationPort;
-import org.springframework.beans.factory.annotation.Qualifier;
+import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Caso de uso principal que orquesta el procesamiento de transacciones y la selección
  * de estrategias de notificación.
@@ -33,8 +38,27 @@ import org.springframework.stereotype.Service;
  * </ul>
  * <p>
  * La inyección de múltiples implementaciones del mismo puerto ({@link NotificationPort}) mediante
- * {@code @Qualifier} permite que el caso de uso seleccione el adaptador correcto según la regla
- * de negocio, manteniendo el principio de inversión de dependencias.
+ * {@code @Qualifier} (en {@link NotificationRouter}) permite que el caso de uso seleccione el
+ * adaptador correcto según la regla de negocio, manteniendo el principio de inversión de dependencias.
+ * </p>
+ * <p>
+ * <strong>Idempotencia:</strong> los clientes reintentan ante timeouts. Una transacción cuyo ID ya
+ * se procesó con el mismo estado dentro de la ventana de idempotencia ({@link IdempotencyPort}) no
+ * se vuelve a notificar: se responde con el mismo {@link ProcessingResult} del primer
+ * procesamiento. El mismo ID con otro estado (un PENDING que pasa a COMPLETED) sí se notifica.
+ * </p>
+ * <p>
+ * <strong>Recordatorios:</strong> antes del control de idempotencia se programa o cancela el
+ * recordatorio de la transacción ({@link NotificationRouter#updateReminder}), de modo que un
+ * cambio de estado lo cancela aunque el ID ya se haya procesado.
+ * </p>
+ * <p>
+ * <strong>Estado:</strong> como en los lotes, antes de despachar se registra la transacción como
+ * "PROCESSING" en el {@link TransactionStatusPort}. Cuando el adaptador devuelve el resultado del
+ * envío, se registra "COMPLETED" o "FAILED" con {@link TransactionStatusPort#transition}, sin
+ * depender de que el SDK emita su evento (el evento, si llega, ya no avanza el estado). Si la
+ * petición vence (504) el envío sigue en curso y su resultado final se consulta en el endpoint de
+ * estado.
  * </p>
  *
  * @author PinApp Gateway Team
@@ -45,18 +69,15 @@ import org.springframework.stereotype.Service;
 @Service
 public class ProcessTransactionUseCase implements TransactionService {
 
-    private final NotificationPort emailAdapter;
-    private final NotificationPort smsAdapter;
-    private final NotificationPort pushAdapter;
+    private final NotificationRouter router;
+    private final IdempotencyPort idempotencyPort;
+    private final TransactionStatusPort statusPort;
 
-    public ProcessTransactionUseCase(
-            @Qualifier("emailAdapter") NotificationPort emailAdapter,
-            @Qualifier("smsAdapter") NotificationPort smsAdapter,
-            @Qualifier("pushAdapter") NotificationPort pushAdapter
-    ) {
-        this.emailAdapter = emailAdapter;
-        this.smsAdapter = smsAdapter;
-        this.pushAdapter = pushAdapter;
+    public ProcessTransactionUseCase(NotificationRouter router, IdempotencyPort idempotencyPort,
+            TransactionStatusPort statusPort) {
+        this.router = router;
+        this.idempotencyPort = idempotencyPort;
+        this.statusPort = statusPort;
     }
 
     /**
@@ -64,7 +85,7 @@ public class ProcessTransactionUseCase implements TransactionService {
      * <p>
      * Este método implementa la lógica de negocio que determina qué adaptador de notificación
      * debe utilizarse basándose en el estado de la transacción. La decisión está encapsulada
-     * en el switch, siguiendo las reglas de negocio definidas.
+     * en {@link NotificationRouter}, que el procesamiento por lotes comparte.
      * </p>
      *
      * @param transaction La transacción a procesar
@@ -72,14 +93,83 @@ public class ProcessTransactionUseCase implements TransactionService {
      */
     @Override
     public ProcessingResult process(Transaction transaction) {
-        TransactionStatus status = transaction.status();
+        router.updateReminder(transaction);
+        CompletableFuture<ProcessingResult> result = idempotencyPort.processOnce(transaction.id(),
+                transaction.status(), () -> {
+            NotificationRouter.Route route = router.routeFor(transaction.status());
+            markProcessing(transaction);
+            NotificationStatus notificationStatus;
+            try {
+                notificationStatus = route.adapter().notify(transaction, route.message());
+            } catch (RuntimeException e) {
+                recordOutcome(transaction, null, e);
+                throw e;
+            }
+            recordOutcome(transaction, notificationStatus, null);
+            return CompletableFuture.completedFuture(new ProcessingResult(transaction, notificationStatus));
+        });
+        try {
+            // Solo espera si un reintento llega mientras el primer envío sigue en curso
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Procesa una transacción con las mismas reglas que {@link #process(Transaction)}, sin bloquear.
+     * <p>
+     * El adaptador elegido envía por {@link NotificationPort#notifyAsync}; el futuro se completa
+     * cuando el proveedor responde. El hilo que llama (típicamente el de la petición HTTP) queda
+     * libre mientras tanto. Como en los lotes, el envío espera su lugar en el
+     * {@link com.pinapp.gateway.infrastructure.notification.PriorityDispatchScheduler} según su
+     * estado: un REJECTED pasa delante de los PENDING encolados.
+     * </p>
+     *
+     * @param transaction La transacción a procesar
+     * @return Un futuro con la transacción original y el estado de la notificación enviada
+     */
+    @Override
+    public CompletableFuture<ProcessingResult> processAsync(Transaction transaction) {
+        router.updateReminder(transaction);
+        return idempotencyPort.processOnce(transaction.id(), transaction.status(), () -> {
+            NotificationRouter.Route route = router.routeFor(transaction.status());
+            markProcessing(transaction);
+            CompletableFuture<NotificationStatus> notification;
+            try {
+                notification = route.adapter().notifyAsync(transaction, route.message());
+            } catch (RuntimeException e) {
+                recordOutcome(transaction, null, e);
+                throw e;
+            }
+            return notification
+                    .whenComplete((notificationStatus, throwable) -> recordOutcome(transaction, notificationStatus,
+                            throwable instanceof CompletionException && throwable.getCause() != null
+                                    ? throwable.getCause()
+                                    : throwable))
+                    .thenApply(notificationStatus -> new ProcessingResult(transaction, notificationStatus));
+        });
+    }
 
-        NotificationStatus notificationStatus = switch (status) {
-            case COMPLETED -> emailAdapter.notify(transaction, "¡Pago Exitoso!");
-            case PENDING -> pushAdapter.notify(transaction, "Tu pago está siendo procesado.");
-            case REJECTED -> smsAdapter.notify(transaction, "Alerta: Transacción Rechazada.");
-        };
+    private void markProcessing(Transaction transaction) {
+        String id = transaction.id().toString();
+        statusPort.save(new TransactionStatusInfo(id, ProcessingStatus.PROCESSING.name(), null));
+    }
 
-        return new ProcessingResult(transaction, notificationStatus);
+    /**
+     * Registra el resultado devuelto por el adaptador. Un envío rechazado por la ventana del canal
+     * nunca llegó al proveedor y también queda "FAILED", para que el cliente pueda reenviarlo.
+     */
+    private void recordOutcome(Transaction transaction, NotificationStatus notificationStatus, Throwable error) {
+        String id = transaction.id().toString();
+        if (notificationStatus == null) {
+            notificationStatus = new NotificationStatus(false, id, null, error != null ? error.getMessage() : null);
+        }
+        statusPort.transition(new TransactionStatusInfo(id,
+                (notificationStatus.success() ? ProcessingStatus.COMPLETED : ProcessingStatus.FAILED).name(),
+                notificationStatus));
     }
 }
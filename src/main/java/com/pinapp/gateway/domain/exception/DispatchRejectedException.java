@@ -0,0 +1,71 @@
+package com.pinapp.gateway.domain.exception;
+
+import java.time.Duration;
+
+/**
+ * Excepción lanzada cuando un canal de notificación no admite más envíos asíncronos porque
+ * su ventana de envíos en curso y su cola de espera están llenas.
+ * <p>
+ * Indica una condición transitoria: el cliente puede reintentar después de
+ * {@link #retryAfter()}. En el procesamiento por lotes, {@link #accepted()} informa cuántas
+ * transacciones del lote se despacharon antes del rechazo, para reenviar solo el resto.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+public class DispatchRejectedException extends BusinessException {
+
+    private final String channel;
+    private final Duration retryAfter;
+    private final String batchId;
+    private final long accepted;
+
+    /**
+     * Crea la excepción para un rechazo del canal, sin información de lote.
+     *
+     * @param channel Canal saturado
+     * @param retryAfter Tiempo estimado hasta que el canal vuelva a tener capacidad
+     */
+    public DispatchRejectedException(String channel, Duration retryAfter) {
+        this(channel, retryAfter, null, -1);
+    }
+
+    /**
+     * Crea la excepción para un rechazo ocurrido dentro de un lote.
+     *
+     * @param channel Canal saturado
+     * @param retryAfter Tiempo estimado hasta que el canal vuelva a tener capacidad
+     * @param batchId Lote en el que ocurrió el rechazo
+     * @param accepted Transacciones del lote despachadas antes del rechazo
+     */
+    public DispatchRejectedException(String channel, Duration retryAfter, String batchId, long accepted) {
+        super("El canal " + channel + " no admite más envíos en este momento");
+        this.channel = channel;
+        this.retryAfter = retryAfter;
+        this.batchId = batchId;
+        this.accepted = accepted;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * @return Lote en el que ocurrió el rechazo, o {@code null} fuera de un lote
+     */
+    public String batchId() {
+        return batchId;
+    }
+
+    /**
+     * @return Transacciones del lote despachadas antes del rechazo, o {@code -1} fuera de un lote
+     */
+    public long accepted() {
+        return accepted;
+    }
+}
@@ -0,0 +1,31 @@
+package com.pinapp.gateway.domain.exception;
+
+/**
+ * Excepción lanzada cuando una transacción individual llega con un ID que ya se recibió en un
+ * lote dentro de la ventana de idempotencia.
+ * <p>
+ * La notificación no se vuelve a enviar; el resultado se consulta por el estado de la
+ * transacción.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+public class DuplicateTransactionException extends BusinessException {
+
+    private final String transactionId;
+
+    /**
+     * Crea la excepción para una transacción ya recibida.
+     *
+     * @param transactionId ID de la transacción duplicada
+     */
+    public DuplicateTransactionException(String transactionId) {
+        super("La transacción " + transactionId + " ya se recibió en un lote y no se vuelve a notificar");
+        this.transactionId = transactionId;
+    }
+
+    public String transactionId() {
+        return transactionId;
+    }
+}
@@ -0,0 +1,20 @@
+package com.pinapp.gateway.domain.model;
+
+/**
+ * Progreso agregado de un lote de transacciones.
+ *
+ * @param batchId Identificador del lote
+ * @param total Transacciones registradas en el lote hasta el momento
+ * @param processing Transacciones todavía sin resultado de notificación
+ * @param completed Transacciones notificadas con éxito
+ * @param failed Transacciones cuya notificación falló
+ * @param done {@code true} si el lote terminó de recibirse y ninguna transacción sigue en curso
+ */
+public record BatchProgress(
+        String batchId,
+        long total,
+        long processing,
+        long completed,
+        long failed,
+        boolean done) {
+}
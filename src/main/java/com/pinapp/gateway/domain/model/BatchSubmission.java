@@ -0,0 +1,14 @@
+package com.pinapp.gateway.domain.model;
+
+import java.util.List;
+
+/**
+ * Resultado del registro de un lote de transacciones.
+ *
+ * @param batchId Identificador del lote, para consultar su progreso
+ * @param transactionIds IDs de las transacciones registradas, en el orden recibido
+ * @param duplicates Cantidad de transacciones omitidas por haberse recibido antes
+ * @param rejected Cantidad de transacciones omitidas por faltarles el ID o el estado
+ */
+public record BatchSubmission(String batchId, List<String> transactionIds, long duplicates, long rejected) {
+}
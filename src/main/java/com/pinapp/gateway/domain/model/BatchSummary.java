@@ -0,0 +1,12 @@
+package com.pinapp.gateway.domain.model;
+
+/**
+ * Resumen de un lote procesado en modo streaming.
+ *
+ * @param batchId Identificador del lote, para consultar su progreso
+ * @param accepted Cantidad de transacciones registradas y despachadas
+ * @param duplicates Cantidad de transacciones omitidas por haberse recibido antes
+ * @param rejected Cantidad de transacciones omitidas por faltarles el ID o el estado
+ */
+public record BatchSummary(String batchId, long accepted, long duplicates, long rejected) {
+}
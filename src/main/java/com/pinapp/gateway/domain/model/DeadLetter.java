@@ -0,0 +1,22 @@
+package com.pinapp.gateway.domain.model;
+
+import java.time.Instant;
+
+/**
+ * Notificación que falló de forma definitiva, con todo lo necesario para volver a enviarla.
+ *
+ * @param transaction La transacción original
+ * @param channel Canal por el que se intentó el envío (EMAIL, SMS, PUSH)
+ * @param message Mensaje de la notificación
+ * @param provider Proveedor que informó el fallo, si se conoce
+ * @param errorMessage Error del último intento
+ * @param failedAt Instante del fallo definitivo
+ */
+public record DeadLetter(
+        Transaction transaction,
+        String channel,
+        String message,
+        String provider,
+        String errorMessage,
+        Instant failedAt) {
+}
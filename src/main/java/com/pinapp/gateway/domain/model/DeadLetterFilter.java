@@ -0,0 +1,38 @@
+package com.pinapp.gateway.domain.model;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Criterio de selección de notificaciones fallidas. Los campos {@code null} no filtran.
+ *
+ * @param channel Canal exacto (sin distinguir mayúsculas)
+ * @param provider Proveedor exacto (sin distinguir mayúsculas)
+ * @param errorContains Texto que debe aparecer en el error (sin distinguir mayúsculas)
+ * @param from Fallos ocurridos en este instante o después
+ * @param to Fallos ocurridos antes de este instante
+ */
+public record DeadLetterFilter(
+        String channel,
+        String provider,
+        String errorContains,
+        Instant from,
+        Instant to) {
+
+    public boolean matches(String channel, String provider, String errorMessage, Instant failedAt) {
+        if (this.channel != null && !this.channel.equalsIgnoreCase(channel)) {
+            return false;
+        }
+        if (this.provider != null && !this.provider.equalsIgnoreCase(provider)) {
+            return false;
+        }
+        if (errorContains != null && (errorMessage == null
+                || !errorMessage.toLowerCase(Locale.ROOT).contains(errorContains.toLowerCase(Locale.ROOT)))) {
+            return false;
+        }
+        if (from != null && failedAt.isBefore(from)) {
+            return false;
+        }
+        return to == null || failedAt.isBefore(to);
+    }
+}
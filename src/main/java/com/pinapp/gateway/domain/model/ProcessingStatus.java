@@ -0,0 +1,98 @@
+package com.pinapp.gateway.domain.model;
+
+/**
+ * Estados del ciclo de vida de la notificación de una transacción, tal como se guardan en
+ * {@link TransactionStatusInfo#status()}.
+ * <p>
+ * El ciclo es monótono: cada estado tiene un rango y una transición solo avanza a un estado de
+ * rango mayor ({@code PROCESSING → TIMED_OUT → FAILED → COMPLETED}). Así un evento tardío o
+ * duplicado nunca devuelve a "PROCESSING" una transacción ya resuelta, ni un fallo tardío pisa un
+ * envío que el cliente ya recibió; en cambio, un éxito que llega después de un fallo sí lo
+ * reemplaza, y cualquier resultado real del proveedor reemplaza a un "TIMED_OUT".
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see com.pinapp.gateway.domain.ports.out.TransactionStatusPort#transition(TransactionStatusInfo)
+ */
+public enum ProcessingStatus {
+    /**
+     * Notificación registrada o en curso; todavía no hay resultado.
+     */
+    PROCESSING(0),
+
+    /**
+     * No llegó ningún resultado del proveedor dentro del plazo configurado; se desconoce si la
+     * notificación se entregó.
+     */
+    TIMED_OUT(1),
+
+    /**
+     * La notificación falló de forma definitiva.
+     */
+    FAILED(2),
+
+    /**
+     * La notificación se entregó al proveedor correctamente.
+     */
+    COMPLETED(3);
+
+    private final int rank;
+
+    ProcessingStatus(int rank) {
+        this.rank = rank;
+    }
+
+    /**
+     * Indica si el resultado de la notificación ya se conoce.
+     */
+    public boolean isTerminal() {
+        return this != PROCESSING;
+    }
+
+    /**
+     * Indica si la transición desde este estado hasta {@code next} avanza en el ciclo de vida.
+     *
+     * @param next Estado propuesto
+     * @return {@code true} si {@code next} tiene un rango mayor
+     */
+    public boolean canAdvanceTo(ProcessingStatus next) {
+        return next.rank > rank;
+    }
+
+    /**
+     * Interpreta el estado guardado como texto.
+     *
+     * @param status Estado guardado (puede ser {@code null})
+     * @return El estado, o {@code null} si no es un estado del ciclo de vida
+     */
+    public static ProcessingStatus of(String status) {
+        if (status == null) {
+            return null;
+        }
+        return switch (status) {
+            case "PROCESSING" -> PROCESSING;
+            case "TIMED_OUT" -> TIMED_OUT;
+            case "FAILED" -> FAILED;
+            case "COMPLETED" -> COMPLETED;
+            default -> null;
+        };
+    }
+
+    /**
+     * Indica si un estado guardado puede reemplazarse por {@code next}: siempre que no haya
+     * estado previo (o no sea del ciclo de vida) y, si lo hay, solo para avanzar.
+     *
+     * @param current Estado guardado actualmente, o {@code null} si no hay
+     * @param next Estado propuesto
+     * @return {@code true} si la transición es válida
+     */
+    public static boolean canTransition(String current, String next) {
+        ProcessingStatus to = of(next);
+        if (to == null) {
+            return false;
+        }
+        ProcessingStatus from = of(current);
+        return from == null || from.canAdvanceTo(to);
+    }
+}
@@ -7,4 +7,12 @@ public record TransactionStatusInfo(
         String id,
         String status,
         NotificationStatus notificationStatus) {
+
+    /**
+     * Whether the notification outcome is already known ("COMPLETED", "FAILED" or "TIMED_OUT").
+     */
+    public boolean isTerminal() {
+        ProcessingStatus lifecycle = ProcessingStatus.of(status);
+        return lifecycle != null && lifecycle.isTerminal();
+    }
 }
@@ -1,8 +1,17 @@
 package com.pinapp.gateway.domain.ports.in;
 
+import com.pinapp.gateway.domain.model.BatchSubmission;
+import com.pinapp.gateway.domain.model.BatchSummary;
 import com.pinapp.gateway.domain.model.Transaction;
+import java.util.Iterator;
 import java.util.List;
 
 public interface BatchTransactionService {
-    List<String> processBatch(List<Transaction> transactions);
+    BatchSubmission processBatch(List<Transaction> transactions);
+
+    /**
+     * Registers and dispatches transactions one by one as the iterator yields them, so the
+     * batch is never held in memory as a whole.
+     */
+    BatchSummary processStream(Iterator<Transaction> transactions);
 }
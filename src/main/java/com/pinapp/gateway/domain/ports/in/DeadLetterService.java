@@ -0,0 +1,23 @@
+package com.pinapp.gateway.domain.ports.in;
+
+import com.pinapp.gateway.domain.model.BatchSummary;
+import com.pinapp.gateway.domain.model.DeadLetter;
+import com.pinapp.gateway.domain.model.DeadLetterFilter;
+
+import java.util.List;
+
+/**
+ * Inspection and bulk replay of notifications that failed for good.
+ */
+public interface DeadLetterService {
+    List<DeadLetter> find(DeadLetterFilter filter, int limit);
+
+    /**
+     * Takes up to {@code limit} matching dead letters and sends them again in the background,
+     * at no more than {@code permitsPerSecond}. The replay is tracked as a batch.
+     *
+     * @param permitsPerSecond replay rate, or {@code <= 0} for the configured default
+     * @return the replay batch id and how many dead letters it will send
+     */
+    BatchSummary replay(DeadLetterFilter filter, int limit, double permitsPerSecond);
+}
@@ -3,6 +3,14 @@ package com.pinapp.gateway.domain.ports.in;
 import com.pinapp.gateway.domain.model.Transaction;
 import com.pinapp.gateway.domain.model.ProcessingResult;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface TransactionService {
     ProcessingResult process(Transaction transaction);
+
+    /**
+     * Same routing as {@link #process(Transaction)}, but completes once the provider answers
+     * instead of holding the calling thread for the round trip.
+     */
+    CompletableFuture<ProcessingResult> processAsync(Transaction transaction);
 }
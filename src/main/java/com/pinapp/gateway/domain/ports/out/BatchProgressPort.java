@@ -0,0 +1,46 @@
+package com.pinapp.gateway.domain.ports.out;
+
+import com.pinapp.gateway.domain.model.BatchProgress;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Port for tracking the aggregated progress of transaction batches.
+ * <p>
+ * A batch is opened, its transactions are tracked as they are dispatched and it is sealed once
+ * no more transactions will be added. Transactions are tracked and their outcomes reported per
+ * notification channel, so the same transaction sent on two channels counts as two
+ * notifications; each counts only once, on its first outcome. A timeout counts as a failure
+ * until the real outcome arrives, which then replaces it.
+ * </p>
+ */
+public interface BatchProgressPort {
+    /**
+     * Opens a batch and returns its id.
+     *
+     * @param retainTransactionIds whether to keep the tracked ids for {@link #findTransactionIds};
+     *        without them the batch keeps only its counters
+     */
+    String open(boolean retainTransactionIds);
+
+    void track(String batchId, String transactionId, String channel);
+
+    void seal(String batchId);
+
+    void recordOutcome(String transactionId, String channel, boolean success);
+
+    /**
+     * Counts a notification that got no outcome within its deadline as failed, keeping it
+     * correctable: a later successful {@link #recordOutcome} moves it to the completed count.
+     */
+    void recordTimeout(String transactionId, String channel);
+
+    Optional<BatchProgress> findById(String batchId);
+
+    /**
+     * Returns the ids of the transactions tracked in a batch so far, in tracking order, or empty
+     * if the batch is unknown, was already discarded or did not retain its ids (opened without
+     * retention, or with more transactions than the store keeps per batch).
+     */
+    Optional<List<String>> findTransactionIds(String batchId);
+}
@@ -0,0 +1,42 @@
+package com.pinapp.gateway.domain.ports.out;
+
+import com.pinapp.gateway.domain.model.DeadLetter;
+import com.pinapp.gateway.domain.model.DeadLetterFilter;
+
+import java.util.List;
+
+/**
+ * Port for keeping notifications that failed for good, so they can be replayed later.
+ * <p>
+ * There is at most one dead letter per transaction and channel: recording a new failure replaces
+ * the previous one, and a later successful send on that channel resolves it.
+ * </p>
+ */
+public interface DeadLetterPort {
+    void record(DeadLetter deadLetter);
+
+    void resolve(String transactionId, String channel);
+
+    /**
+     * Returns up to {@code limit} matching dead letters, oldest failure first, leaving them in place.
+     */
+    List<DeadLetter> find(DeadLetterFilter filter, int limit);
+
+    /**
+     * Reserves and returns up to {@code limit} matching dead letters for a replay, oldest failure
+     * first. They stay in place until {@link #remove} or {@link #release}, but a dead letter is
+     * reserved by one caller only, so concurrent replays never send it twice.
+     */
+    List<DeadLetter> reserve(DeadLetterFilter filter, int limit);
+
+    /**
+     * Removes a reserved dead letter once its replay was dispatched. A newer failure recorded for
+     * the same transaction and channel in the meantime is kept.
+     */
+    void remove(DeadLetter deadLetter);
+
+    /**
+     * Makes a reserved dead letter that was not replayed available to later replays again.
+     */
+    void release(DeadLetter deadLetter);
+}
@@ -0,0 +1,45 @@
+package com.pinapp.gateway.domain.ports.out;
+
+import com.pinapp.gateway.domain.model.ProcessingResult;
+import com.pinapp.gateway.domain.model.TransactionStatus;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Port for remembering which transactions were already received, so retried requests do not
+ * notify the customer twice.
+ * <p>
+ * A transaction is remembered by its id and status for a bounded time window. Within it, the
+ * first request for that pair is processed and exact replays are answered from memory (single
+ * requests) or skipped (batches). The same id with a new status (for example PENDING and later
+ * COMPLETED) is a different notification and is processed.
+ * </p>
+ */
+public interface IdempotencyPort {
+    /**
+     * Marks the transaction as received for a batch.
+     *
+     * @return {@code false} if it was already received within the window and must be skipped
+     */
+    boolean claim(UUID transactionId, TransactionStatus status);
+
+    /**
+     * Runs {@code process} only for the first request of this transaction and status within the window and
+     * returns its result; later requests get the same (possibly still pending) result. If the
+     * transaction was received in a batch, the returned future fails with
+     * {@link com.pinapp.gateway.domain.exception.DuplicateTransactionException}.
+     * <p>
+     * If {@code process} throws or its future fails, the transaction is forgotten so a retry can
+     * process it.
+     * </p>
+     */
+    CompletableFuture<ProcessingResult> processOnce(UUID transactionId, TransactionStatus status,
+            Supplier<CompletableFuture<ProcessingResult>> process);
+
+    /**
+     * Forgets a transaction that was claimed but never dispatched, so it can be resent.
+     */
+    void release(UUID transactionId, TransactionStatus status);
+}
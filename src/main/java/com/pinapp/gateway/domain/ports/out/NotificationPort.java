@@ -3,6 +3,8 @@ package com.pinapp.gateway.domain.ports.out;
 import com.pinapp.gateway.domain.model.Transaction;
 import com.pinapp.gateway.domain.model.NotificationStatus;
 
+import java.time.Instant;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -42,6 +44,23 @@ public interface NotificationPort {
      */
     NotificationStatus notify(Transaction transaction, String message);
 
+    /**
+     * Envía una notificación sin bloquear al llamador y entrega el mismo resultado que
+     * {@link #notify(Transaction, String)} cuando el SDK termina el envío (incluidos sus reintentos).
+     * <p>
+     * Pensado para peticiones unitarias que no deben retener un hilo mientras el proveedor responde.
+     * Si la ventana de envíos del canal está llena, el envío se rechaza de inmediato en lugar de
+     * esperar lugar.
+     * </p>
+     *
+     * @param transaction La transacción de dominio que contiene los datos del destinatario
+     * @param message El mensaje de la notificación definido por la lógica de negocio
+     * @return Un {@link CompletableFuture} con el estado de la notificación enviada
+     * @throws com.pinapp.gateway.domain.exception.DispatchRejectedException si la ventana de envíos
+     *         del canal está saturada
+     */
+    CompletableFuture<NotificationStatus> notifyAsync(Transaction transaction, String message);
+
     /**
      * Envía una notificación de forma asíncrona (fire-and-forget) para una transacción.
      * <p>
@@ -69,4 +88,29 @@ public interface NotificationPort {
      * @return Un {@link CompletableFuture} que se completa cuando la notificación es enviada al SDK
      */
     CompletableFuture<Void> sendAsync(Transaction transaction, String message);
+
+    /**
+     * Programa una notificación para enviarla por {@link #sendAsync(Transaction, String)} en
+     * {@code sendAt} (o apenas sea posible, si ese instante ya pasó).
+     * <p>
+     * Hay como mucho una notificación programada por transacción: programar otra para el mismo
+     * ID reemplaza a la anterior, en este canal o en otro. Las notificaciones programadas se
+     * guardan en memoria y no sobreviven a un reinicio.
+     * </p>
+     *
+     * @param transaction La transacción de dominio que contiene los datos del destinatario
+     * @param message El mensaje de la notificación definido por la lógica de negocio
+     * @param sendAt Instante en que debe enviarse
+     * @return {@code false} si no hay lugar para más notificaciones programadas
+     * @throws IllegalArgumentException si {@code sendAt} supera el plazo máximo admitido
+     */
+    boolean sendAt(Transaction transaction, String message, Instant sendAt);
+
+    /**
+     * Cancela la notificación programada en este canal para la transacción, si todavía no se
+     * envió. No afecta a las programadas en otros canales.
+     *
+     * @param transactionId ID de la transacción
+     */
+    void cancelScheduled(UUID transactionId);
 }
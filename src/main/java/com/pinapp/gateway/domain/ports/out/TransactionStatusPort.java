@@ -1,13 +1,59 @@
 package com.pinapp.gateway.domain.ports.out;
 
 import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Port for managing and retrieving transaction statuses.
  */
 public interface TransactionStatusPort {
+    /**
+     * Stores the status unconditionally. Used to start (or explicitly restart) a transaction's
+     * lifecycle with "PROCESSING"; outcomes go through {@link #transition}.
+     */
     void save(TransactionStatusInfo statusInfo);
 
+    /**
+     * Applies {@link #save} to each status, in order. Stores with a per-write cost (such as
+     * waiting for durability) can override it to pay that cost once for the whole list.
+     */
+    default void saveAll(List<TransactionStatusInfo> statusInfos) {
+        for (TransactionStatusInfo statusInfo : statusInfos) {
+            save(statusInfo);
+        }
+    }
+
+    /**
+     * Stores the status only if it moves the transaction forward in its
+     * {@link com.pinapp.gateway.domain.model.ProcessingStatus} lifecycle (or nothing is stored
+     * yet). The check and the write are atomic with respect to concurrent writers of the same
+     * ID, so a late or duplicate update never regresses a resolved transaction.
+     *
+     * @return {@code true} if the status was stored, {@code false} if it was stale
+     */
+    boolean transition(TransactionStatusInfo statusInfo);
+
+    /**
+     * Applies {@link #transition} to each status, in order. Stores with a per-write cost (such as
+     * waiting for durability) can override it to pay that cost once for the whole list.
+     *
+     * @return For each status, whether it was stored
+     */
+    default boolean[] transitionAll(List<TransactionStatusInfo> statusInfos) {
+        boolean[] applied = new boolean[statusInfos.size()];
+        for (int i = 0; i < applied.length; i++) {
+            applied[i] = transition(statusInfos.get(i));
+        }
+        return applied;
+    }
+
     Optional<TransactionStatusInfo> findById(String id);
+
+    /**
+     * Looks up many statuses in a single call. IDs with no stored status are skipped, so the
+     * result may be shorter than the input; found statuses keep the order of {@code ids}.
+     */
+    List<TransactionStatusInfo> findAllById(Collection<String> ids);
 }
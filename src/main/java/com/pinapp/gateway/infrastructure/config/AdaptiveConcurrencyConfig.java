@@ -0,0 +1,70 @@
+package com.pinapp.gateway.infrastructure.config;
+
+import com.pinapp.gateway.infrastructure.notification.AdaptiveConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de los límites de concurrencia adaptativos ({@link AdaptiveConcurrencyLimiter}),
+ * uno por canal.
+ * <p>
+ * El límite arranca en {@code initial-limit} y se ajusta solo según la latencia y los errores del
+ * proveedor, dentro de {@code [min-limit, max-limit]}. Los valores generales de
+ * {@code pinapp.gateway.adaptive-concurrency.*} aplican a todos los canales y pueden
+ * sobrescribirse por canal:
+ * </p>
+ * <pre>
+ * pinapp:
+ *   gateway:
+ *     adaptive-concurrency:
+ *       initial-limit: 20
+ *       min-limit: 1
+ *       max-limit: 256
+ *       max-queued: 1024
+ *       smoothing: 0.2
+ *       push:
+ *         max-limit: 512
+ * </pre>
+ * <p>
+ * {@code max-limit} no necesita superar {@code dispatch.max-in-flight}: la ventana de envío ya
+ * acota los envíos asíncronos que llegan al proveedor.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see AdaptiveConcurrencyLimiter
+ */
+@Configuration
+public class AdaptiveConcurrencyConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter emailConcurrencyLimiter(
+            @Value("${pinapp.gateway.adaptive-concurrency.email.initial-limit:${pinapp.gateway.adaptive-concurrency.initial-limit:20}}") int initialLimit,
+            @Value("${pinapp.gateway.adaptive-concurrency.email.min-limit:${pinapp.gateway.adaptive-concurrency.min-limit:1}}") int minLimit,
+            @Value("${pinapp.gateway.adaptive-concurrency.email.max-limit:${pinapp.gateway.adaptive-concurrency.max-limit:256}}") int maxLimit,
+            @Value("${pinapp.gateway.adaptive-concurrency.email.max-queued:${pinapp.gateway.adaptive-concurrency.max-queued:1024}}") int maxQueued,
+            @Value("${pinapp.gateway.adaptive-concurrency.email.smoothing:${pinapp.gateway.adaptive-concurrency.smoothing:0.2}}") double smoothing) {
+        return new AdaptiveConcurrencyLimiter("EMAIL", initialLimit, minLimit, maxLimit, maxQueued, smoothing);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter smsConcurrencyLimiter(
+            @Value("${pinapp.gateway.adaptive-concurrency.sms.initial-limit:${pinapp.gateway.adaptive-concurrency.initial-limit:20}}") int initialLimit,
+            @Value("${pinapp.gateway.adaptive-concurrency.sms.min-limit:${pinapp.gateway.adaptive-concurrency.min-limit:1}}") int minLimit,
+            @Value("${pinapp.gateway.adaptive-concurrency.sms.max-limit:${pinapp.gateway.adaptive-concurrency.max-limit:256}}") int maxLimit,
+            @Value("${pinapp.gateway.adaptive-concurrency.sms.max-queued:${pinapp.gateway.adaptive-concurrency.max-queued:1024}}") int maxQueued,
+            @Value("${pinapp.gateway.adaptive-concurrency.sms.smoothing:${pinapp.gateway.adaptive-concurrency.smoothing:0.2}}") double smoothing) {
+        return new AdaptiveConcurrencyLimiter("SMS", initialLimit, minLimit, maxLimit, maxQueued, smoothing);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter pushConcurrencyLimiter(
+            @Value("${pinapp.gateway.adaptive-concurrency.push.initial-limit:${pinapp.gateway.adaptive-concurrency.initial-limit:20}}") int initialLimit,
+            @Value("${pinapp.gateway.adaptive-concurrency.push.min-limit:${pinapp.gateway.adaptive-concurrency.min-limit:1}}") int minLimit,
+            @Value("${pinapp.gateway.adaptive-concurrency.push.max-limit:${pinapp.gateway.adaptive-concurrency.max-limit:256}}") int maxLimit,
+            @Value("${pinapp.gateway.adaptive-concurrency.push.max-queued:${pinapp.gateway.adaptive-concurrency.max-queued:1024}}") int maxQueued,
+            @Value("${pinapp.gateway.adaptive-concurrency.push.smoothing:${pinapp.gateway.adaptive-concurrency.smoothing:0.2}}") double smoothing) {
+        return new AdaptiveConcurrencyLimiter("PUSH", initialLimit, minLimit, maxLimit, maxQueued, smoothing);
+    }
+}
@@ -0,0 +1,78 @@
+package com.pinapp.gateway.infrastructure.config;
+
+import com.pinapp.gateway.infrastructure.notification.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de los circuit breakers ({@link CircuitBreaker}), uno por canal.
+ * <p>
+ * Cada {@code NotificationService} del SDK se envuelve con el breaker de su canal en
+ * {@link EmailConfig}, {@link SmsConfig} y {@link PushConfig}, de modo que la caída de un proveedor
+ * no degrada a los otros. Los valores generales de {@code pinapp.gateway.circuit-breaker.*}
+ * aplican a todos los canales y pueden sobrescribirse por canal:
+ * </p>
+ * <pre>
+ * pinapp:
+ *   gateway:
+ *     circuit-breaker:
+ *       window-size: 50
+ *       minimum-calls: 10
+ *       failure-rate-threshold: 50
+ *       slow-call-rate-threshold: 80
+ *       slow-call-duration: 2s
+ *       open-duration: 30s
+ *       half-open-probes: 5
+ *       sms:
+ *         open-duration: 10s
+ * </pre>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see CircuitBreaker
+ */
+@Configuration
+public class CircuitBreakerConfig {
+
+    @Bean
+    public CircuitBreaker emailCircuitBreaker(
+            @Value("${pinapp.gateway.circuit-breaker.email.window-size:${pinapp.gateway.circuit-breaker.window-size:50}}") int windowSize,
+            @Value("${pinapp.gateway.circuit-breaker.email.minimum-calls:${pinapp.gateway.circuit-breaker.minimum-calls:10}}") int minimumCalls,
+            @Value("${pinapp.gateway.circuit-breaker.email.failure-rate-threshold:${pinapp.gateway.circuit-breaker.failure-rate-threshold:50}}") int failureRateThreshold,
+            @Value("${pinapp.gateway.circuit-breaker.email.slow-call-rate-threshold:${pinapp.gateway.circuit-breaker.slow-call-rate-threshold:80}}") int slowCallRateThreshold,
+            @Value("${pinapp.gateway.circuit-breaker.email.slow-call-duration:${pinapp.gateway.circuit-breaker.slow-call-duration:2s}}") Duration slowCallDuration,
+            @Value("${pinapp.gateway.circuit-breaker.email.open-duration:${pinapp.gateway.circuit-breaker.open-duration:30s}}") Duration openDuration,
+            @Value("${pinapp.gateway.circuit-breaker.email.half-open-probes:${pinapp.gateway.circuit-breaker.half-open-probes:5}}") int halfOpenProbes) {
+        return new CircuitBreaker("EMAIL", windowSize, minimumCalls, failureRateThreshold,
+                slowCallRateThreshold, slowCallDuration, openDuration, halfOpenProbes);
+    }
+
+    @Bean
+    public CircuitBreaker smsCircuitBreaker(
+            @Value("${pinapp.gateway.circuit-breaker.sms.window-size:${pinapp.gateway.circuit-breaker.window-size:50}}") int windowSize,
+            @Value("${pinapp.gateway.circuit-breaker.sms.minimum-calls:${pinapp.gateway.circuit-breaker.minimum-calls:10}}") int minimumCalls,
+            @Value("${pinapp.gateway.circuit-breaker.sms.failure-rate-threshold:${pinapp.gateway.circuit-breaker.failure-rate-threshold:50}}") int failureRateThreshold,
+            @Value("${pinapp.gateway.circuit-breaker.sms.slow-call-rate-threshold:${pinapp.gateway.circuit-breaker.slow-call-rate-threshold:80}}") int slowCallRateThreshold,
+            @Value("${pinapp.gateway.circuit-breaker.sms.slow-call-duration:${pinapp.gateway.circuit-breaker.slow-call-duration:2s}}") Duration slowCallDuration,
+            @Value("${pinapp.gateway.circuit-breaker.sms.open-duration:${pinapp.gateway.circuit-breaker.open-duration:30s}}") Duration openDuration,
+            @Value("${pinapp.gateway.circuit-breaker.sms.half-open-probes:${pinapp.gateway.circuit-breaker.half-open-probes:5}}") int halfOpenProbes) {
+        return new CircuitBreaker("SMS", windowSize, minimumCalls, failureRateThreshold,
+                slowCallRateThreshold, slowCallDuration, openDuration, halfOpenProbes);
+    }
+
+    @Bean
+    public CircuitBreaker pushCircuitBreaker(
+            @Value("${pinapp.gateway.circuit-breaker.push.window-size:${pinapp.gateway.circuit-breaker.window-size:50}}") int windowSize,
+            @Value("${pinapp.gateway.circuit-breaker.push.minimum-calls:${pinapp.gateway.circuit-breaker.minimum-calls:10}}") int minimumCalls,
+            @Value("${pinapp.gateway.circuit-breaker.push.failure-rate-threshold:${pinapp.gateway.circuit-breaker.failure-rate-threshold:50}}") int failureRateThreshold,
+            @Value("${pinapp.gateway.circuit-breaker.push.slow-call-rate-threshold:${pinapp.gateway.circuit-breaker.slow-call-rate-threshold:80}}") int slowCallRateThreshold,
+            @Value("${pinapp.gateway.circuit-breaker.push.slow-call-duration:${pinapp.gateway.circuit-breaker.slow-call-duration:2s}}") Duration slowCallDuration,
+            @Value("${pinapp.gateway.circuit-breaker.push.open-duration:${pinapp.gateway.circuit-breaker.open-duration:30s}}") Duration openDuration,
+            @Value("${pinapp.gateway.circuit-breaker.push.half-open-probes:${pinapp.gateway.circuit-breaker.half-open-probes:5}}") int halfOpenProbes) {
+        return new CircuitBreaker("PUSH", windowSize, minimumCalls, failureRateThreshold,
+                slowCallRateThreshold, slowCallDuration, openDuration, halfOpenProbes);
+    }
+}
@@ -0,0 +1,58 @@
+package com.pinapp.gateway.infrastructure.config;
+
+import com.pinapp.gateway.infrastructure.notification.DispatchWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de las ventanas de envío asíncrono ({@link DispatchWindow}), una por canal.
+ * <p>
+ * Cada canal tiene su propia ventana para que la saturación de un proveedor no frene a los
+ * demás. Los valores generales de {@code pinapp.gateway.dispatch.*} aplican a todos los canales
+ * y pueden sobrescribirse por canal:
+ * </p>
+ * <pre>
+ * pinapp:
+ *   gateway:
+ *     dispatch:
+ *       max-in-flight: 256
+ *       max-queued: 1024
+ *       queue-timeout: 2s
+ *       push:
+ *         max-in-flight: 512
+ * </pre>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see DispatchWindow
+ */
+@Configuration
+public class DispatchConfig {
+
+    @Bean
+    public DispatchWindow emailDispatchWindow(
+            @Value("${pinapp.gateway.dispatch.email.max-in-flight:${pinapp.gateway.dispatch.max-in-flight:256}}") int maxInFlight,
+            @Value("${pinapp.gateway.dispatch.email.max-queued:${pinapp.gateway.dispatch.max-queued:1024}}") int maxQueued,
+            @Value("${pinapp.gateway.dispatch.email.queue-timeout:${pinapp.gateway.dispatch.queue-timeout:2s}}") Duration queueTimeout) {
+        return new DispatchWindow("EMAIL", maxInFlight, maxQueued, queueTimeout);
+    }
+
+    @Bean
+    public DispatchWindow smsDispatchWindow(
+            @Value("${pinapp.gateway.dispatch.sms.max-in-flight:${pinapp.gateway.dispatch.max-in-flight:256}}") int maxInFlight,
+            @Value("${pinapp.gateway.dispatch.sms.max-queued:${pinapp.gateway.dispatch.max-queued:1024}}") int maxQueued,
+            @Value("${pinapp.gateway.dispatch.sms.queue-timeout:${pinapp.gateway.dispatch.queue-timeout:2s}}") Duration queueTimeout) {
+        return new DispatchWindow("SMS", maxInFlight, maxQueued, queueTimeout);
+    }
+
+    @Bean
+    public DispatchWindow pushDispatchWindow(
+            @Value("${pinapp.gateway.dispatch.push.max-in-flight:${pinapp.gateway.dispatch.max-in-flight:256}}") int maxInFlight,
+            @Value("${pinapp.gateway.dispatch.push.max-queued:${pinapp.gateway.dispatch.max-queued:1024}}") int maxQueued,
+            @Value("${pinapp.gateway.dispatch.push.queue-timeout:${pinapp.gateway.dispatch.queue-timeout:2s}}") Duration queueTimeout) {
+        return new DispatchWindow("PUSH", maxInFlight, maxQueued, queueTimeout);
+    }
+}
@@ -1,5 +1,12 @@
 package com.pinapp.gateway.infrastructure.config;
 
+import com.pinapp.gateway.infrastructure.notification.AdaptiveConcurrencyLimiter;
+import com.pinapp.gateway.infrastructure.notification.AdaptiveConcurrencyNotificationService;
+import com.pinapp.gateway.infrastructure.notification.CircuitBreaker;
+import com.pinapp.gateway.infrastructure.notification.CircuitBreakingNotificationService;
+import com.pinapp.gateway.infrastructure.notification.ProviderCallClock;
+import com.pinapp.gateway.infrastructure.notification.RateLimitedNotificationService;
+import com.pinapp.gateway.infrastructure.notification.RateLimiter;
 import com.pinapp.gateway.infrastructure.notification.TransactionAuditListener;
 import com.pinapp.notify.config.PinappNotifyConfig;
 import com.pinapp.notify.core.NotificationServiceImpl;
@@ -9,10 +16,16 @@ import com.pinapp.notify.domain.RetryPolicy;
 import com.pinapp.notify.domain.vo.ChannelType;
 import com.pinapp.notify.ports.in.NotificationService;
 import com.pinapp.notify.ports.out.NotificationProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
 /**
  * Configuración distribuida para el canal de notificaciones por Email.
  * <p>
@@ -46,7 +59,8 @@ import org.springframework.context.annotation.Configuration;
  * <ul>
  *   <li>{@code pinapp.notify.email.provider} - Nombre del proveedor de email (ej: "sendgrid")</li>
  *   <li>{@code pinapp.notify.email.api-key} - Clave API del proveedor de email</li>
- *   <li>{@code pinapp.notify.retry-attempts} - Número de intentos de reintento para notificaciones</li>
+ *   <li>{@code pinapp.notify.retry-attempts} - Número de intentos por notificación, aplicado por
+ *       {@link com.pinapp.gateway.infrastructure.notification.NotificationRetryScheduler}</li>
  * </ul>
  * <p>
  * El bean creado ({@code emailNotificationService}) es único y autocontenido, registrando
@@ -71,36 +85,58 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class EmailConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(EmailConfig.class);
+
     @Value("${pinapp.notify.email.provider}")
     private String emailProvider;
 
     @Value("${pinapp.notify.email.api-key}")
     private String emailApiKey;
 
-    @Value("${pinapp.notify.retry-attempts}")
-    private Integer retryAttempts;
-
     /**
      * Crea y configura el bean {@link NotificationService} específico para notificaciones por Email.
      * Este bean utiliza el Builder del SDK ({@link PinappNotifyConfig}) para configurar:
      * <ul>
      *   <li>El proveedor de Email con las credenciales inyectadas desde el YAML</li>
-     *   <li>La política de reintentos configurada con {@code retry-attempts}</li>
+     *   <li>Un único intento por envío: los reintentos los reprograma el gateway sin dormir hilos</li>
      *   <li>El suscriptor de eventos ({@link TransactionAuditListener}) para auditoría</li>
+     *   <li>El circuit breaker del canal, que envuelve al servicio del SDK y mide cada llamada desde
+     *       que los limitadores conceden el permiso ({@link ProviderCallClock})</li>
+     *   <li>El limitador de tasa del canal, entre el circuit breaker y el SDK: un circuito abierto
+     *       falla sin esperar turno</li>
+     *   <li>El límite de concurrencia adaptativo, junto al SDK para medir solo la latencia del
+     *       proveedor</li>
      * </ul>
      *
      * @param listener El listener de auditoría que será registrado como suscriptor de eventos
+     * @param circuitBreaker El circuit breaker del canal (ver {@link CircuitBreakerConfig})
+     * @param rateLimiter El limitador de tasa del canal (ver {@link RateLimitConfig})
+     * @param concurrencyLimiter El límite de concurrencia del canal (ver {@link AdaptiveConcurrencyConfig})
+     * @param sendExecutor Executor de hilos virtuales (ver {@link ExecutionConfig}); ahí continúan los
+     *        envíos que esperaron turno en el limitador de tasa
      * @return Una instancia configurada de {@link NotificationService} para el canal EMAIL
      */
     @Bean
-    public NotificationService emailNotificationService(TransactionAuditListener listener) {
+    public NotificationService emailNotificationService(TransactionAuditListener listener,
+            @Qualifier("emailCircuitBreaker") CircuitBreaker circuitBreaker,
+            @Qualifier("emailRateLimiter") RateLimiter rateLimiter,
+            @Qualifier("emailConcurrencyLimiter") AdaptiveConcurrencyLimiter concurrencyLimiter,
+            @Qualifier("notificationSendExecutor") Optional<ExecutorService> sendExecutor) {
         PinappNotifyConfig config = PinappNotifyConfig.builder()
                 .addProvider(ChannelType.EMAIL, createEmailProvider())
-                .withRetryPolicy(RetryPolicy.of(retryAttempts, 1000))
+                // Sin reintentos en el SDK: NotificationRetryScheduler los reprograma con backoff
+                .withRetryPolicy(RetryPolicy.of(1, 1000))
                 .addSubscriber(listener)
                 .build();
 
-        return new NotificationServiceImpl(config);
+        ProviderCallClock clock = new ProviderCallClock(new NotificationServiceImpl(config));
+        NotificationService bounded = new AdaptiveConcurrencyNotificationService(
+                clock, concurrencyLimiter, ChannelType.EMAIL, emailProvider);
+        NotificationService limited = new RateLimitedNotificationService(
+                bounded, rateLimiter, ChannelType.EMAIL, emailProvider,
+                sendExecutor.orElse(null));
+        return new CircuitBreakingNotificationService(limited, clock, circuitBreaker, ChannelType.EMAIL,
+                emailProvider);
     }
 
     /**
@@ -121,7 +157,7 @@ public class EmailConfig {
 
             @Override
             public NotificationResult send(Notification notification) {
-                System.out.println("Sending via " + emailProvider + " (API Key: " + emailApiKey + "): " + notification.message());
+                log.debug("Sending via provider={} channel=EMAIL notificationId={}", emailProvider, notification.id());
                 return NotificationResult.success(notification.id(), emailProvider, ChannelType.EMAIL);
             }
 
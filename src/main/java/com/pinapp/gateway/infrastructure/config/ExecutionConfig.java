@@ -0,0 +1,48 @@
+package com.pinapp.gateway.infrastructure.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuración del modo de ejecución con hilos virtuales.
+ * <p>
+ * El modo se activa con la propiedad estándar de Spring Boot:
+ * </p>
+ * <pre>
+ * spring:
+ *   threads:
+ *     virtual:
+ *       enabled: true
+ * </pre>
+ * <p>
+ * Con el modo activo, Tomcat atiende cada petición (y por lo tanto cada
+ * {@link com.pinapp.gateway.application.usecase.ProcessTransactionUseCase}) en un hilo virtual, y
+ * se registra el bean {@code notificationSendExecutor}. Los adaptadores de notificación lo usan
+ * para ejecutar el {@code send} bloqueante del SDK en un hilo virtual por envío, en lugar del
+ * executor interno del SDK. Todos los envíos, incluidos los de
+ * {@code NotificationPort#notify} (procesamiento unitario bloqueante), toman antes un lugar en la
+ * {@link com.pinapp.gateway.infrastructure.notification.DispatchWindow} de su canal, así que la
+ * cantidad de hilos virtuales enviando a un proveedor no supera su {@code max-in-flight}.
+ * </p>
+ * <p>
+ * Sin el modo activo el bean no existe y los adaptadores usan {@code sendAsync} del SDK como hasta
+ * ahora.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Configuration
+public class ExecutionConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public ExecutorService notificationSendExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("notify-send-", 0).factory());
+    }
+}
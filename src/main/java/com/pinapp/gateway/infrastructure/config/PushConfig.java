@@ -1,5 +1,12 @@
 package com.pinapp.gateway.infrastructure.config;
 
+import com.pinapp.gateway.infrastructure.notification.AdaptiveConcurrencyLimiter;
+import com.pinapp.gateway.infrastructure.notification.AdaptiveConcurrencyNotificationService;
+import com.pinapp.gateway.infrastructure.notification.CircuitBreaker;
+import com.pinapp.gateway.infrastructure.notification.CircuitBreakingNotificationService;
+import com.pinapp.gateway.infrastructure.notification.ProviderCallClock;
+import com.pinapp.gateway.infrastructure.notification.RateLimitedNotificationService;
+import com.pinapp.gateway.infrastructure.notification.RateLimiter;
 import com.pinapp.gateway.infrastructure.notification.TransactionAuditListener;
 import com.pinapp.notify.config.PinappNotifyConfig;
 import com.pinapp.notify.core.NotificationServiceImpl;
@@ -9,10 +16,16 @@ import com.pinapp.notify.domain.RetryPolicy;
 import com.pinapp.notify.domain.vo.ChannelType;
 import com.pinapp.notify.ports.in.NotificationService;
 import com.pinapp.notify.ports.out.NotificationProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
 /**
  * Configuración distribuida para el canal de notificaciones Push.
  * <p>
@@ -46,7 +59,8 @@ import org.springframework.context.annotation.Configuration;
  * <ul>
  *   <li>{@code pinapp.notify.push.provider} - Nombre del proveedor de push (ej: "firebase")</li>
  *   <li>{@code pinapp.notify.push.server-key} - Clave del servidor del proveedor de push</li>
- *   <li>{@code pinapp.notify.retry-attempts} - Número de intentos de reintento para notificaciones</li>
+ *   <li>{@code pinapp.notify.retry-attempts} - Número de intentos por notificación, aplicado por
+ *       {@link com.pinapp.gateway.infrastructure.notification.NotificationRetryScheduler}</li>
  * </ul>
  * <p>
  * El bean creado ({@code pushNotificationService}) es único y autocontenido, registrando
@@ -71,36 +85,58 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class PushConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(PushConfig.class);
+
     @Value("${pinapp.notify.push.provider}")
     private String pushProvider;
 
     @Value("${pinapp.notify.push.server-key}")
     private String pushServerKey;
 
-    @Value("${pinapp.notify.retry-attempts}")
-    private Integer retryAttempts;
-
     /**
      * Crea y configura el bean {@link NotificationService} específico para notificaciones Push.
      * Este bean utiliza el Builder del SDK ({@link PinappNotifyConfig}) para configurar:
      * <ul>
      *   <li>El proveedor de Push con las credenciales inyectadas desde el YAML</li>
-     *   <li>La política de reintentos configurada con {@code retry-attempts}</li>
+     *   <li>Un único intento por envío: los reintentos los reprograma el gateway sin dormir hilos</li>
      *   <li>El suscriptor de eventos ({@link TransactionAuditListener}) para auditoría</li>
+     *   <li>El circuit breaker del canal, que envuelve al servicio del SDK y mide cada llamada desde
+     *       que los limitadores conceden el permiso ({@link ProviderCallClock})</li>
+     *   <li>El limitador de tasa del canal, entre el circuit breaker y el SDK: un circuito abierto
+     *       falla sin esperar turno</li>
+     *   <li>El límite de concurrencia adaptativo, junto al SDK para medir solo la latencia del
+     *       proveedor</li>
      * </ul>
      *
      * @param listener El listener de auditoría que será registrado como suscriptor de eventos
+     * @param circuitBreaker El circuit breaker del canal (ver {@link CircuitBreakerConfig})
+     * @param rateLimiter El limitador de tasa del canal (ver {@link RateLimitConfig})
+     * @param concurrencyLimiter El límite de concurrencia del canal (ver {@link AdaptiveConcurrencyConfig})
+     * @param sendExecutor Executor de hilos virtuales (ver {@link ExecutionConfig}); ahí continúan los
+     *        envíos que esperaron turno en el limitador de tasa
      * @return Una instancia configurada de {@link NotificationService} para el canal PUSH
      */
     @Bean
-    public NotificationService pushNotificationService(TransactionAuditListener listener) {
+    public NotificationService pushNotificationService(TransactionAuditListener listener,
+            @Qualifier("pushCircuitBreaker") CircuitBreaker circuitBreaker,
+            @Qualifier("pushRateLimiter") RateLimiter rateLimiter,
+            @Qualifier("pushConcurrencyLimiter") AdaptiveConcurrencyLimiter concurrencyLimiter,
+            @Qualifier("notificationSendExecutor") Optional<ExecutorService> sendExecutor) {
         PinappNotifyConfig config = PinappNotifyConfig.builder()
                 .addProvider(ChannelType.PUSH, createPushProvider())
-                .withRetryPolicy(RetryPolicy.of(retryAttempts, 1000))
+                // Sin reintentos en el SDK: NotificationRetryScheduler los reprograma con backoff
+                .withRetryPolicy(RetryPolicy.of(1, 1000))
                 .addSubscriber(listener)
                 .build();
 
-        return new NotificationServiceImpl(config);
+        ProviderCallClock clock = new ProviderCallClock(new NotificationServiceImpl(config));
+        NotificationService bounded = new AdaptiveConcurrencyNotificationService(
+                clock, concurrencyLimiter, ChannelType.PUSH, pushProvider);
+        NotificationService limited = new RateLimitedNotificationService(
+                bounded, rateLimiter, ChannelType.PUSH, pushProvider,
+                sendExecutor.orElse(null));
+        return new CircuitBreakingNotificationService(limited, clock, circuitBreaker, ChannelType.PUSH,
+                pushProvider);
     }
 
     /**
@@ -121,7 +157,7 @@ public class PushConfig {
 
             @Override
             public NotificationResult send(Notification notification) {
-                System.out.println("Sending via " + pushProvider + " (Server Key: " + pushServerKey + "): " + notification.message());
+                log.debug("Sending via provider={} channel=PUSH notificationId={}", pushProvider, notification.id());
                 return NotificationResult.success(notification.id(), pushProvider, ChannelType.PUSH);
             }
 
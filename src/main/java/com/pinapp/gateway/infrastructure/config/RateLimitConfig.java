@@ -0,0 +1,64 @@
+package com.pinapp.gateway.infrastructure.config;
+
+import com.pinapp.gateway.infrastructure.notification.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de los limitadores de tasa ({@link RateLimiter}), uno por canal.
+ * <p>
+ * Cada limitador refleja la cuota por segundo de la cuenta del proveedor (SendGrid, Twilio,
+ * Firebase). Los valores generales de {@code pinapp.gateway.rate-limit.*} aplican a todos los
+ * canales y pueden sobrescribirse por canal; con {@code permits-per-second: 0} (valor por defecto)
+ * el canal no se limita:
+ * </p>
+ * <pre>
+ * pinapp:
+ *   gateway:
+ *     rate-limit:
+ *       burst: 50
+ *       max-queue-wait: 1s
+ *       email:
+ *         permits-per-second: 100
+ *       sms:
+ *         permits-per-second: 30
+ * </pre>
+ * <p>
+ * {@code max-queue-wait} debería ser menor que {@code circuit-breaker.slow-call-duration}: la
+ * espera por turno cuenta en la duración que mide el circuit breaker.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see RateLimiter
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter emailRateLimiter(
+            @Value("${pinapp.gateway.rate-limit.email.permits-per-second:${pinapp.gateway.rate-limit.permits-per-second:0}}") double permitsPerSecond,
+            @Value("${pinapp.gateway.rate-limit.email.burst:${pinapp.gateway.rate-limit.burst:50}}") int burst,
+            @Value("${pinapp.gateway.rate-limit.email.max-queue-wait:${pinapp.gateway.rate-limit.max-queue-wait:1s}}") Duration maxQueueWait) {
+        return new RateLimiter("EMAIL", permitsPerSecond, burst, maxQueueWait);
+    }
+
+    @Bean
+    public RateLimiter smsRateLimiter(
+            @Value("${pinapp.gateway.rate-limit.sms.permits-per-second:${pinapp.gateway.rate-limit.permits-per-second:0}}") double permitsPerSecond,
+            @Value("${pinapp.gateway.rate-limit.sms.burst:${pinapp.gateway.rate-limit.burst:50}}") int burst,
+            @Value("${pinapp.gateway.rate-limit.sms.max-queue-wait:${pinapp.gateway.rate-limit.max-queue-wait:1s}}") Duration maxQueueWait) {
+        return new RateLimiter("SMS", permitsPerSecond, burst, maxQueueWait);
+    }
+
+    @Bean
+    public RateLimiter pushRateLimiter(
+            @Value("${pinapp.gateway.rate-limit.push.permits-per-second:${pinapp.gateway.rate-limit.permits-per-second:0}}") double permitsPerSecond,
+            @Value("${pinapp.gateway.rate-limit.push.burst:${pinapp.gateway.rate-limit.burst:50}}") int burst,
+            @Value("${pinapp.gateway.rate-limit.push.max-queue-wait:${pinapp.gateway.rate-limit.max-queue-wait:1s}}") Duration maxQueueWait) {
+        return new RateLimiter("PUSH", permitsPerSecond, burst, maxQueueWait);
+    }
+}
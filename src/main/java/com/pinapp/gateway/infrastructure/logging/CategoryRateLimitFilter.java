@@ -0,0 +1,112 @@
+package com.pinapp.gateway.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Muestreo y límite de eventos por segundo para una categoría de loggers, configurado en
+ * {@code logback-spring.xml}.
+ * <p>
+ * Se aplica a los eventos de los loggers cuyo nombre es {@code category} o empieza por
+ * {@code category.}, con nivel habilitado y hasta {@code maxLevel} inclusive; los de nivel mayor
+ * pasan siempre. De esos eventos se conserva uno de cada {@code sampleEvery} (al azar, sin
+ * contador compartido entre hilos) y, de los conservados, como máximo {@code maxPerSecond} por
+ * segundo ({@code 0} = sin límite).
+ * </p>
+ * <p>
+ * Logback consulta el filtro antes de crear el evento, así que un evento descartado no formatea
+ * el mensaje ni sus argumentos, ni llega al appender. Las consultas {@code isXxxEnabled()} no se
+ * filtran: el muestreo se decide una sola vez, en la llamada que registra el evento.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+public class CategoryRateLimitFilter extends TurboFilter {
+
+    private static final long COUNT_MASK = 0xFFFF_FFFFL;
+
+    private String category = "";
+    private Level maxLevel = Level.INFO;
+    private int sampleEvery = 1;
+    private int maxPerSecond;
+
+    // Segundo actual (32 bits altos) y eventos admitidos en él (32 bits bajos)
+    private final AtomicLong window = new AtomicLong();
+    private final LongAdder suppressed = new LongAdder();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+            Throwable t) {
+        if (format == null || level == null || level.toInt() > maxLevel.toInt()
+                || level.toInt() < logger.getEffectiveLevel().toInt() || !inCategory(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (sampleEvery > 1 && ThreadLocalRandom.current().nextInt(sampleEvery) != 0) {
+            suppressed.increment();
+            return FilterReply.DENY;
+        }
+        if (maxPerSecond > 0 && !admit()) {
+            suppressed.increment();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    /**
+     * Eventos descartados por muestreo o por límite desde el arranque.
+     */
+    public long suppressedCount() {
+        return suppressed.sum();
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category == null ? "" : category.trim();
+    }
+
+    /**
+     * @param maxLevel Nivel más alto al que se aplica el filtro ({@code INFO} por defecto)
+     */
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.INFO);
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = Math.max(0, maxPerSecond);
+    }
+
+    private boolean inCategory(String loggerName) {
+        return category.isEmpty()
+                || loggerName.startsWith(category)
+                        && (loggerName.length() == category.length() || loggerName.charAt(category.length()) == '.');
+    }
+
+    private boolean admit() {
+        long stamp = (System.nanoTime() / 1_000_000_000L) << 32;
+        while (true) {
+            long current = window.get();
+            long next = (current & ~COUNT_MASK) == stamp ? current + 1 : stamp | 1;
+            if ((next & COUNT_MASK) > maxPerSecond) {
+                return false;
+            }
+            if (window.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
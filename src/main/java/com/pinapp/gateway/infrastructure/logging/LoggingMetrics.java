@@ -0,0 +1,52 @@
+package com.pinapp.gateway.infrastructure.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica el estado del logging asíncrono de {@code logback-spring.xml}: la ocupación de la cola
+ * del appender {@code ASYNC} y los eventos descartados por cada {@link CategoryRateLimitFilter}.
+ * <p>
+ * Si Logback no es el backend de SLF4J (por ejemplo, en tests con otra configuración) no
+ * registra nada.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    private static final String ASYNC_APPENDER = "ASYNC";
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        for (TurboFilter filter : context.getTurboFilterList()) {
+            if (filter instanceof CategoryRateLimitFilter rateLimit) {
+                FunctionCounter.builder("gateway.logging.suppressed", rateLimit, CategoryRateLimitFilter::suppressedCount)
+                        .description("Eventos de log descartados por muestreo o límite por segundo")
+                        .tag("category", rateLimit.getCategory())
+                        .register(registry);
+            }
+        }
+        if (context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender(ASYNC_APPENDER) instanceof AsyncAppender async) {
+            Gauge.builder("gateway.logging.async.queue.depth", async, AsyncAppender::getNumberOfElementsInQueue)
+                    .description("Eventos de log esperando al hilo del appender asíncrono")
+                    .register(registry);
+            Gauge.builder("gateway.logging.async.queue.remaining", async, AsyncAppender::getRemainingCapacity)
+                    .description("Lugares libres en la cola del appender asíncrono")
+                    .register(registry);
+        }
+    }
+}
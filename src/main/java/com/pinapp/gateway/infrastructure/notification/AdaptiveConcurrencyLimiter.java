@@ -0,0 +1,222 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite de llamadas simultáneas a un proveedor que se ajusta según la latencia y los errores
+ * observados.
+ * <p>
+ * <strong>Algoritmo (estilo gradiente):</strong> se compara el tiempo de respuesta (RTT) de cada
+ * llamada con el RTT "sin carga" del proveedor, que es el mínimo observado en las dos últimas
+ * ventanas de {@value #BASELINE_WINDOW_SECONDS} s (así acompaña a un proveedor que se vuelve más
+ * lento a lo largo del día). En cada muestra:
+ * </p>
+ * <ul>
+ *   <li>{@code gradiente = clamp(tolerancia × rttBase / rtt, 0.5, 1)}: mientras el proveedor
+ *       responde como sin carga vale 1; si la latencia crece (cola en el proveedor), baja.</li>
+ *   <li>{@code nuevoLímite = límite × gradiente + √límite}: el término {@code √límite} deja margen
+ *       para sondear si el proveedor admite más concurrencia.</li>
+ *   <li>El límite se mueve una fracción ({@code smoothing}) hacia el nuevo valor, dentro de
+ *       {@code [minLimit, maxLimit]}.</li>
+ *   <li>Un error del proveedor reduce el límite multiplicativamente (×0.9), como en AIMD, una sola
+ *       vez por tanda: los errores de llamadas que empezaron antes de la última reducción no
+ *       vuelven a reducirlo.</li>
+ *   <li>Si la llamada empezó con menos de la mitad del límite en uso, el límite no crece: no hay
+ *       evidencia de que el proveedor aguante más.</li>
+ * </ul>
+ * <p>
+ * <strong>Admisión:</strong> {@link #acquire()} devuelve un permiso ya concedido si hay lugar; si
+ * no, queda en una cola FIFO acotada ({@code maxQueued}) y se concede cuando termina otra llamada
+ * o el límite crece. Con la cola llena devuelve {@code null} y el llamador falla el envío.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see AdaptiveConcurrencyNotificationService
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final long BASELINE_WINDOW_SECONDS = 30;
+    private static final long BASELINE_WINDOW_NANOS = BASELINE_WINDOW_SECONDS * 1_000_000_000L;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String channel;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final double smoothing;
+
+    private double limit;
+    private long previousMinRttNanos = Long.MAX_VALUE;
+    private long currentMinRttNanos = Long.MAX_VALUE;
+    private long windowStartNanos = System.nanoTime();
+    private int inFlight;
+    private long decreaseEpoch;
+    private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(String channel, int initialLimit, int minLimit, int maxLimit,
+            int maxQueued, double smoothing) {
+        this.channel = channel;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.smoothing = Math.clamp(smoothing, 0.01, 1.0);
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+    }
+
+    /**
+     * Pide lugar para una llamada al proveedor.
+     *
+     * @return un futuro que se completa con el permiso cuando hay lugar, o {@code null} si la cola
+     *         de espera está llena
+     */
+    public CompletableFuture<Permit> acquire() {
+        synchronized (this) {
+            if (inFlight < (int) limit && waiters.isEmpty()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new Permit(inFlight, decreaseEpoch));
+            }
+            if (waiters.size() >= maxQueued) {
+                rejected.increment();
+                return null;
+            }
+            CompletableFuture<Permit> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queued() {
+        return waiters.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.concurrency.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("Límite adaptativo de llamadas simultáneas al proveedor")
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("gateway.concurrency.in-flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Llamadas en curso al proveedor")
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("gateway.concurrency.queued", this, AdaptiveConcurrencyLimiter::queued)
+                .description("Llamadas esperando lugar bajo el límite adaptativo")
+                .tag("channel", channel)
+                .register(registry);
+        FunctionCounter.builder("gateway.concurrency.rejected", rejected, LongAdder::sum)
+                .description("Llamadas rechazadas con la cola de espera llena")
+                .tag("channel", channel)
+                .register(registry);
+    }
+
+    private void onSample(Permit permit, long rttNanos, boolean dropped) {
+        List<Grant> granted;
+        synchronized (this) {
+            inFlight--;
+            if (dropped) {
+                if (permit.epoch == decreaseEpoch) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    decreaseEpoch++;
+                }
+            } else if (rttNanos > 0) {
+                long baseline = baselineRtt(rttNanos);
+                double gradient = Math.clamp(RTT_TOLERANCE * baseline / rttNanos, 0.5, 1.0);
+                double target = limit * gradient + Math.sqrt(limit);
+                if (permit.inFlightAtStart * 2 < limit) {
+                    target = Math.min(target, limit);
+                }
+                limit = Math.clamp(limit * (1 - smoothing) + target * smoothing, minLimit, maxLimit);
+            }
+            granted = grantWaiters();
+        }
+        // Completar fuera del monitor: la continuación de cada permiso llama al proveedor
+        for (Grant grant : granted) {
+            grant.waiter().complete(grant.permit());
+        }
+    }
+
+    private long baselineRtt(long rttNanos) {
+        long now = System.nanoTime();
+        if (now - windowStartNanos >= BASELINE_WINDOW_NANOS) {
+            previousMinRttNanos = currentMinRttNanos;
+            currentMinRttNanos = Long.MAX_VALUE;
+            windowStartNanos = now;
+        }
+        currentMinRttNanos = Math.min(currentMinRttNanos, rttNanos);
+        return Math.min(previousMinRttNanos, currentMinRttNanos);
+    }
+
+    private List<Grant> grantWaiters() {
+        int available = Math.min((int) limit - inFlight, waiters.size());
+        if (available <= 0) {
+            return List.of();
+        }
+        List<Grant> granted = new ArrayList<>(available);
+        for (int i = 0; i < available; i++) {
+            inFlight++;
+            granted.add(new Grant(waiters.poll(), new Permit(inFlight, decreaseEpoch)));
+        }
+        return granted;
+    }
+
+    private record Grant(CompletableFuture<Permit> waiter, Permit permit) {
+    }
+
+    /**
+     * Lugar concedido para una llamada; se devuelve con {@link #complete} o {@link #ignore}.
+     */
+    public final class Permit {
+
+        private final int inFlightAtStart;
+        private final long epoch;
+        private long startNanos = System.nanoTime();
+
+        private Permit(int inFlightAtStart, long epoch) {
+            this.inFlightAtStart = inFlightAtStart;
+            this.epoch = epoch;
+        }
+
+        /**
+         * Marca el inicio de la llamada al proveedor (el tiempo en cola no cuenta como RTT).
+         */
+        public void start() {
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Devuelve el lugar con el resultado de la llamada.
+         *
+         * @param success {@code false} si el proveedor falló
+         */
+        public void complete(boolean success) {
+            onSample(this, System.nanoTime() - startNanos, !success);
+        }
+
+        /**
+         * Devuelve el lugar sin tomar la llamada como muestra (por ejemplo, un error de validación).
+         */
+        public void ignore() {
+            onSample(this, 0, false);
+        }
+    }
+}
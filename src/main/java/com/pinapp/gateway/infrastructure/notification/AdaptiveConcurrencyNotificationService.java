@@ -0,0 +1,119 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.notify.domain.Notification;
+import com.pinapp.notify.domain.NotificationResult;
+import com.pinapp.notify.domain.vo.ChannelType;
+import com.pinapp.notify.exception.ValidationException;
+import com.pinapp.notify.ports.in.NotificationService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Decorador de un {@link NotificationService} del SDK que acota las llamadas simultáneas al
+ * proveedor con un {@link AdaptiveConcurrencyLimiter}.
+ * <p>
+ * Es el decorador más cercano al SDK, de modo que el RTT medido es solo el del proveedor (sin la
+ * espera del limitador de tasa ni de la propia cola). Aplica a {@code sendAsync} (lotes y
+ * peticiones no bloqueantes) y a {@code send} (camino síncrono): en {@code sendAsync} la espera
+ * por lugar no retiene hilos; en {@code send} el hilo llamador espera su permiso.
+ * </p>
+ * <p>
+ * Con la cola de espera llena se devuelve un {@link NotificationResult} fallido cuyo mensaje
+ * empieza con {@value #OVERLOADED_MESSAGE}; como los descartes del limitador de tasa, no cuenta
+ * para el circuit breaker y se reintenta con backoff.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+public class AdaptiveConcurrencyNotificationService implements NotificationService {
+
+    static final String OVERLOADED_MESSAGE = "Concurrencia máxima alcanzada";
+
+    private final NotificationService delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ChannelType channel;
+    private final String providerName;
+
+    public AdaptiveConcurrencyNotificationService(NotificationService delegate, AdaptiveConcurrencyLimiter limiter,
+            ChannelType channel, String providerName) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.channel = channel;
+        this.providerName = providerName;
+    }
+
+    /**
+     * Indica si un resultado es un rechazo del limitador de concurrencia y no una respuesta del
+     * proveedor.
+     */
+    public static boolean isOverloaded(NotificationResult result) {
+        return result != null && !result.success() && result.errorMessage() != null
+                && result.errorMessage().startsWith(OVERLOADED_MESSAGE);
+    }
+
+    @Override
+    public NotificationResult send(Notification notification, ChannelType channelType) {
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> pending = limiter.acquire();
+        if (pending == null) {
+            return overloaded(notification);
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = pending.join();
+        permit.start();
+        NotificationResult result;
+        try {
+            result = delegate.send(notification, channelType);
+        } catch (ValidationException e) {
+            permit.ignore();
+            throw e;
+        } catch (RuntimeException e) {
+            permit.complete(false);
+            throw e;
+        }
+        permit.complete(result != null && result.success());
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(Notification notification, ChannelType channelType) {
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> pending = limiter.acquire();
+        if (pending == null) {
+            return CompletableFuture.completedFuture(overloaded(notification));
+        }
+        return pending.thenCompose(permit -> {
+            permit.start();
+            CompletableFuture<NotificationResult> future;
+            try {
+                future = delegate.sendAsync(notification, channelType);
+            } catch (RuntimeException e) {
+                release(permit, e);
+                throw e;
+            }
+            return future.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    release(permit, throwable);
+                } else {
+                    permit.complete(result != null && result.success());
+                }
+            });
+        });
+    }
+
+    private void release(AdaptiveConcurrencyLimiter.Permit permit, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if (cause instanceof ValidationException) {
+            permit.ignore();
+        } else {
+            permit.complete(false);
+        }
+    }
+
+    private NotificationResult overloaded(Notification notification) {
+        return NotificationResult.failure(notification.id(), providerName, channel,
+                OVERLOADED_MESSAGE + " para el canal " + channel + ": demasiadas llamadas esperando al proveedor "
+                        + providerName);
+    }
+}
@@ -0,0 +1,336 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.gateway.domain.model.DeadLetter;
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.ports.out.DeadLetterPort;
+import com.pinapp.gateway.domain.ports.out.NotificationPort;
+import com.pinapp.notify.domain.Notification;
+import com.pinapp.notify.domain.NotificationResult;
+import com.pinapp.notify.domain.Recipient;
+import com.pinapp.notify.domain.vo.ChannelType;
+import com.pinapp.notify.ports.in.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Pipeline de despacho común a los adaptadores de notificación de cada canal.
+ * <p>
+ * Implementa el puerto {@link NotificationPort} una sola vez para Email, SMS y Push: la ventana
+ * de envíos del canal ({@link DispatchWindow}), el registro en el outbox, los reintentos del
+ * {@link NotificationRetryScheduler} con la prioridad del {@link PriorityDispatchScheduler}, el
+ * plazo de cada intento en el {@link ProcessingDeadlineTracker}, la entrega al SDK (en un hilo
+ * virtual propio en ese modo), las dead letters, los envíos programados y el reenvío del outbox al arrancar.
+ * </p>
+ * <p>
+ * Cada adaptador concreto aporta solo lo propio de su canal: cómo se arma el {@link Recipient} a
+ * partir de la {@link Transaction} y, si hace falta, {@link #deferUntil} (envíos diferidos) o
+ * {@link #onDispatched} (tratamiento del resultado de un envío fire-and-forget).
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see EmailNotificationAdapter
+ * @see SmsNotificationAdapter
+ * @see PushNotificationAdapter
+ */
+public abstract class ChannelNotificationAdapter implements NotificationPort {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelNotificationAdapter.class);
+
+    private final ChannelType channelType;
+    private final String channel;
+    private final NotificationService notificationService;
+    private final DispatchWindow dispatchWindow;
+    private final NotificationRetryScheduler retryScheduler;
+    private final PriorityDispatchScheduler dispatchScheduler;
+    // Presente solo en modo de hilos virtuales (ver ExecutionConfig)
+    private final ExecutorService sendExecutor;
+    // Ausente con pinapp.gateway.outbox.enabled=false
+    private final NotificationOutbox outbox;
+    private final DeadLetterPort deadLetterPort;
+    private final ProcessingDeadlineTracker deadlineTracker;
+    private final DelayedNotificationScheduler delayedScheduler;
+
+    protected ChannelNotificationAdapter(
+            ChannelType channelType,
+            NotificationService notificationService,
+            DispatchWindow dispatchWindow,
+            NotificationRetryScheduler retryScheduler,
+            PriorityDispatchScheduler dispatchScheduler,
+            Optional<ExecutorService> sendExecutor,
+            Optional<NotificationOutbox> outbox,
+            DeadLetterPort deadLetterPort,
+            ProcessingDeadlineTracker deadlineTracker,
+            DelayedNotificationScheduler delayedScheduler) {
+        this.channelType = channelType;
+        this.channel = channelType.name();
+        this.notificationService = notificationService;
+        this.dispatchWindow = dispatchWindow;
+        this.retryScheduler = retryScheduler;
+        this.dispatchScheduler = dispatchScheduler;
+        this.sendExecutor = sendExecutor.orElse(null);
+        this.outbox = outbox.orElse(null);
+        this.deadLetterPort = deadLetterPort;
+        this.deadlineTracker = deadlineTracker;
+        this.delayedScheduler = delayedScheduler;
+    }
+
+    /**
+     * Arma el destinatario del SDK con los datos de contacto de la transacción que usa el canal.
+     */
+    protected abstract Recipient recipientFor(Transaction transaction);
+
+    /**
+     * Instante hasta el que un envío fire-and-forget debe diferirse, o {@code null} para enviarlo
+     * ya. Por defecto nunca se difiere.
+     */
+    protected Instant deferUntil(Instant now) {
+        return null;
+    }
+
+    /**
+     * Convierte el resultado de un envío fire-and-forget en el future que recibe el llamador.
+     * <p>
+     * Por defecto solo registra el resultado: el estado final lo registra
+     * {@link TransactionAuditListener} y un error se propaga al llamador.
+     * </p>
+     */
+    protected CompletableFuture<Void> onDispatched(Transaction transaction,
+            CompletableFuture<NotificationResult> outcome) {
+        return outcome.thenAccept(result ->
+                log.debug("Async notification dispatched channel={} transactionId={} success={}",
+                        channel, transaction.id(), result.success()));
+    }
+
+    /**
+     * Envía una notificación y espera el resultado.
+     * <p>
+     * Recorre el mismo pipeline que los envíos asíncronos (ventana del canal, outbox, plazo, dead
+     * letters); solo que toma el lugar en la ventana esperando como {@link #sendAsync}, y el hilo
+     * que llama queda bloqueado hasta que el proveedor responde.
+     * </p>
+     *
+     * @throws com.pinapp.gateway.domain.exception.DispatchRejectedException si la ventana de envíos
+     *         del canal está saturada
+     */
+    @Override
+    public NotificationStatus notify(Transaction transaction, String message) {
+        log.debug("Processing notification channel={} transactionId={}", channel, transaction.id());
+
+        dispatchWindow.acquire();
+        NotificationResult result = NotificationRetryScheduler.await(dispatch(transaction, message));
+
+        log.debug("Notification sent channel={} transactionId={} success={}", channel, transaction.id(),
+                result.success());
+        return mapToStatus(result);
+    }
+
+    /**
+     * Envía una notificación sin bloquear al llamador y entrega el estado cuando el SDK termina.
+     * <p>
+     * Mismo mapeo que {@link #notify}, pero sin esperar al proveedor: el hilo que llama queda libre
+     * mientras el proveedor responde (y durante los reintentos). El envío ocupa un lugar en la
+     * ventana del canal sin esperar por él.
+     * </p>
+     *
+     * @throws com.pinapp.gateway.domain.exception.DispatchRejectedException si la ventana de envíos
+     *         del canal está llena
+     */
+    @Override
+    public CompletableFuture<NotificationStatus> notifyAsync(Transaction transaction, String message) {
+        log.debug("Processing async notification channel={} transactionId={}", channel, transaction.id());
+
+        dispatchWindow.acquireNow();
+        return dispatch(transaction, message).thenApply(result -> {
+            log.debug("Notification sent channel={} transactionId={} success={}", channel, transaction.id(),
+                    result.success());
+            return mapToStatus(result);
+        });
+    }
+
+    /**
+     * Envía una notificación de forma asíncrona (fire-and-forget) para una transacción.
+     * <p>
+     * Dispara la notificación y retorna de inmediato; los eventos de éxito o fallo del SDK los
+     * captura {@link TransactionAuditListener}. Si el canal indica un instante en
+     * {@link #deferUntil}, la notificación se registra en el outbox ({@link NotificationOutbox#defer})
+     * y se programa para entonces; el future se completa cuando quedó en disco.
+     * </p>
+     *
+     * @throws com.pinapp.gateway.domain.exception.DispatchRejectedException si la ventana de envíos
+     *         del canal está saturada
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(Transaction transaction, String message) {
+        Instant deferredUntil = deferUntil(Instant.now());
+        if (deferredUntil != null) {
+            // En el outbox antes de programarla: si no entra en el programador, el despacho
+            // inmediato de abajo reutiliza la entrada
+            CompletableFuture<Void> durable = outbox != null
+                    ? outbox.defer(channel, transaction, message)
+                    : CompletableFuture.completedFuture(null);
+            if (sendAt(transaction, message, deferredUntil)) {
+                log.debug("Notification deferred channel={} transactionId={} until={}", channel, transaction.id(),
+                        deferredUntil);
+                return durable;
+            }
+        }
+        log.debug("Dispatching async notification channel={} transactionId={}", channel, transaction.id());
+
+        // Toma un lugar en la ventana del canal; se libera cuando el SDK completa el envío
+        dispatchWindow.acquire();
+        return onDispatched(transaction, dispatch(transaction, message));
+    }
+
+    /**
+     * Programa la notificación en el {@link DelayedNotificationScheduler}, que la enviará por
+     * {@link #sendAsync} en {@code sendAt}.
+     */
+    @Override
+    public boolean sendAt(Transaction transaction, String message, Instant sendAt) {
+        return delayedScheduler.schedule(this, transaction, message, sendAt);
+    }
+
+    @Override
+    public void cancelScheduled(UUID transactionId) {
+        delayedScheduler.cancel(this, transactionId);
+    }
+
+    /**
+     * Reenvía las notificaciones del canal que quedaron en el outbox sin resultado definitivo
+     * cuando cayó la ejecución anterior.
+     * <p>
+     * Corre en un hilo virtual propio para no demorar el arranque mientras espera lugar en la
+     * ventana del canal.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void redeliverPending() {
+        if (outbox == null) {
+            return;
+        }
+        List<NotificationOutbox.Entry> entries = outbox.recovered(channel);
+        if (entries.isEmpty()) {
+            return;
+        }
+        Thread.ofVirtual().name(channel.toLowerCase(Locale.ROOT) + "-outbox-redelivery").start(() -> {
+            log.info("Redelivering notifications from the outbox channel={} count={}", channel, entries.size());
+            for (NotificationOutbox.Entry entry : entries) {
+                try {
+                    sendAsync(entry.transaction(), entry.message());
+                } catch (RuntimeException e) {
+                    log.warn("Redelivery failed channel={} transactionId={} error={}",
+                            channel, entry.transaction().id(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Despacha una notificación con el lugar en la ventana ya tomado y lo devuelve cuando el
+     * envío termina (o si no llega a despacharse).
+     */
+    private CompletableFuture<NotificationResult> dispatch(Transaction transaction, String message) {
+        CompletableFuture<NotificationResult> outcome;
+        try {
+            outcome = stageAndDeliver(transaction, message, notificationFor(transaction, message));
+        } catch (RuntimeException e) {
+            dispatchWindow.release();
+            throw e;
+        }
+        return outcome.whenComplete((result, throwable) -> dispatchWindow.release());
+    }
+
+    /**
+     * Usa el transactionId como notificationId para mantener la relación: así
+     * {@link TransactionAuditListener} actualiza el estado correcto.
+     */
+    private Notification notificationFor(Transaction transaction, String message) {
+        return Notification.builder()
+                .id(transaction.id())
+                .recipient(recipientFor(transaction))
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Registra la notificación en el outbox y la envía cuando quedó en disco; sin outbox la envía
+     * directamente.
+     * <p>
+     * Si el envío falla de forma definitiva se guarda como dead letter, con la transacción y el
+     * mensaje, para poder reenviarlo; si tiene éxito se descarta una dead letter anterior.
+     * </p>
+     */
+    private CompletableFuture<NotificationResult> stageAndDeliver(Transaction transaction, String message,
+            Notification notification) {
+        CompletableFuture<NotificationResult> outcome = outbox == null
+                ? deliver(transaction, notification)
+                : outbox.stage(channel, transaction, message)
+                        .thenCompose(durable -> deliver(transaction, notification));
+        return outcome.whenComplete((result, throwable) -> {
+            if (throwable == null && result != null && result.success()) {
+                deadLetterPort.resolve(transaction.id().toString(), channel);
+                return;
+            }
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable;
+            deadLetterPort.record(new DeadLetter(transaction, channel, message,
+                    result != null ? result.providerName() : null,
+                    cause != null ? cause.getMessage() : result != null ? result.errorMessage() : null,
+                    Instant.now()));
+        });
+    }
+
+    /**
+     * Envía la notificación con los reintentos del gateway ({@link NotificationRetryScheduler}):
+     * cada intento es un {@link #submit} y los fallidos se reprograman sin retener hilos.
+     * Cada intento espera su lugar en el {@link PriorityDispatchScheduler} con la prioridad que
+     * corresponde al estado de la transacción, y recién al salir de esa cola empieza su plazo en el
+     * {@link ProcessingDeadlineTracker}, que la marca "TIMED_OUT" si el SDK nunca informa el
+     * resultado.
+     */
+    private CompletableFuture<NotificationResult> deliver(Transaction transaction, Notification notification) {
+        PriorityDispatchScheduler.Priority priority = dispatchScheduler.priorityFor(channel, transaction.status());
+        return retryScheduler.execute(channel, notification.id().toString(),
+                () -> dispatchScheduler.submit(priority, () -> {
+                    deadlineTracker.track(transaction.id(), channel);
+                    return submit(notification);
+                }));
+    }
+
+    /**
+     * Entrega la notificación al SDK sin bloquear al llamador.
+     * <p>
+     * En modo de hilos virtuales el {@code send} bloqueante del SDK corre en un hilo virtual
+     * propio; si no, se usa {@code sendAsync} del SDK con su executor interno.
+     * </p>
+     */
+    private CompletableFuture<NotificationResult> submit(Notification notification) {
+        if (sendExecutor == null) {
+            return notificationService.sendAsync(notification, channelType);
+        }
+        return CompletableFuture.supplyAsync(() -> notificationService.send(notification, channelType), sendExecutor);
+    }
+
+    private NotificationStatus mapToStatus(NotificationResult result) {
+        return new NotificationStatus(
+                result.success(),
+                result.notificationId().toString(),
+                result.providerName(),
+                result.errorMessage()
+        );
+    }
+}
@@ -0,0 +1,242 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker de un canal de notificación.
+ * <p>
+ * <strong>Estados:</strong>
+ * </p>
+ * <ul>
+ *   <li><strong>CLOSED:</strong> todas las llamadas pasan. Los resultados de las últimas
+ *       {@code windowSize} llamadas se guardan en una ventana deslizante; con al menos
+ *       {@code minimumCalls} resultados, si el porcentaje de fallos supera
+ *       {@code failureRateThreshold} o el de llamadas lentas (más de {@code slowCallDuration})
+ *       supera {@code slowCallRateThreshold}, el circuito se abre.</li>
+ *   <li><strong>OPEN:</strong> las llamadas se rechazan sin llegar al proveedor durante
+ *       {@code openDuration}.</li>
+ *   <li><strong>HALF_OPEN:</strong> pasan hasta {@code halfOpenProbes} llamadas de prueba. Si todas
+ *       terminan bien (y a tiempo) el circuito se cierra con la ventana vacía; el primer fallo lo
+ *       vuelve a abrir.</li>
+ * </ul>
+ * <p>
+ * En estado CLOSED {@link #tryAcquire()} es una lectura volátil; las transiciones y la ventana se
+ * actualizan bajo un monitor con secciones cortas y sin E/S.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see CircuitBreakingNotificationService
+ */
+public class CircuitBreaker implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private static final byte EMPTY = 0;
+    private static final byte SUCCESS = 1;
+    private static final byte FAILURE = 2;
+    private static final byte SLOW = 3;
+    private static final byte SLOW_FAILURE = 4;
+
+    private final String channel;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    // Ventana deslizante por cantidad de llamadas
+    private final byte[] window;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private long openedAtNanos;
+    private int probesIssued;
+    private int probesSucceeded;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreaker(String channel, int windowSize, int minimumCalls, int failureRateThreshold,
+            int slowCallRateThreshold, Duration slowCallDuration, Duration openDuration, int halfOpenProbes) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("window-size del canal " + channel + " debe ser mayor a 0");
+        }
+        this.channel = channel;
+        this.window = new byte[windowSize];
+        this.minimumCalls = Math.clamp(minimumCalls, 1, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+    }
+
+    /**
+     * Pide permiso para una llamada al proveedor.
+     *
+     * @return {@code false} si el circuito está abierto (o sin pruebas disponibles en HALF_OPEN)
+     */
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        boolean permitted = acquireSlow();
+        if (!permitted) {
+            rejected.increment();
+        }
+        return permitted;
+    }
+
+    /**
+     * Registra el resultado de una llamada permitida.
+     *
+     * @param success si el proveedor entregó la notificación
+     * @param durationNanos duración de la llamada
+     */
+    public synchronized void record(boolean success, long durationNanos) {
+        boolean slow = durationNanos > slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (!success || slow) {
+                open();
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // Llamada iniciada antes de abrir el circuito: no altera el estado
+            return;
+        }
+        byte outcome = success ? (slow ? SLOW : SUCCESS) : (slow ? SLOW_FAILURE : FAILURE);
+        forget(window[position]);
+        window[position] = outcome;
+        position = (position + 1) % window.length;
+        if (outcome == FAILURE || outcome == SLOW_FAILURE) {
+            failures++;
+        }
+        if (outcome == SLOW || outcome == SLOW_FAILURE) {
+            slowCalls++;
+        }
+        if (recorded < window.length) {
+            recorded++;
+        }
+        if (recorded >= minimumCalls
+                && (failures * 100 >= failureRateThreshold * recorded
+                        || slowCalls * 100 >= slowCallRateThreshold * recorded)) {
+            open();
+        }
+    }
+
+    /**
+     * Devuelve el permiso de una llamada cuyo resultado no dice nada sobre el proveedor (por
+     * ejemplo, una notificación inválida).
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesIssued > probesSucceeded) {
+            probesIssued--;
+        }
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public synchronized double failureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    public synchronized double slowCallRate() {
+        return recorded == 0 ? 0 : (double) slowCalls / recorded;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.circuit.state", this, breaker -> breaker.state.ordinal())
+                .description("Estado del circuit breaker: 0 CLOSED, 1 HALF_OPEN, 2 OPEN")
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("gateway.circuit.failure.rate", this, CircuitBreaker::failureRate)
+                .description("Proporción de fallos en la ventana deslizante")
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("gateway.circuit.slow.rate", this, CircuitBreaker::slowCallRate)
+                .description("Proporción de llamadas lentas en la ventana deslizante")
+                .tag("channel", channel)
+                .register(registry);
+        FunctionCounter.builder("gateway.circuit.rejected", rejected, LongAdder::sum)
+                .description("Llamadas rechazadas sin llegar al proveedor")
+                .tag("channel", channel)
+                .register(registry);
+        FunctionCounter.builder("gateway.circuit.opened", opened, LongAdder::sum)
+                .description("Veces que el circuito se abrió")
+                .tag("channel", channel)
+                .register(registry);
+    }
+
+    private synchronized boolean acquireSlow() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesIssued = 0;
+            probesSucceeded = 0;
+            log.info("Circuit half-open, probing provider channel={}", channel);
+        }
+        if (probesIssued >= halfOpenProbes) {
+            return false;
+        }
+        probesIssued++;
+        return true;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        opened.increment();
+        log.warn("Circuit opened channel={} failureRate={}% slowCallRate={}%", channel,
+                Math.round(failureRate() * 100), Math.round(slowCallRate() * 100));
+    }
+
+    private void close() {
+        Arrays.fill(window, EMPTY);
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        state = State.CLOSED;
+        log.info("Circuit closed, provider recovered channel={}", channel);
+    }
+
+    private void forget(byte outcome) {
+        if (outcome == FAILURE || outcome == SLOW_FAILURE) {
+            failures--;
+        }
+        if (outcome == SLOW || outcome == SLOW_FAILURE) {
+            slowCalls--;
+        }
+    }
+}
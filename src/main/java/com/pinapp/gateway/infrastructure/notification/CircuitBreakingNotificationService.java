@@ -0,0 +1,130 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.notify.domain.Notification;
+import com.pinapp.notify.domain.NotificationResult;
+import com.pinapp.notify.domain.vo.ChannelType;
+import com.pinapp.notify.exception.ValidationException;
+import com.pinapp.notify.ports.in.NotificationService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Decorador de un {@link NotificationService} del SDK protegido por un {@link CircuitBreaker}.
+ * <p>
+ * Envuelve los beans {@code emailNotificationService}, {@code smsNotificationService} y
+ * {@code pushNotificationService}, de modo que tanto {@code send} como {@code sendAsync} (y por lo
+ * tanto los caminos síncrono, asíncrono y de lote de los adaptadores) pasan por el circuito.
+ * </p>
+ * <p>
+ * <strong>Fast-fail:</strong> con el circuito abierto no se llama al proveedor: se devuelve de
+ * inmediato un {@link NotificationResult} fallido cuyo mensaje empieza con
+ * {@value #CIRCUIT_OPEN_MESSAGE}. Los adaptadores lo mapean a un {@code NotificationStatus} con
+ * {@code success=false} como cualquier otro fallo, y {@link NotificationRetryScheduler} no lo
+ * reintenta ({@link #isCircuitOpen(NotificationResult)}).
+ * </p>
+ * <p>
+ * Los errores de validación y los descartes de los limitadores de tasa
+ * ({@link RateLimitedNotificationService}) y de concurrencia
+ * ({@link AdaptiveConcurrencyNotificationService}) no cuentan como fallos del proveedor.
+ * </p>
+ * <p>
+ * <strong>Duración:</strong> el decorador envuelve a los limitadores, pero la duración que decide si
+ * una llamada fue lenta se toma del {@link ProviderCallClock} pegado al SDK: empieza cuando los
+ * limitadores conceden el permiso, no al pedir el turno.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+public class CircuitBreakingNotificationService implements NotificationService {
+
+    static final String CIRCUIT_OPEN_MESSAGE = "Circuito abierto";
+
+    private final NotificationService delegate;
+    private final ProviderCallClock clock;
+    private final CircuitBreaker breaker;
+    private final ChannelType channel;
+    private final String providerName;
+
+    /**
+     * @param delegate la cadena de limitadores que termina en {@code clock}
+     * @param clock el reloj pegado al SDK, que marca el inicio de cada llamada al proveedor
+     */
+    public CircuitBreakingNotificationService(NotificationService delegate, ProviderCallClock clock,
+            CircuitBreaker breaker, ChannelType channel, String providerName) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.breaker = breaker;
+        this.channel = channel;
+        this.providerName = providerName;
+    }
+
+    /**
+     * Indica si un resultado es un rechazo del circuito y no una respuesta del proveedor.
+     */
+    public static boolean isCircuitOpen(NotificationResult result) {
+        return result != null && !result.success() && result.errorMessage() != null
+                && result.errorMessage().startsWith(CIRCUIT_OPEN_MESSAGE);
+    }
+
+    @Override
+    public NotificationResult send(Notification notification, ChannelType channelType) {
+        if (!breaker.tryAcquire()) {
+            return rejected(notification);
+        }
+        long start = System.nanoTime();
+        NotificationResult result;
+        try {
+            result = delegate.send(notification, channelType);
+        } catch (ValidationException e) {
+            clock.elapsedSinceStart(notification.id(), start);
+            breaker.release();
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.record(false, clock.elapsedSinceStart(notification.id(), start));
+            throw e;
+        }
+        record(result, null, clock.elapsedSinceStart(notification.id(), start));
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(Notification notification, ChannelType channelType) {
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(rejected(notification));
+        }
+        long start = System.nanoTime();
+        CompletableFuture<NotificationResult> future;
+        try {
+            future = delegate.sendAsync(notification, channelType);
+        } catch (ValidationException e) {
+            clock.elapsedSinceStart(notification.id(), start);
+            breaker.release();
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.record(false, clock.elapsedSinceStart(notification.id(), start));
+            throw e;
+        }
+        return future.whenComplete((result, throwable) ->
+                record(result, throwable, clock.elapsedSinceStart(notification.id(), start)));
+    }
+
+    private void record(NotificationResult result, Throwable throwable, long durationNanos) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if (cause instanceof ValidationException || RateLimitedNotificationService.isRateLimited(result)
+                || AdaptiveConcurrencyNotificationService.isOverloaded(result)) {
+            breaker.release();
+        } else {
+            breaker.record(cause == null && result != null && result.success(), durationNanos);
+        }
+    }
+
+    private NotificationResult rejected(Notification notification) {
+        return NotificationResult.failure(notification.id(), providerName, channel,
+                CIRCUIT_OPEN_MESSAGE + " para el canal " + channel + ": el proveedor " + providerName
+                        + " no se invoca hasta la próxima prueba");
+    }
+}
@@ -0,0 +1,280 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import java.util.Arrays;
+
+/**
+ * Rueda de tiempos (timing wheel) de plazos identificados por un UUID, guardada en arreglos
+ * primitivos. Cada plazo puede llevar un objeto asociado que se entrega al vencer.
+ * <p>
+ * <strong>Estructura:</strong> el tiempo se divide en ticks y cada tick tiene un slot con una
+ * lista doblemente enlazada de nodos. La rueda tiene tantos slots como ticks entran en el plazo
+ * más largo admitido, así que un slot solo contiene nodos de un único tick: al avanzar, la lista
+ * completa del slot vence sin recorrer ni reprogramar nada más. Programar y cancelar son O(1)
+ * (enlazar o desenlazar el nodo, más una tabla hash para encontrarlo por ID); vencer cuesta O(1)
+ * por nodo vencido.
+ * </p>
+ * <p>
+ * <strong>Memoria:</strong> no hay un objeto por plazo. Los nodos son posiciones de arreglos
+ * paralelos (las dos mitades del UUID, los enlaces, la etiqueta y el objeto asociado)
+ * reutilizadas con una lista de libres, y el índice por ID es una tabla de direccionamiento
+ * abierto que solo guarda el número de nodo: unos 40 bytes por plazo pendiente, más el objeto
+ * asociado si lo hay.
+ * </p>
+ * <p>
+ * No es thread-safe: la usa un único hilo.
+ * </p>
+ *
+ * @param <T> Tipo del objeto asociado a cada plazo
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+final class DeadlineWheel<T> {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Recibe cada plazo vencido.
+     */
+    interface Expiry<T> {
+        void expired(long high, long low, int tag, T attachment);
+    }
+
+    private final long tickNanos;
+    private final long originNanos;
+    private final int[] slots;
+    private long currentTick;
+
+    private long[] highs = new long[INITIAL_CAPACITY];
+    private long[] lows = new long[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] prev = new int[INITIAL_CAPACITY];
+    private int[] slotOf = new int[INITIAL_CAPACITY];
+    private byte[] tags = new byte[INITIAL_CAPACITY];
+    private Object[] attachments = new Object[INITIAL_CAPACITY];
+    private int used;
+    private int freeHead = NONE;
+    private int size;
+
+    private int[] index = newIndex(INITIAL_CAPACITY * 2);
+
+    /**
+     * @param tickNanos Resolución de la rueda: un plazo vence como mucho un tick después
+     * @param horizonNanos Plazo más largo admitido; los más largos se acortan a este
+     * @param nowNanos Instante actual según {@link System#nanoTime()}
+     */
+    DeadlineWheel(long tickNanos, long horizonNanos, long nowNanos) {
+        this.tickNanos = tickNanos;
+        this.originNanos = nowNanos;
+        this.slots = new int[Math.toIntExact(Math.ceilDiv(horizonNanos, tickNanos) + 1)];
+        Arrays.fill(slots, NONE);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Programa (o reprograma, si ya estaba) el plazo del ID.
+     *
+     * @param tag Valor entre 0 y 127 que se devuelve al vencer
+     * @param attachment Objeto que se devuelve al vencer (puede ser {@code null})
+     */
+    void schedule(long high, long low, int tag, long deadlineNanos, T attachment) {
+        int node = find(high, low);
+        if (node == NONE) {
+            node = allocate(high, low);
+            insertIndex(node);
+            size++;
+        } else {
+            unlink(node);
+        }
+        long tick = Math.ceilDiv(deadlineNanos - originNanos, tickNanos);
+        tick = Math.clamp(tick, currentTick, currentTick + slots.length - 1);
+        tags[node] = (byte) tag;
+        attachments[node] = attachment;
+        link(node, (int) (tick % slots.length));
+    }
+
+    /**
+     * Devuelve el objeto asociado al plazo pendiente del ID, o {@code null} si no hay plazo.
+     */
+    @SuppressWarnings("unchecked")
+    T attachment(long high, long low) {
+        int node = find(high, low);
+        return node == NONE ? null : (T) attachments[node];
+    }
+
+    /**
+     * Descarta el plazo del ID.
+     *
+     * @return {@code true} si estaba programado
+     */
+    boolean cancel(long high, long low) {
+        int node = find(high, low);
+        if (node == NONE) {
+            return false;
+        }
+        unlink(node);
+        release(node);
+        return true;
+    }
+
+    /**
+     * Vence, en orden, los slots de todos los ticks transcurridos hasta {@code nowNanos}.
+     */
+    @SuppressWarnings("unchecked")
+    void advance(long nowNanos, Expiry<T> expiry) {
+        long nowTick = Math.floorDiv(nowNanos - originNanos, tickNanos);
+        while (currentTick <= nowTick) {
+            int slot = (int) (currentTick % slots.length);
+            int node = slots[slot];
+            slots[slot] = NONE;
+            while (node != NONE) {
+                int following = next[node];
+                long high = highs[node];
+                long low = lows[node];
+                int tag = tags[node];
+                T attachment = (T) attachments[node];
+                release(node);
+                expiry.expired(high, low, tag, attachment);
+                node = following;
+            }
+            currentTick++;
+        }
+    }
+
+    private void link(int node, int slot) {
+        int head = slots[slot];
+        prev[node] = NONE;
+        next[node] = head;
+        if (head != NONE) {
+            prev[head] = node;
+        }
+        slots[slot] = node;
+        slotOf[node] = slot;
+    }
+
+    private void unlink(int node) {
+        if (prev[node] != NONE) {
+            next[prev[node]] = next[node];
+        } else {
+            slots[slotOf[node]] = next[node];
+        }
+        if (next[node] != NONE) {
+            prev[next[node]] = prev[node];
+        }
+    }
+
+    private int allocate(long high, long low) {
+        int node;
+        if (freeHead != NONE) {
+            node = freeHead;
+            freeHead = next[node];
+        } else {
+            if (used == highs.length) {
+                growNodes();
+            }
+            node = used++;
+        }
+        highs[node] = high;
+        lows[node] = low;
+        return node;
+    }
+
+    /**
+     * Devuelve el nodo (ya desenlazado de su slot) a la lista de libres y lo quita del índice.
+     */
+    private void release(int node) {
+        removeIndex(node);
+        attachments[node] = null;
+        next[node] = freeHead;
+        freeHead = node;
+        size--;
+    }
+
+    private void growNodes() {
+        int capacity = Math.addExact(highs.length, highs.length >> 1);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        slotOf = Arrays.copyOf(slotOf, capacity);
+        tags = Arrays.copyOf(tags, capacity);
+        attachments = Arrays.copyOf(attachments, capacity);
+    }
+
+    // Índice por ID: direccionamiento abierto con sondeo lineal; guarda el número de nodo y compara
+    // contra las mitades del UUID guardadas en el nodo.
+
+    private int find(long high, long low) {
+        int mask = index.length - 1;
+        for (int i = hash(high, low) & mask; index[i] != NONE; i = (i + 1) & mask) {
+            int node = index[i];
+            if (highs[node] == high && lows[node] == low) {
+                return node;
+            }
+        }
+        return NONE;
+    }
+
+    private void insertIndex(int node) {
+        if ((size + 1) * 2 > index.length) {
+            rehash(index.length * 2);
+        }
+        int mask = index.length - 1;
+        int i = hash(highs[node], lows[node]) & mask;
+        while (index[i] != NONE) {
+            i = (i + 1) & mask;
+        }
+        index[i] = node;
+    }
+
+    /**
+     * Quita el nodo del índice desplazando hacia atrás las entradas siguientes del mismo grupo,
+     * sin dejar marcas de borrado.
+     */
+    private void removeIndex(int node) {
+        int mask = index.length - 1;
+        int i = hash(highs[node], lows[node]) & mask;
+        while (index[i] != node) {
+            i = (i + 1) & mask;
+        }
+        int gap = i;
+        for (int j = (gap + 1) & mask; index[j] != NONE; j = (j + 1) & mask) {
+            int home = hash(highs[index[j]], lows[index[j]]) & mask;
+            // La entrada puede ocupar el hueco si su posición ideal no está entre el hueco y ella
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                index[gap] = index[j];
+                gap = j;
+            }
+        }
+        index[gap] = NONE;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = index;
+        index = newIndex(capacity);
+        int mask = capacity - 1;
+        for (int node : old) {
+            if (node != NONE) {
+                int i = hash(highs[node], lows[node]) & mask;
+                while (index[i] != NONE) {
+                    i = (i + 1) & mask;
+                }
+                index[i] = node;
+            }
+        }
+    }
+
+    private static int[] newIndex(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, NONE);
+        return table;
+    }
+
+    private static int hash(long high, long low) {
+        long mixed = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32);
+    }
+}
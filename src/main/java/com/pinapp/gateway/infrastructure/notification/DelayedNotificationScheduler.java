@@ -0,0 +1,274 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.gateway.domain.exception.DispatchRejectedException;
+import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.model.TransactionStatus;
+import com.pinapp.gateway.domain.ports.out.NotificationPort;
+import com.pinapp.gateway.infrastructure.store.PackedStrings;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Notificaciones programadas para más adelante ({@link NotificationPort#sendAt}), compartidas por
+ * todos los canales: recordatorios de transacciones que siguen pendientes y SMS diferidos fuera
+ * del horario de silencio.
+ * <p>
+ * <strong>Estructura:</strong> las notificaciones pendientes viven en una {@link DeadlineWheel}
+ * de {@code tick} de resolución y {@code max-delay} de horizonte, indexada por ID de transacción.
+ * Programar, reprogramar y cancelar cuestan O(1) y solo encolan un comando sin locks; un único
+ * hilo los aplica sobre la rueda. De cada notificación se guarda el adaptador y el mensaje (los
+ * mismos objetos para todas las de un canal), el estado y los demás datos de la transacción
+ * empaquetados en un único {@code byte[]} con {@link PackedStrings}, como en el store de dead
+ * letters.
+ * </p>
+ * <p>
+ * <strong>Despacho:</strong> las notificaciones que vencen en un mismo tick se entregan en tandas
+ * de hasta {@code EXPIRY_CHUNK}, cada una en un hilo virtual que las envía en orden por
+ * {@link NotificationPort#sendAsync}, con el outbox, los reintentos y los limitadores del canal.
+ * Si el canal rechaza el envío por saturación, la notificación se reprograma para después del
+ * {@code Retry-After}.
+ * </p>
+ * <p>
+ * Como máximo hay {@code max-pending} notificaciones programadas; por encima, {@link #schedule}
+ * devuelve {@code false} y se cuenta en {@code gateway.scheduled.overflow}.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+public class DelayedNotificationScheduler implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(DelayedNotificationScheduler.class);
+
+    private static final long COMMAND_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int EXPIRY_CHUNK = 256;
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final Duration maxDelay;
+    private final long maxPending;
+
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final DeadlineWheel<Pending> wheel;
+    private final Thread ticker;
+    private volatile int pending;
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+
+    // Notificaciones vencidas pendientes de entregar; solo los usa el hilo de la rueda
+    private long[] dueHighs = new long[EXPIRY_CHUNK];
+    private long[] dueLows = new long[EXPIRY_CHUNK];
+    private Pending[] duePending = new Pending[EXPIRY_CHUNK];
+    private int dueCount;
+
+    public DelayedNotificationScheduler(
+            @Value("${pinapp.gateway.scheduled.max-delay:24h}") Duration maxDelay,
+            @Value("${pinapp.gateway.scheduled.tick:1s}") Duration tick,
+            @Value("${pinapp.gateway.scheduled.max-pending:10000000}") long maxPending) {
+        this.maxDelay = maxDelay;
+        this.maxPending = maxPending;
+        this.wheel = new DeadlineWheel<>(tick.toNanos(), maxDelay.toNanos(), System.nanoTime());
+        this.ticker = Thread.ofPlatform()
+                .name("scheduled-notification-wheel")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    /**
+     * Programa el envío de una notificación por {@code adapter}. Reemplaza la que hubiera
+     * programada para el mismo ID de transacción.
+     *
+     * @param adapter Adaptador del canal que enviará la notificación
+     * @param transaction La transacción a notificar
+     * @param message El mensaje de la notificación
+     * @param sendAt Instante de envío; si ya pasó, se envía en el próximo tick
+     * @return {@code false} si se alcanzó {@code max-pending}
+     * @throws IllegalArgumentException si {@code sendAt} está a más de {@code max-delay}; los plazos
+     *         configurados (recordatorios, horario de silencio) se validan contra {@link #maxDelay()}
+     *         al arrancar para que no llegue a pasar
+     */
+    public boolean schedule(NotificationPort adapter, Transaction transaction, String message, Instant sendAt) {
+        Duration delay = Duration.between(Instant.now(), sendAt);
+        if (delay.compareTo(maxDelay) > 0) {
+            throw new IllegalArgumentException("No se puede programar una notificación a más de " + maxDelay
+                    + " (solicitado: " + delay + ")");
+        }
+        if (pending >= maxPending) {
+            overflow.increment();
+            return false;
+        }
+        scheduled.increment();
+        long deadlineNanos = System.nanoTime() + Math.max(0, delay.toNanos());
+        UUID id = transaction.id();
+        commands.offer(new Command(id.getMostSignificantBits(), id.getLeastSignificantBits(), adapter,
+                pending(adapter, transaction, message), deadlineNanos));
+        return true;
+    }
+
+    /**
+     * Cancela la notificación programada por {@code adapter} para la transacción. No hace nada si
+     * no hay ninguna o si la programó otro canal.
+     */
+    public void cancel(NotificationPort adapter, UUID transactionId) {
+        commands.offer(new Command(transactionId.getMostSignificantBits(), transactionId.getLeastSignificantBits(),
+                adapter, null, 0));
+    }
+
+    public int pending() {
+        return pending;
+    }
+
+    public Duration maxDelay() {
+        return maxDelay;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.scheduled.pending", this, DelayedNotificationScheduler::pending)
+                .description("Notificaciones programadas que todavía no se enviaron")
+                .register(registry);
+        FunctionCounter.builder("gateway.scheduled.scheduled", scheduled, LongAdder::sum)
+                .description("Notificaciones programadas para más adelante")
+                .register(registry);
+        FunctionCounter.builder("gateway.scheduled.sent", sent, LongAdder::sum)
+                .description("Notificaciones programadas entregadas al adaptador al vencer")
+                .register(registry);
+        FunctionCounter.builder("gateway.scheduled.cancelled", cancelled, LongAdder::sum)
+                .description("Notificaciones programadas canceladas antes de enviarse")
+                .register(registry);
+        FunctionCounter.builder("gateway.scheduled.overflow", overflow, LongAdder::sum)
+                .description("Notificaciones no programadas por límite de max-pending")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        ticker.interrupt();
+        senders.shutdownNow();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            applyCommands();
+            wheel.advance(System.nanoTime(), this::collect);
+            flushDue();
+            pending = wheel.size();
+            LockSupport.parkNanos(COMMAND_INTERVAL_NANOS);
+        }
+    }
+
+    private void applyCommands() {
+        Command command;
+        while ((command = commands.poll()) != null) {
+            if (command.pending != null) {
+                wheel.schedule(command.high, command.low, 0, command.deadlineNanos, command.pending);
+                continue;
+            }
+            Pending current = wheel.attachment(command.high, command.low);
+            if (current != null && current.adapter == command.adapter) {
+                wheel.cancel(command.high, command.low);
+                cancelled.increment();
+            }
+        }
+    }
+
+    private void collect(long high, long low, int tag, Pending due) {
+        if (dueCount == EXPIRY_CHUNK) {
+            flushDue();
+        }
+        dueHighs[dueCount] = high;
+        dueLows[dueCount] = low;
+        duePending[dueCount] = due;
+        dueCount++;
+    }
+
+    /**
+     * Entrega la tanda de notificaciones vencidas a un hilo virtual, que las envía en orden.
+     */
+    private void flushDue() {
+        if (dueCount == 0) {
+            return;
+        }
+        long[] highs = dueHighs;
+        long[] lows = dueLows;
+        Pending[] due = duePending;
+        int count = dueCount;
+        dueHighs = new long[EXPIRY_CHUNK];
+        dueLows = new long[EXPIRY_CHUNK];
+        duePending = new Pending[EXPIRY_CHUNK];
+        dueCount = 0;
+        try {
+            senders.execute(() -> {
+                for (int i = 0; i < count; i++) {
+                    send(unpack(new UUID(highs[i], lows[i]), due[i]), due[i]);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Executor detenido (apagado de la aplicación)
+        }
+    }
+
+    private void send(Transaction transaction, Pending due) {
+        try {
+            due.adapter.sendAsync(transaction, due.message);
+            sent.increment();
+        } catch (DispatchRejectedException e) {
+            log.debug("Channel saturated, rescheduling notification channel={} transactionId={} retryAfter={}",
+                    e.channel(), transaction.id(), e.retryAfter());
+            commands.offer(new Command(transaction.id().getMostSignificantBits(),
+                    transaction.id().getLeastSignificantBits(), due.adapter, due,
+                    System.nanoTime() + e.retryAfter().toNanos()));
+        } catch (RuntimeException e) {
+            log.warn("Error sending scheduled notification transactionId={} error={}", transaction.id(), e.getMessage());
+        }
+    }
+
+    private static Pending pending(NotificationPort adapter, Transaction transaction, String message) {
+        return new Pending(adapter, message, (byte) (transaction.status() != null ? transaction.status().ordinal() : -1),
+                PackedStrings.pack(transaction.amount() != null ? transaction.amount().toString() : null,
+                        transaction.customerName(), transaction.email(), transaction.phone(),
+                        transaction.deviceToken()));
+    }
+
+    private static Transaction unpack(UUID id, Pending due) {
+        String[] values = PackedStrings.unpack(due.transaction, 5);
+        return new Transaction(id, values[0] != null ? new BigDecimal(values[0]) : null, values[1], values[2],
+                values[3], due.status >= 0 ? STATUSES[due.status] : null, values[4]);
+    }
+
+    /**
+     * Notificación programada: adaptador, mensaje, estado de la transacción ({@code -1 = null}) y
+     * el resto de sus datos empaquetados.
+     */
+    private record Pending(NotificationPort adapter, String message, byte status, byte[] transaction) {
+    }
+
+    /**
+     * Alta ({@code pending != null}) o baja de una notificación programada, pendiente de aplicar
+     * por el hilo de la rueda. Una baja solo se aplica si la notificación es de {@code adapter}.
+     */
+    private record Command(long high, long low, NotificationPort adapter, Pending pending, long deadlineNanos) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.gateway.domain.exception.DispatchRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ventana acotada de envíos asíncronos en curso para un canal de notificación.
+ * <p>
+ * Cada {@code sendAsync} de un adaptador toma un permiso antes de llamar al SDK y lo devuelve
+ * cuando el futuro del SDK se completa (incluidos los reintentos). Así un lote grande no puede
+ * llenar el executor y la cola del SDK: como máximo {@code maxInFlight} envíos del canal están
+ * pendientes a la vez.
+ * </p>
+ * <p>
+ * <strong>Admisión:</strong>
+ * </p>
+ * <ul>
+ *   <li>Con permisos libres, {@link #acquire()} no bloquea.</li>
+ *   <li>{@link #acquireNow()} nunca espera: sin permisos libres rechaza de inmediato.</li>
+ *   <li>Con la ventana llena, hasta {@code maxQueued} llamadores esperan como mucho
+ *       {@code queueTimeout}. Esta espera frena al productor (por ejemplo, la lectura del cuerpo
+ *       de un lote en streaming) en lugar de acumular trabajo.</li>
+ *   <li>Si la cola de espera también está llena o la espera vence, se lanza
+ *       {@link DispatchRejectedException} con un {@code Retry-After} estimado a partir del
+ *       trabajo pendiente y del ritmo reciente de envíos completados.</li>
+ * </ul>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+public class DispatchWindow implements MeterBinder {
+
+    private static final long RATE_SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long MIN_RETRY_AFTER_SECONDS = 1;
+    private static final long MAX_RETRY_AFTER_SECONDS = 30;
+
+    private final String channel;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    // Estimación del ritmo de envíos completados; solo se actualiza en el camino de rechazo
+    private long rateSampleNanos = System.nanoTime();
+    private long rateSampleCompleted;
+    private double completionsPerSecond;
+
+    public DispatchWindow(String channel, int maxInFlight, int maxQueued, Duration queueTimeout) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("max-in-flight del canal " + channel + " debe ser mayor a 0");
+        }
+        this.channel = channel;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = Math.max(0, maxQueued);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Toma un permiso de envío, esperando si la ventana está llena.
+     *
+     * @throws DispatchRejectedException si la ventana y la cola de espera están saturadas
+     */
+    public void acquire() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw reject();
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            queued.decrementAndGet();
+        }
+        if (!acquired) {
+            throw reject();
+        }
+    }
+
+    /**
+     * Toma un permiso de envío solo si hay lugar en la ventana, sin esperar.
+     * <p>
+     * Lo usan los envíos de peticiones unitarias no bloqueantes: esperar lugar retendría el hilo
+     * de la petición, que es justamente lo que se busca evitar.
+     * </p>
+     *
+     * @throws DispatchRejectedException si la ventana está llena
+     */
+    public void acquireNow() {
+        if (!permits.tryAcquire()) {
+            throw reject();
+        }
+    }
+
+    /**
+     * Devuelve el permiso de un envío completado (con éxito o con error).
+     */
+    public void release() {
+        completed.increment();
+        permits.release();
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.dispatch.in-flight", this, DispatchWindow::inFlight)
+                .description("Envíos asíncronos en curso en el SDK")
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("gateway.dispatch.queued", this, DispatchWindow::queued)
+                .description("Envíos esperando lugar en la ventana del canal")
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("gateway.dispatch.limit", this, window -> window.maxInFlight)
+                .description("Tamaño máximo de la ventana de envíos en curso")
+                .tag("channel", channel)
+                .register(registry);
+        FunctionCounter.builder("gateway.dispatch.rejected", rejected, LongAdder::sum)
+                .description("Envíos rechazados por ventana y cola de espera saturadas")
+                .tag("channel", channel)
+                .register(registry);
+    }
+
+    private DispatchRejectedException reject() {
+        rejected.increment();
+        return new DispatchRejectedException(channel, estimateRetryAfter());
+    }
+
+    /**
+     * Tiempo estimado para drenar el trabajo pendiente (en curso más en espera) al ritmo de
+     * envíos completados observado recientemente.
+     */
+    private synchronized Duration estimateRetryAfter() {
+        long now = System.nanoTime();
+        long elapsed = now - rateSampleNanos;
+        if (elapsed >= RATE_SAMPLE_NANOS) {
+            long total = completed.sum();
+            double sample = (total - rateSampleCompleted) * 1e9 / elapsed;
+            completionsPerSecond = completionsPerSecond == 0 ? sample : 0.5 * completionsPerSecond + 0.5 * sample;
+            rateSampleNanos = now;
+            rateSampleCompleted = total;
+        }
+        // Sin muestra todavía (primer rechazo tras el arranque o tras un período inactivo)
+        // se sugiere esperar lo mismo que la cola de espera
+        long seconds = completionsPerSecond > 0
+                ? (long) Math.ceil((inFlight() + queued() + 1) / completionsPerSecond)
+                : TimeUnit.NANOSECONDS.toSeconds(queueTimeoutNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+        return Duration.ofSeconds(Math.clamp(seconds, MIN_RETRY_AFTER_SECONDS, MAX_RETRY_AFTER_SECONDS));
+    }
+}
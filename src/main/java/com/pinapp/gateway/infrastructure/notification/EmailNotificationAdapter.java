@@ -1,10 +1,8 @@
 package com.pinapp.gateway.infrastructure.notification;
 
-import com.pinapp.gateway.domain.model.NotificationStatus;
 import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.ports.out.DeadLetterPort;
 import com.pinapp.gateway.domain.ports.out.NotificationPort;
-import com.pinapp.notify.domain.Notification;
-import com.pinapp.notify.domain.NotificationResult;
 import com.pinapp.notify.domain.Recipient;
 import com.pinapp.notify.domain.vo.ChannelType;
 import com.pinapp.notify.ports.in.NotificationService;
@@ -12,7 +10,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Adaptador de infraestructura (Outbound Adapter) para notificaciones por Email.
@@ -39,6 +38,11 @@ import java.util.concurrent.CompletableFuture;
  * El adaptador utiliza {@code @Qualifier("emailNotificationService")} para inyectar
  * el servicio específico de Email configurado en {@link com.pinapp.gateway.infrastructure.config.EmailConfig}.
  * </p>
+ * <p>
+ * El despacho (ventana del canal, outbox, reintentos, dead letters, envíos programados y reenvío
+ * al arrancar) lo implementa {@link ChannelNotificationAdapter}; este adaptador solo arma el
+ * destinatario.
+ * </p>
  *
  * @author PinApp Gateway Team
  * @since 1.0.0
@@ -46,84 +50,28 @@ import java.util.concurrent.CompletableFuture;
  * @see com.pinapp.gateway.infrastructure.config.EmailConfig
  */
 @Component("emailAdapter")
-public class EmailNotificationAdapter implements NotificationPort {
-
-    private final NotificationService emailNotificationService;
+public class EmailNotificationAdapter extends ChannelNotificationAdapter {
 
-    public EmailNotificationAdapter(@Qualifier("emailNotificationService") NotificationService emailNotificationService) {
-        this.emailNotificationService = emailNotificationService;
+    public EmailNotificationAdapter(
+            @Qualifier("emailNotificationService") NotificationService emailNotificationService,
+            @Qualifier("emailDispatchWindow") DispatchWindow dispatchWindow,
+            NotificationRetryScheduler retryScheduler,
+            PriorityDispatchScheduler dispatchScheduler,
+            @Qualifier("notificationSendExecutor") Optional<ExecutorService> sendExecutor,
+            Optional<NotificationOutbox> outbox,
+            DeadLetterPort deadLetterPort,
+            ProcessingDeadlineTracker deadlineTracker,
+            DelayedNotificationScheduler delayedScheduler) {
+        super(ChannelType.EMAIL, emailNotificationService, dispatchWindow, retryScheduler, dispatchScheduler,
+                sendExecutor, outbox, deadLetterPort, deadlineTracker, delayedScheduler);
     }
 
     @Override
-    public NotificationStatus notify(Transaction transaction, String message) {
-        System.out.println("[EMAIL-ADAPTER] Processing notification for transaction: " + transaction.id());
-        
-        Recipient recipient = new Recipient(
-                transaction.email(), 
-                transaction.phone(), 
+    protected Recipient recipientFor(Transaction transaction) {
+        return new Recipient(
+                transaction.email(),
+                transaction.phone(),
                 Map.of("customerId", transaction.customerName())
         );
-        
-        // Usar el transactionId como notificationId para mantener la relación
-        Notification notification = Notification.builder()
-                .id(transaction.id())
-                .recipient(recipient)
-                .message(message)
-                .build();
-        
-        NotificationResult result = emailNotificationService.send(notification, ChannelType.EMAIL);
-        
-        System.out.println("[EMAIL-ADAPTER] Notification sent via EMAIL channel. Status: " + 
-                (result.success() ? "SUCCESS" : "FAILED"));
-        
-        return mapToStatus(result);
-    }
-
-    /**
-     * Envía una notificación de forma asíncrona (fire-and-forget) para una transacción.
-     * <p>
-     * Similar a {@link PushNotificationAdapter#sendAsync}, este método dispara la notificación
-     * y retorna inmediatamente. El procesamiento real ocurre en segundo plano y los eventos
-     * son capturados por el {@link TransactionAuditListener}.
-     * </p>
-     *
-     * @param transaction La transacción de dominio que contiene los datos del destinatario
-     * @param message El mensaje de la notificación definido por la lógica de negocio
-     * @return Un {@link CompletableFuture} que se completa cuando la notificación es enviada al SDK
-     */
-    @Override
-    public CompletableFuture<Void> sendAsync(Transaction transaction, String message) {
-        System.out.println("[EMAIL-ADAPTER] Dispatching async notification for transaction: " + transaction.id());
-        
-        Recipient recipient = new Recipient(
-                transaction.email(), 
-                transaction.phone(), 
-                Map.of("customerId", transaction.customerName())
-        );
-        
-        // Usar el transactionId como notificationId para mantener la relación
-        // Esto permite que TransactionAuditListener actualice el estado correcto
-        Notification notification = Notification.builder()
-                .id(transaction.id())
-                .recipient(recipient)
-                .message(message)
-                .build();
-        
-        CompletableFuture<NotificationResult> sdkFuture = emailNotificationService.sendAsync(notification, ChannelType.EMAIL);
-        
-        return sdkFuture.thenAccept(result -> {
-            System.out.println("[EMAIL-ADAPTER] Async notification dispatched. " +
-                    "Final status will be updated by TransactionAuditListener. " +
-                    "SDK Status: " + (result.success() ? "SUCCESS" : "FAILED"));
-        });
-    }
-
-    private NotificationStatus mapToStatus(NotificationResult result) {
-        return new NotificationStatus(
-                result.success(),
-                result.notificationId().toString(),
-                result.providerName(),
-                result.errorMessage()
-        );
     }
 }
@@ -0,0 +1,91 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cola acotada de muchos productores y un único consumidor sobre un arreglo circular, sin locks.
+ * <p>
+ * Cada productor reserva una posición avanzando {@code producerIndex} con CAS y después publica
+ * el elemento en su celda; el consumidor lee las celdas en orden y las vacía antes de avanzar
+ * {@code consumerIndex}, que es lo que libera la celda para la siguiente vuelta. Una celda
+ * reservada pero todavía sin publicar se espera con {@link Thread#onSpinWait()}: el productor ya
+ * está entre las dos instrucciones.
+ * </p>
+ *
+ * @param <E> Tipo de los elementos
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    // Solo lo escribe el consumidor
+    private volatile long consumerIndex;
+
+    /**
+     * @param capacity Capacidad mínima; se redondea a la siguiente potencia de dos
+     */
+    MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Encola un elemento. Puede llamarse desde cualquier hilo.
+     *
+     * @return {@code false} si la cola está llena
+     */
+    boolean offer(E element) {
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex > mask) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+        slots.setRelease((int) index & mask, element);
+        return true;
+    }
+
+    /**
+     * Retira el elemento más antiguo. Solo debe llamarlo el consumidor.
+     *
+     * @return El elemento, o {@code null} si la cola está vacía
+     */
+    E poll() {
+        long index = consumerIndex;
+        int offset = (int) index & mask;
+        E element = slots.getAcquire(offset);
+        if (element == null) {
+            if (index == producerIndex.get()) {
+                return null;
+            }
+            do {
+                Thread.onSpinWait();
+                element = slots.getAcquire(offset);
+            } while (element == null);
+        }
+        slots.setPlain(offset, null);
+        consumerIndex = index + 1;
+        return element;
+    }
+
+    boolean isEmpty() {
+        return producerIndex.get() == consumerIndex;
+    }
+
+    /**
+     * Elementos encolados (incluidos los reservados que todavía se están publicando).
+     */
+    int size() {
+        return (int) Math.max(0, producerIndex.get() - consumerIndex);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,690 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.model.TransactionStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Outbox local y durable de las notificaciones despachadas sin esperar respuesta (lotes y
+ * peticiones no bloqueantes).
+ * <p>
+ * <strong>Ciclo de vida de una entrada:</strong>
+ * </p>
+ * <ol>
+ *   <li>El adaptador llama a {@link #stage} antes de entregar la notificación al SDK y encadena
+ *       el envío al futuro devuelto, que se completa cuando la entrada está en disco. Una
+ *       notificación diferida (horario de silencio) se registra con {@link #defer} al programarla,
+ *       y su despacho posterior reutiliza esa entrada.</li>
+ *   <li>Un único hilo escritor drena la cola en lotes (group commit): un solo {@code fsync}
+ *       confirma todas las entradas del lote, por lo que el costo de durabilidad se reparte entre
+ *       los envíos concurrentes y ningún hilo del lote espera un {@code fsync} propio.</li>
+ *   <li>Cuando el envío tiene resultado definitivo ({@link TransactionAuditListener} al recibir
+ *       {@code NotificationSentEvent} o el {@code NotificationFailedEvent} final, o
+ *       {@link NotificationRetryScheduler} al agotar los intentos) se llama a
+ *       {@link #acknowledge}, que agrega un registro de confirmación sin esperar el
+ *       {@code fsync}.</li>
+ *   <li>Al arrancar, las entradas sin confirmación se recuperan y cada adaptador las vuelve a
+ *       enviar ({@link #recovered(String)}).</li>
+ * </ol>
+ * <p>
+ * <strong>Claves:</strong> cada entrada tiene su propio ID, que usa su confirmación en disco. En
+ * memoria se agrupan por transacción y canal, que es lo que identifica al envío en los eventos del
+ * SDK: una transacción puede tener a la vez un Push PENDING y un Email COMPLETED, o el Push y su
+ * recordatorio, y cada {@link #acknowledge} confirma solo la entrada más antigua de su canal.
+ * </p>
+ * <p>
+ * <strong>Entrega "al menos una vez":</strong> si el proceso cae después de que el proveedor
+ * aceptó un envío pero antes de persistir su confirmación, la notificación se reenvía al
+ * arrancar.
+ * </p>
+ * <p>
+ * <strong>Segmentos:</strong> el archivo activo rota al superar {@code segment-size}. Un segmento
+ * cerrado se elimina cuando todas sus entradas fueron confirmadas y también las de los segmentos
+ * anteriores (las confirmaciones viven en segmentos posteriores a su entrada). Al arrancar, las
+ * entradas pendientes se reescriben en un segmento nuevo y los anteriores se eliminan, de modo
+ * que una entrada nunca confirmada no retiene segmentos entre reinicios.
+ * </p>
+ * <p>
+ * Formato de cada registro: {@code int longitud, int crc32, payload}, como el journal de estados;
+ * un registro final incompleto o con CRC inválido (escritura interrumpida) se descarta.
+ * </p>
+ * <p>
+ * Si escribir en disco falla, las entradas del lote se despachan igual (sin durabilidad) y se
+ * cuentan en {@code gateway.outbox.write.failures}: perder la garantía ante una caída es
+ * preferible a no enviar la notificación. Como en el journal de estados, el segmento se trunca al
+ * inicio del lote y se sigue en uno nuevo, para que la recuperación no se detenga en un registro
+ * roto; las entradas del lote dejan de contarse como pendientes. Una entrada que no se puede
+ * codificar (un texto de más de 64 KB) se despacha sin durabilidad sin afectar al resto del lote.
+ * Se desactiva con {@code pinapp.gateway.outbox.enabled=false}.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "pinapp.gateway.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationOutbox implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    private static final int MAX_BATCH = 4096;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final byte ENTRY = 1;
+    private static final byte ACK = 2;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("outbox-(\\d+)\\.log");
+
+    /**
+     * Notificación pendiente de resultado definitivo.
+     */
+    public record Entry(String channel, Transaction transaction, String message) {
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final BlockingQueue<OutboxRecord> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Entradas sin confirmar por transacción y canal, la más antigua primero; solo el escritor lo
+    // modifica
+    private final ConcurrentHashMap<Key, Slot> pending = new ConcurrentHashMap<>();
+    private volatile int pendingEntries;
+    private final Map<String, List<Entry>> recovered = new ConcurrentHashMap<>();
+    // Entradas en disco que todavía no se despacharon (recuperadas o diferidas), por transacción y
+    // canal
+    private final ConcurrentHashMap<Key, Integer> awaitingDispatch = new ConcurrentHashMap<>();
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final LongAdder redelivered = new LongAdder();
+
+    // Estado confinado al hilo escritor
+    private final TreeMap<Long, Integer> liveBySegment = new TreeMap<>();
+    private final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream payloadOut = new DataOutputStream(payloadBytes);
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(1 << 20);
+    private FileChannel segment;
+    private long segmentSeq;
+    private long segmentSize;
+    private long batchStart;
+    private long nextEntryId;
+
+    public NotificationOutbox(
+            @Value("${pinapp.gateway.outbox.directory:./data/outbox}") String directory,
+            @Value("${pinapp.gateway.outbox.segment-size:64MB}") DataSize segmentSize,
+            @Value("${pinapp.gateway.outbox.queue-capacity:65536}") int queueCapacity) throws IOException {
+        this.directory = Path.of(directory);
+        this.segmentBytes = Math.max(1 << 16, segmentSize.toBytes());
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        recover();
+
+        this.writer = new Thread(this::writeLoop, "notification-outbox-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Agrega una notificación al outbox antes de despacharla.
+     * <p>
+     * Bloquea solo si la cola del escritor está llena.
+     * </p>
+     * <p>
+     * El reenvío de una entrada recuperada ({@link #recovered}) o el despacho de una diferida
+     * ({@link #defer}) la reutiliza: ya está en disco y se confirma con el resultado del envío.
+     * </p>
+     *
+     * @return un futuro que se completa cuando la entrada está sincronizada a disco (o cuando la
+     *         escritura falló y quedó registrada); nunca se completa con error
+     */
+    public CompletableFuture<Void> stage(String channel, Transaction transaction, String message) {
+        Key key = new Key(transaction.id().toString(), channel);
+        if (!running || claimWritten(key)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        OutboxRecord record = new OutboxRecord(ENTRY, key, -1,
+                new Entry(channel, transaction, message), new CompletableFuture<>());
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido al encolar la notificación en el outbox", e);
+        }
+        return record.durable();
+    }
+
+    /**
+     * Agrega al outbox una notificación que se despachará más adelante (por ejemplo, al terminar
+     * el horario de silencio del canal), para que una caída mientras espera no la pierda: se
+     * recupera y se reenvía al arrancar. Despacharla después con {@link #stage} reutiliza esta
+     * entrada.
+     *
+     * @return un futuro que se completa cuando la entrada está sincronizada a disco
+     */
+    public CompletableFuture<Void> defer(String channel, Transaction transaction, String message) {
+        CompletableFuture<Void> durable = stage(channel, transaction, message);
+        if (running) {
+            awaitingDispatch.merge(new Key(transaction.id().toString(), channel), 1, Integer::sum);
+        }
+        return durable;
+    }
+
+    /**
+     * Confirma que un envío tiene resultado definitivo y no debe reenviarse al arrancar: la
+     * entrada más antigua de la transacción en ese canal. No hace nada si no hay ninguna.
+     *
+     * @param transactionId ID de la transacción (el notificationId de los eventos del SDK)
+     * @param channel Canal del envío ("EMAIL", "SMS" o "PUSH")
+     */
+    public void acknowledge(String transactionId, String channel) {
+        Key key = new Key(transactionId, channel);
+        if (!pending.containsKey(key) || !running) {
+            return;
+        }
+        try {
+            queue.put(new OutboxRecord(ACK, key, -1, null, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Devuelve, una sola vez, las entradas de un canal que quedaron sin confirmar en la ejecución
+     * anterior; siguen en el outbox hasta que su reenvío se confirme. Reenviarlas con
+     * {@link #stage} reutiliza la entrada anterior en lugar de duplicarla.
+     */
+    public List<Entry> recovered(String channel) {
+        List<Entry> entries = recovered.remove(channel);
+        if (entries == null) {
+            return List.of();
+        }
+        redelivered.add(entries.size());
+        return entries;
+    }
+
+    public int pending() {
+        return pendingEntries;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.outbox.pending", this, NotificationOutbox::pending)
+                .description("Notificaciones en el outbox sin resultado definitivo")
+                .register(registry);
+        Gauge.builder("gateway.outbox.queue.depth", queue, BlockingQueue::size)
+                .description("Registros pendientes de escribir en el outbox")
+                .register(registry);
+        FunctionCounter.builder("gateway.outbox.appended", appended, LongAdder::sum)
+                .description("Notificaciones agregadas al outbox")
+                .register(registry);
+        FunctionCounter.builder("gateway.outbox.acknowledged", acknowledged, LongAdder::sum)
+                .description("Notificaciones confirmadas en el outbox")
+                .register(registry);
+        FunctionCounter.builder("gateway.outbox.fsyncs", fsyncs, LongAdder::sum)
+                .description("Sincronizaciones a disco del outbox (una por group commit)")
+                .register(registry);
+        FunctionCounter.builder("gateway.outbox.write.failures", writeFailures, LongAdder::sum)
+                .description("Notificaciones despachadas sin durabilidad por un error de escritura")
+                .register(registry);
+        FunctionCounter.builder("gateway.outbox.redelivered", redelivered, LongAdder::sum)
+                .description("Notificaciones reenviadas al arrancar")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    // ------------------------------------------------------------------
+    // Escritura (hilo escritor)
+    // ------------------------------------------------------------------
+
+    private void writeLoop() {
+        List<OutboxRecord> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                OutboxRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                List<Staged> staged = new ArrayList<>(batch.size());
+                try {
+                    append(batch, staged);
+                    segment.force(false);
+                    fsyncs.increment();
+                } catch (IOException e) {
+                    log.error("Error writing outbox segment, dispatching records without durability segment={} records={} error={}",
+                            segmentSeq, batch.size(), e.getMessage());
+                    writeFailures.add(staged.size());
+                    discard(staged);
+                    abandonSegment();
+                }
+                for (OutboxRecord record : batch) {
+                    if (record.durable() != null) {
+                        record.durable().complete(null);
+                    }
+                }
+                batch.clear();
+                if (segmentSize >= segmentBytes) {
+                    rotate();
+                }
+                deleteAcknowledgedSegments();
+            } catch (IOException e) {
+                log.error("Error rotating outbox segment segment={} error={}", segmentSeq, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        closeSegment();
+    }
+
+    /**
+     * Escribe un lote y registra sus entradas como pendientes.
+     * <p>
+     * Una entrada que no se puede codificar se salta y se cuenta como fallo de escritura; el
+     * resto del lote sigue. Las entradas escritas se agregan a {@code staged} para descartarlas si
+     * después falla la escritura o el {@code fsync}. Una confirmación se aplica en memoria aunque
+     * su registro no llegue a disco: como mucho la entrada se reenvía tras una caída.
+     * </p>
+     */
+    private void append(List<OutboxRecord> batch, List<Staged> staged) throws IOException {
+        if (segment == null) {
+            openSegment(segmentSeq + 1);
+        }
+        batchStart = segment.size();
+        writeBuffer.clear();
+        for (OutboxRecord record : batch) {
+            if (record.type() == ENTRY) {
+                long entryId = record.entryId() >= 0 ? record.entryId() : nextEntryId++;
+                try {
+                    encodeEntry(entryId, record.entry());
+                } catch (UTFDataFormatException e) {
+                    log.warn("Could not encode outbox entry, dispatching without durability transactionId={} channel={} error={}",
+                            record.key().transactionId(), record.key().channel(), e.getMessage());
+                    writeFailures.increment();
+                    continue;
+                }
+                writeFrame();
+                addSlot(record.key(), new Slot(entryId, segmentSeq, null));
+                liveBySegment.merge(segmentSeq, 1, Integer::sum);
+                staged.add(new Staged(record.key(), entryId));
+                appended.increment();
+            } else {
+                Slot oldest = pending.get(record.key());
+                if (oldest == null) {
+                    continue;
+                }
+                removeSlot(record.key(), oldest.entryId());
+                liveBySegment.merge(oldest.segment(), -1, Integer::sum);
+                acknowledged.increment();
+                encodeAck(oldest.entryId());
+                writeFrame();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Deja de contar como pendientes las entradas de un lote que no llegó a disco.
+     */
+    private void discard(List<Staged> staged) {
+        for (Staged entry : staged) {
+            Slot slot = removeSlot(entry.key(), entry.entryId());
+            if (slot != null) {
+                liveBySegment.merge(slot.segment(), -1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Descarta el segmento activo después de un error de escritura o de {@code fsync}: trunca (si
+     * todavía puede) los bytes del lote fallido y sigue en un segmento nuevo, como el journal de
+     * estados. Si no puede abrir el segmento nuevo lo reintenta en la próxima escritura.
+     */
+    private void abandonSegment() {
+        writeBuffer.clear();
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.truncate(batchStart);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not truncate failed outbox batch segment={} offset={} error={}",
+                    segmentSeq, batchStart, e.getMessage());
+        }
+        closeSegment();
+        segment = null;
+        try {
+            openSegment(segmentSeq + 1);
+        } catch (IOException e) {
+            log.error("Error opening outbox segment segment={} error={}", segmentSeq, e.getMessage());
+            segment = null;
+        }
+    }
+
+    private void addSlot(Key key, Slot slot) {
+        pending.compute(key, (k, head) -> head == null ? slot : head.append(slot));
+        pendingEntries++;
+    }
+
+    private Slot removeSlot(Key key, long entryId) {
+        Slot[] removed = new Slot[1];
+        pending.computeIfPresent(key, (k, head) -> {
+            for (Slot slot = head; slot != null; slot = slot.next()) {
+                if (slot.entryId() == entryId) {
+                    removed[0] = slot;
+                    return head.without(entryId);
+                }
+            }
+            return head;
+        });
+        if (removed[0] != null) {
+            pendingEntries--;
+        }
+        return removed[0];
+    }
+
+    private boolean claimWritten(Key key) {
+        boolean[] claimed = new boolean[1];
+        awaitingDispatch.computeIfPresent(key, (k, count) -> {
+            claimed[0] = true;
+            return count > 1 ? count - 1 : null;
+        });
+        return claimed[0];
+    }
+
+    private void encodeEntry(long entryId, Entry entry) throws IOException {
+        Transaction transaction = entry.transaction();
+        payloadBytes.reset();
+        payloadOut.writeByte(ENTRY);
+        payloadOut.writeLong(entryId);
+        payloadOut.writeLong(transaction.id().getMostSignificantBits());
+        payloadOut.writeLong(transaction.id().getLeastSignificantBits());
+        payloadOut.writeUTF(entry.channel());
+        writeNullable(transaction.amount() != null ? transaction.amount().toPlainString() : null);
+        writeNullable(transaction.customerName());
+        writeNullable(transaction.email());
+        writeNullable(transaction.phone());
+        writeNullable(transaction.status() != null ? transaction.status().name() : null);
+        writeNullable(transaction.deviceToken());
+        writeNullable(entry.message());
+    }
+
+    private void encodeAck(long entryId) throws IOException {
+        payloadBytes.reset();
+        payloadOut.writeByte(ACK);
+        payloadOut.writeLong(entryId);
+    }
+
+    private void writeNullable(String value) throws IOException {
+        payloadOut.writeBoolean(value != null);
+        if (value != null) {
+            payloadOut.writeUTF(value);
+        }
+    }
+
+    private void writeFrame() throws IOException {
+        int length = payloadBytes.size();
+        byte[] payload = payloadBytes.toByteArray();
+        crc.reset();
+        crc.update(payload, 0, length);
+        if (writeBuffer.remaining() < 2 * Integer.BYTES + length) {
+            flush();
+        }
+        writeBuffer.putInt(length).putInt((int) crc.getValue()).put(payload, 0, length);
+        segmentSize += 2L * Integer.BYTES + length;
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            segment.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void rotate() throws IOException {
+        closeSegment();
+        segment = null;
+        openSegment(segmentSeq + 1);
+    }
+
+    /**
+     * Elimina, en orden, los segmentos cerrados sin entradas pendientes. Se detiene en el primero
+     * que todavía tiene alguna: las confirmaciones de sus entradas pueden estar en los siguientes.
+     */
+    private void deleteAcknowledgedSegments() {
+        while (!liveBySegment.isEmpty()) {
+            Map.Entry<Long, Integer> oldest = liveBySegment.firstEntry();
+            if (oldest.getKey() >= segmentSeq || oldest.getValue() > 0) {
+                return;
+            }
+            liveBySegment.pollFirstEntry();
+            try {
+                Files.deleteIfExists(directory.resolve(segmentName(oldest.getKey())));
+            } catch (IOException e) {
+                log.error("Error deleting outbox segment segment={} error={}", oldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void openSegment(long seq) throws IOException {
+        segmentSeq = seq;
+        segmentSize = 0;
+        segment = FileChannel.open(directory.resolve(segmentName(seq)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        liveBySegment.putIfAbsent(seq, 0);
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.force(false);
+            segment.close();
+        } catch (IOException e) {
+            log.error("Error closing outbox segment segment={} error={}", segmentSeq, e.getMessage());
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Recuperación (arranque)
+    // ------------------------------------------------------------------
+
+    /**
+     * Reproduce los segmentos existentes, reescribe las entradas sin confirmar en un segmento
+     * nuevo y elimina los anteriores.
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> segmentSeqs = new ArrayList<>();
+        for (Path path : listFiles()) {
+            Matcher matcher = SEGMENT_FILE.matcher(path.getFileName().toString());
+            if (matcher.matches()) {
+                segmentSeqs.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+        segmentSeqs.sort(null);
+
+        LinkedHashMap<Long, Entry> unacknowledged = new LinkedHashMap<>();
+        for (long seq : segmentSeqs) {
+            replaySegment(directory.resolve(segmentName(seq)), unacknowledged);
+        }
+
+        openSegment(segmentSeqs.isEmpty() ? 0 : segmentSeqs.getLast() + 1);
+        if (!unacknowledged.isEmpty()) {
+            List<OutboxRecord> carried = new ArrayList<>(unacknowledged.size());
+            for (Map.Entry<Long, Entry> entry : unacknowledged.entrySet()) {
+                Entry value = entry.getValue();
+                carried.add(new OutboxRecord(ENTRY, new Key(value.transaction().id().toString(), value.channel()),
+                        entry.getKey(), value, null));
+            }
+            for (int from = 0; from < carried.size(); from += MAX_BATCH) {
+                append(carried.subList(from, Math.min(carried.size(), from + MAX_BATCH)), new ArrayList<>());
+            }
+            segment.force(false);
+        }
+        for (long seq : segmentSeqs) {
+            Files.deleteIfExists(directory.resolve(segmentName(seq)));
+        }
+
+        Map<String, List<Entry>> byChannel = new HashMap<>();
+        for (Entry entry : unacknowledged.values()) {
+            byChannel.computeIfAbsent(entry.channel(), channel -> new ArrayList<>()).add(entry);
+            awaitingDispatch.merge(new Key(entry.transaction().id().toString(), entry.channel()), 1, Integer::sum);
+        }
+        recovered.putAll(byChannel);
+        log.info("Recovered unacknowledged notifications from the outbox count={} segments={}",
+                unacknowledged.size(), segmentSeqs.size());
+    }
+
+    private void replaySegment(Path path, Map<Long, Entry> unacknowledged) throws IOException {
+        byte[] payload = new byte[256];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                int checksum = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    log.warn("Ignoring torn tail of outbox segment file={}", path.getFileName());
+                    return;
+                }
+                if (payload.length < length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                in.readFully(payload, 0, length);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Ignoring torn tail of outbox segment file={}", path.getFileName());
+                    return;
+                }
+                decode(new DataInputStream(new ByteArrayInputStream(payload, 0, length)), unacknowledged);
+            }
+        } catch (EOFException e) {
+            log.warn("Ignoring torn tail of outbox segment file={}", path.getFileName());
+        }
+    }
+
+    private void decode(DataInputStream in, Map<Long, Entry> unacknowledged) throws IOException {
+        byte type = in.readByte();
+        long entryId = in.readLong();
+        if (type == ACK) {
+            unacknowledged.remove(entryId);
+            return;
+        }
+        nextEntryId = Math.max(nextEntryId, entryId + 1);
+        UUID id = new UUID(in.readLong(), in.readLong());
+        String channel = in.readUTF();
+        String amount = readNullable(in);
+        String customerName = readNullable(in);
+        String email = readNullable(in);
+        String phone = readNullable(in);
+        String status = readNullable(in);
+        String deviceToken = readNullable(in);
+        String message = readNullable(in);
+        Transaction transaction = new Transaction(id, amount != null ? new BigDecimal(amount) : null,
+                customerName, email, phone, status != null ? TransactionStatus.valueOf(status) : null, deviceToken);
+        unacknowledged.put(entryId, new Entry(channel, transaction, message));
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static String segmentName(long seq) {
+        return "outbox-" + String.format("%020d", seq) + ".log";
+    }
+
+    /**
+     * Registro pendiente de escribir. {@code entryId} es negativo salvo en las entradas
+     * recuperadas, que conservan el suyo.
+     */
+    private record OutboxRecord(byte type, Key key, long entryId, Entry entry, CompletableFuture<Void> durable) {
+    }
+
+    private record Key(String transactionId, String channel) {
+    }
+
+    /**
+     * Entrada sin confirmar: su ID, el segmento que la contiene y la siguiente de la misma clave.
+     * Inmutable; la lista suele tener un solo elemento.
+     */
+    private record Slot(long entryId, long segment, Slot next) {
+
+        Slot append(Slot slot) {
+            return new Slot(entryId, segment, next == null ? slot : next.append(slot));
+        }
+
+        Slot without(long id) {
+            if (entryId == id) {
+                return next;
+            }
+            return next == null ? this : new Slot(entryId, segment, next.without(id));
+        }
+    }
+
+    private record Staged(Key key, long entryId) {
+    }
+}
@@ -0,0 +1,355 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.domain.ports.out.BatchProgressPort;
+import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
+import com.pinapp.notify.domain.NotificationResult;
+import com.pinapp.notify.exception.ValidationException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Motor de reintentos de envíos de notificación a nivel del gateway.
+ * <p>
+ * Reemplaza el {@code RetryPolicy} fijo del SDK (que duerme el hilo entre intentos): un envío
+ * fallido se reprograma en un temporizador y ningún hilo queda esperando entre intentos.
+ * </p>
+ * <p>
+ * <strong>Política:</strong>
+ * </p>
+ * <ul>
+ *   <li><strong>Backoff exponencial con jitter:</strong> la espera antes del intento {@code n+1}
+ *       es {@code initial-delay × 2^(n-1)}, acotada por {@code max-delay}, y se elige al azar entre
+ *       la mitad y el total de ese valor para que los reintentos de muchos envíos no se alineen.</li>
+ *   <li><strong>Presupuesto global:</strong> cada primer intento deposita {@code budget.ratio}
+ *       reintentos y además se acreditan {@code budget.min-per-second} reintentos por segundo.
+ *       Cada reintento consume uno. Si un proveedor falla para todos, los reintentos quedan
+ *       limitados a esa proporción del tráfico en lugar de multiplicarlo.</li>
+ *   <li><strong>No reintentables:</strong> los errores de validación del SDK
+ *       ({@link ValidationException}) y los rechazos de un circuito abierto
+ *       ({@link CircuitBreakingNotificationService}) fallan de inmediato.</li>
+ * </ul>
+ * <p>
+ * <strong>Estado final:</strong> el SDK emite un {@code NotificationFailedEvent} en cada intento
+ * fallido, y ninguno cuando el circuito del canal rechaza el envío. Mientras un envío está en
+ * curso, el {@link TransactionAuditListener} ignora sus eventos de fallo (ver
+ * {@link #isInFlight(String)}) y es este motor quien registra el "FAILED" definitivo cuando se
+ * agotan los intentos o el presupuesto, o el circuito está abierto. Los eventos de éxito se
+ * procesan siempre.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+public class NotificationRetryScheduler implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetryScheduler.class);
+
+    private final TransactionStatusPort statusPort;
+    private final BatchProgressPort batchProgressPort;
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final RetryBudget budget;
+    private final ScheduledExecutorService timer;
+    // Ausente con pinapp.gateway.outbox.enabled=false
+    private final NotificationOutbox outbox;
+    private final ProcessingDeadlineTracker deadlineTracker;
+
+    // Envíos todavía sin resultado definitivo, contados por notificationId: dos envíos que se
+    // solapan con el mismo ID (un reenvío desde el outbox o la cola de fallidos) no se liberan
+    // entre sí
+    private final ConcurrentHashMap<String, Integer> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+
+    public NotificationRetryScheduler(
+            TransactionStatusPort statusPort,
+            BatchProgressPort batchProgressPort,
+            @Value("${pinapp.notify.retry-attempts:2}") int maxAttempts,
+            @Value("${pinapp.gateway.retry.initial-delay:200ms}") Duration initialDelay,
+            @Value("${pinapp.gateway.retry.max-delay:10s}") Duration maxDelay,
+            @Value("${pinapp.gateway.retry.budget.ratio:0.2}") double budgetRatio,
+            @Value("${pinapp.gateway.retry.budget.min-per-second:10}") int budgetMinPerSecond,
+            Optional<NotificationOutbox> outbox,
+            ProcessingDeadlineTracker deadlineTracker) {
+        this.statusPort = statusPort;
+        this.outbox = outbox.orElse(null);
+        this.deadlineTracker = deadlineTracker;
+        this.batchProgressPort = batchProgressPort;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialDelayMillis = Math.max(1, initialDelay.toMillis());
+        this.maxDelayMillis = Math.max(initialDelayMillis, maxDelay.toMillis());
+        this.budget = new RetryBudget(budgetRatio, budgetMinPerSecond);
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Ejecuta un envío con reintentos.
+     *
+     * @param channel Canal del envío, para mensajes y métricas
+     * @param notificationId ID de la notificación (el ID de la transacción)
+     * @param attempt Lanza un intento de envío sin bloquear; se invoca una vez por intento
+     * @return Un futuro con el resultado del último intento
+     */
+    public CompletableFuture<NotificationResult> execute(String channel, String notificationId,
+            Supplier<CompletableFuture<NotificationResult>> attempt) {
+        budget.deposit();
+        CompletableFuture<NotificationResult> outcome = new CompletableFuture<>();
+        inFlight.merge(notificationId, 1, Integer::sum);
+        pending.incrementAndGet();
+        run(new Delivery(channel, notificationId, attempt, outcome), 1);
+        return outcome;
+    }
+
+    /**
+     * Espera el resultado de {@link #execute} desde un envío bloqueante, propagando el error del
+     * último intento tal como lo lanzaría el SDK.
+     */
+    public static NotificationResult await(CompletableFuture<NotificationResult> outcome) {
+        try {
+            return outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Indica si un envío todavía no tiene resultado definitivo; mientras tanto sus eventos de fallo
+     * del SDK son intermedios y no deben registrarse como estado final.
+     */
+    public boolean isInFlight(String notificationId) {
+        return inFlight.containsKey(notificationId);
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.notification.retry.pending", this, NotificationRetryScheduler::pending)
+                .description("Envíos en curso o esperando un reintento")
+                .register(registry);
+        FunctionCounter.builder("gateway.notification.retry.scheduled", scheduled, LongAdder::sum)
+                .description("Reintentos programados")
+                .register(registry);
+        FunctionCounter.builder("gateway.notification.retry.exhausted", exhausted, LongAdder::sum)
+                .description("Envíos que fallaron tras agotar los intentos")
+                .register(registry);
+        FunctionCounter.builder("gateway.notification.retry.budget.denied", budgetDenied, LongAdder::sum)
+                .description("Reintentos descartados por falta de presupuesto")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private void run(Delivery delivery, int attemptNumber) {
+        CompletableFuture<NotificationResult> future;
+        try {
+            future = delivery.attempt.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, throwable) -> onAttemptComplete(delivery, attemptNumber, result, throwable));
+    }
+
+    private void onAttemptComplete(Delivery delivery, int attemptNumber, NotificationResult result, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if (cause == null && result != null && result.success()) {
+            finish(delivery);
+            delivery.outcome.complete(result);
+            return;
+        }
+        if (cause instanceof ValidationException || CircuitBreakingNotificationService.isCircuitOpen(result)
+                || attemptNumber >= maxAttempts) {
+            if (attemptNumber > 1) {
+                exhausted.increment();
+            }
+            fail(delivery, result, cause);
+            return;
+        }
+        if (!budget.tryWithdraw()) {
+            budgetDenied.increment();
+            log.warn("Retry budget exhausted, not retrying channel={} transactionId={}",
+                    delivery.channel, delivery.notificationId);
+            fail(delivery, result, cause);
+            return;
+        }
+
+        long delay = backoffMillis(attemptNumber);
+        scheduled.increment();
+        log.debug("Notification failed, retrying channel={} transactionId={} attempt={} delayMs={}",
+                delivery.channel, delivery.notificationId, attemptNumber, delay);
+        try {
+            timer.schedule(() -> run(delivery, attemptNumber + 1), delay, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Temporizador detenido (apagado de la aplicación)
+            fail(delivery, result, cause);
+        }
+    }
+
+    private long backoffMillis(int attemptNumber) {
+        long ceiling = initialDelayMillis << Math.min(attemptNumber - 1, 30);
+        ceiling = ceiling <= 0 ? maxDelayMillis : Math.min(ceiling, maxDelayMillis);
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    /**
+     * Cierra un envío fallido: registra el "FAILED" definitivo (los eventos de fallo intermedios
+     * se ignoraron), lo confirma en el outbox, cancela su plazo en el
+     * {@link ProcessingDeadlineTracker} y entrega el resultado o el error del último intento.
+     */
+    private void fail(Delivery delivery, NotificationResult result, Throwable cause) {
+        if (!delivery.finished) {
+            String provider = result != null && result.providerName() != null
+                    ? result.providerName()
+                    : delivery.channel.toLowerCase(Locale.ROOT);
+            String errorMessage = result != null ? result.errorMessage()
+                    : cause != null ? cause.getMessage() : null;
+            statusPort.transition(new TransactionStatusInfo(delivery.notificationId, ProcessingStatus.FAILED.name(),
+                    new NotificationStatus(false, delivery.notificationId, provider, errorMessage)));
+            batchProgressPort.recordOutcome(delivery.notificationId, delivery.channel, false);
+            if (outbox != null) {
+                outbox.acknowledge(delivery.notificationId, delivery.channel);
+            }
+            deadlineTracker.cancel(delivery.notificationId);
+        }
+        finish(delivery);
+        if (cause != null) {
+            delivery.outcome.completeExceptionally(cause);
+        } else {
+            delivery.outcome.complete(result);
+        }
+    }
+
+    private void finish(Delivery delivery) {
+        if (delivery.finished) {
+            return;
+        }
+        delivery.finished = true;
+        inFlight.computeIfPresent(delivery.notificationId, (id, count) -> count > 1 ? count - 1 : null);
+        pending.decrementAndGet();
+    }
+
+    /**
+     * Un envío con sus intentos. Los intentos se encadenan uno tras otro, así que
+     * {@code finished} solo se lee y escribe desde el intento en curso.
+     */
+    private static final class Delivery {
+
+        private final String channel;
+        private final String notificationId;
+        private final Supplier<CompletableFuture<NotificationResult>> attempt;
+        private final CompletableFuture<NotificationResult> outcome;
+        private volatile boolean finished;
+
+        private Delivery(String channel, String notificationId,
+                Supplier<CompletableFuture<NotificationResult>> attempt,
+                CompletableFuture<NotificationResult> outcome) {
+            this.channel = channel;
+            this.notificationId = notificationId;
+            this.attempt = attempt;
+            this.outcome = outcome;
+        }
+    }
+
+    /**
+     * Presupuesto de reintentos compartido por todos los canales.
+     * <p>
+     * El saldo se acota a 10 segundos de reintentos mínimos (al menos 100) para que un período
+     * largo sin fallas no acumule crédito para una tormenta de reintentos posterior.
+     * </p>
+     * <p>
+     * {@link #deposit} corre en cada envío, así que el saldo es un {@link AtomicLong} que se
+     * actualiza con CAS en lugar de un monitor; con el saldo lleno (el caso sin fallas) el depósito
+     * es solo una lectura. La recarga por tiempo reparte el intervalo transcurrido entre los hilos
+     * con {@code getAndSet}, así que cada nanosegundo se acredita una sola vez.
+     * </p>
+     */
+    private static final class RetryBudget {
+
+        private static final long UNIT = 1000;
+        private static final long MAX_REFILL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+        private final long depositPerRequest;
+        private final long refillPerSecond;
+        private final long capacity;
+        private final AtomicLong balance;
+        private final AtomicLong lastRefillNanos = new AtomicLong(System.nanoTime());
+
+        private RetryBudget(double ratio, int minPerSecond) {
+            this.depositPerRequest = Math.round(Math.max(0, ratio) * UNIT);
+            this.refillPerSecond = Math.max(0, minPerSecond) * UNIT;
+            this.capacity = Math.max(100 * UNIT, 10 * refillPerSecond);
+            this.balance = new AtomicLong(capacity);
+        }
+
+        private void deposit() {
+            long current;
+            do {
+                current = balance.get();
+                if (current >= capacity) {
+                    return;
+                }
+            } while (!balance.compareAndSet(current, Math.min(capacity, current + depositPerRequest)));
+        }
+
+        private boolean tryWithdraw() {
+            long now = System.nanoTime();
+            long elapsed = Math.min(now - lastRefillNanos.getAndSet(now), MAX_REFILL_NANOS);
+            long refill = elapsed > 0 ? refillPerSecond * elapsed / TimeUnit.SECONDS.toNanos(1) : 0;
+            while (true) {
+                long current = balance.get();
+                long next = Math.min(capacity, current + refill);
+                if (next < UNIT) {
+                    // Sin saldo para reintentar; la recarga igual se acredita
+                    if (refill == 0 || balance.compareAndSet(current, next)) {
+                        return false;
+                    }
+                } else if (balance.compareAndSet(current, next - UNIT)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
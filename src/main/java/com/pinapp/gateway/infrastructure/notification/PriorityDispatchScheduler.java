@@ -0,0 +1,275 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.gateway.domain.model.TransactionStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Planificador con prioridades de los envíos al SDK de notificaciones, compartido por todos los
+ * canales.
+ * <p>
+ * <strong>Por qué:</strong> los tres canales compiten por los mismos executors del SDK, así que un
+ * lote grande de Push demoraba las alertas SMS de transacciones rechazadas. Cada intento de envío
+ * de los adaptadores (caminos síncrono, asíncrono, de lote, reintentos y reenvíos) pasa por aquí:
+ * como máximo {@code max-in-flight} intentos están en el SDK a la vez y, cuando se libera un
+ * lugar, lo toma el de mayor prioridad.
+ * </p>
+ * <p>
+ * <strong>Prioridades:</strong> la clase de un envío se deriva del {@link TransactionStatus}
+ * ({@code REJECTED} → {@link Priority#HIGH}, {@code COMPLETED} → {@link Priority#NORMAL},
+ * {@code PENDING} → {@link Priority#LOW}) y puede fijarse por canal con
+ * {@code pinapp.gateway.dispatch.scheduler.priority.<canal>}.
+ * </p>
+ * <p>
+ * <strong>Anti-starvation:</strong> cada clase suma {@code aging} a su instante de llegada y se
+ * despacha el envío con el menor valor resultante. Un envío {@code LOW} que esperó más de
+ * {@code 2 × aging} pasa delante de los {@code HIGH} recién llegados, de modo que ninguna clase
+ * espera indefinidamente.
+ * </p>
+ * <p>
+ * <strong>Concurrencia:</strong> encolar no toma locks (una {@link ConcurrentLinkedQueue} por
+ * clase). El despacho lo hace un único hilo a la vez, elegido con un contador atómico
+ * (queue-drain): el que encola o el que completa un envío drena mientras haya lugar, y los demás
+ * solo dejan la señal de que hay trabajo.
+ * </p>
+ * <p>
+ * Con {@code max-in-flight <= 0} el planificador está deshabilitado y envía directamente.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+public class PriorityDispatchScheduler implements MeterBinder {
+
+    /**
+     * Clases de prioridad, de mayor a menor.
+     */
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final int maxInFlight;
+    private final long agingNanos;
+    private final Map<String, Priority> channelPriorities;
+
+    private final List<ConcurrentLinkedQueue<Task<?>>> queues = new ArrayList<>();
+    private final LongAdder[] enqueued = new LongAdder[PRIORITIES.length];
+    private final LongAdder[] dispatched = new LongAdder[PRIORITIES.length];
+    private final LongAdder aged = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private volatile Timer[] waitTimers;
+
+    public PriorityDispatchScheduler(
+            @Value("${pinapp.gateway.dispatch.scheduler.max-in-flight:128}") int maxInFlight,
+            @Value("${pinapp.gateway.dispatch.scheduler.aging:500ms}") Duration aging,
+            @Value("${pinapp.gateway.dispatch.scheduler.priority.email:}") String emailPriority,
+            @Value("${pinapp.gateway.dispatch.scheduler.priority.sms:}") String smsPriority,
+            @Value("${pinapp.gateway.dispatch.scheduler.priority.push:}") String pushPriority) {
+        this.maxInFlight = maxInFlight;
+        this.agingNanos = aging.toNanos();
+        this.channelPriorities = new HashMap<>();
+        putIfSet("EMAIL", emailPriority);
+        putIfSet("SMS", smsPriority);
+        putIfSet("PUSH", pushPriority);
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues.add(new ConcurrentLinkedQueue<>());
+            enqueued[i] = new LongAdder();
+            dispatched[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Resuelve la clase de prioridad de un envío: la configurada para el canal o, si no hay, la
+     * derivada del estado de la transacción.
+     *
+     * @param channel Canal del envío ("EMAIL", "SMS" o "PUSH")
+     * @param status Estado de la transacción notificada (puede ser {@code null})
+     * @return La clase de prioridad del envío
+     */
+    public Priority priorityFor(String channel, TransactionStatus status) {
+        Priority configured = channelPriorities.get(channel);
+        if (configured != null) {
+            return configured;
+        }
+        if (status == null) {
+            return Priority.NORMAL;
+        }
+        return switch (status) {
+            case REJECTED -> Priority.HIGH;
+            case COMPLETED -> Priority.NORMAL;
+            case PENDING -> Priority.LOW;
+        };
+    }
+
+    /**
+     * Encola un intento de envío y lo lanza cuando le toca un lugar.
+     * <p>
+     * El lugar se ocupa hasta que el future devuelto por {@code attempt} se completa. Si
+     * {@code attempt} lanza una excepción, el future devuelto falla con ella.
+     * </p>
+     *
+     * @param priority Clase de prioridad del envío
+     * @param attempt Lanza el envío al SDK sin bloquear
+     * @return Un {@link CompletableFuture} con el resultado del envío
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Supplier<CompletableFuture<T>> attempt) {
+        if (maxInFlight <= 0) {
+            return attempt.get();
+        }
+        Task<T> task = new Task<>(attempt, System.nanoTime() + priority.ordinal() * agingNanos);
+        enqueued[priority.ordinal()].increment();
+        queues.get(priority.ordinal()).offer(task);
+        drain();
+        return task.result;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long queued(Priority priority) {
+        return enqueued[priority.ordinal()].sum() - dispatched[priority.ordinal()].sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer[] timers = new Timer[PRIORITIES.length];
+        for (Priority priority : PRIORITIES) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            timers[priority.ordinal()] = Timer.builder("gateway.dispatch.scheduler.wait")
+                    .description("Espera en el planificador antes de llegar al SDK")
+                    .tag("priority", tag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+            Gauge.builder("gateway.dispatch.scheduler.queued", this, scheduler -> scheduler.queued(priority))
+                    .description("Envíos esperando lugar en el planificador")
+                    .tag("priority", tag)
+                    .register(registry);
+            FunctionCounter.builder("gateway.dispatch.scheduler.dispatched", dispatched[priority.ordinal()],
+                            LongAdder::sum)
+                    .description("Envíos despachados al SDK por el planificador")
+                    .tag("priority", tag)
+                    .register(registry);
+        }
+        waitTimers = timers;
+        Gauge.builder("gateway.dispatch.scheduler.in-flight", this, PriorityDispatchScheduler::inFlight)
+                .description("Envíos en curso en el SDK")
+                .register(registry);
+        FunctionCounter.builder("gateway.dispatch.scheduler.aged", aged, LongAdder::sum)
+                .description("Envíos despachados por antigüedad delante de una clase de mayor prioridad")
+                .register(registry);
+    }
+
+    private void putIfSet(String channel, String priority) {
+        if (priority != null && !priority.isBlank()) {
+            channelPriorities.put(channel, Priority.valueOf(priority.trim().toUpperCase(Locale.ROOT)));
+        }
+    }
+
+    /**
+     * Despacha envíos mientras haya lugar. Solo un hilo drena a la vez; si otro lo pide mientras
+     * tanto, el que drena vuelve a mirar las colas antes de salir.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (true) {
+            while (inFlight.get() < maxInFlight) {
+                Task<?> task = poll();
+                if (task == null) {
+                    break;
+                }
+                inFlight.incrementAndGet();
+                start(task);
+            }
+            missed = drainRequests.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retira el envío con el menor instante de llegada más el recargo de su clase. Solo lo llama
+     * el hilo que drena, así que la cabeza vista con {@code peek} es la que luego se retira.
+     */
+    private Task<?> poll() {
+        int best = -1;
+        long bestDeadline = 0;
+        for (int i = 0; i < queues.size(); i++) {
+            Task<?> head = queues.get(i).peek();
+            if (head != null && (best < 0 || head.deadline - bestDeadline < 0)) {
+                best = i;
+                bestDeadline = head.deadline;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        for (int i = 0; i < best; i++) {
+            if (!queues.get(i).isEmpty()) {
+                aged.increment();
+                break;
+            }
+        }
+        Task<?> task = queues.get(best).poll();
+        dispatched[best].increment();
+        Timer[] timers = waitTimers;
+        if (timers != null) {
+            timers[best].record(System.nanoTime() - (task.deadline - best * agingNanos), TimeUnit.NANOSECONDS);
+        }
+        return task;
+    }
+
+    private <T> void start(Task<T> task) {
+        CompletableFuture<T> future;
+        try {
+            future = task.attempt.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, throwable) -> {
+            inFlight.decrementAndGet();
+            drain();
+            if (throwable != null) {
+                task.result.completeExceptionally(throwable);
+            } else {
+                task.result.complete(result);
+            }
+        });
+    }
+
+    /**
+     * Envío encolado; {@code deadline} es su instante de llegada más el recargo de su clase.
+     */
+    private record Task<T>(Supplier<CompletableFuture<T>> attempt, long deadline, CompletableFuture<T> result) {
+
+        Task(Supplier<CompletableFuture<T>> attempt, long deadline) {
+            this(attempt, deadline, new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.domain.ports.out.BatchProgressPort;
+import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Detecta las notificaciones asíncronas que quedan en "PROCESSING" porque el SDK nunca emitió
+ * {@code NotificationSentEvent} ni {@code NotificationFailedEvent}, y las marca "TIMED_OUT".
+ * <p>
+ * <strong>Registro:</strong> los adaptadores registran cada intento de envío con
+ * {@link #track(UUID, String)} justo antes de la llamada al proveedor (después del outbox y de la
+ * espera en el {@link PriorityDispatchScheduler}, que no cuentan para el plazo), y {@link TransactionAuditListener} y
+ * {@link NotificationRetryScheduler} lo cancelan con {@link #cancel(String)} al registrar el
+ * resultado. Ambas llamadas solo encolan un comando sin locks; un único hilo los aplica sobre una
+ * {@link DeadlineWheel}, donde programar y cancelar cuestan O(1) y no se recorre el store de
+ * estados.
+ * </p>
+ * <p>
+ * <strong>Vencimiento:</strong> a los {@code timeout} sin resultado se intenta la transición a
+ * "TIMED_OUT" con {@link TransactionStatusPort#transition}; si el resultado llegó por otro camino
+ * sin cancelar el plazo, la transición se rechaza y no pasa nada más. Si se aplica, la
+ * transacción cuenta como fallida en su lote. La entrada del outbox no se confirma: el proveedor
+ * pudo no recibir nunca el envío, así que si tampoco llega un resultado real se reenvía al
+ * arrancar. Un resultado real que llegue después reemplaza a "TIMED_OUT" en el store y, si fue
+ * un éxito, también en los contadores del lote. Las transiciones se
+ * ejecutan en hilos virtuales, fuera del hilo de la rueda, porque el store puede esperar a que la
+ * escritura sea durable.
+ * </p>
+ * <p>
+ * Cada reintento vuelve a empezar el plazo, así que el {@code timeout} debe superar lo que tarda
+ * un intento más la espera hasta el siguiente. Como
+ * máximo se siguen {@code max-tracked} plazos; los envíos que llegan por encima no se siguen y se
+ * cuentan en {@code gateway.deadline.overflow}. Con {@code timeout <= 0} el seguimiento está
+ * deshabilitado.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+public class ProcessingDeadlineTracker implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessingDeadlineTracker.class);
+
+    private static final List<String> CHANNELS = List.of("EMAIL", "SMS", "PUSH");
+    private static final int CANCEL = -1;
+    private static final long COMMAND_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int EXPIRY_CHUNK = 256;
+
+    private final TransactionStatusPort statusPort;
+    private final BatchProgressPort batchProgressPort;
+    private final Duration timeout;
+    private final long timeoutNanos;
+    private final long maxTracked;
+
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final ExecutorService expirations = Executors.newVirtualThreadPerTaskExecutor();
+    private final DeadlineWheel<Void> wheel;
+    private final Thread ticker;
+    private volatile int tracked;
+
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder resolved = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+
+    // Plazos vencidos pendientes de entregar; solo los usa el hilo de la rueda
+    private long[] expiredHighs = new long[EXPIRY_CHUNK];
+    private long[] expiredLows = new long[EXPIRY_CHUNK];
+    private byte[] expiredTags = new byte[EXPIRY_CHUNK];
+    private int expiredCount;
+
+    public ProcessingDeadlineTracker(
+            TransactionStatusPort statusPort,
+            BatchProgressPort batchProgressPort,
+            @Value("${pinapp.gateway.processing-deadline.timeout:5m}") Duration timeout,
+            @Value("${pinapp.gateway.processing-deadline.tick:1s}") Duration tick,
+            @Value("${pinapp.gateway.processing-deadline.max-tracked:10000000}") long maxTracked) {
+        this.statusPort = statusPort;
+        this.batchProgressPort = batchProgressPort;
+        this.timeout = timeout;
+        this.timeoutNanos = timeout.toNanos();
+        this.maxTracked = maxTracked;
+        if (timeoutNanos <= 0) {
+            this.wheel = null;
+            this.ticker = null;
+            return;
+        }
+        this.wheel = new DeadlineWheel<>(tick.toNanos(), timeoutNanos, System.nanoTime());
+        this.ticker = Thread.ofPlatform()
+                .name("processing-deadline-wheel")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    /**
+     * Empieza a contar el plazo de un intento de envío. Si el ID ya tenía un plazo, lo reemplaza.
+     *
+     * @param transactionId ID de la transacción (y de la notificación)
+     * @param channel Canal del envío ("EMAIL", "SMS" o "PUSH")
+     */
+    public void track(UUID transactionId, String channel) {
+        if (wheel == null) {
+            return;
+        }
+        if (tracked >= maxTracked) {
+            overflow.increment();
+            return;
+        }
+        commands.offer(new Command(transactionId.getMostSignificantBits(), transactionId.getLeastSignificantBits(),
+                CHANNELS.indexOf(channel) + 1, System.nanoTime() + timeoutNanos));
+    }
+
+    /**
+     * Deja de contar el plazo porque ya se registró el resultado. No hace nada si el ID no se
+     * sigue.
+     *
+     * @param transactionId ID de la transacción
+     */
+    public void cancel(String transactionId) {
+        if (wheel == null) {
+            return;
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(transactionId);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        commands.offer(new Command(id.getMostSignificantBits(), id.getLeastSignificantBits(), CANCEL, 0));
+    }
+
+    public int tracked() {
+        return tracked;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.deadline.tracked", this, ProcessingDeadlineTracker::tracked)
+                .description("Envíos asíncronos esperando resultado con plazo pendiente")
+                .register(registry);
+        FunctionCounter.builder("gateway.deadline.timed-out", timedOut, LongAdder::sum)
+                .description("Transacciones marcadas TIMED_OUT por falta de resultado del SDK")
+                .register(registry);
+        FunctionCounter.builder("gateway.deadline.resolved", resolved, LongAdder::sum)
+                .description("Plazos vencidos de transacciones que ya tenían resultado")
+                .register(registry);
+        FunctionCounter.builder("gateway.deadline.cancelled", cancelled, LongAdder::sum)
+                .description("Plazos cancelados al registrarse el resultado")
+                .register(registry);
+        FunctionCounter.builder("gateway.deadline.overflow", overflow, LongAdder::sum)
+                .description("Envíos sin seguimiento de plazo por límite de max-tracked")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (ticker != null) {
+            ticker.interrupt();
+        }
+        expirations.shutdownNow();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            applyCommands();
+            wheel.advance(System.nanoTime(), this::collect);
+            flushExpired();
+            tracked = wheel.size();
+            LockSupport.parkNanos(COMMAND_INTERVAL_NANOS);
+        }
+    }
+
+    private void applyCommands() {
+        Command command;
+        while ((command = commands.poll()) != null) {
+            if (command.tag == CANCEL) {
+                if (wheel.cancel(command.high, command.low)) {
+                    cancelled.increment();
+                }
+            } else {
+                wheel.schedule(command.high, command.low, command.tag, command.deadlineNanos, null);
+            }
+        }
+    }
+
+    private void collect(long high, long low, int tag, Void attachment) {
+        if (expiredCount == EXPIRY_CHUNK) {
+            flushExpired();
+        }
+        expiredHighs[expiredCount] = high;
+        expiredLows[expiredCount] = low;
+        expiredTags[expiredCount] = (byte) tag;
+        expiredCount++;
+    }
+
+    /**
+     * Entrega los plazos vencidos acumulados a un hilo virtual, que aplica las transiciones.
+     */
+    private void flushExpired() {
+        if (expiredCount == 0) {
+            return;
+        }
+        long[] highs = expiredHighs;
+        long[] lows = expiredLows;
+        byte[] tags = expiredTags;
+        int count = expiredCount;
+        expiredHighs = new long[EXPIRY_CHUNK];
+        expiredLows = new long[EXPIRY_CHUNK];
+        expiredTags = new byte[EXPIRY_CHUNK];
+        expiredCount = 0;
+        try {
+            expirations.execute(() -> {
+                for (int i = 0; i < count; i++) {
+                    expire(new UUID(highs[i], lows[i]).toString(), tags[i]);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Executor detenido (apagado de la aplicación)
+        }
+    }
+
+    private void expire(String transactionId, int tag) {
+        String channel = tag > 0 ? CHANNELS.get(tag - 1) : null;
+        String provider = channel != null ? channel.toLowerCase(Locale.ROOT) : null;
+        String errorMessage = "Sin resultado del proveedor después de " + timeout;
+        try {
+            boolean applied = statusPort.transition(new TransactionStatusInfo(transactionId, ProcessingStatus.TIMED_OUT.name(),
+                    new NotificationStatus(false, transactionId, provider, errorMessage)));
+            if (!applied) {
+                resolved.increment();
+                return;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not mark transaction as TIMED_OUT transactionId={} error={}", transactionId, e.getMessage());
+            return;
+        }
+        timedOut.increment();
+        // Cuenta como fallida en su lote hasta que un resultado real la corrija
+        batchProgressPort.recordTimeout(transactionId, channel);
+        log.info("Transaction timed out in PROCESSING transactionId={} timeout={}", transactionId, timeout);
+    }
+
+    /**
+     * Alta o baja ({@code tag == CANCEL}) de un plazo, pendiente de aplicar por el hilo de la
+     * rueda. En un alta, {@code tag} es la posición del canal en {@code CHANNELS} más uno (0 si el
+     * canal es desconocido).
+     */
+    private record Command(long high, long low, int tag, long deadlineNanos) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.notify.domain.Notification;
+import com.pinapp.notify.domain.NotificationResult;
+import com.pinapp.notify.domain.vo.ChannelType;
+import com.pinapp.notify.ports.in.NotificationService;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decorador pegado al {@link NotificationService} del SDK que anota cuándo empieza realmente la
+ * llamada al proveedor, es decir, después de que los limitadores de tasa y de concurrencia
+ * concedieron su permiso.
+ * <p>
+ * {@link CircuitBreakingNotificationService} envuelve a los limitadores para rechazar sin esperar
+ * turno con el circuito abierto, pero mide la duración de cada llamada desde la marca de este
+ * reloj: la espera en la cola de los limitadores no cuenta como llamada lenta.
+ * </p>
+ * <p>
+ * Las marcas se indexan por ID de notificación y el circuit breaker las retira al registrar el
+ * resultado. Si dos envíos del mismo ID se solapan, queda la marca del último en empezar.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+public class ProviderCallClock implements NotificationService {
+
+    private final NotificationService delegate;
+    private final Map<UUID, Long> startedAt = new ConcurrentHashMap<>();
+
+    public ProviderCallClock(NotificationService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public NotificationResult send(Notification notification, ChannelType channelType) {
+        startedAt.put(notification.id(), System.nanoTime());
+        return delegate.send(notification, channelType);
+    }
+
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(Notification notification, ChannelType channelType) {
+        startedAt.put(notification.id(), System.nanoTime());
+        return delegate.sendAsync(notification, channelType);
+    }
+
+    /**
+     * Retira la marca de una notificación y devuelve cuánto duró su llamada al proveedor.
+     *
+     * @param notificationId ID de la notificación
+     * @param fallbackStart instante a usar si la llamada no llegó al proveedor
+     * @return la duración en nanosegundos hasta ahora
+     */
+    long elapsedSinceStart(UUID notificationId, long fallbackStart) {
+        Long start = startedAt.remove(notificationId);
+        return System.nanoTime() - (start != null ? start : fallbackStart);
+    }
+}
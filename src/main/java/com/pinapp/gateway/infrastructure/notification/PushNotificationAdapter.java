@@ -1,20 +1,26 @@
 package com.pinapp.gateway.infrastructure.notification;
 
 import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
 import com.pinapp.gateway.domain.model.Transaction;
 import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.domain.ports.out.DeadLetterPort;
 import com.pinapp.gateway.domain.ports.out.NotificationPort;
+import com.pinapp.gateway.domain.ports.out.BatchProgressPort;
 import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
-import com.pinapp.notify.domain.Notification;
 import com.pinapp.notify.domain.NotificationResult;
 import com.pinapp.notify.domain.Recipient;
 import com.pinapp.notify.domain.vo.ChannelType;
 import com.pinapp.notify.ports.in.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Adaptador de infraestructura (Outbound Adapter) para notificaciones Push.
@@ -46,6 +52,11 @@ import java.util.concurrent.CompletableFuture;
  * El adaptador utiliza {@code @Qualifier("pushNotificationService")} para inyectar
  * el servicio específico de Push configurado en {@link com.pinapp.gateway.infrastructure.config.PushConfig}.
  * </p>
+ * <p>
+ * El despacho (ventana del canal, outbox, reintentos, dead letters, envíos programados y reenvío
+ * al arrancar) lo implementa {@link ChannelNotificationAdapter}; este adaptador solo arma el
+ * destinatario y marca la transacción como fallida cuando un envío fire-and-forget falla.
+ * </p>
  *
  * @author PinApp Gateway Team
  * @since 1.0.0
@@ -53,135 +64,73 @@ import java.util.concurrent.CompletableFuture;
  * @see com.pinapp.gateway.infrastructure.config.PushConfig
  */
 @Component("pushAdapter")
-public class PushNotificationAdapter implements NotificationPort {
+public class PushNotificationAdapter extends ChannelNotificationAdapter {
+
+    private static final Logger log = LoggerFactory.getLogger(PushNotificationAdapter.class);
 
-    private final NotificationService pushNotificationService;
     private final TransactionStatusPort statusPort;
+    private final BatchProgressPort batchProgressPort;
+    private final ProcessingDeadlineTracker deadlineTracker;
 
     public PushNotificationAdapter(
             @Qualifier("pushNotificationService") NotificationService pushNotificationService,
-            TransactionStatusPort statusPort) {
-        this.pushNotificationService = pushNotificationService;
+            TransactionStatusPort statusPort,
+            BatchProgressPort batchProgressPort,
+            @Qualifier("pushDispatchWindow") DispatchWindow dispatchWindow,
+            NotificationRetryScheduler retryScheduler,
+            PriorityDispatchScheduler dispatchScheduler,
+            @Qualifier("notificationSendExecutor") Optional<ExecutorService> sendExecutor,
+            Optional<NotificationOutbox> outbox,
+            DeadLetterPort deadLetterPort,
+            ProcessingDeadlineTracker deadlineTracker,
+            DelayedNotificationScheduler delayedScheduler) {
+        super(ChannelType.PUSH, pushNotificationService, dispatchWindow, retryScheduler, dispatchScheduler,
+                sendExecutor, outbox, deadLetterPort, deadlineTracker, delayedScheduler);
         this.statusPort = statusPort;
+        this.batchProgressPort = batchProgressPort;
+        this.deadlineTracker = deadlineTracker;
     }
 
     @Override
-    public NotificationStatus notify(Transaction transaction, String message) {
-        System.out.println("[PUSH-ADAPTER] Processing notification for transaction: " + transaction.id());
-        
+    protected Recipient recipientFor(Transaction transaction) {
         // El deviceToken debe venir de la transacción
         if (transaction.deviceToken() == null || transaction.deviceToken().isBlank()) {
-            System.out.println("[PUSH-ADAPTER] WARNING: deviceToken no proporcionado en la transacción. " +
-                    "La notificación push puede fallar.");
+            log.warn("Missing deviceToken, the push notification may fail channel=PUSH transactionId={}",
+                    transaction.id());
         }
-        
-        Recipient recipient = new Recipient(
-                transaction.email(), 
-                transaction.phone(), 
+        return new Recipient(
+                transaction.email(),
+                transaction.phone(),
                 Map.of(
                     "customerId", transaction.customerName(),
                     "deviceToken", transaction.deviceToken() != null ? transaction.deviceToken() : ""
                 )
         );
-        
-        // Usar el transactionId como notificationId para mantener la relación
-        Notification notification = Notification.builder()
-                .id(transaction.id())
-                .recipient(recipient)
-                .message(message)
-                .build();
-        
-        NotificationResult result = pushNotificationService.send(notification, ChannelType.PUSH);
-        
-        System.out.println("[PUSH-ADAPTER] Notification sent via PUSH channel. Status: " + 
-                (result.success() ? "SUCCESS" : "FAILED"));
-        
-        return mapToStatus(result);
     }
 
     /**
-     * Envía una notificación de forma asíncrona (fire-and-forget) para una transacción.
-     * <p>
-     * Este método implementa el patrón fire-and-forget: dispara la notificación y retorna
-     * inmediatamente sin esperar el resultado. El procesamiento real ocurre en segundo plano
-     * y los eventos de éxito/fallo son capturados automáticamente por el
-     * {@link TransactionAuditListener}, que está registrado como suscriptor del SDK.
-     * </p>
+     * Captura el resultado del envío fire-and-forget y marca la transacción como fallida si hay error.
      * <p>
-     * <strong>Flujo asíncrono:</strong>
+     * Es necesario porque el SDK puede no emitir eventos cuando falla la validación; los envíos
+     * exitosos los resuelve el {@link TransactionAuditListener} vía eventos.
      * </p>
-     * <ol>
-     *   <li>Mapea la {@link Transaction} del dominio al modelo {@link Notification} del SDK</li>
-     *   <li>Llama a {@code notificationService.sendAsync()} que retorna un
-     *       {@link CompletableFuture} del SDK</li>
-     *   <li>Transforma el resultado a {@link CompletableFuture}{@code <Void>} para indicar
-     *       que no se espera el resultado</li>
-     *   <li>El SDK procesa la notificación en segundo plano y emite eventos</li>
-     *   <li>El {@link TransactionAuditListener} captura los eventos y actualiza el store
-     *       automáticamente</li>
-     * </ol>
-     * <p>
-     * <strong>Importante:</strong> No se debe llamar a métodos bloqueantes (como {@code .join()}
-     * o {@code .get()}) sobre el {@link CompletableFuture} retornado. El método está diseñado
-     * para ser usado en operaciones fire-and-forget.
-     * </p>
-     *
-     * @param transaction La transacción de dominio que contiene los datos del destinatario
-     * @param message El mensaje de la notificación definido por la lógica de negocio
-     * @return Un {@link CompletableFuture} que se completa cuando la notificación es enviada al SDK
      */
     @Override
-    public CompletableFuture<Void> sendAsync(Transaction transaction, String message) {
-        System.out.println("[PUSH-ADAPTER] Dispatching async notification for transaction: " + transaction.id());
-        
-        // El deviceToken debe venir de la transacción
-        if (transaction.deviceToken() == null || transaction.deviceToken().isBlank()) {
-            System.out.println("[PUSH-ADAPTER] WARNING: deviceToken no proporcionado en la transacción. " +
-                    "La notificación push puede fallar.");
-        }
-        
-        Recipient recipient = new Recipient(
-                transaction.email(), 
-                transaction.phone(), 
-                Map.of(
-                    "customerId", transaction.customerName(),
-                    "deviceToken", transaction.deviceToken() != null ? transaction.deviceToken() : ""
-                )
-        );
-        
-        // Usar el transactionId como notificationId para mantener la relación
-        // Esto permite que TransactionAuditListener actualice el estado correcto
-        Notification notification = Notification.builder()
-                .id(transaction.id())
-                .recipient(recipient)
-                .message(message)
-                .build();
-        
-        // Llamar al SDK de forma asíncrona y transformar a CompletableFuture<Void>
-        CompletableFuture<NotificationResult> sdkFuture = pushNotificationService.sendAsync(notification, ChannelType.PUSH);
-        
+    protected CompletableFuture<Void> onDispatched(Transaction transaction,
+            CompletableFuture<NotificationResult> outcome) {
         String transactionId = transaction.id().toString();
-        
-        // Capturar el resultado y actualizar el estado si hay error
-        // Esto es necesario porque el SDK puede no emitir eventos cuando falla la validación
-        return sdkFuture.handle((result, throwable) -> {
+        return outcome.handle((result, throwable) -> {
             if (throwable != null) {
-                // Si hay una excepción, actualizar el estado a FAILED
                 String errorMessage = throwable.getMessage() != null ? throwable.getMessage() : "Error desconocido";
-                System.out.println("[PUSH-ADAPTER] Exception in async notification for transaction " + transactionId + 
-                        ": " + errorMessage);
+                log.warn("Async notification failed with exception channel=PUSH transactionId={} error={}",
+                        transactionId, errorMessage);
                 updateStatusOnError(transactionId, errorMessage);
-                return null;
             } else if (result != null && !result.success()) {
-                // Si el resultado indica fallo, actualizar el estado
                 String errorMessage = result.errorMessage() != null ? result.errorMessage() : "Notificación fallida";
-                System.out.println("[PUSH-ADAPTER] Async notification failed for transaction " + transactionId + 
-                        ". Error: " + errorMessage);
+                log.warn("Async notification failed channel=PUSH transactionId={} error={}", transactionId, errorMessage);
                 updateStatusOnError(transactionId, errorMessage);
             } else {
-                // Si es exitoso, el TransactionAuditListener lo manejará vía eventos
-                System.out.println("[PUSH-ADAPTER] Async notification dispatched for transaction " + transactionId + 
-                        ". Final status will be updated by TransactionAuditListener.");
+                log.debug("Async notification dispatched channel=PUSH transactionId={}", transactionId);
             }
             return null;
         });
@@ -191,7 +140,9 @@ public class PushNotificationAdapter implements NotificationPort {
      * Actualiza el estado de la transacción a FAILED cuando hay un error.
      * <p>
      * Este método se usa como fallback cuando el SDK no emite eventos de error
-     * (por ejemplo, en errores de validación tempranos).
+     * (por ejemplo, en errores de validación tempranos). Si la transacción pertenece a un lote,
+     * también cuenta como fallida en su progreso (solo si el SDK no informó antes un resultado).
+     * Si el SDK ya había resuelto la transacción, el estado no se pisa.
      * </p>
      *
      * @param transactionId El ID de la transacción
@@ -206,20 +157,15 @@ public class PushNotificationAdapter implements NotificationPort {
 
         TransactionStatusInfo statusInfo = new TransactionStatusInfo(
                 transactionId,
-                "FAILED",
+                ProcessingStatus.FAILED.name(),
                 notificationStatus);
 
-        statusPort.save(statusInfo);
-        System.out.println("[PUSH-ADAPTER] Updated transaction " + transactionId + 
-                " to status FAILED with error: " + errorMessage);
-    }
-
-    private NotificationStatus mapToStatus(NotificationResult result) {
-        return new NotificationStatus(
-                result.success(),
-                result.notificationId().toString(),
-                result.providerName(),
-                result.errorMessage()
-        );
+        if (!statusPort.transition(statusInfo)) {
+            return;
+        }
+        batchProgressPort.recordOutcome(transactionId, ChannelType.PUSH.name(), false);
+        deadlineTracker.cancel(transactionId);
+        log.info("Updated transaction status transactionId={} status=FAILED provider=push error={}",
+                transactionId, errorMessage);
     }
 }
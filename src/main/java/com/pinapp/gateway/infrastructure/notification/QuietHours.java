@@ -0,0 +1,80 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Franja horaria diaria en la que un canal no envía notificaciones asíncronas, por ejemplo
+ * {@code 22:00}-{@code 08:00} para SMS. La franja puede cruzar la medianoche; el inicio se incluye
+ * y el fin no.
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+final class QuietHours {
+
+    private final LocalTime start;
+    private final LocalTime end;
+    private final ZoneId zone;
+
+    private QuietHours(LocalTime start, LocalTime end, ZoneId zone) {
+        this.start = start;
+        this.end = end;
+        this.zone = zone;
+    }
+
+    /**
+     * Interpreta la configuración de la franja.
+     *
+     * @param start Hora de inicio ({@code HH:mm}), o vacía si el canal no tiene franja
+     * @param end Hora de fin ({@code HH:mm}), o vacía si el canal no tiene franja
+     * @param zone Zona horaria de las horas, o vacía para la del sistema
+     * @return La franja, o {@code null} si no está configurada
+     */
+    static QuietHours of(String start, String end, String zone) {
+        if (start == null || start.isBlank() || end == null || end.isBlank()) {
+            return null;
+        }
+        return new QuietHours(LocalTime.parse(start.trim()), LocalTime.parse(end.trim()),
+                zone == null || zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone.trim()));
+    }
+
+    /**
+     * Diferimiento más largo que puede pedir la franja: su duración, más una hora por un cambio de
+     * horario que la alargue.
+     */
+    Duration maxDeferral() {
+        if (start.equals(end)) {
+            return Duration.ZERO;
+        }
+        Duration length = Duration.between(start, end);
+        if (!length.isPositive()) {
+            length = length.plusDays(1);
+        }
+        return length.plusHours(1);
+    }
+
+    /**
+     * Indica hasta cuándo debe diferirse un envío.
+     *
+     * @param now Instante del envío
+     * @return El fin de la franja si {@code now} cae dentro, o {@code null} si puede enviarse ya
+     */
+    Instant deferUntil(Instant now) {
+        ZonedDateTime local = now.atZone(zone);
+        LocalTime time = local.toLocalTime();
+        boolean overnight = start.isAfter(end);
+        boolean quiet = overnight
+                ? !time.isBefore(start) || time.isBefore(end)
+                : !time.isBefore(start) && time.isBefore(end);
+        if (!quiet) {
+            return null;
+        }
+        LocalDate endDay = overnight && !time.isBefore(start) ? local.toLocalDate().plusDays(1) : local.toLocalDate();
+        return ZonedDateTime.of(endDay, end, zone).toInstant();
+    }
+}
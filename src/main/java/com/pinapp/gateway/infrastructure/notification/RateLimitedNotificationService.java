@@ -0,0 +1,108 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.notify.domain.Notification;
+import com.pinapp.notify.domain.NotificationResult;
+import com.pinapp.notify.domain.vo.ChannelType;
+import com.pinapp.notify.ports.in.NotificationService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decorador de un {@link NotificationService} del SDK que respeta la cuota por segundo del
+ * proveedor mediante un {@link RateLimiter}.
+ * <p>
+ * Las ráfagas se suavizan en lugar de rechazarse: cada envío reserva su turno y espera hasta
+ * entonces. {@code sendAsync} no retiene ningún hilo durante la espera (la llamada al proveedor se
+ * programa para el instante del turno); {@code send} espera en el hilo llamador, que en ese camino
+ * ya está bloqueado por diseño.
+ * </p>
+ * <p>
+ * El temporizador de {@link CompletableFuture#delayedExecutor} es un único hilo compartido por
+ * toda la JVM, así que al llegar el turno solo despacha la tarea: el resto del envío (los
+ * limitadores y la entrega al SDK) continúa en el executor de envíos (hilos virtuales, ver
+ * {@code ExecutionConfig}) o, si no existe, en el pool común.
+ * </p>
+ * <p>
+ * <strong>Descarte:</strong> si la cola del limitador está llena se devuelve de inmediato un
+ * {@link NotificationResult} fallido cuyo mensaje empieza con {@value #RATE_LIMITED_MESSAGE}. El
+ * circuit breaker no lo cuenta como fallo del proveedor y {@link NotificationRetryScheduler} lo
+ * reintenta con backoff como cualquier otro fallo transitorio.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+public class RateLimitedNotificationService implements NotificationService {
+
+    static final String RATE_LIMITED_MESSAGE = "Límite de tasa excedido";
+
+    private final NotificationService delegate;
+    private final RateLimiter limiter;
+    private final ChannelType channel;
+    private final String providerName;
+    private final Executor executor;
+
+    /**
+     * @param executor Donde continúan los envíos que esperaron turno; {@code null} para el pool
+     *        común
+     */
+    public RateLimitedNotificationService(NotificationService delegate, RateLimiter limiter,
+            ChannelType channel, String providerName, Executor executor) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.channel = channel;
+        this.providerName = providerName;
+        this.executor = executor != null ? executor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Indica si un resultado es un descarte del limitador y no una respuesta del proveedor.
+     */
+    public static boolean isRateLimited(NotificationResult result) {
+        return result != null && !result.success() && result.errorMessage() != null
+                && result.errorMessage().startsWith(RATE_LIMITED_MESSAGE);
+    }
+
+    @Override
+    public NotificationResult send(Notification notification, ChannelType channelType) {
+        long wait = limiter.reserve();
+        if (wait == RateLimiter.DROPPED) {
+            return dropped(notification);
+        }
+        limiter.beginWait(wait);
+        try {
+            long deadline = System.nanoTime() + wait;
+            for (long remaining = wait; remaining > 0; remaining = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(remaining);
+            }
+        } finally {
+            limiter.endWait(wait);
+        }
+        return delegate.send(notification, channelType);
+    }
+
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(Notification notification, ChannelType channelType) {
+        long wait = limiter.reserve();
+        if (wait == RateLimiter.DROPPED) {
+            return CompletableFuture.completedFuture(dropped(notification));
+        }
+        limiter.beginWait(wait);
+        if (wait == 0) {
+            return delegate.sendAsync(notification, channelType);
+        }
+        Executor atTurn = CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS, executor);
+        return CompletableFuture.runAsync(() -> limiter.endWait(wait), atTurn)
+                .thenCompose(ignored -> delegate.sendAsync(notification, channelType));
+    }
+
+    private NotificationResult dropped(Notification notification) {
+        return NotificationResult.failure(notification.id(), providerName, channel,
+                RATE_LIMITED_MESSAGE + " para el canal " + channel + ": la cola del proveedor "
+                        + providerName + " está llena");
+    }
+}
@@ -0,0 +1,135 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket de un canal de notificación, con espera acotada en lugar de rechazo inmediato.
+ * <p>
+ * <strong>Algoritmo:</strong> se implementa como GCRA (la forma "por turnos" del token bucket).
+ * El único estado es el instante teórico en que el balde vuelve a estar vacío; cada
+ * {@link #reserve()} lo avanza un intervalo ({@code 1 / permitsPerSecond}) con un CAS y devuelve
+ * cuánto debe esperar el llamador por su turno. Hasta {@code burst} envíos seguidos no esperan;
+ * los siguientes quedan espaciados al ritmo configurado. El camino de adquisición no toma locks.
+ * </p>
+ * <p>
+ * <strong>Cola acotada:</strong> si el turno disponible está a más de {@code maxQueueWait}, el
+ * envío se descarta sin consumir turno. Así como máximo
+ * {@code maxQueueWait × permitsPerSecond} envíos esperan a la vez.
+ * </p>
+ * <p>
+ * Con {@code permitsPerSecond <= 0} el limitador está deshabilitado y no espera nunca.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see RateLimitedNotificationService
+ */
+public class RateLimiter implements MeterBinder {
+
+    /** Resultado de {@link #reserve()} cuando el envío se descarta. */
+    public static final long DROPPED = -1;
+
+    private final String channel;
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final long maxQueueWaitNanos;
+
+    // Instante teórico de llegada (TAT) del próximo turno, en la escala de System.nanoTime()
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private volatile Timer waitTimer;
+
+    public RateLimiter(String channel, double permitsPerSecond, int burst, Duration maxQueueWait) {
+        this.channel = channel;
+        this.intervalNanos = permitsPerSecond > 0 ? Math.max(1, Math.round(1e9 / permitsPerSecond)) : 0;
+        this.burstToleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+    }
+
+    /**
+     * Reserva el turno del próximo envío.
+     *
+     * @return nanosegundos que el llamador debe esperar antes de enviar (0 si puede enviar ya), o
+     *         {@link #DROPPED} si la espera superaría {@code maxQueueWait}
+     */
+    public long reserve() {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+        while (true) {
+            long now = System.nanoTime();
+            long stored = theoreticalArrival.get();
+            long tat = Math.max(stored, now);
+            long wait = Math.max(0, tat - burstToleranceNanos - now);
+            if (wait > maxQueueWaitNanos) {
+                dropped.increment();
+                return DROPPED;
+            }
+            if (theoreticalArrival.compareAndSet(stored, tat + intervalNanos)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Registra el comienzo de una espera de {@code waitNanos} por un turno.
+     */
+    public void beginWait(long waitNanos) {
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(waitNanos, TimeUnit.NANOSECONDS);
+        }
+        if (waitNanos > 0) {
+            waiting.incrementAndGet();
+        }
+    }
+
+    /**
+     * Registra el final de una espera iniciada con {@link #beginWait(long)}.
+     */
+    public void endWait(long waitNanos) {
+        if (waitNanos > 0) {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        waitTimer = Timer.builder("gateway.ratelimit.wait")
+                .description("Espera en la cola del limitador antes de llamar al proveedor")
+                .tag("channel", channel)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Gauge.builder("gateway.ratelimit.queued", this, RateLimiter::waiting)
+                .description("Envíos esperando su turno en el limitador")
+                .tag("channel", channel)
+                .register(registry);
+        FunctionCounter.builder("gateway.ratelimit.dropped", dropped, LongAdder::sum)
+                .description("Envíos descartados porque la espera superaba max-queue-wait")
+                .tag("channel", channel)
+                .register(registry);
+    }
+}
@@ -1,18 +1,19 @@
 package com.pinapp.gateway.infrastructure.notification;
 
-import com.pinapp.gateway.domain.model.NotificationStatus;
 import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.ports.out.DeadLetterPort;
 import com.pinapp.gateway.domain.ports.out.NotificationPort;
-import com.pinapp.notify.domain.Notification;
-import com.pinapp.notify.domain.NotificationResult;
 import com.pinapp.notify.domain.Recipient;
 import com.pinapp.notify.domain.vo.ChannelType;
 import com.pinapp.notify.ports.in.NotificationService;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Adaptador de infraestructura (Outbound Adapter) para notificaciones por SMS.
@@ -39,6 +40,11 @@ import java.util.concurrent.CompletableFuture;
  * El adaptador utiliza {@code @Qualifier("smsNotificationService")} para inyectar
  * el servicio específico de SMS configurado en {@link com.pinapp.gateway.infrastructure.config.SmsConfig}.
  * </p>
+ * <p>
+ * El despacho (ventana del canal, outbox, reintentos, dead letters, envíos programados y reenvío
+ * al arrancar) lo implementa {@link ChannelNotificationAdapter}; este adaptador solo arma el
+ * destinatario y difiere los envíos dentro del horario de silencio.
+ * </p>
  *
  * @author PinApp Gateway Team
  * @since 1.0.0
@@ -46,84 +52,49 @@ import java.util.concurrent.CompletableFuture;
  * @see com.pinapp.gateway.infrastructure.config.SmsConfig
  */
 @Component("smsAdapter")
-public class SmsNotificationAdapter implements NotificationPort {
+public class SmsNotificationAdapter extends ChannelNotificationAdapter {
 
-    private final NotificationService smsNotificationService;
+    // null si el canal no tiene horario de silencio
+    private final QuietHours quietHours;
 
-    public SmsNotificationAdapter(@Qualifier("smsNotificationService") NotificationService smsNotificationService) {
-        this.smsNotificationService = smsNotificationService;
+    public SmsNotificationAdapter(
+            @Qualifier("smsNotificationService") NotificationService smsNotificationService,
+            @Qualifier("smsDispatchWindow") DispatchWindow dispatchWindow,
+            NotificationRetryScheduler retryScheduler,
+            PriorityDispatchScheduler dispatchScheduler,
+            @Qualifier("notificationSendExecutor") Optional<ExecutorService> sendExecutor,
+            Optional<NotificationOutbox> outbox,
+            DeadLetterPort deadLetterPort,
+            ProcessingDeadlineTracker deadlineTracker,
+            DelayedNotificationScheduler delayedScheduler,
+            @Value("${pinapp.gateway.quiet-hours.sms.start:}") String quietStart,
+            @Value("${pinapp.gateway.quiet-hours.sms.end:}") String quietEnd,
+            @Value("${pinapp.gateway.quiet-hours.zone:}") String quietZone) {
+        super(ChannelType.SMS, smsNotificationService, dispatchWindow, retryScheduler, dispatchScheduler,
+                sendExecutor, outbox, deadLetterPort, deadlineTracker, delayedScheduler);
+        this.quietHours = QuietHours.of(quietStart, quietEnd, quietZone);
+        if (quietHours != null && quietHours.maxDeferral().compareTo(delayedScheduler.maxDelay()) > 0) {
+            throw new IllegalArgumentException("El horario de silencio de SMS (" + quietStart + "-" + quietEnd
+                    + ") puede diferir envíos más que pinapp.gateway.scheduled.max-delay ("
+                    + delayedScheduler.maxDelay() + ")");
+        }
     }
 
     @Override
-    public NotificationStatus notify(Transaction transaction, String message) {
-        System.out.println("[SMS-ADAPTER] Processing notification for transaction: " + transaction.id());
-        
-        Recipient recipient = new Recipient(
-                transaction.email(), 
-                transaction.phone(), 
+    protected Recipient recipientFor(Transaction transaction) {
+        return new Recipient(
+                transaction.email(),
+                transaction.phone(),
                 Map.of("customerId", transaction.customerName())
         );
-        
-        // Usar el transactionId como notificationId para mantener la relación
-        Notification notification = Notification.builder()
-                .id(transaction.id())
-                .recipient(recipient)
-                .message(message)
-                .build();
-        
-        NotificationResult result = smsNotificationService.send(notification, ChannelType.SMS);
-        
-        System.out.println("[SMS-ADAPTER] Notification sent via SMS channel. Status: " + 
-                (result.success() ? "SUCCESS" : "FAILED"));
-        
-        return mapToStatus(result);
     }
 
     /**
-     * Envía una notificación de forma asíncrona (fire-and-forget) para una transacción.
-     * <p>
-     * Similar a {@link PushNotificationAdapter#sendAsync}, este método dispara la notificación
-     * y retorna inmediatamente. El procesamiento real ocurre en segundo plano y los eventos
-     * son capturados por el {@link TransactionAuditListener}.
-     * </p>
-     *
-     * @param transaction La transacción de dominio que contiene los datos del destinatario
-     * @param message El mensaje de la notificación definido por la lógica de negocio
-     * @return Un {@link CompletableFuture} que se completa cuando la notificación es enviada al SDK
+     * Dentro del horario de silencio ({@code pinapp.gateway.quiet-hours.sms}) los envíos
+     * fire-and-forget se programan para el fin de la franja.
      */
     @Override
-    public CompletableFuture<Void> sendAsync(Transaction transaction, String message) {
-        System.out.println("[SMS-ADAPTER] Dispatching async notification for transaction: " + transaction.id());
-        
-        Recipient recipient = new Recipient(
-                transaction.email(), 
-                transaction.phone(), 
-                Map.of("customerId", transaction.customerName())
-        );
-        
-        // Usar el transactionId como notificationId para mantener la relación
-        // Esto permite que TransactionAuditListener actualice el estado correcto
-        Notification notification = Notification.builder()
-                .id(transaction.id())
-                .recipient(recipient)
-                .message(message)
-                .build();
-        
-        CompletableFuture<NotificationResult> sdkFuture = smsNotificationService.sendAsync(notification, ChannelType.SMS);
-        
-        return sdkFuture.thenAccept(result -> {
-            System.out.println("[SMS-ADAPTER] Async notification dispatched. " +
-                    "Final status will be updated by TransactionAuditListener. " +
-                    "SDK Status: " + (result.success() ? "SUCCESS" : "FAILED"));
-        });
-    }
-
-    private NotificationStatus mapToStatus(NotificationResult result) {
-        return new NotificationStatus(
-                result.success(),
-                result.notificationId().toString(),
-                result.providerName(),
-                result.errorMessage()
-        );
+    protected Instant deferUntil(Instant now) {
+        return quietHours != null ? quietHours.deferUntil(now) : null;
     }
 }
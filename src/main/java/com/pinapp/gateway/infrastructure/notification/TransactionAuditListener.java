@@ -1,95 +1,272 @@
 package com.pinapp.gateway.infrastructure.notification;
 
 import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
 import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.domain.ports.out.BatchProgressPort;
 import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
 import com.pinapp.notify.core.events.NotificationEvent;
 import com.pinapp.notify.core.events.NotificationFailedEvent;
 import com.pinapp.notify.core.events.NotificationSentEvent;
 import com.pinapp.notify.core.events.NotificationSubscriber;
-import com.pinapp.notify.domain.NotificationResult;
+import com.pinapp.notify.domain.vo.ChannelType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Suscriptor de los eventos del SDK que registra el resultado de cada notificación.
+ * <p>
+ * <strong>Pipeline:</strong> {@link #onEvent} corre en el hilo del SDK, así que solo clasifica el
+ * evento y lo encola en un {@link MpscRingBuffer} acotado ({@code queue-capacity}). Un único hilo
+ * escritor lo vacía en tandas de hasta {@code batch-size} eventos, combina los de un mismo ID (un
+ * éxito prevalece sobre un fallo, como en el ciclo de vida) y los aplica con
+ * {@link TransactionStatusPort#transitionAll}; después suma los resultados a sus lotes, los
+ * confirma en el outbox y cancela sus plazos. Con la cola llena, el evento se aplica en el hilo
+ * del SDK, como antes, en lugar de perderse.
+ * </p>
+ * <p>
+ * La profundidad de la cola y el ritmo de vaciado se publican en {@code gateway.audit.*}.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
 @Component
-public class TransactionAuditListener implements NotificationSubscriber {
+public class TransactionAuditListener implements NotificationSubscriber, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionAuditListener.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
 
     private final TransactionStatusPort statusPort;
+    private final BatchProgressPort batchProgressPort;
+    private final NotificationRetryScheduler retryScheduler;
+    // Ausente con pinapp.gateway.outbox.enabled=false
+    private final NotificationOutbox outbox;
+    private final ProcessingDeadlineTracker deadlineTracker;
+
+    private final MpscRingBuffer<Outcome> queue;
+    private final int batchSize;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean writerIdle;
 
-    public TransactionAuditListener(TransactionStatusPort statusPort) {
+    private final LongAdder drained = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+    private final LongAdder retryPending = new LongAdder();
+
+    public TransactionAuditListener(TransactionStatusPort statusPort, BatchProgressPort batchProgressPort,
+            NotificationRetryScheduler retryScheduler, Optional<NotificationOutbox> outbox,
+            ProcessingDeadlineTracker deadlineTracker,
+            @Value("${pinapp.gateway.audit.queue-capacity:65536}") int queueCapacity,
+            @Value("${pinapp.gateway.audit.batch-size:1024}") int batchSize) {
         this.statusPort = statusPort;
+        this.batchProgressPort = batchProgressPort;
+        this.retryScheduler = retryScheduler;
+        this.outbox = outbox.orElse(null);
+        this.deadlineTracker = deadlineTracker;
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.writer = Thread.ofPlatform()
+                .name("audit-writer")
+                .daemon(true)
+                .start(this::writeLoop);
     }
 
     @Override
     public void onEvent(NotificationEvent event) {
-        // Log detallado al inicio para diagnosticar qué eventos se reciben
-        String eventType = event.getClass().getSimpleName();
-        String notificationId = extractNotificationId(event);
-        System.out.println("[AUDIT] Received event: " + eventType + " for notificationId: " + notificationId);
-        
         switch (event) {
-            case NotificationSentEvent sent -> {
-                NotificationResult result = NotificationResult.success(
-                        UUID.fromString(sent.notificationId()),
-                        sent.provider(),
-                        sent.channel());
-                System.out.println("[AUDIT-SUCCESS] Notification sent. ID: " + sent.notificationId() + 
-                        ", Provider: " + sent.provider() + ", Channel: " + sent.channel());
-                updateStatusStore(result);
-            }
+            case NotificationSentEvent sent ->
+                    submit(new Outcome(sent.notificationId(), channelOf(sent.channel()), true, sent.provider(), null));
             case NotificationFailedEvent failed -> {
-                String errorMessage = failed.errorMessage();
-                System.out.println("[AUDIT-FAILURE] Notification failed. ID: " + failed.notificationId() + 
-                        ", Provider: " + failed.provider() + ", Channel: " + failed.channel() + 
-                        ", Error: " + (errorMessage != null ? errorMessage : "No error message"));
-                
-                NotificationResult result = NotificationResult.failure(
-                        UUID.fromString(failed.notificationId()),
-                        failed.provider(),
-                        failed.channel(),
-                        errorMessage);
-                updateStatusStore(result);
+                // Fallo intermedio: el motor de reintentos registra el estado final si se agotan los intentos.
+                // Se decide aquí y no en el escritor, porque para entonces el reintento pudo haber terminado.
+                if (retryScheduler.isInFlight(failed.notificationId())) {
+                    retryPending.increment();
+                    return;
+                }
+                submit(new Outcome(failed.notificationId(), channelOf(failed.channel()), false, failed.provider(),
+                        failed.errorMessage()));
+            }
+            default -> log.warn("Unknown event type type={}", event.getClass().getName());
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.audit.queue.depth", this, TransactionAuditListener::queueDepth)
+                .description("Eventos del SDK esperando al escritor de estados")
+                .register(registry);
+        FunctionCounter.builder("gateway.audit.drained", drained, LongAdder::sum)
+                .description("Eventos del SDK retirados de la cola por el escritor de estados")
+                .register(registry);
+        FunctionCounter.builder("gateway.audit.coalesced", coalesced, LongAdder::sum)
+                .description("Eventos combinados con otro del mismo ID en la misma tanda")
+                .register(registry);
+        FunctionCounter.builder("gateway.audit.overflow", overflow, LongAdder::sum)
+                .description("Eventos aplicados en el hilo del SDK por cola llena")
+                .register(registry);
+        FunctionCounter.builder("gateway.audit.retry-pending", retryPending, LongAdder::sum)
+                .description("Fallos intermedios ignorados porque el envío se reintenta")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void submit(Outcome outcome) {
+        if (!queue.offer(outcome)) {
+            overflow.increment();
+            apply(List.of(outcome));
+            return;
+        }
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Vacía la cola en tandas hasta el apagado, y una última vez después.
+     */
+    private void writeLoop() {
+        List<Outcome> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Outcome outcome;
+            while (batch.size() < batchSize && (outcome = queue.poll()) != null) {
+                batch.add(outcome);
+            }
+            if (!batch.isEmpty()) {
+                drained.add(batch.size());
+                List<Outcome> outcomes = coalesce(batch);
+                try {
+                    apply(outcomes);
+                } catch (RuntimeException e) {
+                    // Un estado inválido no debe descartar el resto de la tanda: se reintentan de a uno
+                    for (Outcome single : outcomes) {
+                        try {
+                            apply(List.of(single));
+                        } catch (RuntimeException singleError) {
+                            log.error("Error updating transaction status transactionId={} error={}",
+                                    single.transactionId, singleError.getMessage());
+                        }
+                    }
+                }
+                batch.clear();
+                continue;
+            }
+            if (!running) {
+                return;
             }
-            default -> System.out.println("[AUDIT-UNKNOWN] Unknown event type: " + event.getClass().getName());
+            // Con writerIdle visible, un productor que encola a partir de ahora despierta al escritor
+            writerIdle = true;
+            if (queue.isEmpty() && running) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            writerIdle = false;
         }
     }
-    
+
     /**
-     * Extrae el notificationId de un evento para logging.
+     * Combina los eventos de un mismo envío (ID y canal), conservando el orden de llegada del
+     * primero: un éxito prevalece sobre un fallo y, entre dos del mismo tipo, queda el último. Los
+     * envíos de una misma transacción por canales distintos no se combinan: cada uno se confirma
+     * por separado en el outbox.
      */
-    private String extractNotificationId(NotificationEvent event) {
-        return switch (event) {
-            case NotificationSentEvent sent -> sent.notificationId();
-            case NotificationFailedEvent failed -> failed.notificationId();
-            default -> "unknown";
-        };
+    private List<Outcome> coalesce(List<Outcome> batch) {
+        Map<String, Outcome> byId = new LinkedHashMap<>();
+        for (Outcome outcome : batch) {
+            byId.merge(outcome.transactionId + '/' + outcome.channel, outcome,
+                    (previous, next) -> previous.success && !next.success ? previous : next);
+        }
+        coalesced.add(batch.size() - byId.size());
+        return byId.size() == batch.size() ? batch : new ArrayList<>(byId.values());
     }
 
-    private void updateStatusStore(NotificationResult result) {
-        NotificationStatus domainNotificationStatus = new NotificationStatus(
-                result.success(),
-                result.notificationId().toString(),
-                result.providerName(),
-                result.errorMessage());
-
-        // El notificationId es el mismo que el transactionId porque los adaptadores
-        // usan Notification.builder().id(transaction.id()) al crear la notificación
-        String transactionId = result.notificationId().toString();
-        
-        // Mantener "FAILED" cuando hay error y asegurar que el errorMessage se guarde
-        String status = result.success() ? "COMPLETED" : "FAILED";
-        
-        TransactionStatusInfo statusInfo = new TransactionStatusInfo(
-                transactionId,
-                status,
-                domainNotificationStatus);
-
-        statusPort.save(statusInfo);
-        
-        // Log adicional para verificar que se está actualizando
-        System.out.println("[AUDIT] Updated transaction " + transactionId + 
-                " to status " + status + 
-                (result.errorMessage() != null ? " with error: " + result.errorMessage() : ""));
+    /**
+     * Registra los estados finales en el store a partir de los datos de los eventos.
+     * <p>
+     * El notificationId es el mismo que el transactionId porque los adaptadores
+     * usan Notification.builder().id(transaction.id()) al crear la notificación, por lo
+     * que el String del evento se usa directamente como clave, sin volver a parsearlo
+     * como {@code UUID} ni construir un {@code NotificationResult} intermedio.
+     * </p>
+     * <p>
+     * Si la transacción pertenece a un lote, el resultado se suma a los contadores del lote, y si
+     * fue despachada a través del outbox se confirma allí para que no se reenvíe al arrancar. Con
+     * el resultado registrado se cancela su plazo en el {@link ProcessingDeadlineTracker}.
+     * </p>
+     * <p>
+     * Los estados se escriben con {@link TransactionStatusPort#transitionAll}: un evento tardío o
+     * duplicado que no avanza el ciclo de vida (por ejemplo, un fallo después de "COMPLETED") se
+     * descarta en lugar de pisar el estado.
+     * </p>
+     */
+    private void apply(List<Outcome> outcomes) {
+        List<TransactionStatusInfo> statusInfos = new ArrayList<>(outcomes.size());
+        for (Outcome outcome : outcomes) {
+            // Mantener "FAILED" cuando hay error y asegurar que el errorMessage se guarde
+            statusInfos.add(new TransactionStatusInfo(
+                    outcome.transactionId,
+                    (outcome.success ? ProcessingStatus.COMPLETED : ProcessingStatus.FAILED).name(),
+                    new NotificationStatus(outcome.success, outcome.transactionId, outcome.provider,
+                            outcome.errorMessage)));
+        }
+
+        boolean[] applied = statusPort.transitionAll(statusInfos);
+        for (int i = 0; i < outcomes.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            batchProgressPort.recordOutcome(outcome.transactionId, outcome.channel, outcome.success);
+            if (outbox != null) {
+                outbox.acknowledge(outcome.transactionId, outcome.channel);
+            }
+            deadlineTracker.cancel(outcome.transactionId);
+
+            String status = statusInfos.get(i).status();
+            if (!applied[i]) {
+                log.debug("Ignored stale status transactionId={} status={}", outcome.transactionId, status);
+                continue;
+            }
+            // Más de dos argumentos: el guard evita armar el arreglo de varargs si INFO está deshabilitado
+            if (log.isInfoEnabled()) {
+                log.info("Updated transaction status transactionId={} status={} provider={} error={}",
+                        outcome.transactionId, status, outcome.provider, outcome.errorMessage);
+            }
+        }
+    }
+
+    private static String channelOf(ChannelType channel) {
+        return channel != null ? channel.name() : null;
+    }
+
+    /**
+     * Resultado de una notificación informado por el SDK, pendiente de aplicar.
+     */
+    private record Outcome(String transactionId, String channel, boolean success, String provider,
+            String errorMessage) {
     }
 }
@@ -0,0 +1,77 @@
+package com.pinapp.gateway.infrastructure.rest.controller;
+
+import com.pinapp.gateway.domain.model.BatchSummary;
+import com.pinapp.gateway.domain.model.DeadLetterFilter;
+import com.pinapp.gateway.domain.ports.in.DeadLetterService;
+import com.pinapp.gateway.infrastructure.rest.dto.DeadLetterReplayResponse;
+import com.pinapp.gateway.infrastructure.rest.dto.DeadLetterResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Endpoints de administración de las notificaciones que fallaron de forma definitiva.
+ * <p>
+ * Ambos endpoints aceptan el mismo filtro por query params: {@code channel}, {@code provider},
+ * {@code error} (texto contenido en el error) y el rango {@code from}/{@code to} (ISO-8601). Tras
+ * una caída de un proveedor, un único {@code POST /replay?provider=...&from=...} reenvía todo lo
+ * que falló en ese período.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@RestController
+@RequestMapping("/v1/admin/dead-letters")
+@Tag(name = "Dead letters", description = "Inspección y reenvío de notificaciones fallidas")
+public class DeadLetterController {
+
+        private final DeadLetterService deadLetterService;
+
+        public DeadLetterController(DeadLetterService deadLetterService) {
+                this.deadLetterService = deadLetterService;
+        }
+
+        @Operation(summary = "Listar notificaciones fallidas", description = "Devuelve las notificaciones fallidas que cumplen el filtro, las más antiguas primero.")
+        @ApiResponse(responseCode = "200", description = "Notificaciones fallidas encontradas")
+        @GetMapping
+        public List<DeadLetterResponse> find(
+                        @RequestParam(required = false) String channel,
+                        @RequestParam(required = false) String provider,
+                        @RequestParam(required = false) String error,
+                        @RequestParam(required = false) Instant from,
+                        @RequestParam(required = false) Instant to,
+                        @RequestParam(defaultValue = "100") int limit) {
+                return deadLetterService.find(new DeadLetterFilter(channel, provider, error, from, to), limit).stream()
+                                .map(DeadLetterResponse::from)
+                                .toList();
+        }
+
+        @Operation(summary = "Reenviar notificaciones fallidas", description = "Reserva las notificaciones fallidas que cumplen el filtro y las reenvía en segundo plano por el camino normal de despacho, a lo sumo a permitsPerSecond. Cada una se retira al despacharla. El reenvío se sigue como un lote.")
+        @ApiResponse(responseCode = "202", description = "Reenvío iniciado")
+        @PostMapping("/replay")
+        public ResponseEntity<DeadLetterReplayResponse> replay(
+                        @RequestParam(required = false) String channel,
+                        @RequestParam(required = false) String provider,
+                        @RequestParam(required = false) String error,
+                        @RequestParam(required = false) Instant from,
+                        @RequestParam(required = false) Instant to,
+                        @RequestParam(defaultValue = "100000") int limit,
+                        @RequestParam(defaultValue = "0") double permitsPerSecond) {
+                BatchSummary summary = deadLetterService.replay(
+                                new DeadLetterFilter(channel, provider, error, from, to), limit, permitsPerSecond);
+                return ResponseEntity.accepted()
+                                .header(HttpHeaders.LOCATION, "/v1/transactions/batch/" + summary.batchId())
+                                .body(new DeadLetterReplayResponse(summary.batchId(), summary.accepted()));
+        }
+}
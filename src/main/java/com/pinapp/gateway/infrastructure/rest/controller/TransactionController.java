@@ -1,18 +1,31 @@
 package com.pinapp.gateway.infrastructure.rest.controller;
 
+import com.pinapp.gateway.domain.model.BatchSubmission;
+import com.pinapp.gateway.domain.model.BatchSummary;
 import com.pinapp.gateway.domain.model.ProcessingResult;
 import com.pinapp.gateway.domain.model.Transaction;
 import com.pinapp.gateway.domain.model.TransactionStatusInfo;
 import com.pinapp.gateway.domain.ports.in.BatchTransactionService;
 import com.pinapp.gateway.domain.ports.in.TransactionService;
+import com.pinapp.gateway.domain.ports.out.BatchProgressPort;
 import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
+import com.pinapp.gateway.infrastructure.rest.dto.BatchIngestionResponse;
+import com.pinapp.gateway.infrastructure.rest.dto.BatchProgressResponse;
 import com.pinapp.gateway.infrastructure.rest.dto.NotificationSummaryResponse;
 import com.pinapp.gateway.infrastructure.rest.dto.TransactionRequest;
 import com.pinapp.gateway.infrastructure.rest.dto.TransactionResponse;
 import com.pinapp.gateway.infrastructure.rest.dto.TransactionStatusDTO;
+import com.pinapp.gateway.infrastructure.rest.ingest.TransactionStreamReader;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -20,95 +33,175 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/v1/transactions")
 @Tag(name = "Transactions", description = "Endpoints para la gestión de transacciones")
 public class TransactionController {
 
+        /** IDs consultados al store por cada tramo de la respuesta de consulta masiva. */
+        private static final int BULK_LOOKUP_CHUNK = 1000;
+
+        /** Transacciones del lote omitidas por duplicadas; el cuerpo de /batch es solo la lista de IDs. */
+        private static final String DUPLICATES_HEADER = "X-Batch-Duplicates";
+        private static final String REJECTED_HEADER = "X-Batch-Rejected";
+
         private final TransactionService transactionService;
         private final BatchTransactionService batchTransactionService;
         private final TransactionStatusPort statusPort;
+        private final BatchProgressPort batchProgressPort;
+        private final ObjectMapper objectMapper;
+        private final ObjectWriter statusWriter;
+        private final long transactionTimeoutMillis;
+        private final int maxRecordLength;
 
         public TransactionController(TransactionService transactionService,
                         BatchTransactionService batchTransactionService,
-                        TransactionStatusPort statusPort) {
+                        TransactionStatusPort statusPort,
+                        BatchProgressPort batchProgressPort,
+                        ObjectMapper objectMapper,
+                        @Value("${pinapp.gateway.transaction.timeout:10s}") Duration transactionTimeout,
+                        @Value("${pinapp.gateway.batch.max-record-length:65536}") int maxRecordLength) {
                 this.transactionService = transactionService;
                 this.batchTransactionService = batchTransactionService;
                 this.statusPort = statusPort;
+                this.batchProgressPort = batchProgressPort;
+                this.objectMapper = objectMapper;
+                this.transactionTimeoutMillis = transactionTimeout.toMillis();
+                this.maxRecordLength = maxRecordLength;
+                this.statusWriter = objectMapper.writerFor(TransactionStatusDTO.class)
+                                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
         }
 
         @Operation(summary = "Procesar una nueva transacción", description = "Recibe los detalles de una transacción, la procesa y gatilla las notificaciones correspondientes.")
         @ApiResponse(responseCode = "200", description = "Transacción procesada correctamente")
         @ApiResponse(responseCode = "400", description = "Solicitud inválida")
+        @ApiResponse(responseCode = "409", description = "La transacción ya se recibió en un lote")
+        @ApiResponse(responseCode = "429", description = "Canal de notificación saturado")
+        @ApiResponse(responseCode = "504", description = "El proveedor no respondió dentro del tiempo configurado")
         @PostMapping
-        public ResponseEntity<TransactionResponse> processTransaction(@RequestBody TransactionRequest request) {
-                Transaction transaction = new Transaction(
-                                request.id(),
-                                request.amount(),
-                                request.customerName(),
-                                request.email(),
-                                request.phone(),
-                                request.status(),
-                                request.deviceToken());
-
-                ProcessingResult result = transactionService.process(transaction);
+        public DeferredResult<ResponseEntity<TransactionResponse>> processTransaction(@RequestBody TransactionRequest request) {
+                Transaction transaction = request.toTransaction();
+
+                // El hilo de la petición se libera al retornar; la respuesta se escribe cuando el
+                // proveedor contesta o cuando vence el timeout
+                DeferredResult<ResponseEntity<TransactionResponse>> deferred = new DeferredResult<>(transactionTimeoutMillis);
+                deferred.onTimeout(() -> deferred.setErrorResult(new TimeoutException(
+                                "Sin respuesta del proveedor para la transacción " + transaction.id()
+                                                + " en " + transactionTimeoutMillis + " ms")));
+
+                transactionService.processAsync(transaction).whenComplete((result, throwable) -> {
+                        if (throwable != null) {
+                                deferred.setErrorResult(throwable instanceof CompletionException && throwable.getCause() != null
+                                                ? throwable.getCause()
+                                                : throwable);
+                        } else {
+                                deferred.setResult(ResponseEntity.ok(toResponse(result)));
+                        }
+                });
+                return deferred;
+        }
 
+        private TransactionResponse toResponse(ProcessingResult result) {
                 NotificationSummaryResponse notificationResponse = new NotificationSummaryResponse(
                                 result.notificationStatus().success(),
                                 result.notificationStatus().messageId(),
                                 result.notificationStatus().provider(),
                                 result.notificationStatus().errorMessage());
 
-                TransactionResponse response = new TransactionResponse(
+                return new TransactionResponse(
                                 result.transaction().id(),
                                 result.transaction().amount(),
                                 result.transaction().status().name(),
                                 notificationResponse);
-
-                return ResponseEntity.ok(response);
         }
 
+        @Operation(summary = "Procesar un lote de transacciones", description = "Registra y despacha el lote y devuelve los IDs registrados. Las transacciones cuyo ID ya se recibió dentro de la ventana de idempotencia se omiten; su cantidad viene en el header X-Batch-Duplicates. Las que no traen id o status se descartan y se cuentan en X-Batch-Rejected.")
+        @ApiResponse(responseCode = "202", description = "Lote aceptado")
         @PostMapping("/batch")
         public ResponseEntity<List<String>> processBatch(@RequestBody List<TransactionRequest> requests) {
 
-                List<Transaction> transactions = new ArrayList<>();
+                List<Transaction> transactions = new ArrayList<>(requests.size());
                 for (TransactionRequest request : requests) {
-                        transactions.add(new Transaction(
-                                        request.id(),
-                                        request.amount(),
-                                        request.customerName(),
-                                        request.email(),
-                                        request.phone(),
-                                        request.status(),
-                                        request.deviceToken()));
+                        transactions.add(request.toTransaction());
                 }
 
-                List<String> ids = batchTransactionService.processBatch(transactions);
-                return ResponseEntity.accepted().body(ids);
+                BatchSubmission submission = batchTransactionService.processBatch(transactions);
+                return ResponseEntity.accepted()
+                                .header(HttpHeaders.LOCATION, "/v1/transactions/batch/" + submission.batchId())
+                                .header(DUPLICATES_HEADER, String.valueOf(submission.duplicates()))
+                                .header(REJECTED_HEADER, String.valueOf(submission.rejected()))
+                                .body(submission.transactionIds());
+        }
+
+        @Operation(summary = "Ingerir un lote NDJSON en streaming", description = "Recibe una transacción por línea y registra y despacha cada una mientras el cuerpo todavía se está recibiendo. Las líneas inválidas o de más de pinapp.gateway.batch.max-record-length caracteres se descartan. Responde con un resumen en lugar de la lista de IDs.")
+        @ApiResponse(responseCode = "202", description = "Lote ingerido")
+        @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+        public ResponseEntity<BatchIngestionResponse> ingestBatch(InputStream body) {
+                return ingest(TransactionStreamReader.ndjson(body, objectMapper, maxRecordLength));
+        }
+
+        @Operation(summary = "Ingerir un arreglo JSON en streaming", description = "Igual que el lote NDJSON, pero con el formato de arreglo JSON de /batch recorrido elemento a elemento.")
+        @ApiResponse(responseCode = "202", description = "Lote ingerido")
+        @PostMapping(value = "/batch/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+        public ResponseEntity<BatchIngestionResponse> ingestBatchArray(InputStream body) throws IOException {
+                return ingest(TransactionStreamReader.jsonArray(body, objectMapper));
+        }
+
+        private ResponseEntity<BatchIngestionResponse> ingest(TransactionStreamReader reader) {
+                BatchSummary summary = batchTransactionService.processStream(reader);
+                return ResponseEntity.accepted().body(
+                                new BatchIngestionResponse(summary.batchId(), summary.accepted(), summary.duplicates(),
+                                                reader.rejected() + summary.rejected(), reader.errors()));
+        }
+
+        @Operation(summary = "Consultar el progreso de un lote", description = "Devuelve los contadores agregados del lote (en curso, completadas, fallidas) sin recorrer sus transacciones.")
+        @ApiResponse(responseCode = "200", description = "Progreso del lote")
+        @ApiResponse(responseCode = "404", description = "Lote desconocido o ya descartado")
+        @GetMapping("/batch/{batchId}")
+        public ResponseEntity<BatchProgressResponse> getBatchProgress(@PathVariable String batchId) {
+                return batchProgressPort.findById(batchId)
+                                .map(BatchProgressResponse::from)
+                                .map(ResponseEntity::ok)
+                                .orElse(ResponseEntity.notFound().build());
         }
 
         @GetMapping("/status/{id}")
         public ResponseEntity<TransactionStatusDTO> getStatus(
                         @PathVariable String id) {
                 return statusPort.findById(id)
-                                .map(this::mapToDTO)
+                                .map(TransactionStatusDTO::from)
                                 .map(ResponseEntity::ok)
                                 .orElse(ResponseEntity.notFound().build());
         }
 
-        private TransactionStatusDTO mapToDTO(TransactionStatusInfo info) {
-                NotificationSummaryResponse notificationDTO = null;
-                if (info.notificationStatus() != null) {
-                        notificationDTO = new NotificationSummaryResponse(
-                                        info.notificationStatus().success(),
-                                        info.notificationStatus().messageId(),
-                                        info.notificationStatus().provider(),
-                                        info.notificationStatus().errorMessage());
-                }
-                return new TransactionStatusDTO(info.id(), info.status(), notificationDTO);
+        @Operation(summary = "Consultar estados en bloque", description = "Recibe una lista de IDs y devuelve, en un único arreglo JSON transmitido por tramos, los estados encontrados. Los IDs sin estado se omiten.")
+        @ApiResponse(responseCode = "200", description = "Estados encontrados, en el orden de los IDs solicitados")
+        @PostMapping("/status/bulk")
+        public ResponseEntity<StreamingResponseBody> getStatuses(@RequestBody List<String> ids) {
+                StreamingResponseBody body = out -> {
+                        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+                        json.writeStartArray();
+                        for (int from = 0; from < ids.size(); from += BULK_LOOKUP_CHUNK) {
+                                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + BULK_LOOKUP_CHUNK));
+                                for (TransactionStatusInfo info : statusPort.findAllById(chunk)) {
+                                        statusWriter.writeValue(json, TransactionStatusDTO.from(info));
+                                }
+                                json.flush();
+                        }
+                        json.writeEndArray();
+                        json.flush();
+                };
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
         }
 }
@@ -0,0 +1,202 @@
+package com.pinapp.gateway.infrastructure.rest.controller;
+
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.domain.ports.out.BatchProgressPort;
+import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
+import com.pinapp.gateway.infrastructure.rest.dto.TransactionStatusDTO;
+import com.pinapp.gateway.infrastructure.store.StatusChangeRegistry;
+import com.pinapp.gateway.infrastructure.store.StatusChangeRegistry.StatusWatch;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Endpoints de suscripción a cambios de estado, alternativa a consultar
+ * {@code GET /v1/transactions/status/{id}} en bucle.
+ * <p>
+ * Ambas variantes se suscriben al {@link StatusChangeRegistry} <em>antes</em> de leer el estado
+ * actual del store, por lo que ninguna transición que ocurra entre la lectura y la suscripción
+ * se pierde:
+ * </p>
+ * <ul>
+ *   <li><strong>SSE</strong> ({@code /status/stream}): emite un evento {@code status} con el
+ *       estado actual de cada ID y luego uno por cada cambio. La conexión se cierra cuando todos
+ *       los IDs alcanzaron un estado terminal o al vencer {@code sse-timeout}.</li>
+ *   <li><strong>Long-poll</strong> ({@code /status/poll}): responde en cuanto alguno de los IDs
+ *       tiene un estado terminal (inmediatamente si ya lo tenía) con los estados actuales de todos;
+ *       al vencer el timeout responde igual, con los estados todavía en curso.</li>
+ * </ul>
+ * <p>
+ * Los IDs se reciben como parámetro {@code ids} (GET, apto para {@code EventSource}) o como
+ * arreglo JSON en el cuerpo (POST) para lotes grandes. Con el parámetro {@code batchId} se observan
+ * las transacciones registradas en ese lote hasta el momento de suscribirse, resueltas con
+ * {@link BatchProgressPort}; un lote desconocido, ya descartado o que no guarda sus IDs (recibido
+ * como stream NDJSON, o con más de {@code pinapp.gateway.batch.max-retained-ids} transacciones)
+ * responde 404.
+ * </p>
+ * <p>
+ * Un cliente que no consume los cambios al ritmo en que se publican pierde la suscripción (ver
+ * {@link StatusChangeRegistry}): el stream SSE se cierra, y al reconectarse el cliente vuelve a
+ * recibir el estado actual de cada ID; el long-poll responde con los estados actuales.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@RestController
+@RequestMapping("/v1/transactions/status")
+@Tag(name = "Transactions", description = "Endpoints para la gestión de transacciones")
+public class TransactionStatusSubscriptionController {
+
+        private final TransactionStatusPort statusPort;
+        private final BatchProgressPort batchProgressPort;
+        private final StatusChangeRegistry changes;
+        private final long sseTimeoutMillis;
+        private final long longPollTimeoutMillis;
+
+        public TransactionStatusSubscriptionController(
+                        TransactionStatusPort statusPort,
+                        BatchProgressPort batchProgressPort,
+                        StatusChangeRegistry changes,
+                        @Value("${pinapp.gateway.status-subscription.sse-timeout:5m}") Duration sseTimeout,
+                        @Value("${pinapp.gateway.status-subscription.long-poll-timeout:30s}") Duration longPollTimeout) {
+                this.statusPort = statusPort;
+                this.batchProgressPort = batchProgressPort;
+                this.changes = changes;
+                this.sseTimeoutMillis = sseTimeout.toMillis();
+                this.longPollTimeoutMillis = longPollTimeout.toMillis();
+        }
+
+        @Operation(summary = "Suscribirse a cambios de estado (SSE)", description = "Emite el estado actual de cada ID y luego cada transición, hasta que todos alcancen un estado terminal.")
+        @ApiResponse(responseCode = "200", description = "Flujo de eventos 'status' con el TransactionStatusDTO de cada cambio")
+        @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public SseEmitter stream(@RequestParam List<String> ids) {
+                return subscribe(ids);
+        }
+
+        @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public SseEmitter streamBatch(@RequestBody List<String> ids) {
+                return subscribe(ids);
+        }
+
+        @Operation(summary = "Suscribirse a los estados de un lote (SSE)", description = "Como /stream, para las transacciones registradas en el lote.")
+        @ApiResponse(responseCode = "200", description = "Flujo de eventos 'status' con el TransactionStatusDTO de cada cambio")
+        @ApiResponse(responseCode = "404", description = "Lote desconocido, ya descartado o sin IDs retenidos")
+        @GetMapping(value = "/stream", params = "batchId", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public ResponseEntity<SseEmitter> streamByBatchId(@RequestParam String batchId) {
+                return batchProgressPort.findTransactionIds(batchId)
+                                .map(ids -> ResponseEntity.ok(subscribe(ids)))
+                                .orElse(ResponseEntity.notFound().build());
+        }
+
+        @Operation(summary = "Esperar un estado terminal (long-poll)", description = "Responde en cuanto alguno de los IDs alcanza un estado terminal, o al vencer el timeout, con los estados actuales de todos.")
+        @ApiResponse(responseCode = "200", description = "Estados actuales de los IDs conocidos")
+        @GetMapping("/poll")
+        public DeferredResult<List<TransactionStatusDTO>> poll(
+                        @RequestParam List<String> ids,
+                        @RequestParam(name = "timeoutMs", required = false) Long timeoutMillis) {
+                return awaitTerminal(ids, timeoutMillis);
+        }
+
+        @PostMapping("/poll")
+        public DeferredResult<List<TransactionStatusDTO>> pollBatch(
+                        @RequestBody List<String> ids,
+                        @RequestParam(name = "timeoutMs", required = false) Long timeoutMillis) {
+                return awaitTerminal(ids, timeoutMillis);
+        }
+
+        @Operation(summary = "Esperar un estado terminal en un lote (long-poll)", description = "Como /poll, para las transacciones registradas en el lote.")
+        @ApiResponse(responseCode = "200", description = "Estados actuales de las transacciones del lote")
+        @ApiResponse(responseCode = "404", description = "Lote desconocido, ya descartado o sin IDs retenidos")
+        @GetMapping(value = "/poll", params = "batchId")
+        public DeferredResult<List<TransactionStatusDTO>> pollByBatchId(
+                        @RequestParam String batchId,
+                        @RequestParam(name = "timeoutMs", required = false) Long timeoutMillis) {
+                List<String> ids = batchProgressPort.findTransactionIds(batchId).orElse(null);
+                if (ids == null) {
+                        // Un valor que no es una excepción se procesa como el resultado del handler
+                        DeferredResult<List<TransactionStatusDTO>> notFound = new DeferredResult<>();
+                        notFound.setErrorResult(ResponseEntity.notFound().build());
+                        return notFound;
+                }
+                return awaitTerminal(ids, timeoutMillis);
+        }
+
+        private SseEmitter subscribe(List<String> ids) {
+                SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+                Set<String> pending = ConcurrentHashMap.newKeySet();
+                pending.addAll(ids);
+
+                StatusWatch watch = changes.watch(pending, emitter::complete, info -> {
+                        // Un estado ya terminal no vuelve a emitirse: descarta lecturas iniciales
+                        // que quedaron detrás de la transición publicada
+                        if (!pending.contains(info.id())) {
+                                return;
+                        }
+                        try {
+                                emitter.send(SseEmitter.event()
+                                                .id(info.id())
+                                                .name("status")
+                                                .data(TransactionStatusDTO.from(info), MediaType.APPLICATION_JSON));
+                        } catch (IOException e) {
+                                // Cliente desconectado: completar libera la suscripción vía onCompletion
+                                emitter.completeWithError(e);
+                                return;
+                        }
+                        if (info.isTerminal() && pending.remove(info.id()) && pending.isEmpty()) {
+                                emitter.complete();
+                        }
+                });
+                emitter.onCompletion(watch::close);
+                emitter.onTimeout(watch::close);
+                emitter.onError(error -> watch.close());
+
+                watch.offerAll(statusPort.findAllById(ids));
+                return emitter;
+        }
+
+        private DeferredResult<List<TransactionStatusDTO>> awaitTerminal(List<String> ids, Long timeoutMillis) {
+                long timeout = timeoutMillis == null || timeoutMillis <= 0
+                                ? longPollTimeoutMillis
+                                : Math.min(timeoutMillis, longPollTimeoutMillis);
+                DeferredResult<List<TransactionStatusDTO>> result = new DeferredResult<>(timeout);
+
+                StatusWatch watch = changes.watch(ids, () -> result.setResult(currentStatuses(ids)), info -> {
+                        if (info.isTerminal()) {
+                                result.setResult(currentStatuses(ids));
+                        }
+                });
+                result.onTimeout(() -> result.setResult(currentStatuses(ids)));
+                result.onCompletion(watch::close);
+
+                List<TransactionStatusInfo> current = statusPort.findAllById(ids);
+                for (TransactionStatusInfo info : current) {
+                        if (info.isTerminal()) {
+                                result.setResult(current.stream().map(TransactionStatusDTO::from).toList());
+                                break;
+                        }
+                }
+                return result;
+        }
+
+        private List<TransactionStatusDTO> currentStatuses(List<String> ids) {
+                return statusPort.findAllById(ids).stream().map(TransactionStatusDTO::from).toList();
+        }
+}
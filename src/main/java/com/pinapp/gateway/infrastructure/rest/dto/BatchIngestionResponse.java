@@ -0,0 +1,17 @@
+package com.pinapp.gateway.infrastructure.rest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Resumen de un lote ingerido en modo streaming")
+public record BatchIngestionResponse(
+                @Schema(description = "Identificador del lote, para consultar su progreso en /v1/transactions/batch/{batchId}", example = "0f8fad5b-d9cb-469f-a165-70867728950e") String batchId,
+
+                @Schema(description = "Transacciones registradas y despachadas", example = "500000") long accepted,
+
+                @Schema(description = "Transacciones omitidas porque su ID ya se había recibido dentro de la ventana de idempotencia", example = "0") long duplicates,
+
+                @Schema(description = "Elementos descartados por no poder interpretarse o por faltar campos obligatorios", example = "2") long rejected,
+
+                @Schema(description = "Detalle de los primeros elementos descartados") List<String> errors) {
+}
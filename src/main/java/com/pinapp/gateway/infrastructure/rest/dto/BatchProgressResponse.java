@@ -0,0 +1,24 @@
+package com.pinapp.gateway.infrastructure.rest.dto;
+
+import com.pinapp.gateway.domain.model.BatchProgress;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Progreso agregado de un lote de transacciones")
+public record BatchProgressResponse(
+                @Schema(description = "Identificador del lote", example = "0f8fad5b-d9cb-469f-a165-70867728950e") String batchId,
+
+                @Schema(description = "Transacciones registradas en el lote", example = "100000") long total,
+
+                @Schema(description = "Transacciones todavía sin resultado de notificación", example = "1200") long processing,
+
+                @Schema(description = "Transacciones notificadas con éxito", example = "98500") long completed,
+
+                @Schema(description = "Transacciones cuya notificación falló", example = "300") long failed,
+
+                @Schema(description = "Si el lote terminó de recibirse y no quedan transacciones en curso", example = "false") boolean done) {
+
+        public static BatchProgressResponse from(BatchProgress progress) {
+                return new BatchProgressResponse(progress.batchId(), progress.total(), progress.processing(),
+                                progress.completed(), progress.failed(), progress.done());
+        }
+}
@@ -0,0 +1,10 @@
+package com.pinapp.gateway.infrastructure.rest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Reenvío en bloque de notificaciones fallidas")
+public record DeadLetterReplayResponse(
+                @Schema(description = "Identificador del lote de reenvío, para consultar su progreso en /v1/transactions/batch/{batchId}", example = "0f8fad5b-d9cb-469f-a165-70867728950e") String batchId,
+
+                @Schema(description = "Notificaciones que se reenviarán", example = "12000") long scheduled) {
+}
@@ -0,0 +1,36 @@
+package com.pinapp.gateway.infrastructure.rest.dto;
+
+import com.pinapp.gateway.domain.model.DeadLetter;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Schema(description = "Notificación que falló de forma definitiva y puede reenviarse")
+public record DeadLetterResponse(
+                @Schema(description = "Identificador de la transacción", example = "0f8fad5b-d9cb-469f-a165-70867728950e") UUID transactionId,
+
+                @Schema(description = "Monto de la transacción", example = "1500.00") BigDecimal amount,
+
+                @Schema(description = "Estado de la transacción", example = "COMPLETED") String status,
+
+                @Schema(description = "Canal de la notificación", example = "EMAIL") String channel,
+
+                @Schema(description = "Proveedor que informó el fallo", example = "SendGrid") String provider,
+
+                @Schema(description = "Error del último intento", example = "Circuito abierto para el canal EMAIL") String errorMessage,
+
+                @Schema(description = "Instante del fallo definitivo", example = "2026-01-15T10:30:00Z") Instant failedAt) {
+
+        public static DeadLetterResponse from(DeadLetter deadLetter) {
+                return new DeadLetterResponse(
+                                deadLetter.transaction().id(),
+                                deadLetter.transaction().amount(),
+                                deadLetter.transaction().status() != null ? deadLetter.transaction().status().name() : null,
+                                deadLetter.channel(),
+                                deadLetter.provider(),
+                                deadLetter.errorMessage(),
+                                deadLetter.failedAt());
+        }
+}
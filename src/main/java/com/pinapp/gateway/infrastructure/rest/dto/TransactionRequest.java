@@ -1,5 +1,6 @@
 package com.pinapp.gateway.infrastructure.rest.dto;
 
+import com.pinapp.gateway.domain.model.Transaction;
 import com.pinapp.gateway.domain.model.TransactionStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.math.BigDecimal;
@@ -20,4 +21,8 @@ public record TransactionRequest(
                 @Schema(description = "Estado inicial de la transacción", example = "COMPLETED") TransactionStatus status,
 
                 @Schema(description = "Token del dispositivo para notificaciones push (opcional)", example = "f_test_device_token_123456789") String deviceToken) {
+
+        public Transaction toTransaction() {
+                return new Transaction(id, amount, customerName, email, phone, status, deviceToken);
+        }
 }
@@ -1,7 +1,21 @@
 package com.pinapp.gateway.infrastructure.rest.dto;
 
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+
 public record TransactionStatusDTO(
         String id,
         String status,
         NotificationSummaryResponse result) {
+
+    public static TransactionStatusDTO from(TransactionStatusInfo info) {
+        NotificationSummaryResponse notificationDTO = null;
+        if (info.notificationStatus() != null) {
+            notificationDTO = new NotificationSummaryResponse(
+                    info.notificationStatus().success(),
+                    info.notificationStatus().messageId(),
+                    info.notificationStatus().provider(),
+                    info.notificationStatus().errorMessage());
+        }
+        return new TransactionStatusDTO(info.id(), info.status(), notificationDTO);
+    }
 }
@@ -1,22 +1,32 @@
 package com.pinapp.gateway.infrastructure.rest.exception;
 
+import com.pinapp.gateway.domain.exception.DispatchRejectedException;
+import com.pinapp.gateway.domain.exception.DuplicateTransactionException;
 import com.pinapp.notify.exception.NotificationException;
 import com.pinapp.notify.exception.ProviderException;
 import com.pinapp.notify.exception.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.net.URI;
 import java.time.Instant;
+import java.util.concurrent.TimeoutException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
     @ExceptionHandler(ValidationException.class)
     public ProblemDetail handleValidationException(ValidationException ex) {
-        ex.printStackTrace(); // Log full stacktrace as requested
+        // Stack trace completo, dentro del límite por segundo de pinapp.gateway.logging.errors
+        log.warn("Validation error", ex);
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
         problemDetail.setTitle("Validation Error");
         problemDetail.setType(URI.create("urn:problem:validation-error"));
@@ -26,7 +36,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(ProviderException.class)
     public ProblemDetail handleProviderException(ProviderException ex) {
-        ex.printStackTrace(); // Log full stacktrace as requested
+        log.error("Provider error", ex);
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
         problemDetail.setTitle("Provider Error");
         problemDetail.setType(URI.create("urn:problem:provider-error"));
@@ -36,7 +46,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(NotificationException.class)
     public ProblemDetail handleNotificationException(NotificationException ex) {
-        ex.printStackTrace(); // Log full stacktrace as requested
+        log.error("Internal notification error", ex);
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR,
                 ex.getMessage());
         problemDetail.setTitle("Internal Notification Error");
@@ -45,9 +55,51 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(DispatchRejectedException.class)
+    public ResponseEntity<ProblemDetail> handleDispatchRejectedException(DispatchRejectedException ex) {
+        // Condición transitoria esperable bajo carga: no se loguea el stacktrace
+        log.info("Dispatch rejected channel={} retryAfterSeconds={} reason={}", ex.channel(),
+                ex.retryAfter().toSeconds(), ex.getMessage());
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+        problemDetail.setTitle("Dispatch Capacity Exceeded");
+        problemDetail.setType(URI.create("urn:problem:dispatch-rejected"));
+        problemDetail.setProperty("timestamp", Instant.now());
+        problemDetail.setProperty("channel", ex.channel());
+        if (ex.batchId() != null) {
+            problemDetail.setProperty("batchId", ex.batchId());
+            problemDetail.setProperty("accepted", ex.accepted());
+        }
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.retryAfter().toSeconds()))
+                .body(problemDetail);
+    }
+
+    @ExceptionHandler(DuplicateTransactionException.class)
+    public ProblemDetail handleDuplicateTransactionException(DuplicateTransactionException ex) {
+        log.info("Duplicate transaction transactionId={}", ex.transactionId());
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+        problemDetail.setTitle("Duplicate Transaction");
+        problemDetail.setType(URI.create("urn:problem:duplicate-transaction"));
+        problemDetail.setProperty("timestamp", Instant.now());
+        problemDetail.setProperty("status", "/v1/transactions/status/" + ex.transactionId());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public ProblemDetail handleTimeoutException(TimeoutException ex) {
+        // El envío sigue en curso: la transacción quedó "PROCESSING" en el store y el resultado
+        // final se consulta en /v1/transactions/status/{id}
+        log.warn("Provider timeout: {}", ex.getMessage());
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage());
+        problemDetail.setTitle("Provider Timeout");
+        problemDetail.setType(URI.create("urn:problem:provider-timeout"));
+        problemDetail.setProperty("timestamp", Instant.now());
+        return problemDetail;
+    }
+
     @ExceptionHandler(Exception.class)
     public ProblemDetail handleGenericException(Exception ex) {
-        ex.printStackTrace(); // Log full stacktrace as requested
+        log.error("Unexpected error", ex);
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR,
                 "An unexpected error occurred");
         problemDetail.setTitle("Internal Server Error");
@@ -0,0 +1,240 @@
+package com.pinapp.gateway.infrastructure.rest.ingest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.infrastructure.rest.dto.TransactionRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lee transacciones del cuerpo de una petición a medida que llega, de a una por vez.
+ * <p>
+ * Soporta dos formatos:
+ * </p>
+ * <ul>
+ *   <li><strong>NDJSON</strong>: un {@link TransactionRequest} por línea. Una línea inválida se
+ *       descarta y la lectura continúa con la siguiente. Una línea de más de
+ *       {@code maxLineLength} caracteres también se descarta, sin acumularla en memoria: se
+ *       saltean sus caracteres hasta el próximo salto de línea.</li>
+ *   <li><strong>Arreglo JSON</strong>: se recorre token a token, sin enlazar el arreglo completo.
+ *       Un elemento que no es un objeto se descarta; si un objeto no puede interpretarse, la
+ *       lectura se detiene porque el parser no puede resincronizarse de forma segura.</li>
+ * </ul>
+ * <p>
+ * Los elementos sin {@code id} o sin {@code status} también se descartan. Los primeros descartes
+ * se conservan como mensajes para el resumen de la respuesta.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+public final class TransactionStreamReader implements Iterator<Transaction> {
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int READ_BUFFER_CHARS = 8192;
+
+    private final ObjectReader reader;
+    private final Reader lines;
+    private final int maxLineLength;
+    private final JsonParser parser;
+
+    // Lectura por líneas (NDJSON)
+    private final char[] buffer;
+    private int bufferPosition;
+    private int bufferLimit;
+    private final StringBuilder line = new StringBuilder();
+    private boolean lineTooLong;
+
+    private Transaction next;
+    private boolean finished;
+    private long position;
+    private long rejected;
+    private final List<String> errors = new ArrayList<>();
+
+    private TransactionStreamReader(ObjectReader reader, Reader lines, int maxLineLength, JsonParser parser) {
+        this.reader = reader;
+        this.lines = lines;
+        this.maxLineLength = maxLineLength;
+        this.parser = parser;
+        this.buffer = lines != null ? new char[READ_BUFFER_CHARS] : null;
+    }
+
+    /**
+     * @param maxLineLength Máximo de caracteres de una línea; las más largas se descartan
+     */
+    public static TransactionStreamReader ndjson(InputStream body, ObjectMapper objectMapper, int maxLineLength) {
+        return new TransactionStreamReader(
+                objectMapper.readerFor(TransactionRequest.class),
+                new InputStreamReader(body, StandardCharsets.UTF_8),
+                Math.max(1, maxLineLength),
+                null);
+    }
+
+    public static TransactionStreamReader jsonArray(InputStream body, ObjectMapper objectMapper) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(body);
+        TransactionStreamReader streamReader = new TransactionStreamReader(
+                objectMapper.readerFor(TransactionRequest.class), null, 0, parser);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            streamReader.reject("El cuerpo debe ser un arreglo JSON");
+            streamReader.finished = true;
+        }
+        return streamReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = lines != null ? readLine() : readElement();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error leyendo el cuerpo del lote", e);
+            }
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public Transaction next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Transaction transaction = next;
+        next = null;
+        return transaction;
+    }
+
+    public long rejected() {
+        return rejected;
+    }
+
+    public List<String> errors() {
+        return errors;
+    }
+
+    private Transaction readLine() throws IOException {
+        while (nextLine()) {
+            position++;
+            if (lineTooLong) {
+                reject("la línea supera los " + maxLineLength + " caracteres");
+                continue;
+            }
+            if (line.isEmpty() || line.toString().isBlank()) {
+                continue;
+            }
+            try {
+                Transaction transaction = validate(reader.readValue(line.toString()));
+                if (transaction != null) {
+                    return transaction;
+                }
+            } catch (JsonProcessingException e) {
+                reject(e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lee la próxima línea en {@link #line}, sin el salto de línea ni un {@code \r} final. Si la
+     * línea supera {@code maxLineLength}, deja de acumularla, saltea el resto y marca
+     * {@link #lineTooLong}.
+     *
+     * @return {@code false} al llegar al final del cuerpo sin una línea más
+     */
+    private boolean nextLine() throws IOException {
+        line.setLength(0);
+        lineTooLong = false;
+        boolean read = false;
+        while (true) {
+            if (bufferPosition == bufferLimit) {
+                int count = lines.read(buffer);
+                if (count < 0) {
+                    if (!read) {
+                        return false;
+                    }
+                    break;
+                }
+                bufferPosition = 0;
+                bufferLimit = count;
+                continue;
+            }
+            read = true;
+            int start = bufferPosition;
+            while (bufferPosition < bufferLimit && buffer[bufferPosition] != '\n') {
+                bufferPosition++;
+            }
+            int length = bufferPosition - start;
+            if (!lineTooLong) {
+                if (line.length() + length > maxLineLength + 1) {
+                    // Admite un carácter de más para el \r de un salto de línea CRLF
+                    lineTooLong = true;
+                    line.setLength(0);
+                } else {
+                    line.append(buffer, start, length);
+                }
+            }
+            if (bufferPosition < bufferLimit) {
+                bufferPosition++;
+                break;
+            }
+        }
+        if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        if (line.length() > maxLineLength) {
+            lineTooLong = true;
+            line.setLength(0);
+        }
+        return true;
+    }
+
+    private Transaction readElement() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            position++;
+            if (token != JsonToken.START_OBJECT) {
+                reject("se esperaba un objeto");
+                parser.skipChildren();
+                continue;
+            }
+            try {
+                Transaction transaction = validate(reader.readValue(parser));
+                if (transaction != null) {
+                    return transaction;
+                }
+            } catch (JsonProcessingException e) {
+                reject(e.getOriginalMessage() + " (se detiene la lectura del arreglo)");
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private Transaction validate(TransactionRequest request) {
+        if (request == null || request.id() == null || request.status() == null) {
+            reject("faltan los campos obligatorios 'id' y 'status'");
+            return null;
+        }
+        return request.toTransaction();
+    }
+
+    private void reject(String reason) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("#" + position + ": " + reason);
+        }
+    }
+}
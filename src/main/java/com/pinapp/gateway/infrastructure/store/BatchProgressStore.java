@@ -0,0 +1,252 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.BatchProgress;
+import com.pinapp.gateway.domain.ports.out.BatchProgressPort;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementación en memoria del puerto {@link BatchProgressPort}.
+ * <p>
+ * <strong>Contadores:</strong> Cada lote mantiene contadores {@link LongAdder} de transacciones
+ * registradas, completadas y fallidas. Los resultados llegan en paralelo desde los hilos de
+ * eventos de los tres SDKs; con contadores distribuidos esas actualizaciones no compiten por
+ * una misma línea de caché. Consultar el progreso suma los contadores y cuesta O(1) respecto
+ * del tamaño del lote.
+ * </p>
+ * <p>
+ * <strong>Pertenencia:</strong> Un índice {@code (transactionId, canal) -> lote} contiene solo
+ * las notificaciones todavía en curso. La clave incluye el canal porque una misma transacción
+ * puede llegar dos veces a un lote con estados distintos (por ejemplo PENDING y luego COMPLETED),
+ * y cada una es una notificación propia con su resultado. El primer resultado de una
+ * notificación la quita del índice y cuenta en su lote; los eventos posteriores de la misma
+ * notificación (por ejemplo, el fallback de error del adaptador Push después del evento del SDK)
+ * ya no la encuentran y no se cuentan dos veces. Así el índice se vacía a medida que los lotes
+ * avanzan.
+ * </p>
+ * <p>
+ * <strong>Plazos vencidos:</strong> una notificación sin resultado dentro de su plazo
+ * ({@link #recordTimeout}) cuenta como fallida, para que el lote pueda terminar, pero pasa a un
+ * segundo índice en lugar de salir del todo. Si después llega su resultado real, se quita de ese
+ * índice y, si fue un éxito, pasa de fallidas a completadas, igual que el estado "TIMED_OUT" que
+ * el resultado real reemplaza en el store.
+ * </p>
+ * <p>
+ * <strong>IDs del lote:</strong> solo los lotes abiertos con {@code open(true)} guardan la lista
+ * de sus transacciones, para suscribirse a sus estados por {@code batchId}, y como máximo
+ * {@code max-retained-ids} por lote: uno más grande deja de listarlas y vuelve a costar O(1) en
+ * memoria por transacción, como un lote abierto sin retención.
+ * </p>
+ * <p>
+ * <strong>Retención:</strong> Un hilo de mantenimiento descarta los lotes con más de
+ * {@code pinapp.gateway.batch.retention} de antigüedad, junto con las transacciones que hubieran
+ * quedado sin resultado.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+public class BatchProgressStore implements BatchProgressPort, MeterBinder {
+
+    private final ConcurrentHashMap<String, Counters> batches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Member, Counters> pendingTransactions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Member, Counters> timedOutTransactions = new ConcurrentHashMap<>();
+    private final long retentionMillis;
+    private final int maxRetainedIds;
+    private final ScheduledExecutorService maintenance;
+
+    public BatchProgressStore(
+            @Value("${pinapp.gateway.batch.retention:24h}") Duration retention,
+            @Value("${pinapp.gateway.batch.sweep-interval:1m}") Duration sweepInterval,
+            @Value("${pinapp.gateway.batch.max-retained-ids:100000}") int maxRetainedIds) {
+        this.retentionMillis = retention.toMillis();
+        this.maxRetainedIds = Math.max(0, maxRetainedIds);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "batch-progress-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = sweepInterval.toMillis();
+        maintenance.scheduleWithFixedDelay(this::sweep, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String open(boolean retainTransactionIds) {
+        String batchId = UUID.randomUUID().toString();
+        batches.put(batchId, new Counters(batchId, System.currentTimeMillis(),
+                retainTransactionIds && maxRetainedIds > 0));
+        return batchId;
+    }
+
+    @Override
+    public void track(String batchId, String transactionId, String channel) {
+        Counters counters = batches.get(batchId);
+        if (counters == null) {
+            throw new IllegalArgumentException("Lote desconocido: " + batchId);
+        }
+        counters.submitted.increment();
+        counters.retain(transactionId, maxRetainedIds);
+        Counters previous = pendingTransactions.put(new Member(transactionId, channel), counters);
+        if (previous != null) {
+            // La notificación se reenvió (en otro lote o en este) antes de tener resultado: el
+            // registro anterior deja de esperarse para que su lote no quede abierto para siempre
+            previous.moved.increment();
+        }
+    }
+
+    @Override
+    public void seal(String batchId) {
+        Counters counters = batches.get(batchId);
+        if (counters != null) {
+            counters.sealed = true;
+        }
+    }
+
+    @Override
+    public void recordOutcome(String transactionId, String channel, boolean success) {
+        Member member = new Member(transactionId, channel);
+        Counters counters = pendingTransactions.remove(member);
+        if (counters != null) {
+            (success ? counters.completed : counters.failed).increment();
+            return;
+        }
+        counters = timedOutTransactions.remove(member);
+        if (counters != null && success) {
+            // Primero se suma la completada: un snapshot intermedio ve una de más, nunca una en curso de más
+            counters.completed.increment();
+            counters.failed.decrement();
+        }
+    }
+
+    @Override
+    public void recordTimeout(String transactionId, String channel) {
+        Member member = new Member(transactionId, channel);
+        Counters counters = pendingTransactions.get(member);
+        if (counters == null) {
+            return;
+        }
+        // Se registra como vencida antes de quitarla de las pendientes, para que un resultado real
+        // concurrente la encuentre en alguno de los dos índices
+        timedOutTransactions.put(member, counters);
+        if (pendingTransactions.remove(member, counters)) {
+            counters.failed.increment();
+        } else {
+            timedOutTransactions.remove(member, counters);
+        }
+    }
+
+    @Override
+    public Optional<BatchProgress> findById(String batchId) {
+        Counters counters = batches.get(batchId);
+        return counters == null ? Optional.empty() : Optional.of(counters.snapshot());
+    }
+
+    @Override
+    public Optional<List<String>> findTransactionIds(String batchId) {
+        Counters counters = batches.get(batchId);
+        if (counters == null || counters.transactionIds == null) {
+            return Optional.empty();
+        }
+        return Optional.of(List.copyOf(counters.transactionIds));
+    }
+
+    public int activeBatches() {
+        return batches.size();
+    }
+
+    public long pendingTransactionCount() {
+        return pendingTransactions.mappingCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.batch.active", this, BatchProgressStore::activeBatches)
+                .description("Lotes retenidos para consulta de progreso")
+                .register(registry);
+        Gauge.builder("gateway.batch.pending.transactions", this, BatchProgressStore::pendingTransactionCount)
+                .description("Transacciones de lotes todavía sin resultado de notificación")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        maintenance.shutdownNow();
+    }
+
+    private void sweep() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        batches.values().removeIf(counters -> counters.createdAtMillis < cutoff);
+        pendingTransactions.values().removeIf(counters -> counters.createdAtMillis < cutoff);
+        timedOutTransactions.values().removeIf(counters -> counters.createdAtMillis < cutoff);
+    }
+
+    /**
+     * Notificación de un lote: la transacción y el canal por el que se envía.
+     */
+    private record Member(String transactionId, String channel) {
+    }
+
+    private static final class Counters {
+
+        private final String batchId;
+        private final long createdAtMillis;
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder moved = new LongAdder();
+        private final AtomicInteger retained = new AtomicInteger();
+        // null si el lote no guarda sus IDs o superó max-retained-ids
+        private volatile ConcurrentLinkedQueue<String> transactionIds;
+        private volatile boolean sealed;
+
+        private Counters(String batchId, long createdAtMillis, boolean retainIds) {
+            this.batchId = batchId;
+            this.createdAtMillis = createdAtMillis;
+            this.transactionIds = retainIds ? new ConcurrentLinkedQueue<>() : null;
+        }
+
+        /**
+         * Agrega el ID a la lista del lote; al superar el máximo la descarta entera, porque una
+         * lista parcial haría que una suscripción por lote ignore en silencio parte de él.
+         */
+        private void retain(String transactionId, int maxRetainedIds) {
+            ConcurrentLinkedQueue<String> ids = transactionIds;
+            if (ids == null) {
+                return;
+            }
+            if (retained.incrementAndGet() > maxRetainedIds) {
+                transactionIds = null;
+                return;
+            }
+            ids.add(transactionId);
+        }
+
+        private BatchProgress snapshot() {
+            // Leer "sealed" antes que los contadores: si ya estaba sellado, submitted es definitivo
+            boolean wasSealed = sealed;
+            long completedCount = completed.sum();
+            long failedCount = failed.sum();
+            long total = submitted.sum();
+            long processing = Math.max(0, total - completedCount - failedCount - moved.sum());
+            return new BatchProgress(batchId, total, processing, completedCount, failedCount,
+                    wasSealed && processing == 0);
+        }
+    }
+}
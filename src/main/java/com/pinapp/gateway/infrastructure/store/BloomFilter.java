@@ -0,0 +1,80 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Filtro de Bloom sobre claves UUID (dos mitades {@code long}) usado por los segmentos fríos
+ * para descartar sin tocar disco las consultas de IDs que no contienen.
+ * <p>
+ * Con 10 bits por clave y 7 funciones hash la tasa de falsos positivos ronda el 1%.
+ * Las funciones se derivan por doble hashing a partir de dos mezclas independientes de la clave.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+final class BloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASH_FUNCTIONS = 7;
+
+    private final long[] words;
+    private final long bitCount;
+
+    private BloomFilter(long[] words) {
+        this.words = words;
+        this.bitCount = (long) words.length * Long.SIZE;
+    }
+
+    static BloomFilter forExpectedKeys(int keys) {
+        long bits = Math.max(Long.SIZE, (long) keys * BITS_PER_KEY);
+        return new BloomFilter(new long[(int) ((bits + Long.SIZE - 1) / Long.SIZE)]);
+    }
+
+    void add(long high, long low) {
+        long h1 = mix(high ^ low);
+        long h2 = mix(low + 0x9e3779b97f4a7c15L * high) | 1;
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long high, long low) {
+        long h1 = mix(high ^ low);
+        long h2 = mix(low + 0x9e3779b97f4a7c15L * high) | 1;
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    static BloomFilter readFrom(DataInput in) throws IOException {
+        long[] words = new long[in.readInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        return new BloomFilter(words);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,473 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Segmento inmutable del nivel frío del {@link TieredTransactionStatusStore}.
+ * <p>
+ * Contiene estados terminales ordenados por clave (UUID), agrupados en bloques comprimidos
+ * con Deflate. En memoria solo se mantiene un índice disperso (la primera clave y el offset
+ * de cada bloque) y un {@link BloomFilter}, de modo que cada consulta descarta el segmento sin
+ * I/O o lee y descomprime exactamente un bloque.
+ * </p>
+ * <p>
+ * Formato del archivo:
+ * </p>
+ * <pre>
+ * bloque*    int longitudOriginal, int longitudComprimida, bytes comprimidos
+ *            (descomprimido: int n, n claves altas, n claves bajas, n offsets, registros)
+ * índice     int bloques, por bloque: long clave alta, long clave baja, long offset
+ * bloom      ver {@link BloomFilter#writeTo}
+ * metadatos  long creado (epoch ms), int entradas
+ * trailer    long offset del índice, int MAGIC
+ * </pre>
+ * <p>
+ * Los segmentos se escriben en un archivo temporal y se publican con un renombrado atómico.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+final class ColdSegment implements Closeable {
+
+    private static final int MAGIC = 0x53454731;
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long[] blockHighs;
+    private final long[] blockLows;
+    private final long[] blockOffsets;
+    private final BloomFilter bloom;
+    private final long createdAtMillis;
+    private final int entryCount;
+
+    private ColdSegment(Path path, FileChannel channel, long[] blockHighs, long[] blockLows, long[] blockOffsets,
+                        BloomFilter bloom, long createdAtMillis, int entryCount) {
+        this.path = path;
+        this.channel = channel;
+        this.blockHighs = blockHighs;
+        this.blockLows = blockLows;
+        this.blockOffsets = blockOffsets;
+        this.bloom = bloom;
+        this.createdAtMillis = createdAtMillis;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Escribe un segmento nuevo a partir de registros ordenados por clave y sin duplicados.
+     */
+    static ColdSegment write(Path path, long createdAtMillis, Iterator<TransactionStatusInfo> sorted,
+                             int expectedEntries, int blockSize) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        BloomFilter bloom = BloomFilter.forExpectedKeys(expectedEntries);
+        int blockCount = 0;
+        long[] highs = new long[16];
+        long[] lows = new long[16];
+        long[] offsets = new long[16];
+        int entries = 0;
+
+        BlockWriter block = new BlockWriter(blockSize);
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream file = new DataOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16))) {
+            long offset = 0;
+            while (sorted.hasNext()) {
+                TransactionStatusInfo info = sorted.next();
+                long high = UuidKeys.mostSignificantBits(info.id());
+                long low = UuidKeys.leastSignificantBits(info.id());
+                if (block.isEmpty()) {
+                    if (blockCount == highs.length) {
+                        highs = Arrays.copyOf(highs, blockCount * 2);
+                        lows = Arrays.copyOf(lows, blockCount * 2);
+                        offsets = Arrays.copyOf(offsets, blockCount * 2);
+                    }
+                    highs[blockCount] = high;
+                    lows[blockCount] = low;
+                    offsets[blockCount] = offset;
+                    blockCount++;
+                }
+                block.add(high, low, info);
+                bloom.add(high, low);
+                entries++;
+                if (block.isFull()) {
+                    offset += block.flushTo(file);
+                }
+            }
+            if (!block.isEmpty()) {
+                offset += block.flushTo(file);
+            }
+
+            file.writeInt(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                file.writeLong(highs[i]);
+                file.writeLong(lows[i]);
+                file.writeLong(offsets[i]);
+            }
+            bloom.writeTo(file);
+            file.writeLong(createdAtMillis);
+            file.writeInt(entries);
+            file.writeLong(offset);
+            file.writeInt(MAGIC);
+            file.flush();
+            out.force(true);
+        } finally {
+            block.release();
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+
+    /**
+     * Abre un segmento existente cargando en memoria su índice disperso y su filtro de Bloom.
+     */
+    static ColdSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer trailer = readFully(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            long indexOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("Segmento con formato desconocido: " + path);
+            }
+            ByteBuffer footer = readFully(channel, indexOffset, (int) (size - TRAILER_BYTES - indexOffset));
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(footer.array(), 0, footer.limit()));
+            int blockCount = in.readInt();
+            long[] highs = new long[blockCount];
+            long[] lows = new long[blockCount];
+            long[] offsets = new long[blockCount + 1];
+            for (int i = 0; i < blockCount; i++) {
+                highs[i] = in.readLong();
+                lows[i] = in.readLong();
+                offsets[i] = in.readLong();
+            }
+            offsets[blockCount] = indexOffset;
+            BloomFilter bloom = BloomFilter.readFrom(in);
+            long createdAtMillis = in.readLong();
+            int entries = in.readInt();
+            return new ColdSegment(path, channel, highs, lows, offsets, bloom, createdAtMillis, entries);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Busca una clave en el segmento. Devuelve {@code null} si no está.
+     */
+    TransactionStatusInfo find(long high, long low) throws IOException {
+        if (blockHighs.length == 0 || !bloom.mightContain(high, low)) {
+            return null;
+        }
+        int block = floorBlock(high, low);
+        if (block < 0) {
+            return null;
+        }
+        Block data = readBlock(block);
+        int index = data.indexOf(high, low);
+        return index < 0 ? null : data.record(index);
+    }
+
+    /**
+     * Busca varias claves ordenadas de forma ascendente. Las posiciones de {@code found} que ya
+     * tienen valor se omiten y las encontradas se completan en su lugar; cada bloque se lee y
+     * descomprime a lo sumo una vez por llamada.
+     */
+    void findAll(long[] highs, long[] lows, TransactionStatusInfo[] found) throws IOException {
+        if (blockHighs.length == 0) {
+            return;
+        }
+        int loadedBlock = -1;
+        Block data = null;
+        for (int i = 0; i < highs.length; i++) {
+            if (found[i] != null || !bloom.mightContain(highs[i], lows[i])) {
+                continue;
+            }
+            int block = floorBlock(highs[i], lows[i]);
+            if (block < 0) {
+                continue;
+            }
+            if (block != loadedBlock) {
+                data = readBlock(block);
+                loadedBlock = block;
+            }
+            int index = data.indexOf(highs[i], lows[i]);
+            if (index >= 0) {
+                found[i] = data.record(index);
+            }
+        }
+    }
+
+    /**
+     * Recorre todos los registros del segmento en orden de clave (usado al fusionar segmentos).
+     */
+    Iterator<TransactionStatusInfo> iterator() {
+        return new Iterator<>() {
+            private int block = -1;
+            private Block data;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                while (data == null || index >= data.size()) {
+                    if (++block >= blockHighs.length) {
+                        return false;
+                    }
+                    try {
+                        data = readBlock(block);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    index = 0;
+                }
+                return true;
+            }
+
+            @Override
+            public TransactionStatusInfo next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return data.record(index++);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    long createdAtMillis() {
+        return createdAtMillis;
+    }
+
+    int entryCount() {
+        return entryCount;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static int compareKeys(long high1, long low1, long high2, long low2) {
+        int cmp = Long.compare(high1, high2);
+        return cmp != 0 ? cmp : Long.compare(low1, low2);
+    }
+
+    /** Último bloque cuya primera clave es menor o igual a la buscada. */
+    private int floorBlock(long high, long low) {
+        int lo = 0;
+        int hi = blockHighs.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareKeys(blockHighs[mid], blockLows[mid], high, low) <= 0) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private Block readBlock(int block) throws IOException {
+        long start = blockOffsets[block];
+        ByteBuffer raw = readFully(channel, start, (int) (blockOffsets[block + 1] - start));
+        int rawLength = raw.getInt();
+        int compressedLength = raw.getInt();
+        byte[] inflated = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(raw.array(), raw.position(), compressedLength);
+            int read = 0;
+            while (read < rawLength) {
+                int n = inflater.inflate(inflated, read, rawLength - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != rawLength) {
+                throw new IOException("Bloque truncado en " + path + " @" + start);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Bloque corrupto en " + path + " @" + start, e);
+        } finally {
+            inflater.end();
+        }
+        return new Block(ByteBuffer.wrap(inflated));
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fin de archivo inesperado");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Vista de un bloque descomprimido: claves y offsets al inicio, registros a continuación.
+     */
+    private static final class Block {
+
+        private final ByteBuffer data;
+        private final int size;
+        private final int recordsStart;
+
+        Block(ByteBuffer data) {
+            this.data = data;
+            this.size = data.getInt(0);
+            this.recordsStart = Integer.BYTES + size * (2 * Long.BYTES + Integer.BYTES);
+        }
+
+        int size() {
+            return size;
+        }
+
+        int indexOf(long high, long low) {
+            int lo = 0;
+            int hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = compareKeys(highAt(mid), lowAt(mid), high, low);
+                if (cmp < 0) {
+                    lo = mid + 1;
+                } else if (cmp > 0) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        TransactionStatusInfo record(int index) throws IOException {
+            int offset = data.getInt(Integer.BYTES + size * 2 * Long.BYTES + index * Integer.BYTES);
+            int from = recordsStart + offset;
+            return StatusRecordCodec.read(new DataInputStream(
+                    new ByteArrayInputStream(data.array(), from, data.limit() - from)));
+        }
+
+        private long highAt(int index) {
+            return data.getLong(Integer.BYTES + index * Long.BYTES);
+        }
+
+        private long lowAt(int index) {
+            return data.getLong(Integer.BYTES + (size + index) * Long.BYTES);
+        }
+    }
+
+    /**
+     * Acumula los registros de un bloque y lo escribe comprimido.
+     */
+    private static final class BlockWriter {
+
+        private final int capacity;
+        private final long[] highs;
+        private final long[] lows;
+        private final int[] offsets;
+        private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        private final DataOutputStream recordsOut = new DataOutputStream(records);
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private int size;
+
+        BlockWriter(int capacity) {
+            this.capacity = capacity;
+            this.highs = new long[capacity];
+            this.lows = new long[capacity];
+            this.offsets = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean isFull() {
+            return size == capacity;
+        }
+
+        void add(long high, long low, TransactionStatusInfo info) throws IOException {
+            highs[size] = high;
+            lows[size] = low;
+            offsets[size] = records.size();
+            StatusRecordCodec.write(recordsOut, info);
+            size++;
+        }
+
+        /**
+         * Comprime y escribe el bloque. Devuelve la cantidad de bytes escritos en el archivo.
+         */
+        int flushTo(DataOutputStream file) throws IOException {
+            ByteBuffer raw = ByteBuffer.allocate(Integer.BYTES + size * (2 * Long.BYTES + Integer.BYTES)
+                    + records.size());
+            raw.putInt(size);
+            for (int i = 0; i < size; i++) {
+                raw.putLong(highs[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                raw.putLong(lows[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                raw.putInt(offsets[i]);
+            }
+            raw.put(records.toByteArray());
+
+            byte[] compressed = new byte[raw.capacity() + 64];
+            deflater.reset();
+            deflater.setInput(raw.array());
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+
+            file.writeInt(raw.capacity());
+            file.writeInt(compressedLength);
+            file.write(compressed, 0, compressedLength);
+
+            size = 0;
+            records.reset();
+            return 2 * Integer.BYTES + compressedLength;
+        }
+
+        void release() {
+            deflater.end();
+        }
+    }
+}
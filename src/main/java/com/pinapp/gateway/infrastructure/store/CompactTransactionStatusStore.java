@@ -0,0 +1,563 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Implementación compacta del puerto {@link TransactionStatusPort} pensada para retener
+ * millones de estados en curso con un heap reducido.
+ * <p>
+ * <strong>Representación:</strong>
+ * </p>
+ * <ul>
+ *   <li>La clave es el UUID de la transacción, guardado como sus dos mitades {@code long}
+ *       en una tabla de direccionamiento abierto (sondeo lineal), sin {@link String} ni
+ *       nodos por entrada.</li>
+ *   <li>El estado, el proveedor y los mensajes de error se guardan como índices a tablas
+ *       de cadenas compartidas ({@link StringInterner}); el estado ocupa un solo byte.</li>
+ *   <li>El {@code messageId} de la notificación coincide con el ID de la transacción en todos
+ *       los adaptadores, por lo que normalmente se representa con un bit.</li>
+ * </ul>
+ * <p>
+ * Cada slot ocupa 32 bytes; como la ocupación de la tabla oscila entre 3/8 y 3/4, una
+ * entrada cuesta entre 43 y 86 bytes, frente a los ~200 bytes de un {@code String} de 36
+ * caracteres, el nodo del mapa y los records {@link TransactionStatusInfo}/{@link NotificationStatus}
+ * del store por defecto.
+ * </p>
+ * <p>
+ * <strong>Retención:</strong> la misma política que {@link NotificationStatusStore}, con las mismas
+ * propiedades. Cada entrada guarda su vencimiento según el TTL de su estado (con resolución de un
+ * segundo); una entrada vencida ya no se devuelve ni cuenta como estado previo en una transición.
+ * Cada segmento retiene como máximo {@code max-size / 64} entradas: un alta en un segmento lleno
+ * desaloja las entradas que encuentra el barrido, vencidas o no, hasta hacerle lugar. Además, cada
+ * cierta cantidad de altas el segmento barre un lote acotado de slots y elimina las vencidas. El
+ * barrido corre dentro del lock de escritura que el alta ya tiene tomado y borra con
+ * desplazamiento hacia atrás, así que la tabla no acumula lápidas.
+ * </p>
+ * <p>
+ * <strong>Concurrencia:</strong> La tabla está dividida en segmentos independientes, cada uno
+ * protegido por un {@link StampedLock}. Las lecturas son optimistas (sin escritura en memoria
+ * compartida) y solo toman el lock de lectura si coincidieron con una escritura. Una
+ * transición condicional ({@link #transition}) evalúa el estado actual dentro del mismo lock de
+ * escritura del segmento que ya toma {@link #save}, así que no agrega sincronización.
+ * </p>
+ * <p>
+ * Se activa con {@code pinapp.gateway.status-store.type=compact}.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see NotificationStatusStore
+ */
+@Component
+@ConditionalOnProperty(name = "pinapp.gateway.status-store.type", havingValue = "compact")
+public class CompactTransactionStatusStore implements TransactionStatusPort, MeterBinder {
+
+    private static final int SEGMENT_COUNT = 64;
+    private static final int SEGMENT_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+    private static final int INITIAL_SEGMENT_CAPACITY = 1024;
+
+    /** Altas en un segmento entre barridos de entradas vencidas. */
+    private static final int SWEEP_EVERY_INSERTS = 64;
+
+    /** Máximo de slots inspeccionados por un barrido de entradas vencidas. */
+    private static final int SWEEP_BATCH_SIZE = 256;
+
+    private static final byte OCCUPIED = 1;
+    private static final byte HAS_NOTIFICATION = 1 << 1;
+    private static final byte SUCCESS = 1 << 2;
+    private static final byte MESSAGE_ID_IS_KEY = 1 << 3;
+    private static final byte HAS_OVERFLOW = 1 << 4;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final StringInterner statuses = new StringInterner(Byte.MAX_VALUE);
+    private final StringInterner providers = new StringInterner(Short.MAX_VALUE);
+    private final StringInterner messages;
+    private final StatusChangeRegistry changes;
+
+    private final int segmentMaxSize;
+    private final int processingTtlSeconds;
+    private final int completedTtlSeconds;
+    private final int failedTtlSeconds;
+    private final int defaultTtlSeconds;
+    private final long epochNanos = System.nanoTime();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CompactTransactionStatusStore(
+            StatusChangeRegistry changes,
+            @Value("${pinapp.gateway.status-store.compact.max-interned-messages:65536}") int maxInternedMessages,
+            @Value("${pinapp.gateway.status-store.max-size:1000000}") long maxSize,
+            @Value("${pinapp.gateway.status-store.ttl.processing:24h}") Duration processingTtl,
+            @Value("${pinapp.gateway.status-store.ttl.completed:1h}") Duration completedTtl,
+            @Value("${pinapp.gateway.status-store.ttl.failed:1h}") Duration failedTtl,
+            @Value("${pinapp.gateway.status-store.ttl.default:1h}") Duration defaultTtl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("pinapp.gateway.status-store.max-size debe ser mayor a 0");
+        }
+        this.messages = new StringInterner(maxInternedMessages);
+        this.changes = changes;
+        this.segmentMaxSize = (int) Math.min(Integer.MAX_VALUE / 2, (maxSize + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        this.processingTtlSeconds = toSeconds(processingTtl);
+        this.completedTtlSeconds = toSeconds(completedTtl);
+        this.failedTtlSeconds = toSeconds(failedTtl);
+        this.defaultTtlSeconds = toSeconds(defaultTtl);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+        for (ProcessingStatus status : ProcessingStatus.values()) {
+            statuses.intern(status.name());
+        }
+    }
+
+    @Override
+    public void save(TransactionStatusInfo statusInfo) {
+        write(statusInfo, false);
+    }
+
+    @Override
+    public boolean transition(TransactionStatusInfo statusInfo) {
+        return write(statusInfo, true);
+    }
+
+    private boolean write(TransactionStatusInfo statusInfo, boolean conditional) {
+        String id = statusInfo.id();
+        if (!UuidKeys.isCanonical(id)) {
+            throw new IllegalArgumentException("El ID de transacción no es un UUID válido: " + id);
+        }
+        long high = UuidKeys.mostSignificantBits(id);
+        long low = UuidKeys.leastSignificantBits(id);
+
+        // El interning se resuelve fuera del lock del segmento para acortar la sección crítica
+        NotificationStatus notification = statusInfo.notificationStatus();
+        int status = statuses.intern(statusInfo.status());
+        byte flags = OCCUPIED;
+        int provider = StringInterner.NULL;
+        int error = StringInterner.NULL;
+        int messageId = StringInterner.NULL;
+        if (notification != null) {
+            flags |= HAS_NOTIFICATION;
+            if (notification.success()) {
+                flags |= SUCCESS;
+            }
+            provider = providers.intern(notification.provider());
+            error = messages.intern(notification.errorMessage());
+            if (id.equalsIgnoreCase(notification.messageId())) {
+                flags |= MESSAGE_ID_IS_KEY;
+            } else {
+                messageId = messages.intern(notification.messageId());
+            }
+        }
+
+        Overflow overflow = null;
+        if (status == StringInterner.FULL || provider == StringInterner.FULL
+                || error == StringInterner.FULL || messageId == StringInterner.FULL) {
+            flags |= HAS_OVERFLOW;
+            overflow = new Overflow(
+                    statusInfo.status(),
+                    notification != null ? notification.messageId() : null,
+                    notification != null ? notification.provider() : null,
+                    notification != null ? notification.errorMessage() : null);
+        }
+
+        int now = nowSeconds();
+        int expiresAt = (int) Math.min(Integer.MAX_VALUE, (long) now + ttlFor(statusInfo.status()));
+        if (!segmentFor(high, low).put(high, low, flags, (byte) status, (short) provider, error, messageId, overflow,
+                expiresAt, now, conditional ? statusInfo.status() : null, this)) {
+            return false;
+        }
+        changes.publish(statusInfo);
+        return true;
+    }
+
+    @Override
+    public Optional<TransactionStatusInfo> findById(String id) {
+        if (!UuidKeys.isCanonical(id)) {
+            return Optional.empty();
+        }
+        long high = UuidKeys.mostSignificantBits(id);
+        long low = UuidKeys.leastSignificantBits(id);
+        TransactionStatusInfo info = segmentFor(high, low).get(high, low, nowSeconds(), this);
+        if (info == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(info);
+    }
+
+    @Override
+    public List<TransactionStatusInfo> findAllById(Collection<String> ids) {
+        List<TransactionStatusInfo> found = new ArrayList<>(ids.size());
+        int now = nowSeconds();
+        for (String id : ids) {
+            if (!UuidKeys.isCanonical(id)) {
+                continue;
+            }
+            long high = UuidKeys.mostSignificantBits(id);
+            long low = UuidKeys.leastSignificantBits(id);
+            TransactionStatusInfo info = segmentFor(high, low).get(high, low, now, this);
+            if (info != null) {
+                found.add(info);
+            }
+        }
+        hits.add(found.size());
+        misses.add(ids.size() - found.size());
+        return found;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.status.store.size", this, CompactTransactionStatusStore::size)
+                .description("Entradas actualmente retenidas en el store de estados")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.store.hits", this, CompactTransactionStatusStore::hitCount)
+                .description("Consultas de estado que encontraron una entrada vigente")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.store.misses", this, CompactTransactionStatusStore::missCount)
+                .description("Consultas de estado sin entrada o con la entrada expirada")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.store.evictions", this, CompactTransactionStatusStore::evictionCount)
+                .description("Entradas desalojadas por TTL o por exceder la capacidad")
+                .register(registry);
+    }
+
+    private int nowSeconds() {
+        return (int) ((System.nanoTime() - epochNanos) / 1_000_000_000L);
+    }
+
+    private int ttlFor(String status) {
+        ProcessingStatus lifecycle = ProcessingStatus.of(status);
+        if (lifecycle == null) {
+            return defaultTtlSeconds;
+        }
+        return switch (lifecycle) {
+            case PROCESSING -> processingTtlSeconds;
+            case COMPLETED -> completedTtlSeconds;
+            case FAILED, TIMED_OUT -> failedTtlSeconds;
+        };
+    }
+
+    private static int toSeconds(Duration ttl) {
+        return Math.clamp(ttl.toSeconds(), 0, Integer.MAX_VALUE);
+    }
+
+    private Segment segmentFor(long high, long low) {
+        return segments[(int) (mix(high, low) >>> SEGMENT_SHIFT)];
+    }
+
+    private TransactionStatusInfo decode(long high, long low, byte flags, byte status, short provider,
+                                         int error, int messageId, Overflow overflow) {
+        String id = UuidKeys.toString(high, low);
+        String statusValue = status == StringInterner.FULL ? overflow.status() : statuses.get(status);
+        NotificationStatus notification = null;
+        if ((flags & HAS_NOTIFICATION) != 0) {
+            notification = new NotificationStatus(
+                    (flags & SUCCESS) != 0,
+                    (flags & MESSAGE_ID_IS_KEY) != 0 ? id
+                            : messageId == StringInterner.FULL ? overflow.messageId() : messages.get(messageId),
+                    provider == StringInterner.FULL ? overflow.provider() : providers.get(provider),
+                    error == StringInterner.FULL ? overflow.errorMessage() : messages.get(error));
+        }
+        return new TransactionStatusInfo(id, statusValue, notification);
+    }
+
+    /**
+     * Función de mezcla (finalizador de MurmurHash3) para repartir UUIDs secuenciales o con
+     * bits fijos (versión/variante) de forma uniforme entre segmentos y slots.
+     */
+    private static long mix(long high, long low) {
+        long h = high ^ Long.rotateLeft(low, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Valores que no pudieron internarse porque su tabla de cadenas estaba llena.
+     * Es un camino excepcional: solo ocurre con mensajes de error muy variables.
+     */
+    private record Overflow(String status, String messageId, String provider, String errorMessage) {
+    }
+
+    /**
+     * Arreglos paralelos de un segmento. Se reemplazan en bloque al redimensionar, de modo que
+     * un lector optimista siempre observa arreglos de la misma longitud.
+     */
+    private static final class Table {
+        final long[] highs;
+        final long[] lows;
+        final byte[] flags;
+        final byte[] statuses;
+        final short[] providers;
+        final int[] errors;
+        final int[] messageIds;
+        // Vencimiento en segundos desde la creación del store
+        final int[] expiries;
+        final int mask;
+        final int threshold;
+
+        Table(int capacity) {
+            highs = new long[capacity];
+            lows = new long[capacity];
+            flags = new byte[capacity];
+            statuses = new byte[capacity];
+            providers = new short[capacity];
+            errors = new int[capacity];
+            messageIds = new int[capacity];
+            expiries = new int[capacity];
+            mask = capacity - 1;
+            threshold = capacity - (capacity >>> 2);
+        }
+
+        /**
+         * Devuelve el slot que contiene la clave o, si no existe, el primer slot libre de su
+         * secuencia de sondeo. La tabla nunca se llena, por lo que siempre hay un slot libre.
+         */
+        int slotOf(long high, long low) {
+            int slot = (int) mix(high, low) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                if (flags[slot] == 0 || (highs[slot] == high && lows[slot] == low)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        boolean isExpired(int slot, int now) {
+            return now - expiries[slot] >= 0;
+        }
+
+        void copy(Table from, int source, int target) {
+            highs[target] = from.highs[source];
+            lows[target] = from.lows[source];
+            flags[target] = from.flags[source];
+            statuses[target] = from.statuses[source];
+            providers[target] = from.providers[source];
+            errors[target] = from.errors[source];
+            messageIds[target] = from.messageIds[source];
+            expiries[target] = from.expiries[source];
+        }
+    }
+
+    private static final class Segment {
+
+        private final StampedLock lock = new StampedLock();
+        private Table table = new Table(INITIAL_SEGMENT_CAPACITY);
+        private Map<UUID, Overflow> overflows;
+        private int size;
+        private int inserts;
+        private int sweepSlot;
+
+        /**
+         * Escribe la entrada. Con {@code transitionTo} distinto de {@code null}, solo si la
+         * transición desde el estado actual (vigente) es válida. Un alta con el segmento lleno
+         * desaloja antes otras entradas.
+         *
+         * @return {@code false} si la transición condicional no se aplicó
+         */
+        boolean put(long high, long low, byte flags, byte status, short provider, int error, int messageId,
+                    Overflow overflow, int expiresAt, int now, String transitionTo,
+                    CompactTransactionStatusStore store) {
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int slot = t.slotOf(high, low);
+                if (transitionTo != null) {
+                    String current = null;
+                    if (t.flags[slot] != 0 && !t.isExpired(slot, now)) {
+                        current = t.statuses[slot] == StringInterner.FULL
+                                ? overflows.get(new UUID(high, low)).status()
+                                : store.statuses.get(t.statuses[slot]);
+                    }
+                    if (!ProcessingStatus.canTransition(current, transitionTo)) {
+                        return false;
+                    }
+                }
+                if (t.flags[slot] == 0) {
+                    if (++inserts % SWEEP_EVERY_INSERTS == 0 || size >= store.segmentMaxSize) {
+                        // La clave no está en la tabla, así que el barrido no puede desalojarla;
+                        // solo puede mover su primer slot libre
+                        sweep(now, store);
+                        slot = t.slotOf(high, low);
+                    }
+                    if (size + 1 > t.threshold) {
+                        t = resize(t);
+                        slot = t.slotOf(high, low);
+                    }
+                    size++;
+                    t.highs[slot] = high;
+                    t.lows[slot] = low;
+                }
+                t.statuses[slot] = status;
+                t.providers[slot] = provider;
+                t.errors[slot] = error;
+                t.messageIds[slot] = messageId;
+                t.expiries[slot] = expiresAt;
+                t.flags[slot] = flags;
+                if (overflow != null) {
+                    if (overflows == null) {
+                        overflows = new HashMap<>();
+                    }
+                    overflows.put(new UUID(high, low), overflow);
+                } else if (overflows != null) {
+                    overflows.remove(new UUID(high, low));
+                }
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        TransactionStatusInfo get(long high, long low, int now, CompactTransactionStatusStore store) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Table t = table;
+                int slot = t.slotOf(high, low);
+                if (slot >= 0) {
+                    byte flags = t.flags[slot];
+                    byte status = t.statuses[slot];
+                    short provider = t.providers[slot];
+                    int error = t.errors[slot];
+                    int messageId = t.messageIds[slot];
+                    boolean expired = t.isExpired(slot, now);
+                    if (lock.validate(stamp)) {
+                        if (flags == 0 || expired) {
+                            return null;
+                        }
+                        if ((flags & HAS_OVERFLOW) == 0) {
+                            return store.decode(high, low, flags, status, provider, error, messageId, null);
+                        }
+                    }
+                }
+            }
+
+            stamp = lock.readLock();
+            try {
+                Table t = table;
+                int slot = t.slotOf(high, low);
+                if (t.flags[slot] == 0 || t.isExpired(slot, now)) {
+                    return null;
+                }
+                Overflow overflow = (t.flags[slot] & HAS_OVERFLOW) != 0 ? overflows.get(new UUID(high, low)) : null;
+                return store.decode(high, low, t.flags[slot], t.statuses[slot], t.providers[slot],
+                        t.errors[slot], t.messageIds[slot], overflow);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.tryOptimisticRead();
+            int current = size;
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    current = size;
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return current;
+        }
+
+        private Table resize(Table old) {
+            Table grown = new Table((old.mask + 1) << 1);
+            for (int i = 0; i <= old.mask; i++) {
+                if (old.flags[i] != 0) {
+                    grown.copy(old, i, grown.slotOf(old.highs[i], old.lows[i]));
+                }
+            }
+            table = grown;
+            return grown;
+        }
+
+        /**
+         * Barre slots desde donde quedó el barrido anterior, con el lock de escritura tomado:
+         * elimina las entradas vencidas de un lote acotado y, si el segmento está lleno, también
+         * las vigentes que visita hasta dejar lugar para un alta.
+         */
+        private void sweep(int now, CompactTransactionStatusStore store) {
+            Table t = table;
+            for (int visited = 0; size > 0 && (visited < SWEEP_BATCH_SIZE || size >= store.segmentMaxSize);
+                    visited++) {
+                int slot = sweepSlot & t.mask;
+                if (t.flags[slot] != 0 && (size >= store.segmentMaxSize || t.isExpired(slot, now))) {
+                    // El desplazamiento puede traer otra entrada a este slot: se revisa en la próxima vuelta
+                    remove(t, slot);
+                    store.evictions.increment();
+                } else {
+                    sweepSlot = (slot + 1) & t.mask;
+                }
+            }
+        }
+
+        /**
+         * Borra un slot con desplazamiento hacia atrás: las entradas siguientes de la misma
+         * secuencia de sondeo ocupan el hueco, de modo que {@link Table#slotOf} las sigue
+         * encontrando sin lápidas.
+         */
+        private void remove(Table t, int slot) {
+            if ((t.flags[slot] & HAS_OVERFLOW) != 0) {
+                overflows.remove(new UUID(t.highs[slot], t.lows[slot]));
+            }
+            int hole = slot;
+            for (int next = (hole + 1) & t.mask; t.flags[next] != 0; next = (next + 1) & t.mask) {
+                int home = (int) mix(t.highs[next], t.lows[next]) & t.mask;
+                // Se mueve solo si el hueco está entre su slot de origen y su posición actual
+                if (((next - home) & t.mask) >= ((next - hole) & t.mask)) {
+                    t.copy(t, next, hole);
+                    hole = next;
+                }
+            }
+            t.flags[hole] = 0;
+            size--;
+        }
+    }
+}
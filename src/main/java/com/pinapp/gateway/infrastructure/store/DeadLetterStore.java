@@ -0,0 +1,293 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.DeadLetter;
+import com.pinapp.gateway.domain.model.DeadLetterFilter;
+import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.model.TransactionStatus;
+import com.pinapp.gateway.domain.ports.out.DeadLetterPort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementación en memoria y compacta del puerto {@link DeadLetterPort}.
+ * <p>
+ * <strong>Representación:</strong> durante una caída de un proveedor se acumulan muchas dead
+ * letters casi iguales (mismo canal, proveedor, mensaje y error). Esas cadenas se guardan como
+ * índices de un {@link StringInterner} compartido; los datos propios de cada transacción (nombre,
+ * email, teléfono, device token) se empaquetan en un único {@code byte[]} con
+ * {@link PackedStrings}. Si la tabla de cadenas se llena, las de esa entrada se guardan aparte,
+ * como en {@link CompactTransactionStatusStore}.
+ * </p>
+ * <p>
+ * <strong>Límites:</strong> como máximo {@code max-size} dead letters (las que llegan con el store
+ * lleno se descartan y se cuentan en {@code gateway.deadletter.dropped}); un hilo de mantenimiento
+ * descarta las de más de {@code retention} de antigüedad.
+ * </p>
+ * <p>
+ * <strong>Reenvío:</strong> las dead letters se guardan por transacción y canal. Una reservada
+ * ({@link #reserve}) sigue en el store, marcada para que otro reenvío no la tome, hasta que el
+ * reenvío la despacha ({@link #remove}) o la devuelve ({@link #release}). Así una caída del hilo
+ * de reenvío no pierde las que todavía no envió.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+public class DeadLetterStore implements DeadLetterPort, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterStore.class);
+
+    private static final int INTERNED_STRINGS = 1 << 16;
+    private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final ConcurrentHashMap<Key, Letter> letters = new ConcurrentHashMap<>();
+    private final StringInterner strings = new StringInterner(INTERNED_STRINGS);
+    private final long maxSize;
+    private final long retentionMillis;
+    private final ScheduledExecutorService maintenance;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+
+    public DeadLetterStore(
+            @Value("${pinapp.gateway.dead-letter.max-size:1000000}") long maxSize,
+            @Value("${pinapp.gateway.dead-letter.retention:7d}") Duration retention) {
+        this.maxSize = maxSize;
+        this.retentionMillis = retention.toMillis();
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dead-letter-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void record(DeadLetter deadLetter) {
+        Transaction transaction = deadLetter.transaction();
+        Key key = new Key(transaction.id(), deadLetter.channel());
+        if (letters.mappingCount() >= maxSize && !letters.containsKey(key)) {
+            dropped.increment();
+            log.warn("Dead letter store full, dropping dead letter transactionId={} channel={}",
+                    transaction.id(), deadLetter.channel());
+            return;
+        }
+        letters.put(key, encode(deadLetter));
+        recorded.increment();
+    }
+
+    @Override
+    public void resolve(String transactionId, String channel) {
+        if (letters.isEmpty()) {
+            return;
+        }
+        letters.remove(new Key(UUID.fromString(transactionId), channel));
+    }
+
+    @Override
+    public List<DeadLetter> find(DeadLetterFilter filter, int limit) {
+        List<DeadLetter> found = new ArrayList<>();
+        for (Map.Entry<Key, Letter> entry : select(filter, limit, false)) {
+            found.add(decode(entry.getKey(), entry.getValue()));
+        }
+        return found;
+    }
+
+    @Override
+    public List<DeadLetter> reserve(DeadLetterFilter filter, int limit) {
+        List<DeadLetter> reserved = new ArrayList<>();
+        for (Map.Entry<Key, Letter> entry : select(filter, limit, true)) {
+            // Solo si nadie la reservó ni la reemplazó mientras tanto
+            if (letters.replace(entry.getKey(), entry.getValue(), entry.getValue().reserved(true))) {
+                reserved.add(decode(entry.getKey(), entry.getValue()));
+            }
+        }
+        return reserved;
+    }
+
+    @Override
+    public void remove(DeadLetter deadLetter) {
+        Key key = new Key(deadLetter.transaction().id(), deadLetter.channel());
+        long failedAtMillis = deadLetter.failedAt().toEpochMilli();
+        boolean[] removed = new boolean[1];
+        letters.computeIfPresent(key, (k, letter) -> {
+            if (letter.reserved && letter.failedAtMillis == failedAtMillis) {
+                removed[0] = true;
+                return null;
+            }
+            return letter;
+        });
+        if (removed[0]) {
+            replayed.increment();
+        }
+    }
+
+    @Override
+    public void release(DeadLetter deadLetter) {
+        Key key = new Key(deadLetter.transaction().id(), deadLetter.channel());
+        long failedAtMillis = deadLetter.failedAt().toEpochMilli();
+        letters.computeIfPresent(key, (k, letter) -> letter.reserved && letter.failedAtMillis == failedAtMillis
+                ? letter.reserved(false)
+                : letter);
+    }
+
+    public long size() {
+        return letters.mappingCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.deadletter.size", this, DeadLetterStore::size)
+                .description("Notificaciones fallidas retenidas para reenvío")
+                .register(registry);
+        FunctionCounter.builder("gateway.deadletter.recorded", recorded, LongAdder::sum)
+                .description("Notificaciones registradas como dead letter")
+                .register(registry);
+        FunctionCounter.builder("gateway.deadletter.dropped", dropped, LongAdder::sum)
+                .description("Dead letters descartadas con el store lleno")
+                .register(registry);
+        FunctionCounter.builder("gateway.deadletter.replayed", replayed, LongAdder::sum)
+                .description("Dead letters despachadas por un reenvío")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        maintenance.shutdownNow();
+    }
+
+    private void sweep() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        letters.values().removeIf(letter -> letter.failedAtMillis < cutoff);
+    }
+
+    /**
+     * Elige las entradas que cumplen el filtro, las más antiguas primero.
+     * <p>
+     * El filtro de canal, proveedor y error se evalúa una sola vez por combinación de cadenas
+     * internadas (durante una caída casi todas las entradas comparten la misma), y solo se
+     * conservan las {@code limit} más antiguas en un heap en lugar de ordenar todas las que
+     * cumplen.
+     * </p>
+     *
+     * @param unreservedOnly {@code true} para saltar las que ya reservó otro reenvío
+     */
+    private List<Map.Entry<Key, Letter>> select(DeadLetterFilter filter, int limit, boolean unreservedOnly) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        DeadLetterFilter labels = new DeadLetterFilter(filter.channel(), filter.provider(), filter.errorContains(),
+                null, null);
+        long from = filter.from() != null ? filter.from().toEpochMilli() : Long.MIN_VALUE;
+        long to = filter.to() != null ? filter.to().toEpochMilli() : Long.MAX_VALUE;
+        Map<Long, Boolean> labelMatches = new HashMap<>();
+        Comparator<Map.Entry<Key, Letter>> oldestFirst =
+                Comparator.comparingLong(entry -> entry.getValue().failedAtMillis);
+        PriorityQueue<Map.Entry<Key, Letter>> newestOnTop = new PriorityQueue<>(oldestFirst.reversed());
+
+        for (Map.Entry<Key, Letter> entry : letters.entrySet()) {
+            Letter letter = entry.getValue();
+            if (letter.failedAtMillis < from || letter.failedAtMillis >= to || (unreservedOnly && letter.reserved)) {
+                continue;
+            }
+            if (newestOnTop.size() == limit && letter.failedAtMillis >= newestOnTop.peek().getValue().failedAtMillis) {
+                continue;
+            }
+            boolean matches = letter.overflow != null
+                    ? labels.matches(letter.overflow[0], letter.overflow[1], letter.overflow[2], null)
+                    : labelMatches.computeIfAbsent(labelKey(letter), key -> labels.matches(strings.get(letter.channel),
+                            strings.get(letter.provider), strings.get(letter.error), null));
+            if (!matches) {
+                continue;
+            }
+            newestOnTop.add(Map.entry(entry.getKey(), letter));
+            if (newestOnTop.size() > limit) {
+                newestOnTop.poll();
+            }
+        }
+        List<Map.Entry<Key, Letter>> selected = new ArrayList<>(newestOnTop);
+        selected.sort(oldestFirst);
+        return selected;
+    }
+
+    private static long labelKey(Letter letter) {
+        // Índices internados en [-1, 2^16): cada uno entra en 17 bits
+        return ((letter.channel + 1L) << 34) | ((letter.provider + 1L) << 17) | (letter.error + 1L);
+    }
+
+    private Letter encode(DeadLetter deadLetter) {
+        Transaction transaction = deadLetter.transaction();
+        int channel = strings.intern(deadLetter.channel());
+        int provider = strings.intern(deadLetter.provider());
+        int error = strings.intern(deadLetter.errorMessage());
+        int message = strings.intern(deadLetter.message());
+        String[] overflow = null;
+        if (channel == StringInterner.FULL || provider == StringInterner.FULL
+                || error == StringInterner.FULL || message == StringInterner.FULL) {
+            overflow = new String[] {deadLetter.channel(), deadLetter.provider(), deadLetter.errorMessage(),
+                    deadLetter.message()};
+        }
+        return new Letter(deadLetter.failedAt().toEpochMilli(), channel, provider, error, message,
+                (byte) (transaction.status() != null ? transaction.status().ordinal() : -1),
+                transaction.amount(),
+                PackedStrings.pack(transaction.customerName(), transaction.email(), transaction.phone(),
+                        transaction.deviceToken()),
+                overflow, false);
+    }
+
+    private DeadLetter decode(Key key, Letter letter) {
+        String[] contact = PackedStrings.unpack(letter.contact, 4);
+        Transaction transaction = new Transaction(key.transactionId(), letter.amount, contact[0], contact[1], contact[2],
+                letter.status >= 0 ? STATUSES[letter.status] : null, contact[3]);
+        return new DeadLetter(transaction, string(letter.channel, letter, 0), string(letter.message, letter, 3),
+                string(letter.provider, letter, 1), string(letter.error, letter, 2),
+                Instant.ofEpochMilli(letter.failedAtMillis));
+    }
+
+    private String string(int index, Letter letter, int overflowSlot) {
+        return index == StringInterner.FULL ? letter.overflow[overflowSlot] : strings.get(index);
+    }
+
+    private record Key(UUID transactionId, String channel) {
+    }
+
+    /**
+     * Dead letter compacta. {@code overflow} solo existe si la tabla de cadenas estaba llena;
+     * {@code reserved} indica que un reenvío la tomó y todavía no la despachó.
+     */
+    private record Letter(long failedAtMillis, int channel, int provider, int error, int message, byte status,
+            BigDecimal amount, byte[] contact, String[] overflow, boolean reserved) {
+
+        Letter reserved(boolean value) {
+            return new Letter(failedAtMillis, channel, provider, error, message, status, amount, contact, overflow,
+                    value);
+        }
+    }
+}
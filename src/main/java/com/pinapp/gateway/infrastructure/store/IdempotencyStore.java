@@ -0,0 +1,191 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.exception.DuplicateTransactionException;
+import com.pinapp.gateway.domain.model.ProcessingResult;
+import com.pinapp.gateway.domain.model.TransactionStatus;
+import com.pinapp.gateway.domain.ports.out.IdempotencyPort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Implementación en memoria del puerto {@link IdempotencyPort}: recuerda los pares (ID de
+ * transacción, estado) recibidos durante {@code window}.
+ * <p>
+ * <strong>Clave:</strong> una misma transacción se notifica una vez por estado (por ejemplo,
+ * PENDING y después COMPLETED), así que solo es duplicada la que repite ID y estado.
+ * </p>
+ * <p>
+ * <strong>Peticiones individuales:</strong> se guarda el future del primer procesamiento; un
+ * reintento del cliente recibe ese mismo future, tanto si el proveedor ya respondió como si el
+ * envío sigue en curso. Si el procesamiento falla con una excepción (por ejemplo, canal
+ * saturado), la clave se olvida para que el reintento se procese.
+ * </p>
+ * <p>
+ * <strong>Lotes:</strong> solo interesa saber si la clave ya se vio, así que las claves de lote
+ * comparten una misma marca por segundo de vencimiento en lugar de una entrada propia.
+ * </p>
+ * <p>
+ * <strong>Límites:</strong> como máximo {@code max-size} claves. Con el store lleno, las claves nuevas
+ * se procesan sin protección de idempotencia y se cuentan en {@code gateway.idempotency.overflow}.
+ * Las entradas vencidas se ignoran al consultarlas y un hilo de mantenimiento las retira.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+public class IdempotencyStore implements IdempotencyPort, MeterBinder {
+
+    private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final long maxSize;
+    private final ScheduledExecutorService maintenance;
+    private volatile Entry batchMarker = new Entry(0, null);
+
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+
+    public IdempotencyStore(
+            @Value("${pinapp.gateway.idempotency.window:15m}") Duration window,
+            @Value("${pinapp.gateway.idempotency.max-size:1000000}") long maxSize) {
+        this.windowMillis = window.toMillis();
+        this.maxSize = maxSize;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean claim(UUID transactionId, TransactionStatus status) {
+        long now = System.currentTimeMillis();
+        Entry marker = batchMarker;
+        if (marker.expiresAtMillis - now < windowMillis) {
+            // Una marca por segundo: vence como mucho un segundo después que la ventana exacta
+            marker = new Entry(now + windowMillis + 1000, null);
+            batchMarker = marker;
+        }
+        return register(new Key(transactionId, status), marker, now) == null;
+    }
+
+    @Override
+    public CompletableFuture<ProcessingResult> processOnce(UUID transactionId, TransactionStatus status,
+            Supplier<CompletableFuture<ProcessingResult>> process) {
+        long now = System.currentTimeMillis();
+        Key key = new Key(transactionId, status);
+        Entry entry = new Entry(now + windowMillis, new CompletableFuture<>());
+        Entry existing = register(key, entry, now);
+        if (existing != null) {
+            return existing.result != null
+                    ? existing.result
+                    : CompletableFuture.failedFuture(new DuplicateTransactionException(transactionId.toString()));
+        }
+
+        CompletableFuture<ProcessingResult> outcome;
+        try {
+            outcome = process.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        outcome.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                entries.remove(key, entry);
+                entry.result.completeExceptionally(throwable);
+            } else {
+                entry.result.complete(result);
+            }
+        });
+        return entry.result;
+    }
+
+    @Override
+    public void release(UUID transactionId, TransactionStatus status) {
+        entries.remove(new Key(transactionId, status));
+    }
+
+    public long size() {
+        return entries.mappingCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.idempotency.size", this, IdempotencyStore::size)
+                .description("Pares (ID de transacción, estado) recordados dentro de la ventana de idempotencia")
+                .register(registry);
+        FunctionCounter.builder("gateway.idempotency.duplicates", duplicates, LongAdder::sum)
+                .description("Transacciones repetidas respondidas desde memoria u omitidas")
+                .register(registry);
+        FunctionCounter.builder("gateway.idempotency.overflow", overflow, LongAdder::sum)
+                .description("Transacciones procesadas sin protección de idempotencia por store lleno")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        maintenance.shutdownNow();
+    }
+
+    /**
+     * Registra la clave si no hay una entrada vigente para ella.
+     *
+     * @return La entrada vigente que ya existía, o {@code null} si se registró {@code entry}
+     */
+    private Entry register(Key key, Entry entry, long now) {
+        while (true) {
+            Entry existing = entries.get(key);
+            if (existing == null) {
+                if (entries.mappingCount() >= maxSize) {
+                    overflow.increment();
+                    return null;
+                }
+                if (entries.putIfAbsent(key, entry) == null) {
+                    return null;
+                }
+            } else if (existing.expiresAtMillis - now > 0) {
+                duplicates.increment();
+                return existing;
+            } else if (entries.replace(key, existing, entry)) {
+                return null;
+            }
+        }
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis - now <= 0);
+    }
+
+    /**
+     * Transacción recibida con un estado dado.
+     */
+    private record Key(UUID transactionId, TransactionStatus status) {
+    }
+
+    /**
+     * Clave recordada; {@code result} es {@code null} para las recibidas en un lote.
+     */
+    private record Entry(long expiresAtMillis, CompletableFuture<ProcessingResult> result) {
+    }
+}
@@ -0,0 +1,816 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Implementación persistente del puerto {@link TransactionStatusPort} basada en un journal
+ * local de solo escritura al final (append-only) con snapshots compactados.
+ * <p>
+ * <strong>Escritura:</strong>
+ * </p>
+ * <ul>
+ *   <li>{@link #save} actualiza el índice en memoria y encola el ID de la transacción.</li>
+ *   <li>Si el escritor no logra escribir o sincronizar un lote, revierte en el índice los
+ *       estados de ese lote al valor previo (solo si nadie los volvió a cambiar), así que el
+ *       índice no sirve estados que no llegaron al journal.</li>
+ *   <li>Un único hilo escritor drena la cola en lotes (group commit), serializa el valor
+ *       <em>actual</em> de cada ID y lo escribe en el segmento activo mediante un
+ *       {@link FileChannel}. Como siempre se escribe el último valor del índice, el último
+ *       registro de cada ID en el journal nunca es más antiguo que su última escritura.</li>
+ *   <li>Modo {@code batch}: {@link #save} espera hasta que el lote que contiene su registro
+ *       fue sincronizado a disco ({@code fsync}); un solo {@code fsync} confirma todas las
+ *       escrituras concurrentes del lote.</li>
+ *   <li>Modo {@code interval}: {@link #save} retorna al encolar y el escritor sincroniza como
+ *       máximo una vez por {@code fsync-interval}, acotando la pérdida ante una caída.</li>
+ * </ul>
+ * <p>
+ * <strong>Snapshots y arranque rápido:</strong> Cada {@code snapshot-every-records} registros
+ * el escritor rota a un segmento nuevo y un hilo aparte vuelca el índice completo a un
+ * snapshot (escrito en un archivo temporal y renombrado atómicamente). Una vez publicado,
+ * los segmentos anteriores se eliminan. Al arrancar solo se carga el último snapshot y se
+ * reproducen los segmentos posteriores (la cola); un registro final incompleto o con CRC
+ * inválido (escritura interrumpida) se descarta truncando el segmento.
+ * </p>
+ * <p>
+ * Formato de cada registro en journal y snapshot: {@code int longitud, int crc32, payload},
+ * donde el payload lo produce {@link StatusRecordCodec}.
+ * </p>
+ * <p>
+ * Se activa con {@code pinapp.gateway.status-store.type=journal}.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see StatusRecordCodec
+ */
+@Component
+@ConditionalOnProperty(name = "pinapp.gateway.status-store.type", havingValue = "journal")
+public class JournalTransactionStatusStore implements TransactionStatusPort, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalTransactionStatusStore.class);
+
+    /**
+     * Política de sincronización a disco del journal.
+     */
+    public enum FsyncMode {
+        /** {@code fsync} por cada lote escrito; {@code save} espera la confirmación. */
+        BATCH,
+        /** {@code fsync} periódico; {@code save} no espera. */
+        INTERVAL
+    }
+
+    private static final int MAX_BATCH = 4096;
+    private static final int SNAPSHOT_MAGIC = 0x53544154;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("journal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.snap");
+
+    private final ConcurrentHashMap<String, TransactionStatusInfo> index = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingWrite> queue;
+    private final Path directory;
+    private final FsyncMode fsyncMode;
+    private final long fsyncIntervalNanos;
+    private final long snapshotEveryRecords;
+
+    private final Thread writer;
+    private final ExecutorService snapshotExecutor;
+    private final AtomicBoolean snapshotInProgress = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    private final LongAdder appendedRecords = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+    private volatile long replayedRecords;
+    private final StatusChangeRegistry changes;
+
+    // Estado confinado al hilo escritor
+    private final FrameEncoder writerEncoder = new FrameEncoder();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(1 << 20);
+    private FileChannel segment;
+    private long segmentSeq;
+    // Tamaño del segmento antes del lote en curso
+    private long batchStart;
+    private long recordsSinceSnapshot;
+
+    public JournalTransactionStatusStore(
+            StatusChangeRegistry changes,
+            @Value("${pinapp.gateway.status-store.journal.directory:./data/status-journal}") String directory,
+            @Value("${pinapp.gateway.status-store.journal.fsync-mode:batch}") String fsyncMode,
+            @Value("${pinapp.gateway.status-store.journal.fsync-interval:50ms}") Duration fsyncInterval,
+            @Value("${pinapp.gateway.status-store.journal.snapshot-every-records:5000000}") long snapshotEveryRecords,
+            @Value("${pinapp.gateway.status-store.journal.queue-capacity:65536}") int queueCapacity)
+            throws IOException {
+        this.directory = Path.of(directory);
+        this.fsyncMode = FsyncMode.valueOf(fsyncMode.trim().toUpperCase(Locale.ROOT));
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.snapshotEveryRecords = snapshotEveryRecords;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.changes = changes;
+
+        recover();
+
+        this.snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "status-journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = new Thread(this::writeLoop, "status-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void save(TransactionStatusInfo statusInfo) {
+        if (!UuidKeys.isCanonical(statusInfo.id())) {
+            throw new IllegalArgumentException("El ID de transacción no es un UUID válido: " + statusInfo.id());
+        }
+        if (!running) {
+            throw new IllegalStateException("El journal de estados está cerrado");
+        }
+        TransactionStatusInfo previous = index.put(statusInfo.id(), statusInfo);
+        journal(newWrite(statusInfo, previous));
+    }
+
+    /**
+     * Guarda todos los estados y encola sus escrituras antes de esperar, como
+     * {@link #transitionAll}: en modo {@code BATCH} la lista queda durable con una sola espera en
+     * lugar de un fsync por estado. Si algún ID no es un UUID canónico no se guarda ninguno.
+     */
+    @Override
+    public void saveAll(List<TransactionStatusInfo> statusInfos) {
+        for (TransactionStatusInfo statusInfo : statusInfos) {
+            if (!UuidKeys.isCanonical(statusInfo.id())) {
+                throw new IllegalArgumentException("El ID de transacción no es un UUID válido: " + statusInfo.id());
+            }
+        }
+        if (!running) {
+            throw new IllegalStateException("El journal de estados está cerrado");
+        }
+        List<PendingWrite> writes = new ArrayList<>(statusInfos.size());
+        for (TransactionStatusInfo statusInfo : statusInfos) {
+            PendingWrite write = newWrite(statusInfo, index.put(statusInfo.id(), statusInfo));
+            enqueue(write);
+            writes.add(write);
+        }
+        for (PendingWrite write : writes) {
+            awaitDurable(write);
+        }
+        for (TransactionStatusInfo statusInfo : statusInfos) {
+            changes.publish(statusInfo);
+        }
+    }
+
+    /**
+     * Transición condicional sobre el índice en memoria con {@code putIfAbsent}/{@code replace};
+     * solo las que se aplican llegan al journal. El escritor toma el estado vigente del índice al
+     * escribir, así que dos transiciones encoladas en otro orden dejan igualmente el estado más
+     * avanzado en disco.
+     */
+    @Override
+    public boolean transition(TransactionStatusInfo statusInfo) {
+        if (!UuidKeys.isCanonical(statusInfo.id())) {
+            throw new IllegalArgumentException("El ID de transacción no es un UUID válido: " + statusInfo.id());
+        }
+        if (!running) {
+            throw new IllegalStateException("El journal de estados está cerrado");
+        }
+        PendingWrite write = advance(statusInfo);
+        if (write == null) {
+            return false;
+        }
+        journal(write);
+        return true;
+    }
+
+    /**
+     * Aplica las transiciones sobre el índice y encola todas las escrituras antes de esperar; en
+     * modo {@code BATCH} la lista entera queda durable con una sola espera (normalmente un único
+     * fsync) en lugar de una por estado. Los IDs que no son UUID canónicos no se aplican.
+     */
+    @Override
+    public boolean[] transitionAll(List<TransactionStatusInfo> statusInfos) {
+        if (!running) {
+            throw new IllegalStateException("El journal de estados está cerrado");
+        }
+        boolean[] applied = new boolean[statusInfos.size()];
+        List<PendingWrite> writes = new ArrayList<>();
+        for (int i = 0; i < applied.length; i++) {
+            TransactionStatusInfo statusInfo = statusInfos.get(i);
+            PendingWrite write = UuidKeys.isCanonical(statusInfo.id()) ? advance(statusInfo) : null;
+            if (write != null) {
+                applied[i] = true;
+                enqueue(write);
+                writes.add(write);
+            }
+        }
+        // Se completan juntas al sincronizar el lote del escritor; solo la primera espera de verdad
+        for (PendingWrite write : writes) {
+            awaitDurable(write);
+        }
+        for (int i = 0; i < applied.length; i++) {
+            if (applied[i]) {
+                changes.publish(statusInfos.get(i));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Transición condicional sobre el índice en memoria con {@code putIfAbsent}/{@code replace}.
+     *
+     * @return La escritura a encolar si el estado avanzó, o {@code null} si no se aplicó
+     */
+    private PendingWrite advance(TransactionStatusInfo statusInfo) {
+        String id = statusInfo.id();
+        while (true) {
+            TransactionStatusInfo current = index.get(id);
+            if (!ProcessingStatus.canTransition(current != null ? current.status() : null, statusInfo.status())) {
+                return null;
+            }
+            if (current == null ? index.putIfAbsent(id, statusInfo) == null : index.replace(id, current, statusInfo)) {
+                return newWrite(statusInfo, current);
+            }
+        }
+    }
+
+    /**
+     * Encola la escritura del estado ya publicado en el índice y, en modo {@code BATCH}, espera a
+     * que sea durable.
+     */
+    private void journal(PendingWrite write) {
+        enqueue(write);
+        awaitDurable(write);
+        changes.publish(write.applied());
+    }
+
+    private PendingWrite newWrite(TransactionStatusInfo applied, TransactionStatusInfo previous) {
+        return new PendingWrite(applied.id(), applied, previous,
+                fsyncMode == FsyncMode.BATCH ? new CompletableFuture<>() : null);
+    }
+
+    private void enqueue(PendingWrite write) {
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            rollback(write);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido al encolar la escritura del journal", e);
+        }
+    }
+
+    /**
+     * Devuelve el índice al estado previo a una escritura que no llegó al journal. Es condicional:
+     * si otra escritura ya reemplazó el estado, se conserva.
+     */
+    private void rollback(PendingWrite write) {
+        if (write.previous() == null) {
+            index.remove(write.id(), write.applied());
+        } else {
+            index.replace(write.id(), write.applied(), write.previous());
+        }
+    }
+
+    private static void awaitDurable(PendingWrite write) {
+        if (write.durable() != null) {
+            try {
+                write.durable().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+    }
+
+    @Override
+    public Optional<TransactionStatusInfo> findById(String id) {
+        return Optional.ofNullable(index.get(id));
+    }
+
+    @Override
+    public List<TransactionStatusInfo> findAllById(Collection<String> ids) {
+        List<TransactionStatusInfo> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            TransactionStatusInfo info = index.get(id);
+            if (info != null) {
+                found.add(info);
+            }
+        }
+        return found;
+    }
+
+    public long size() {
+        return index.mappingCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.status.store.size", this, JournalTransactionStatusStore::size)
+                .description("Entradas actualmente retenidas en el store de estados")
+                .register(registry);
+        Gauge.builder("gateway.status.journal.queue.depth", queue, BlockingQueue::size)
+                .description("Escrituras pendientes de persistir en el journal")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.journal.records", appendedRecords, LongAdder::sum)
+                .description("Registros escritos en el journal")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.journal.fsyncs", fsyncs, LongAdder::sum)
+                .description("Sincronizaciones a disco del journal (una por group commit)")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.journal.snapshots", snapshots, LongAdder::sum)
+                .description("Snapshots compactados publicados")
+                .register(registry);
+        Gauge.builder("gateway.status.journal.replayed", this, store -> store.replayedRecords)
+                .description("Registros reproducidos durante el último arranque")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        snapshotExecutor.shutdown();
+        snapshotExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    // ------------------------------------------------------------------
+    // Escritura (hilo escritor)
+    // ------------------------------------------------------------------
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(MAX_BATCH);
+        long pollNanos = fsyncMode == FsyncMode.BATCH ? TimeUnit.MILLISECONDS.toNanos(100) : fsyncIntervalNanos;
+        long lastSync = System.nanoTime();
+        boolean dirty = false;
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(pollNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    append(batch);
+                    dirty = true;
+                }
+
+                long now = System.nanoTime();
+                if (dirty && (fsyncMode == FsyncMode.BATCH || !running || now - lastSync >= fsyncIntervalNanos)) {
+                    segment.force(false);
+                    fsyncs.increment();
+                    lastSync = now;
+                    dirty = false;
+                }
+                for (PendingWrite write : batch) {
+                    if (write.durable() != null) {
+                        write.durable().complete(null);
+                    }
+                }
+                batch.clear();
+
+                if (recordsSinceSnapshot >= snapshotEveryRecords
+                        && snapshotInProgress.compareAndSet(false, true)) {
+                    rotateAndSnapshot();
+                }
+            } catch (IOException e) {
+                log.error("Error writing status journal segment segment={} error={}", segmentSeq, e.getMessage());
+                abandonSegment(!batch.isEmpty());
+                dirty = false;
+                UncheckedIOException failure = new UncheckedIOException("No se pudo persistir el estado", e);
+                // En orden inverso, para que varias escrituras del mismo ID vuelvan al estado anterior al lote
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    rollback(batch.get(i));
+                }
+                for (PendingWrite write : batch) {
+                    if (write.durable() != null) {
+                        write.durable().completeExceptionally(failure);
+                    }
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        closeSegment();
+    }
+
+    private void append(List<PendingWrite> batch) throws IOException {
+        if (segment == null) {
+            openSegment(segmentSeq + 1);
+        }
+        batchStart = segment.size();
+        writeBuffer.clear();
+        for (PendingWrite write : batch) {
+            TransactionStatusInfo info = index.get(write.id());
+            if (info == null) {
+                continue;
+            }
+            int length = writerEncoder.encode(info);
+            if (writeBuffer.remaining() < length) {
+                flush();
+            }
+            if (writeBuffer.remaining() < length) {
+                // Registro más grande que el buffer: se escribe directamente
+                writeFully(ByteBuffer.wrap(writerEncoder.frame(), 0, length));
+            } else {
+                writeBuffer.put(writerEncoder.frame(), 0, length);
+            }
+            recordsSinceSnapshot++;
+            appendedRecords.increment();
+        }
+        flush();
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        writeFully(writeBuffer);
+        writeBuffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+    }
+
+    /**
+     * Descarta el segmento activo después de un error de escritura o de {@code fsync}.
+     * <p>
+     * Trunca (si todavía puede) los bytes del lote fallido, que pueden terminar en un registro
+     * incompleto, y sigue en un segmento nuevo. Si siguiera escribiendo a continuación, la
+     * recuperación se detendría en ese registro roto y descartaría todo lo escrito después; así,
+     * como mucho se pierde la cola rota de un segmento y los siguientes se reproducen completos.
+     * Si no puede abrir el segmento nuevo lo reintenta en la próxima escritura.
+     * </p>
+     *
+     * @param truncate {@code false} si falló un {@code fsync} sin lote en curso: no hay bytes que
+     *        descartar
+     */
+    private void abandonSegment(boolean truncate) {
+        if (segment == null) {
+            return;
+        }
+        if (truncate) {
+            try {
+                segment.truncate(batchStart);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not truncate failed status journal batch segment={} offset={} error={}",
+                        segmentSeq, batchStart, e.getMessage());
+            }
+        }
+        closeSegment();
+        try {
+            openSegment(segmentSeq + 1);
+        } catch (IOException e) {
+            log.error("Error opening status journal segment segment={} error={}", segmentSeq, e.getMessage());
+            segment = null;
+        }
+    }
+
+    /**
+     * Rota al segmento siguiente y delega el snapshot del índice a otro hilo, de modo que el
+     * group commit no se detiene mientras se vuelca el snapshot.
+     * <p>
+     * Todo registro del segmento cerrado corresponde a una escritura del índice anterior a la
+     * rotación, por lo que el snapshot (iniciado después) la contiene con ese valor o uno más
+     * reciente. Los valores más recientes también llegan a los segmentos nuevos, que se
+     * reproducen en orden después del snapshot.
+     * </p>
+     */
+    private void rotateAndSnapshot() throws IOException {
+        long nextSeq = segmentSeq + 1;
+        closeSegment();
+        openSegment(nextSeq);
+        recordsSinceSnapshot = 0;
+        snapshotExecutor.execute(() -> {
+            try {
+                writeSnapshot(nextSeq);
+                deleteFilesBefore(nextSeq);
+                snapshots.increment();
+            } catch (IOException e) {
+                log.error("Error writing status journal snapshot snapshot={} error={}", nextSeq, e.getMessage());
+            } finally {
+                snapshotInProgress.set(false);
+            }
+        });
+    }
+
+    private void writeSnapshot(long seq) throws IOException {
+        Path tmp = directory.resolve("snapshot-" + fileSeq(seq) + ".tmp");
+        FrameEncoder encoder = new FrameEncoder();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            for (TransactionStatusInfo info : index.values()) {
+                int length = encoder.encode(info);
+                out.write(encoder.frame(), 0, length);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(snapshotName(seq)), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteFilesBefore(long seq) throws IOException {
+        for (Path path : listFiles()) {
+            long segmentNumber = sequenceOf(path, SEGMENT_FILE);
+            long snapshotNumber = sequenceOf(path, SNAPSHOT_FILE);
+            if ((segmentNumber >= 0 && segmentNumber < seq) || (snapshotNumber >= 0 && snapshotNumber < seq)) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private void openSegment(long seq) throws IOException {
+        segmentSeq = seq;
+        segment = FileChannel.open(directory.resolve(segmentName(seq)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.force(false);
+        } catch (IOException e) {
+            log.error("Error closing status journal segment segment={} error={}", segmentSeq, e.getMessage());
+        } finally {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.warn("Error closing status journal segment segment={} error={}", segmentSeq, e.getMessage());
+            }
+            segment = null;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Recuperación (arranque)
+    // ------------------------------------------------------------------
+
+    private void recover() throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(directory);
+
+        long snapshotSeq = -1;
+        List<Long> segmentSeqs = new ArrayList<>();
+        for (Path path : listFiles()) {
+            if (path.getFileName().toString().endsWith(".tmp")) {
+                // Snapshot que no llegó a publicarse antes de la caída
+                Files.deleteIfExists(path);
+            }
+            snapshotSeq = Math.max(snapshotSeq, sequenceOf(path, SNAPSHOT_FILE));
+            long seq = sequenceOf(path, SEGMENT_FILE);
+            if (seq >= 0) {
+                segmentSeqs.add(seq);
+            }
+        }
+        segmentSeqs.sort(null);
+
+        long records = 0;
+        if (snapshotSeq >= 0) {
+            records += loadSnapshot(directory.resolve(snapshotName(snapshotSeq)));
+        }
+        long lastSeq = Math.max(snapshotSeq, 0);
+        for (long seq : segmentSeqs) {
+            if (seq < snapshotSeq) {
+                // Ya incluido en el snapshot; quedó por una caída antes de la limpieza
+                Files.deleteIfExists(directory.resolve(segmentName(seq)));
+                continue;
+            }
+            records += replaySegment(directory.resolve(segmentName(seq)));
+            lastSeq = Math.max(lastSeq, seq);
+        }
+        replayedRecords = records;
+
+        openSegment(lastSeq + 1);
+        log.info("Recovered statuses from the journal count={} records={} elapsedMs={}", index.size(), records,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private long loadSnapshot(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Snapshot con formato desconocido: " + path);
+            }
+            FrameDecoder decoder = new FrameDecoder();
+            long records = 0;
+            TransactionStatusInfo info;
+            while ((info = decoder.next(in)) != null) {
+                index.put(info.id(), info);
+                records++;
+            }
+            if (decoder.corrupted()) {
+                throw new IOException("Snapshot corrupto: " + path);
+            }
+            return records;
+        }
+    }
+
+    private long replaySegment(Path path) throws IOException {
+        FrameDecoder decoder = new FrameDecoder();
+        long records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            TransactionStatusInfo info;
+            while ((info = decoder.next(in)) != null) {
+                index.put(info.id(), info);
+                records++;
+            }
+        }
+        if (decoder.corrupted()) {
+            log.warn("Truncating torn tail of status journal segment file={} offset={}", path.getFileName(),
+                    decoder.validBytes());
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(decoder.validBytes());
+                channel.force(true);
+            }
+        }
+        return records;
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static long sequenceOf(Path path, Pattern pattern) {
+        Matcher matcher = pattern.matcher(path.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private static String segmentName(long seq) {
+        return "journal-" + fileSeq(seq) + ".log";
+    }
+
+    private static String snapshotName(long seq) {
+        return "snapshot-" + fileSeq(seq) + ".snap";
+    }
+
+    private static String fileSeq(long seq) {
+        return String.format("%020d", seq);
+    }
+
+    private record PendingWrite(String id, TransactionStatusInfo applied, TransactionStatusInfo previous,
+            CompletableFuture<Void> durable) {
+    }
+
+    /**
+     * Serializa un registro con su cabecera ({@code longitud, crc32}) en un buffer reutilizable.
+     * No es thread-safe: cada hilo usa su propia instancia.
+     */
+    private static final class FrameEncoder {
+
+        private final ExposedByteArrayOutputStream bytes = new ExposedByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final CRC32 crc = new CRC32();
+
+        int encode(TransactionStatusInfo info) throws IOException {
+            bytes.reset();
+            out.writeLong(0);
+            StatusRecordCodec.write(out, info);
+            byte[] frame = bytes.buffer();
+            int payloadLength = bytes.size() - Long.BYTES;
+            crc.reset();
+            crc.update(frame, Long.BYTES, payloadLength);
+            ByteBuffer.wrap(frame, 0, Long.BYTES).putInt(payloadLength).putInt((int) crc.getValue());
+            return bytes.size();
+        }
+
+        byte[] frame() {
+            return bytes.buffer();
+        }
+    }
+
+    /**
+     * Lee registros enmarcados validando longitud y CRC. Ante un registro incompleto o inválido
+     * deja de leer y recuerda cuántos bytes válidos se consumieron.
+     */
+    private static final class FrameDecoder {
+
+        private final ReusableByteArrayInputStream bytes = new ReusableByteArrayInputStream();
+        private final DataInputStream payloadIn = new DataInputStream(bytes);
+        private final CRC32 crc = new CRC32();
+        private byte[] payload = new byte[256];
+        private long validBytes;
+        private boolean corrupted;
+
+        TransactionStatusInfo next(DataInputStream in) throws IOException {
+            try {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return null;
+                }
+                int checksum = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    corrupted = true;
+                    return null;
+                }
+                if (payload.length < length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                in.readFully(payload, 0, length);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    corrupted = true;
+                    return null;
+                }
+                bytes.reset(payload, length);
+                TransactionStatusInfo info = StatusRecordCodec.read(payloadIn);
+                validBytes += 2L * Integer.BYTES + length;
+                return info;
+            } catch (EOFException e) {
+                corrupted = true;
+                return null;
+            }
+        }
+
+        long validBytes() {
+            return validBytes;
+        }
+
+        boolean corrupted() {
+            return corrupted;
+        }
+    }
+
+    private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+
+        ExposedByteArrayOutputStream() {
+            super(256);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    private static final class ReusableByteArrayInputStream extends ByteArrayInputStream {
+
+        ReusableByteArrayInputStream() {
+            super(new byte[0]);
+        }
+
+        void reset(byte[] data, int length) {
+            this.buf = data;
+            this.pos = 0;
+            this.count = length;
+            this.mark = 0;
+        }
+    }
+}
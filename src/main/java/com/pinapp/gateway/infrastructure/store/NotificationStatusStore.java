@@ -1,24 +1,276 @@
 package com.pinapp.gateway.infrastructure.store;
 
+import com.pinapp.gateway.domain.model.ProcessingStatus;
 import com.pinapp.gateway.domain.model.TransactionStatusInfo;
 import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Implementación en memoria del puerto {@link TransactionStatusPort} con tamaño acotado
+ * y expiración (TTL) por estado.
+ * <p>
+ * <strong>Política de retención:</strong>
+ * </p>
+ * <ul>
+ *   <li>Cada entrada expira según el TTL configurado para su estado: los estados en curso
+ *       ("PROCESSING") se conservan más tiempo que los terminales ("COMPLETED"/"FAILED"/
+ *       "TIMED_OUT"), que solo se consultan durante una ventana corta de conciliación.</li>
+ *   <li>Si el store supera {@code max-size}, las entradas visitadas por el barrido se
+ *       desalojan aunque no hayan expirado (aproximación tipo CLOCK), de modo que el heap
+ *       nunca crece sin límite.</li>
+ * </ul>
+ * <p>
+ * <strong>Desalojo amortizado:</strong> No existe un hilo dedicado ni un barrido completo.
+ * Cada cierta cantidad de escrituras (o cuando se excede la capacidad) el hilo que invoca
+ * {@link #save} recorre un lote acotado de entradas continuando desde donde quedó el barrido
+ * anterior. El barrido se toma con {@code tryLock}, por lo que ninguna llamada a
+ * {@link #save} o {@link #findById} queda bloqueada esperando a otra. Las entradas expiradas
+ * que se consultan antes de ser barridas se eliminan de forma perezosa en {@link #findById}.
+ * </p>
+ * <p>
+ * <strong>Transiciones:</strong> {@link #transition} compara y reemplaza la entrada con las
+ * operaciones atómicas de {@link ConcurrentHashMap} ({@code putIfAbsent}/{@code replace}), sin
+ * locks: si otro escritor cambió la entrada entre la lectura y el reemplazo, se vuelve a evaluar
+ * la transición contra el estado nuevo.
+ * </p>
+ * <p>
+ * Los contadores de aciertos, fallos y desalojos se publican como métricas
+ * ({@code gateway.status.store.*}) a través de {@link MeterBinder}.
+ * </p>
+ * <p>
+ * Es la implementación por defecto ({@code pinapp.gateway.status-store.type=memory}).
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see TransactionStatusPort
+ */
 @Component
-public class NotificationStatusStore implements TransactionStatusPort {
+@ConditionalOnProperty(name = "pinapp.gateway.status-store.type", havingValue = "memory", matchIfMissing = true)
+public class NotificationStatusStore implements TransactionStatusPort, MeterBinder {
 
-    private final ConcurrentHashMap<String, TransactionStatusInfo> store = new ConcurrentHashMap<>();
+    /** Cantidad de escrituras entre barridos cuando el store está por debajo de su capacidad. */
+    private static final int SWEEP_EVERY_WRITES = 1024;
+
+    /** Máximo de entradas inspeccionadas por barrido, para acotar el costo por escritura. */
+    private static final int SWEEP_BATCH_SIZE = 256;
+
+    private final ConcurrentHashMap<String, Entry> store = new ConcurrentHashMap<>();
+    private final long maxSize;
+    private final long processingTtlNanos;
+    private final long completedTtlNanos;
+    private final long failedTtlNanos;
+    private final long defaultTtlNanos;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private Iterator<Map.Entry<String, Entry>> sweepCursor;
+    private final StatusChangeRegistry changes;
+
+    public NotificationStatusStore(
+            StatusChangeRegistry changes,
+            @Value("${pinapp.gateway.status-store.max-size:1000000}") long maxSize,
+            @Value("${pinapp.gateway.status-store.ttl.processing:24h}") Duration processingTtl,
+            @Value("${pinapp.gateway.status-store.ttl.completed:1h}") Duration completedTtl,
+            @Value("${pinapp.gateway.status-store.ttl.failed:1h}") Duration failedTtl,
+            @Value("${pinapp.gateway.status-store.ttl.default:1h}") Duration defaultTtl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("pinapp.gateway.status-store.max-size debe ser mayor a 0");
+        }
+        this.maxSize = maxSize;
+        this.processingTtlNanos = processingTtl.toNanos();
+        this.completedTtlNanos = completedTtl.toNanos();
+        this.failedTtlNanos = failedTtl.toNanos();
+        this.defaultTtlNanos = defaultTtl.toNanos();
+        this.changes = changes;
+    }
 
     @Override
     public void save(TransactionStatusInfo statusInfo) {
-        store.put(statusInfo.id(), statusInfo);
+        long now = System.nanoTime();
+        store.put(statusInfo.id(), new Entry(statusInfo, now + ttlFor(statusInfo.status())));
+        afterWrite(statusInfo, now);
+    }
+
+    @Override
+    public boolean transition(TransactionStatusInfo statusInfo) {
+        String id = statusInfo.id();
+        long now = System.nanoTime();
+        Entry proposed = new Entry(statusInfo, now + ttlFor(statusInfo.status()));
+        while (true) {
+            Entry current = store.get(id);
+            if (current == null) {
+                if (!ProcessingStatus.canTransition(null, statusInfo.status())) {
+                    return false;
+                }
+                if (store.putIfAbsent(id, proposed) == null) {
+                    break;
+                }
+                continue;
+            }
+            String currentStatus = current.isExpired(now) ? null : current.info().status();
+            if (!ProcessingStatus.canTransition(currentStatus, statusInfo.status())) {
+                return false;
+            }
+            if (store.replace(id, current, proposed)) {
+                break;
+            }
+        }
+        afterWrite(statusInfo, now);
+        return true;
     }
 
     @Override
     public Optional<TransactionStatusInfo> findById(String id) {
-        return Optional.ofNullable(store.get(id));
+        Entry entry = store.get(id);
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            // Expiración perezosa: solo se elimina si nadie la reemplazó mientras tanto
+            if (store.remove(id, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.info());
+    }
+
+    @Override
+    public List<TransactionStatusInfo> findAllById(Collection<String> ids) {
+        List<TransactionStatusInfo> found = new ArrayList<>(ids.size());
+        long now = System.nanoTime();
+        for (String id : ids) {
+            Entry entry = store.get(id);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.isExpired(now)) {
+                if (store.remove(id, entry)) {
+                    evictions.increment();
+                }
+                continue;
+            }
+            found.add(entry.info());
+        }
+        hits.add(found.size());
+        misses.add(ids.size() - found.size());
+        return found;
+    }
+
+    public long size() {
+        return store.mappingCount();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.status.store.size", this, NotificationStatusStore::size)
+                .description("Entradas actualmente retenidas en el store de estados")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.store.hits", this, NotificationStatusStore::hitCount)
+                .description("Consultas de estado que encontraron una entrada vigente")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.store.misses", this, NotificationStatusStore::missCount)
+                .description("Consultas de estado sin entrada o con la entrada expirada")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.store.evictions", this, NotificationStatusStore::evictionCount)
+                .description("Entradas desalojadas por TTL o por exceder la capacidad")
+                .register(registry);
+    }
+
+    private void afterWrite(TransactionStatusInfo statusInfo, long now) {
+        changes.publish(statusInfo);
+        if ((writes.incrementAndGet() % SWEEP_EVERY_WRITES) == 0 || store.mappingCount() > maxSize) {
+            trySweep(now);
+        }
+    }
+
+    private long ttlFor(String status) {
+        ProcessingStatus lifecycle = ProcessingStatus.of(status);
+        if (lifecycle == null) {
+            return defaultTtlNanos;
+        }
+        return switch (lifecycle) {
+            case PROCESSING -> processingTtlNanos;
+            case COMPLETED -> completedTtlNanos;
+            case FAILED, TIMED_OUT -> failedTtlNanos;
+        };
+    }
+
+    /**
+     * Ejecuta un barrido acotado si ningún otro hilo lo está haciendo.
+     * <p>
+     * Continúa el recorrido desde el cursor anterior (los iteradores de
+     * {@link ConcurrentHashMap} son débilmente consistentes, por lo que es seguro mantenerlos
+     * entre escrituras concurrentes) y elimina las entradas expiradas. Mientras el store esté
+     * por encima de su capacidad, también desaloja las entradas visitadas que aún no expiraron.
+     * </p>
+     */
+    private void trySweep(long now) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            for (int visited = 0; visited < SWEEP_BATCH_SIZE; visited++) {
+                if (sweepCursor == null || !sweepCursor.hasNext()) {
+                    sweepCursor = store.entrySet().iterator();
+                    if (!sweepCursor.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, Entry> candidate = sweepCursor.next();
+                Entry entry = candidate.getValue();
+                boolean overCapacity = store.mappingCount() > maxSize;
+                if ((entry.isExpired(now) || overCapacity) && store.remove(candidate.getKey(), entry)) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private record Entry(TransactionStatusInfo info, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
     }
 }
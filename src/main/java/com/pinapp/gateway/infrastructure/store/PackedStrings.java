@@ -0,0 +1,83 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Empaquetado compacto de varias cadenas en un único {@code byte[]}, para guardar en memoria los
+ * datos de una transacción sin un objeto por campo.
+ * <p>
+ * Cada cadena se guarda como {@code short longitud (-1 = null)} seguido de sus bytes UTF-8. Las
+ * que superan {@link #MAX_BYTES} se truncan en el último carácter completo, de modo que nunca se
+ * parte un carácter multibyte ni un par sustituto.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+public final class PackedStrings {
+
+    /** Máximo de bytes UTF-8 por cadena, lo que entra en la longitud {@code short}. */
+    static final int MAX_BYTES = Short.MAX_VALUE;
+
+    private PackedStrings() {
+    }
+
+    /**
+     * Empaqueta las cadenas, que pueden ser {@code null}, en el orden recibido.
+     */
+    public static byte[] pack(String... values) {
+        byte[][] encoded = new byte[values.length][];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                encoded[i] = encode(values[i]);
+                size += encoded[i].length;
+            }
+            size += Short.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] value : encoded) {
+            if (value == null) {
+                buffer.putShort((short) -1);
+            } else {
+                buffer.putShort((short) value.length).put(value);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Recupera las primeras {@code count} cadenas empaquetadas con {@link #pack}.
+     */
+    public static String[] unpack(byte[] packed, int count) {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getShort();
+            if (length >= 0) {
+                values[i] = new String(packed, buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Bytes UTF-8 de la cadena, truncados a {@link #MAX_BYTES} sin partir un carácter: si el corte
+     * cae en un byte de continuación ({@code 10xxxxxx}) se retrocede hasta el inicio de ese
+     * carácter.
+     */
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_BYTES) {
+            return bytes;
+        }
+        int end = MAX_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+}
@@ -0,0 +1,265 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Registro de suscripciones a cambios de estado de transacciones.
+ * <p>
+ * Los stores de estados llaman a {@link #publish} después de cada escritura; quienes necesitan
+ * enterarse de una transición (SSE, long-poll) se suscriben con {@link #watch} a un conjunto de
+ * IDs en lugar de consultar el store periódicamente.
+ * </p>
+ * <p>
+ * <strong>Costo para el escritor:</strong> Sin suscripciones activas, {@link #publish} es una
+ * única lectura volátil. Con suscripciones, es una búsqueda en un mapa y, por cada suscriptor
+ * del ID, encolar el cambio: los listeners nunca se ejecutan en el hilo que guardó el estado
+ * (normalmente un hilo de eventos del SDK), por lo que un cliente lento no frena las notificaciones.
+ * </p>
+ * <p>
+ * <strong>Entrega:</strong> Cada suscripción tiene su propia cola y se drena en un hilo virtual,
+ * de a un cambio por vez y en el orden de publicación. Un listener puede bloquear (por ejemplo,
+ * escribiendo en la respuesta HTTP) sin afectar a otras suscripciones.
+ * </p>
+ * <p>
+ * <strong>Suscriptores lentos:</strong> la cola de cada suscripción admite los estados iniciales
+ * de sus IDs ({@link StatusWatch#offerAll}) más {@code max-pending} cambios sin entregar. Un
+ * cambio que no entra cierra la suscripción y avisa a quien la abrió (por ejemplo, para terminar
+ * el stream SSE y que el cliente se reconecte), en lugar de acumular cambios sin límite en memoria.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+@Component
+public class StatusChangeRegistry implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(StatusChangeRegistry.class);
+
+    private final ConcurrentHashMap<String, StatusWatch[]> watchesById = new ConcurrentHashMap<>();
+    private final AtomicInteger activeWatches = new AtomicInteger();
+    private final LongAdder overflowed = new LongAdder();
+    private final ExecutorService delivery = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("status-push-", 0).factory());
+    private final int maxPending;
+
+    public StatusChangeRegistry(
+            @Value("${pinapp.gateway.status-subscription.max-pending:1024}") int maxPending) {
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    /**
+     * Se suscribe a los cambios de estado de los IDs indicados.
+     * <p>
+     * El listener recibe cada estado guardado para esos IDs a partir de este momento, hasta que
+     * se cierre la suscripción. Para no perder transiciones, conviene suscribirse antes de leer
+     * el estado actual del store.
+     * </p>
+     *
+     * @param ids IDs de transacción a observar
+     * @param onOverflow Callback invocado fuera del hilo escritor si la suscripción se cierra
+     *        porque el listener no consume los cambios a tiempo
+     * @param listener Callback invocado fuera del hilo escritor, de a un cambio por vez
+     * @return La suscripción, que debe cerrarse cuando deja de interesar
+     */
+    public StatusWatch watch(Collection<String> ids, Runnable onOverflow, Consumer<TransactionStatusInfo> listener) {
+        Set<String> watched = new LinkedHashSet<>(ids);
+        StatusWatch watch = new StatusWatch(watched, listener, onOverflow, watched.size() + maxPending);
+        activeWatches.incrementAndGet();
+        for (String id : watch.ids) {
+            watchesById.merge(id, new StatusWatch[]{watch}, StatusChangeRegistry::append);
+        }
+        return watch;
+    }
+
+    /**
+     * Notifica un estado recién guardado a las suscripciones de su ID.
+     */
+    public void publish(TransactionStatusInfo statusInfo) {
+        if (activeWatches.get() == 0) {
+            return;
+        }
+        StatusWatch[] watches = watchesById.get(statusInfo.id());
+        if (watches == null) {
+            return;
+        }
+        for (StatusWatch watch : watches) {
+            watch.offer(statusInfo);
+        }
+    }
+
+    public int activeWatchCount() {
+        return activeWatches.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.status.subscriptions", this, StatusChangeRegistry::activeWatchCount)
+                .description("Suscripciones a cambios de estado actualmente abiertas")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.subscriptions.overflowed", overflowed, LongAdder::sum)
+                .description("Suscripciones cerradas por acumular más cambios sin entregar que max-pending")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        delivery.shutdownNow();
+    }
+
+    private void remove(StatusWatch watch) {
+        for (String id : watch.ids) {
+            watchesById.computeIfPresent(id, (key, current) -> without(current, watch));
+        }
+        activeWatches.decrementAndGet();
+    }
+
+    private static StatusWatch[] append(StatusWatch[] current, StatusWatch[] added) {
+        StatusWatch[] merged = Arrays.copyOf(current, current.length + added.length);
+        System.arraycopy(added, 0, merged, current.length, added.length);
+        return merged;
+    }
+
+    private static StatusWatch[] without(StatusWatch[] current, StatusWatch removed) {
+        int index = Arrays.asList(current).indexOf(removed);
+        if (index < 0) {
+            return current;
+        }
+        if (current.length == 1) {
+            return null;
+        }
+        StatusWatch[] remaining = new StatusWatch[current.length - 1];
+        System.arraycopy(current, 0, remaining, 0, index);
+        System.arraycopy(current, index + 1, remaining, index, current.length - index - 1);
+        return remaining;
+    }
+
+    /**
+     * Suscripción a un conjunto de IDs. Cerrarla es idempotente.
+     */
+    public final class StatusWatch implements AutoCloseable {
+
+        private final Set<String> ids;
+        private final Consumer<TransactionStatusInfo> listener;
+        private final Runnable onOverflow;
+        private final int capacity;
+        private final Queue<TransactionStatusInfo> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private StatusWatch(Set<String> ids, Consumer<TransactionStatusInfo> listener, Runnable onOverflow,
+                int capacity) {
+            this.ids = ids;
+            this.listener = listener;
+            this.onOverflow = onOverflow;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Entrega estados leídos del store por la misma cola que los cambios publicados,
+         * de modo que el listener nunca se ejecuta en paralelo consigo mismo.
+         */
+        public void offerAll(List<TransactionStatusInfo> statuses) {
+            for (TransactionStatusInfo statusInfo : statuses) {
+                offer(statusInfo);
+            }
+        }
+
+        private void offer(TransactionStatusInfo statusInfo) {
+            if (closed.get()) {
+                return;
+            }
+            if (queued.incrementAndGet() > capacity) {
+                overflow();
+                return;
+            }
+            pending.add(statusInfo);
+            scheduleDrain();
+        }
+
+        /**
+         * Cierra una suscripción que no sigue el ritmo de los cambios y avisa a quien la abrió,
+         * fuera del hilo que publicó el cambio.
+         */
+        private void overflow() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            remove(this);
+            pending.clear();
+            overflowed.increment();
+            log.warn("Closing slow status subscription ids={} capacity={}", ids.size(), capacity);
+            try {
+                delivery.execute(onOverflow);
+            } catch (RejectedExecutionException e) {
+                // El registro se está cerrando junto con la aplicación
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    delivery.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // El registro se está cerrando junto con la aplicación
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                TransactionStatusInfo statusInfo;
+                while (!closed.get() && (statusInfo = pending.poll()) != null) {
+                    queued.decrementAndGet();
+                    try {
+                        listener.accept(statusInfo);
+                    } catch (RuntimeException e) {
+                        log.error("Error delivering status change transactionId={} error={}",
+                                statusInfo.id(), e.getMessage());
+                        close();
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // Un cambio encolado justo después de vaciar la cola no debe quedar sin entregar
+            if (!closed.get() && !pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                remove(this);
+                pending.clear();
+            }
+        }
+    }
+}
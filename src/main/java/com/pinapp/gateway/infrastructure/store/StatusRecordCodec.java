@@ -0,0 +1,99 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Codificación binaria de un {@link TransactionStatusInfo} para los stores persistentes.
+ * <p>
+ * Formato de un registro:
+ * </p>
+ * <pre>
+ * long   mitad alta del UUID
+ * long   mitad baja del UUID
+ * byte   flags (notificación presente, éxito, messageId igual al ID)
+ * str    estado
+ * str    proveedor              (solo si hay notificación)
+ * str    mensaje de error       (solo si hay notificación)
+ * str    messageId              (solo si hay notificación y difiere del ID)
+ * </pre>
+ * <p>
+ * Cada {@code str} es un booleano de presencia seguido de {@link DataOutput#writeUTF(String)};
+ * los textos excepcionalmente largos (mensajes de error) se truncan. Los IDs deben estar en
+ * forma canónica (ver {@link UuidKeys}).
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+final class StatusRecordCodec {
+
+    private static final int HAS_NOTIFICATION = 1;
+    private static final int SUCCESS = 1 << 1;
+    private static final int MESSAGE_ID_IS_KEY = 1 << 2;
+
+    /** Límite que garantiza no superar los 64 KB de {@link DataOutput#writeUTF(String)}. */
+    private static final int MAX_STRING_CHARS = 0xFFFF / 3;
+
+    private StatusRecordCodec() {
+    }
+
+    static void write(DataOutput out, TransactionStatusInfo info) throws IOException {
+        String id = info.id();
+        if (!UuidKeys.isCanonical(id)) {
+            throw new IllegalArgumentException("El ID de transacción no es un UUID válido: " + id);
+        }
+        NotificationStatus notification = info.notificationStatus();
+        int flags = 0;
+        if (notification != null) {
+            flags |= HAS_NOTIFICATION;
+            if (notification.success()) {
+                flags |= SUCCESS;
+            }
+            if (id.equalsIgnoreCase(notification.messageId())) {
+                flags |= MESSAGE_ID_IS_KEY;
+            }
+        }
+
+        out.writeLong(UuidKeys.mostSignificantBits(id));
+        out.writeLong(UuidKeys.leastSignificantBits(id));
+        out.writeByte(flags);
+        writeNullable(out, info.status());
+        if (notification != null) {
+            writeNullable(out, notification.provider());
+            writeNullable(out, notification.errorMessage());
+            if ((flags & MESSAGE_ID_IS_KEY) == 0) {
+                writeNullable(out, notification.messageId());
+            }
+        }
+    }
+
+    static TransactionStatusInfo read(DataInput in) throws IOException {
+        String id = UuidKeys.toString(in.readLong(), in.readLong());
+        int flags = in.readByte();
+        String status = readNullable(in);
+        NotificationStatus notification = null;
+        if ((flags & HAS_NOTIFICATION) != 0) {
+            String provider = readNullable(in);
+            String errorMessage = readNullable(in);
+            String messageId = (flags & MESSAGE_ID_IS_KEY) != 0 ? id : readNullable(in);
+            notification = new NotificationStatus((flags & SUCCESS) != 0, messageId, provider, errorMessage);
+        }
+        return new TransactionStatusInfo(id, status, notification);
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value.length() > MAX_STRING_CHARS ? value.substring(0, MAX_STRING_CHARS) : value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabla acotada de cadenas repetidas (nombres de proveedor, estados, mensajes de error)
+ * que asigna a cada valor distinto un índice entero estable.
+ * <p>
+ * Los stores compactos guardan el índice en lugar de la referencia, de modo que miles de
+ * entradas con el mismo proveedor o el mismo error comparten una única instancia.
+ * La búsqueda por valor es lock-free; solo el alta de un valor nuevo se serializa.
+ * Cuando se alcanza la capacidad, {@link #intern(String)} devuelve {@link #FULL} y el
+ * llamador debe guardar el valor por otra vía.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+final class StringInterner {
+
+    /** Índice reservado para {@code null}. */
+    static final int NULL = -1;
+
+    /** Índice devuelto cuando la tabla está llena y el valor no pudo registrarse. */
+    static final int FULL = -2;
+
+    private final ConcurrentHashMap<String, Integer> indexes = new ConcurrentHashMap<>();
+    private final int capacity;
+    private volatile String[] values;
+    private int size;
+
+    StringInterner(int capacity) {
+        this.capacity = capacity;
+        this.values = new String[Math.min(capacity, 16)];
+    }
+
+    int intern(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer index = indexes.get(value);
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            index = indexes.get(value);
+            if (index != null) {
+                return index;
+            }
+            if (size == capacity) {
+                return FULL;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                String[] grown = new String[Math.min(capacity, current.length * 2)];
+                System.arraycopy(current, 0, grown, 0, size);
+                current = grown;
+            }
+            current[size] = value;
+            // Publicar el arreglo antes que el índice: quien lea el índice verá el valor
+            values = current;
+            indexes.put(value, size);
+            return size++;
+        }
+    }
+
+    String get(int index) {
+        return index < 0 ? null : values[index];
+    }
+}
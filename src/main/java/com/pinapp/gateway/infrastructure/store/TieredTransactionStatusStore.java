@@ -0,0 +1,559 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Implementación del puerto {@link TransactionStatusPort} en dos niveles: un nivel caliente
+ * en memoria y un nivel frío de segmentos comprimidos en disco.
+ * <p>
+ * <strong>Niveles:</strong>
+ * </p>
+ * <ul>
+ *   <li><strong>Caliente:</strong> todas las escrituras van a un mapa en memoria.</li>
+ *   <li><strong>Frío:</strong> una tarea de mantenimiento mueve los estados terminales
+ *       ("COMPLETED"/"FAILED"/"TIMED_OUT") con más de {@code hot-retention} de antigüedad a un
+ *       {@link ColdSegment} inmutable, ordenado, comprimido, con índice disperso y filtro de
+ *       Bloom. Solo el índice y el filtro quedan en el heap. Los estados no terminales
+ *       ("PROCESSING") se mueven recién tras {@code processing-hot-retention}: normalmente se
+ *       resuelven antes, y los que quedan trabados (sin resultado ni plazo vencido) no acumulan
+ *       memoria sin límite.</li>
+ * </ul>
+ * <p>
+ * {@link #findById} consulta primero el nivel caliente y luego los segmentos del más nuevo al
+ * más antiguo, de modo que un estado reescrito después de migrar siempre gana. El filtro de
+ * Bloom evita leer disco para los segmentos que no contienen la clave.
+ * </p>
+ * <p>
+ * <strong>Mantenimiento:</strong> Además de migrar, la tarea fusiona los segmentos más antiguos
+ * cuando se supera {@code max-segments} (acotando el costo de una consulta fallida) y elimina
+ * los segmentos cuya antigüedad supera {@code cold-retention}. Los segmentos reemplazados se
+ * cierran tras un período de gracia para no interrumpir lecturas en curso.
+ * </p>
+ * <p>
+ * Se activa con {@code pinapp.gateway.status-store.type=tiered}.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ * @see ColdSegment
+ */
+@Component
+@ConditionalOnProperty(name = "pinapp.gateway.status-store.type", havingValue = "tiered")
+public class TieredTransactionStatusStore implements TransactionStatusPort, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredTransactionStatusStore.class);
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)\\.seg");
+    private static final long RETIRE_GRACE_SECONDS = 60;
+
+    private final ConcurrentHashMap<String, HotEntry> hot = new ConcurrentHashMap<>();
+    private volatile List<ColdSegment> cold;
+
+    private final Path directory;
+    private final long hotRetentionMillis;
+    private final long processingHotRetentionMillis;
+    private final long coldRetentionMillis;
+    private final int maxSegments;
+    private final int maxSegmentEntries;
+    private final int blockSize;
+    private final ScheduledExecutorService maintenance;
+    private long nextSegmentSeq;
+    private final StatusChangeRegistry changes;
+
+    private final LongAdder hotHits = new LongAdder();
+    private final LongAdder coldHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder migrated = new LongAdder();
+
+    public TieredTransactionStatusStore(
+            StatusChangeRegistry changes,
+            @Value("${pinapp.gateway.status-store.tiered.directory:./data/status-segments}") String directory,
+            @Value("${pinapp.gateway.status-store.tiered.hot-retention:15m}") Duration hotRetention,
+            @Value("${pinapp.gateway.status-store.tiered.processing-hot-retention:6h}") Duration processingHotRetention,
+            @Value("${pinapp.gateway.status-store.tiered.cold-retention:30d}") Duration coldRetention,
+            @Value("${pinapp.gateway.status-store.tiered.migration-interval:1m}") Duration migrationInterval,
+            @Value("${pinapp.gateway.status-store.tiered.max-segments:16}") int maxSegments,
+            @Value("${pinapp.gateway.status-store.tiered.max-segment-entries:1000000}") int maxSegmentEntries,
+            @Value("${pinapp.gateway.status-store.tiered.block-size:128}") int blockSize) throws IOException {
+        this.directory = Path.of(directory);
+        this.hotRetentionMillis = hotRetention.toMillis();
+        this.processingHotRetentionMillis = Math.max(hotRetentionMillis, processingHotRetention.toMillis());
+        this.coldRetentionMillis = coldRetention.toMillis();
+        this.maxSegments = Math.max(2, maxSegments);
+        this.maxSegmentEntries = maxSegmentEntries;
+        this.blockSize = blockSize;
+        this.changes = changes;
+        this.cold = loadSegments();
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "status-tier-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = migrationInterval.toMillis();
+        maintenance.scheduleWithFixedDelay(this::maintain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void save(TransactionStatusInfo statusInfo) {
+        hot.put(statusInfo.id(), new HotEntry(statusInfo, System.currentTimeMillis()));
+        changes.publish(statusInfo);
+    }
+
+    /**
+     * Transición condicional sobre el nivel caliente con {@code putIfAbsent}/{@code replace}. Si
+     * la transacción no está en caliente, la transición se evalúa contra su estado en el nivel
+     * frío antes de insertarla.
+     */
+    @Override
+    public boolean transition(TransactionStatusInfo statusInfo) {
+        String id = statusInfo.id();
+        HotEntry proposed = new HotEntry(statusInfo, System.currentTimeMillis());
+        while (true) {
+            HotEntry current = hot.get(id);
+            if (current != null) {
+                if (!ProcessingStatus.canTransition(current.info().status(), statusInfo.status())) {
+                    return false;
+                }
+                if (hot.replace(id, current, proposed)) {
+                    break;
+                }
+                continue;
+            }
+            TransactionStatusInfo coldInfo = UuidKeys.isCanonical(id)
+                    ? findCold(UuidKeys.mostSignificantBits(id), UuidKeys.leastSignificantBits(id))
+                    : null;
+            if (!ProcessingStatus.canTransition(coldInfo != null ? coldInfo.status() : null, statusInfo.status())) {
+                return false;
+            }
+            if (hot.putIfAbsent(id, proposed) == null) {
+                break;
+            }
+        }
+        changes.publish(statusInfo);
+        return true;
+    }
+
+    @Override
+    public Optional<TransactionStatusInfo> findById(String id) {
+        HotEntry entry = hot.get(id);
+        if (entry != null) {
+            hotHits.increment();
+            return Optional.of(entry.info());
+        }
+        if (!UuidKeys.isCanonical(id)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        TransactionStatusInfo info = findCold(UuidKeys.mostSignificantBits(id), UuidKeys.leastSignificantBits(id));
+        if (info == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        coldHits.increment();
+        return Optional.of(info);
+    }
+
+    /**
+     * Las claves que no están en el nivel caliente se ordenan y se buscan segmento por segmento,
+     * de modo que las que caen en el mismo bloque comprimido comparten una sola lectura.
+     */
+    @Override
+    public List<TransactionStatusInfo> findAllById(Collection<String> ids) {
+        TransactionStatusInfo[] results = new TransactionStatusInfo[ids.size()];
+        List<ColdKey> pending = new ArrayList<>();
+        int position = 0;
+        int found = 0;
+        for (String id : ids) {
+            HotEntry entry = hot.get(id);
+            if (entry != null) {
+                results[position] = entry.info();
+                found++;
+            } else if (UuidKeys.isCanonical(id)) {
+                pending.add(new ColdKey(UuidKeys.mostSignificantBits(id), UuidKeys.leastSignificantBits(id), position));
+            }
+            position++;
+        }
+        hotHits.add(found);
+
+        if (!pending.isEmpty()) {
+            pending.sort((a, b) -> ColdSegment.compareKeys(a.high(), a.low(), b.high(), b.low()));
+            long[] highs = new long[pending.size()];
+            long[] lows = new long[pending.size()];
+            for (int i = 0; i < highs.length; i++) {
+                highs[i] = pending.get(i).high();
+                lows[i] = pending.get(i).low();
+            }
+            TransactionStatusInfo[] cold = findAllCold(highs, lows);
+            int coldFound = 0;
+            for (int i = 0; i < cold.length; i++) {
+                if (cold[i] != null) {
+                    results[pending.get(i).position()] = cold[i];
+                    coldFound++;
+                }
+            }
+            coldHits.add(coldFound);
+            found += coldFound;
+        }
+        misses.add(results.length - found);
+
+        List<TransactionStatusInfo> list = new ArrayList<>(found);
+        for (TransactionStatusInfo info : results) {
+            if (info != null) {
+                list.add(info);
+            }
+        }
+        return list;
+    }
+
+    public long hotSize() {
+        return hot.mappingCount();
+    }
+
+    public long coldSize() {
+        long size = 0;
+        for (ColdSegment segment : cold) {
+            size += segment.entryCount();
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.status.store.size", this, TieredTransactionStatusStore::hotSize)
+                .description("Entradas actualmente retenidas en el store de estados")
+                .tag("tier", "hot")
+                .register(registry);
+        Gauge.builder("gateway.status.store.size", this, TieredTransactionStatusStore::coldSize)
+                .description("Entradas actualmente retenidas en el store de estados")
+                .tag("tier", "cold")
+                .register(registry);
+        Gauge.builder("gateway.status.store.segments", this, store -> store.cold.size())
+                .description("Segmentos fríos publicados")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.store.hits", hotHits, LongAdder::sum)
+                .description("Consultas de estado que encontraron una entrada vigente")
+                .tag("tier", "hot")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.store.hits", coldHits, LongAdder::sum)
+                .description("Consultas de estado que encontraron una entrada vigente")
+                .tag("tier", "cold")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.store.misses", misses, LongAdder::sum)
+                .description("Consultas de estado sin entrada")
+                .register(registry);
+        FunctionCounter.builder("gateway.status.store.migrated", migrated, LongAdder::sum)
+                .description("Estados movidos del nivel caliente al frío")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        maintenance.shutdown();
+        maintenance.awaitTermination(30, TimeUnit.SECONDS);
+        for (ColdSegment segment : cold) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.error("Error closing status segment file={} error={}", segment.path(), e.getMessage());
+            }
+        }
+    }
+
+    private TransactionStatusInfo findCold(long high, long low) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                for (ColdSegment segment : cold) {
+                    TransactionStatusInfo info = segment.find(high, low);
+                    if (info != null) {
+                        return info;
+                    }
+                }
+                return null;
+            } catch (ClosedChannelException e) {
+                // El segmento fue reemplazado por una fusión durante la lectura: reintentar con la lista nueva
+                if (attempt > 0) {
+                    throw new UncheckedIOException(e);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private TransactionStatusInfo[] findAllCold(long[] highs, long[] lows) {
+        for (int attempt = 0; ; attempt++) {
+            TransactionStatusInfo[] found = new TransactionStatusInfo[highs.length];
+            try {
+                // Del segmento más nuevo al más antiguo: una clave encontrada ya no se busca en los siguientes
+                for (ColdSegment segment : cold) {
+                    segment.findAll(highs, lows, found);
+                }
+                return found;
+            } catch (ClosedChannelException e) {
+                if (attempt > 0) {
+                    throw new UncheckedIOException(e);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Mantenimiento (hilo único)
+    // ------------------------------------------------------------------
+
+    private void maintain() {
+        try {
+            migrate();
+            mergeOldest();
+            expire();
+        } catch (IOException | RuntimeException e) {
+            log.error("Error during status store maintenance error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * Mueve los estados terminales que superaron {@code hot-retention}, y los no terminales que
+     * superaron {@code processing-hot-retention}, a un segmento nuevo. El segmento se publica antes de borrar las entradas del nivel caliente, por lo que un
+     * lector concurrente siempre encuentra el estado en algún nivel.
+     */
+    private void migrate() throws IOException {
+        long now = System.currentTimeMillis();
+        long terminalCutoff = now - hotRetentionMillis;
+        long processingCutoff = now - processingHotRetentionMillis;
+        List<Candidate> candidates = new ArrayList<>();
+        for (Map.Entry<String, HotEntry> e : hot.entrySet()) {
+            HotEntry entry = e.getValue();
+            String id = e.getKey();
+            long cutoff = entry.info().isTerminal() ? terminalCutoff : processingCutoff;
+            if (entry.writtenAtMillis() <= cutoff && UuidKeys.isCanonical(id)) {
+                candidates.add(new Candidate(UuidKeys.mostSignificantBits(id), UuidKeys.leastSignificantBits(id),
+                        id, entry));
+                if (candidates.size() == maxSegmentEntries) {
+                    break;
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        candidates.sort(Candidate.ORDER);
+
+        ColdSegment segment = ColdSegment.write(nextSegmentPath(), System.currentTimeMillis(),
+                candidates.stream().map(c -> c.entry().info()).iterator(), candidates.size(), blockSize);
+        List<ColdSegment> updated = new ArrayList<>(cold.size() + 1);
+        updated.add(segment);
+        updated.addAll(cold);
+        cold = List.copyOf(updated);
+
+        for (Candidate candidate : candidates) {
+            // Si la entrada se reescribió durante la migración, la versión nueva sigue en caliente
+            if (hot.remove(candidate.id(), candidate.entry())) {
+                migrated.increment();
+            }
+        }
+    }
+
+    /**
+     * Fusiona los segmentos más antiguos en uno solo cuando se supera {@code max-segments}.
+     * Ante claves repetidas se conserva la versión del segmento más nuevo.
+     */
+    private void mergeOldest() throws IOException {
+        List<ColdSegment> current = cold;
+        if (current.size() <= maxSegments) {
+            return;
+        }
+        int keep = maxSegments - 1;
+        List<ColdSegment> merging = current.subList(keep, current.size());
+        long createdAt = 0;
+        int expected = 0;
+        for (ColdSegment segment : merging) {
+            createdAt = Math.max(createdAt, segment.createdAtMillis());
+            expected += segment.entryCount();
+        }
+
+        ColdSegment merged = ColdSegment.write(nextSegmentPath(), createdAt, new MergeIterator(merging),
+                expected, blockSize);
+        List<ColdSegment> updated = new ArrayList<>(current.subList(0, keep));
+        updated.add(merged);
+        cold = List.copyOf(updated);
+        retire(List.copyOf(merging));
+    }
+
+    private void expire() {
+        List<ColdSegment> current = cold;
+        long cutoff = System.currentTimeMillis() - coldRetentionMillis;
+        List<ColdSegment> kept = current.stream().filter(s -> s.createdAtMillis() > cutoff).toList();
+        if (kept.size() != current.size()) {
+            cold = kept;
+            retire(current.stream().filter(s -> s.createdAtMillis() <= cutoff).toList());
+        }
+    }
+
+    private void retire(List<ColdSegment> segments) {
+        maintenance.schedule(() -> {
+            for (ColdSegment segment : segments) {
+                try {
+                    segment.close();
+                    Files.deleteIfExists(segment.path());
+                } catch (IOException e) {
+                    log.error("Error deleting status segment file={} error={}", segment.path(), e.getMessage());
+                }
+            }
+        }, RETIRE_GRACE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private Path nextSegmentPath() {
+        return directory.resolve(String.format("segment-%020d.seg", nextSegmentSeq++));
+    }
+
+    private List<ColdSegment> loadSegments() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.toList();
+        }
+        List<Path> segments = new ArrayList<>();
+        for (Path path : files) {
+            String name = path.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            Matcher matcher = SEGMENT_FILE.matcher(name);
+            if (matcher.matches()) {
+                segments.add(path);
+                nextSegmentSeq = Math.max(nextSegmentSeq, Long.parseLong(matcher.group(1)) + 1);
+            }
+        }
+        List<ColdSegment> opened = new ArrayList<>(segments.size());
+        for (Path path : segments) {
+            opened.add(ColdSegment.open(path));
+        }
+        // Más nuevo primero según la antigüedad de sus datos: un segmento fusionado tiene un
+        // número de secuencia mayor pero conserva la fecha del más reciente de sus orígenes
+        opened.sort(Comparator.comparingLong(ColdSegment::createdAtMillis)
+                .thenComparing(segment -> segment.path().getFileName().toString())
+                .reversed());
+        return List.copyOf(opened);
+    }
+
+    private record ColdKey(long high, long low, int position) {
+    }
+
+    private record HotEntry(TransactionStatusInfo info, long writtenAtMillis) {
+    }
+
+    private record Candidate(long high, long low, String id, HotEntry entry) {
+
+        static final Comparator<Candidate> ORDER =
+                (a, b) -> ColdSegment.compareKeys(a.high(), a.low(), b.high(), b.low());
+    }
+
+    /**
+     * Fusión k-way de segmentos ordenados. Los segmentos se reciben del más nuevo al más
+     * antiguo; ante claves iguales se emite la del más nuevo y se descartan las demás.
+     */
+    private static final class MergeIterator implements Iterator<TransactionStatusInfo> {
+
+        private final PriorityQueue<Cursor> heap = new PriorityQueue<>((a, b) -> {
+            int cmp = ColdSegment.compareKeys(a.high, a.low, b.high, b.low);
+            return cmp != 0 ? cmp : Integer.compare(a.age, b.age);
+        });
+
+        MergeIterator(List<ColdSegment> newestFirst) {
+            for (int age = 0; age < newestFirst.size(); age++) {
+                Cursor cursor = new Cursor(newestFirst.get(age).iterator(), age);
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public TransactionStatusInfo next() {
+            Cursor winner = heap.poll();
+            if (winner == null) {
+                throw new NoSuchElementException();
+            }
+            TransactionStatusInfo result = winner.current;
+            while (!heap.isEmpty() && ColdSegment.compareKeys(heap.peek().high, heap.peek().low,
+                    winner.high, winner.low) == 0) {
+                Cursor stale = heap.poll();
+                if (stale.advance()) {
+                    heap.add(stale);
+                }
+            }
+            if (winner.advance()) {
+                heap.add(winner);
+            }
+            return result;
+        }
+
+        private static final class Cursor {
+            private final Iterator<TransactionStatusInfo> records;
+            private final int age;
+            private TransactionStatusInfo current;
+            private long high;
+            private long low;
+
+            Cursor(Iterator<TransactionStatusInfo> records, int age) {
+                this.records = records;
+                this.age = age;
+            }
+
+            boolean advance() {
+                if (!records.hasNext()) {
+                    return false;
+                }
+                current = records.next();
+                high = UuidKeys.mostSignificantBits(current.id());
+                low = UuidKeys.leastSignificantBits(current.id());
+                return true;
+            }
+        }
+    }
+}
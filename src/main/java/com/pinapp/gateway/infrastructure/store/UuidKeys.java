@@ -0,0 +1,83 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import java.util.UUID;
+
+/**
+ * Utilidades para convertir identificadores de transacción en su representación canónica
+ * ({@code xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx}) a las dos mitades {@code long} de un
+ * {@link UUID} sin crear objetos intermedios.
+ * <p>
+ * A diferencia de {@link UUID#fromString(String)}, que acepta formas abreviadas y siempre
+ * instancia un {@link UUID}, estos métodos solo aceptan la forma canónica producida por
+ * {@link UUID#toString()}, que es la única que el gateway utiliza como clave.
+ * </p>
+ *
+ * @author PinApp Gateway Team
+ * @since 1.0.0
+ */
+final class UuidKeys {
+
+    private static final int CANONICAL_LENGTH = 36;
+
+    private UuidKeys() {
+    }
+
+    /**
+     * Indica si el identificador está en forma canónica y puede convertirse sin error.
+     */
+    static boolean isCanonical(String id) {
+        if (id == null || id.length() != CANONICAL_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < CANONICAL_LENGTH; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!isHexDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mitad más significativa: los tres primeros grupos del identificador.
+     * El identificador debe haber sido validado con {@link #isCanonical(String)}.
+     */
+    static long mostSignificantBits(String id) {
+        long bits = hex(id, 0, 8);
+        bits = (bits << 16) | hex(id, 9, 13);
+        return (bits << 16) | hex(id, 14, 18);
+    }
+
+    /**
+     * Mitad menos significativa: los dos últimos grupos del identificador.
+     * El identificador debe haber sido validado con {@link #isCanonical(String)}.
+     */
+    static long leastSignificantBits(String id) {
+        long bits = hex(id, 19, 23);
+        return (bits << 48) | hex(id, 24, 36);
+    }
+
+    static String toString(long mostSignificantBits, long leastSignificantBits) {
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+
+    /**
+     * Solo dígitos hexadecimales ASCII: {@link Character#digit(char, int)} también acepta
+     * dígitos de otros sistemas de escritura (arábigo-índicos, de ancho completo).
+     */
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static long hex(String id, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = (value << 4) | Character.digit(id.charAt(i), 16);
+        }
+        return value;
+    }
+}
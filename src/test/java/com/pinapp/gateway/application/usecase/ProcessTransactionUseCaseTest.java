@@ -0,0 +1,138 @@
+package com.pinapp.gateway.application.usecase;
+
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.model.TransactionStatus;
+import com.pinapp.gateway.domain.ports.out.NotificationPort;
+import com.pinapp.gateway.infrastructure.store.IdempotencyStore;
+import com.pinapp.gateway.infrastructure.store.NotificationStatusStore;
+import com.pinapp.gateway.infrastructure.store.StatusChangeRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Estado que registra {@link ProcessTransactionUseCase} a partir del resultado devuelto por el
+ * adaptador, sin evento del SDK.
+ */
+class ProcessTransactionUseCaseTest {
+
+    private StatusChangeRegistry changes;
+    private NotificationStatusStore statusStore;
+    private IdempotencyStore idempotencyStore;
+    private StubAdapter adapter;
+    private ProcessTransactionUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        changes = new StatusChangeRegistry(1024);
+        Duration ttl = Duration.ofHours(1);
+        statusStore = new NotificationStatusStore(changes, 1000, ttl, ttl, ttl, ttl);
+        idempotencyStore = new IdempotencyStore(Duration.ofMinutes(15), 1000);
+        adapter = new StubAdapter();
+        NotificationRouter router = new NotificationRouter(adapter, adapter, adapter, Duration.ZERO,
+                Duration.ofHours(24));
+        useCase = new ProcessTransactionUseCase(router, idempotencyStore, statusStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyStore.close();
+        changes.close();
+    }
+
+    @Test
+    void successfulSyncSendIsCompletedWithoutSdkEvent() {
+        Transaction transaction = transaction();
+        adapter.result = new NotificationStatus(true, transaction.id().toString(), "email", null);
+
+        useCase.process(transaction);
+
+        assertEquals(ProcessingStatus.COMPLETED.name(), status(transaction));
+    }
+
+    @Test
+    void failedSyncSendIsFailed() {
+        Transaction transaction = transaction();
+        adapter.result = new NotificationStatus(false, transaction.id().toString(), "email", "rechazado");
+
+        useCase.process(transaction);
+
+        assertEquals(ProcessingStatus.FAILED.name(), status(transaction));
+    }
+
+    @Test
+    void syncSendThatThrowsIsFailed() {
+        Transaction transaction = transaction();
+        adapter.error = new IllegalStateException("proveedor caído");
+
+        assertThrows(IllegalStateException.class, () -> useCase.process(transaction));
+
+        assertEquals(ProcessingStatus.FAILED.name(), status(transaction));
+    }
+
+    @Test
+    void asyncSendIsCompletedFromTheReturnedStatus() {
+        Transaction transaction = transaction();
+        adapter.result = new NotificationStatus(true, transaction.id().toString(), "email", null);
+
+        useCase.processAsync(transaction).join();
+
+        assertEquals(ProcessingStatus.COMPLETED.name(), status(transaction));
+    }
+
+    private String status(Transaction transaction) {
+        return statusStore.findById(transaction.id().toString()).orElseThrow().status();
+    }
+
+    private static Transaction transaction() {
+        return new Transaction(UUID.randomUUID(), BigDecimal.TEN, "Cliente", "cliente@example.com", "+5411",
+                TransactionStatus.COMPLETED, null);
+    }
+
+    /**
+     * Adaptador que devuelve un resultado fijo, como si el SDK no emitiera eventos.
+     */
+    private static final class StubAdapter implements NotificationPort {
+
+        private NotificationStatus result;
+        private RuntimeException error;
+
+        @Override
+        public NotificationStatus notify(Transaction transaction, String message) {
+            if (error != null) {
+                throw error;
+            }
+            return result;
+        }
+
+        @Override
+        public CompletableFuture<NotificationStatus> notifyAsync(Transaction transaction, String message) {
+            return error != null ? CompletableFuture.failedFuture(error) : CompletableFuture.completedFuture(result);
+        }
+
+        @Override
+        public CompletableFuture<Void> sendAsync(Transaction transaction, String message) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean sendAt(Transaction transaction, String message, Instant sendAt) {
+            return true;
+        }
+
+        @Override
+        public void cancelScheduled(UUID transactionId) {
+        }
+    }
+}
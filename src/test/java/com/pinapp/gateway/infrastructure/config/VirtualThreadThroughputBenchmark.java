@@ -0,0 +1,94 @@
+package com.pinapp.gateway.infrastructure.config;
+
+import com.pinapp.gateway.domain.exception.DispatchRejectedException;
+import com.pinapp.gateway.infrastructure.notification.DispatchWindow;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compara el throughput y la latencia p99 de 10.000 envíos bloqueantes simultáneos con hilos de
+ * plataforma (un pool del tamaño por defecto de Tomcat) y con el executor virtual de
+ * {@link ExecutionConfig}.
+ * <p>
+ * Cada envío toma un permiso de una {@link DispatchWindow}, como los adaptadores, y simula la
+ * llamada bloqueante del SDK al proveedor con una espera fija. La latencia se mide desde que se
+ * entrega la petición al executor hasta que termina el envío, así que incluye la espera por un
+ * hilo libre.
+ * </p>
+ * <p>
+ * No es un test: se ejecuta a mano.
+ * </p>
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *     com.pinapp.gateway.infrastructure.config.VirtualThreadThroughputBenchmark \
+ *     [peticiones] [latencia-ms] [max-in-flight] [hilos-plataforma]
+ * </pre>
+ */
+public final class VirtualThreadThroughputBenchmark {
+
+    private VirtualThreadThroughputBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 50;
+        int maxInFlight = args.length > 2 ? Integer.parseInt(args[2]) : requests;
+        int platformThreads = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        // La primera vuelta calienta el JIT; se informan las dos
+        for (int round = 1; round <= 2; round++) {
+            run("platform", round, Executors.newFixedThreadPool(platformThreads), requests, latencyMillis,
+                    maxInFlight);
+            run("virtual", round, new ExecutionConfig().notificationSendExecutor(), requests, latencyMillis,
+                    maxInFlight);
+        }
+    }
+
+    private static void run(String mode, int round, ExecutorService executor, int requests, long latencyMillis,
+            int maxInFlight) throws InterruptedException {
+        DispatchWindow window = new DispatchWindow("BENCH", maxInFlight, requests, Duration.ofSeconds(30));
+        long[] latencies = new long[requests];
+        LongAdder rejected = new LongAdder();
+        CountDownLatch done = new CountDownLatch(requests);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int request = i;
+            long submitted = System.nanoTime();
+            executor.execute(() -> {
+                try {
+                    window.acquire();
+                    try {
+                        Thread.sleep(latencyMillis);
+                    } finally {
+                        window.release();
+                    }
+                } catch (DispatchRejectedException e) {
+                    rejected.increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[request] = System.nanoTime() - submitted;
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        Arrays.sort(latencies);
+        System.out.printf("%-8s round=%d requests=%d throughputPerSec=%.0f p50Ms=%d p99Ms=%d maxMs=%d rejected=%d%n",
+                mode, round, requests, requests * 1e9 / elapsed,
+                TimeUnit.NANOSECONDS.toMillis(latencies[requests / 2]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[Math.min(requests - 1, (int) (requests * 0.99))]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[requests - 1]), rejected.sum());
+    }
+}
@@ -0,0 +1,66 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Admisión y ajuste del límite de {@link AdaptiveConcurrencyLimiter}.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void callsAboveTheLimitWaitInOrderAndAreRejectedWithTheQueueFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("EMAIL", 2, 1, 10, 1, 0.5);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire().join();
+        limiter.acquire().join();
+
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiting = limiter.acquire();
+        assertFalse(waiting.isDone());
+        assertNull(limiter.acquire());
+
+        first.ignore();
+
+        assertTrue(waiting.isDone());
+        assertEquals(2, limiter.inFlight());
+        assertEquals(0, limiter.queued());
+    }
+
+    @Test
+    void failuresOfTheSameRoundReduceTheLimitOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("EMAIL", 10, 1, 10, 10, 0.5);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire().join();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.acquire().join();
+        AdaptiveConcurrencyLimiter.Permit third = limiter.acquire().join();
+
+        first.complete(false);
+        second.complete(false);
+        third.complete(false);
+        assertEquals(9, limiter.limit());
+
+        // Una llamada que empezó después de la reducción sí vuelve a reducirlo
+        limiter.acquire().join().complete(false);
+        assertEquals(8, limiter.limit());
+    }
+
+    @Test
+    void limitGrowsOnlyWhenItIsInUse() {
+        AdaptiveConcurrencyLimiter idle = new AdaptiveConcurrencyLimiter("EMAIL", 10, 1, 100, 10, 1.0);
+        idle.acquire().join().complete(true);
+        assertEquals(10, idle.limit());
+
+        AdaptiveConcurrencyLimiter busy = new AdaptiveConcurrencyLimiter("EMAIL", 4, 1, 100, 10, 1.0);
+        AdaptiveConcurrencyLimiter.Permit last = null;
+        for (int i = 0; i < 4; i++) {
+            last = busy.acquire().join();
+        }
+        // Primera muestra: el RTT es la base, así que el gradiente es 1 y suma √4
+        last.complete(true);
+        assertEquals(6, busy.limit());
+    }
+}
@@ -0,0 +1,98 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Transiciones de {@link CircuitBreaker}: apertura por fallos y por lentitud, y pruebas en
+ * HALF_OPEN.
+ */
+class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThreshold() {
+        CircuitBreaker breaker = breaker(Duration.ofHours(1), 1);
+
+        breaker.record(true, FAST);
+        breaker.record(false, FAST);
+        breaker.record(true, FAST);
+        // Menos de minimumCalls resultados: no se evalúa todavía
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        breaker.record(false, FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void opensWhenTooManyCallsAreSlow() {
+        CircuitBreaker breaker = breaker(Duration.ofHours(1), 1);
+
+        for (int i = 0; i < 4; i++) {
+            breaker.record(true, i % 2 == 0 ? SLOW : FAST);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void successfulProbesCloseTheCircuitWithAnEmptyWindow() {
+        CircuitBreaker breaker = breaker(Duration.ZERO, 2);
+        tripOpen(breaker);
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        // Solo halfOpenProbes llamadas de prueba a la vez
+        assertFalse(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.record(true, FAST);
+        breaker.record(true, FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0.0, breaker.failureRate());
+    }
+
+    @Test
+    void failedProbeOpensTheCircuitAgain() {
+        CircuitBreaker breaker = breaker(Duration.ZERO, 2);
+        tripOpen(breaker);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.record(false, FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void releasedProbeCanBeIssuedAgain() {
+        CircuitBreaker breaker = breaker(Duration.ZERO, 1);
+        tripOpen(breaker);
+
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.release();
+
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private static void tripOpen(CircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            breaker.record(false, FAST);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private static CircuitBreaker breaker(Duration openDuration, int halfOpenProbes) {
+        return new CircuitBreaker("EMAIL", 4, 4, 50, 50, Duration.ofSeconds(1), openDuration, halfOpenProbes);
+    }
+}
@@ -0,0 +1,99 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vencimientos de {@link DeadlineWheel} con un reloj controlado por el test (ticks de 10 ns).
+ */
+class DeadlineWheelTest {
+
+    private static final long TICK = 10;
+
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void deadlineExpiresAtItsTickWithTagAndAttachment() {
+        DeadlineWheel<String> wheel = new DeadlineWheel<>(TICK, 1_000, 0);
+        wheel.schedule(1, 2, 3, 25, "recordatorio");
+
+        wheel.advance(29, this::collect);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(30, this::collect);
+        assertEquals(List.of("1/2 tag=3 recordatorio"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedulingTheSameIdAgainReplacesTheDeadline() {
+        DeadlineWheel<String> wheel = new DeadlineWheel<>(TICK, 1_000, 0);
+        wheel.schedule(1, 2, 0, 500, "primero");
+        wheel.schedule(1, 2, 0, 20, "segundo");
+
+        assertEquals("segundo", wheel.attachment(1, 2));
+        wheel.advance(1_000, this::collect);
+
+        assertEquals(List.of("1/2 tag=0 segundo"), expired);
+    }
+
+    @Test
+    void cancelledDeadlineNeverExpires() {
+        DeadlineWheel<String> wheel = new DeadlineWheel<>(TICK, 1_000, 0);
+        wheel.schedule(1, 2, 0, 20, null);
+
+        assertTrue(wheel.cancel(1, 2));
+        assertFalse(wheel.cancel(1, 2));
+        assertNull(wheel.attachment(1, 2));
+        wheel.advance(1_000, this::collect);
+
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    void deadlineBeyondTheHorizonExpiresAtTheHorizon() {
+        DeadlineWheel<String> wheel = new DeadlineWheel<>(TICK, 100, 0);
+        wheel.schedule(1, 2, 0, 10_000, null);
+
+        wheel.advance(100, this::collect);
+
+        assertEquals(1, expired.size());
+    }
+
+    @Test
+    void manyDeadlinesSurviveGrowthAndCancellations() {
+        DeadlineWheel<String> wheel = new DeadlineWheel<>(TICK, 100_000, 0);
+        int count = 5_000;
+        for (int i = 0; i < count; i++) {
+            wheel.schedule(i, -i, 0, (long) (i % 997) * TICK, null);
+        }
+        Set<String> remaining = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                assertTrue(wheel.cancel(i, -i));
+            } else {
+                remaining.add(i + "/" + -i + " tag=0 null");
+            }
+        }
+        assertEquals(count / 2, wheel.size());
+
+        wheel.advance(100_000, this::collect);
+
+        assertEquals(remaining, new HashSet<>(expired));
+        assertEquals(remaining.size(), expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    private void collect(long high, long low, int tag, String attachment) {
+        expired.add(high + "/" + low + " tag=" + tag + " " + attachment);
+    }
+}
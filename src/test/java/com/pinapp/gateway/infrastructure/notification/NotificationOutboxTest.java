@@ -0,0 +1,146 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.model.TransactionStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recuperación de {@link NotificationOutbox}: varias entradas de una misma transacción,
+ * confirmaciones, reenvíos, envíos diferidos y colas rotas.
+ */
+class NotificationOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void entriesOfTheSameTransactionAreAcknowledgedOneAtATime() throws Exception {
+        Transaction transaction = transaction(TransactionStatus.PENDING);
+        NotificationOutbox outbox = open();
+        // Push PENDING, su recordatorio y el Email de la misma transacción
+        outbox.stage("PUSH", transaction, "Tu pago está siendo procesado.").join();
+        outbox.stage("PUSH", transaction, "Recordatorio: tu pago sigue en proceso.").join();
+        outbox.stage("EMAIL", transaction, "¡Pago Exitoso!").join();
+        outbox.acknowledge(transaction.id().toString(), "PUSH");
+        outbox.close();
+
+        NotificationOutbox recovered = open();
+
+        List<NotificationOutbox.Entry> push = recovered.recovered("PUSH");
+        assertEquals(1, push.size());
+        assertEquals("Recordatorio: tu pago sigue en proceso.", push.getFirst().message());
+        assertEquals(1, recovered.recovered("EMAIL").size());
+        assertEquals(2, recovered.pending());
+        recovered.close();
+    }
+
+    @Test
+    void redeliveryReusesTheRecoveredEntry() throws Exception {
+        Transaction transaction = transaction(TransactionStatus.COMPLETED);
+        NotificationOutbox outbox = open();
+        outbox.stage("EMAIL", transaction, "¡Pago Exitoso!").join();
+        outbox.close();
+
+        NotificationOutbox recovered = open();
+        NotificationOutbox.Entry entry = recovered.recovered("EMAIL").getFirst();
+        recovered.stage(entry.channel(), entry.transaction(), entry.message()).join();
+        assertEquals(1, recovered.pending());
+        recovered.acknowledge(transaction.id().toString(), "EMAIL");
+        recovered.close();
+
+        NotificationOutbox reopened = open();
+        assertTrue(reopened.recovered("EMAIL").isEmpty());
+        assertEquals(0, reopened.pending());
+        reopened.close();
+    }
+
+    @Test
+    void deferredEntrySurvivesARestartAndItsDispatchReusesIt() throws Exception {
+        Transaction transaction = transaction(TransactionStatus.REJECTED);
+        NotificationOutbox outbox = open();
+        outbox.defer("SMS", transaction, "Alerta: Transacción Rechazada.").join();
+        outbox.close();
+
+        NotificationOutbox recovered = open();
+        NotificationOutbox.Entry entry = recovered.recovered("SMS").getFirst();
+        // Sigue en el horario de silencio: se vuelve a diferir y luego se despacha
+        recovered.defer(entry.channel(), entry.transaction(), entry.message()).join();
+        recovered.stage(entry.channel(), entry.transaction(), entry.message()).join();
+        assertEquals(1, recovered.pending());
+        recovered.acknowledge(transaction.id().toString(), "SMS");
+        recovered.close();
+
+        NotificationOutbox reopened = open();
+        assertTrue(reopened.recovered("SMS").isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void tornTailIsIgnoredAndLaterWritesAreRecovered() throws Exception {
+        Transaction first = transaction(TransactionStatus.REJECTED);
+        NotificationOutbox outbox = open();
+        outbox.stage("SMS", first, "Alerta: Transacción Rechazada.").join();
+        outbox.close();
+        // Registro interrumpido: longitud y CRC sin el payload completo
+        Files.write(onlySegment(), new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 1, 0, 0}, StandardOpenOption.APPEND);
+
+        NotificationOutbox recovered = open();
+        assertEquals(1, recovered.recovered("SMS").size());
+        Transaction second = transaction(TransactionStatus.REJECTED);
+        recovered.stage("SMS", second, "Alerta: Transacción Rechazada.").join();
+        recovered.close();
+
+        NotificationOutbox reopened = open();
+        assertEquals(2, reopened.recovered("SMS").size());
+        reopened.close();
+    }
+
+    @Test
+    void entryThatCannotBeEncodedDoesNotAffectTheRestOfTheBatch() throws Exception {
+        Transaction oversized = transaction(TransactionStatus.COMPLETED);
+        Transaction regular = transaction(TransactionStatus.COMPLETED);
+        NotificationOutbox outbox = open();
+
+        outbox.stage("EMAIL", oversized, "x".repeat(70_000)).join();
+        outbox.stage("EMAIL", regular, "¡Pago Exitoso!").join();
+        assertEquals(1, outbox.pending());
+        outbox.close();
+
+        NotificationOutbox recovered = open();
+        List<NotificationOutbox.Entry> entries = recovered.recovered("EMAIL");
+        assertEquals(1, entries.size());
+        assertEquals(regular.id(), entries.getFirst().transaction().id());
+        recovered.close();
+    }
+
+    private NotificationOutbox open() throws IOException {
+        return new NotificationOutbox(directory.toString(), DataSize.ofMegabytes(1), 1024);
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.toList();
+            assertEquals(1, segments.size());
+            return segments.getFirst();
+        }
+    }
+
+    private static Transaction transaction(TransactionStatus status) {
+        return new Transaction(UUID.randomUUID(), BigDecimal.TEN, "Cliente", "cliente@example.com", "+5411",
+                status, "token");
+    }
+}
@@ -0,0 +1,130 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.infrastructure.store.BatchProgressStore;
+import com.pinapp.gateway.infrastructure.store.NotificationStatusStore;
+import com.pinapp.gateway.infrastructure.store.StatusChangeRegistry;
+import com.pinapp.notify.domain.NotificationResult;
+import com.pinapp.notify.domain.vo.ChannelType;
+import com.pinapp.notify.exception.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reintentos de {@link NotificationRetryScheduler}: backoff, errores no reintentables y envíos
+ * solapados con el mismo ID.
+ */
+class NotificationRetrySchedulerTest {
+
+    private StatusChangeRegistry changes;
+    private NotificationStatusStore statusStore;
+    private BatchProgressStore batchProgressStore;
+    private ProcessingDeadlineTracker deadlineTracker;
+    private NotificationRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        changes = new StatusChangeRegistry(1024);
+        Duration ttl = Duration.ofHours(1);
+        statusStore = new NotificationStatusStore(changes, 1000, ttl, ttl, ttl, ttl);
+        batchProgressStore = new BatchProgressStore(ttl, ttl, 100);
+        deadlineTracker = new ProcessingDeadlineTracker(statusStore, batchProgressStore, Duration.ZERO, Duration.ofSeconds(1), 1000);
+        scheduler = new NotificationRetryScheduler(statusStore, batchProgressStore, 3, Duration.ofMillis(1),
+                Duration.ofMillis(5), 0.2, 100, Optional.empty(), deadlineTracker);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+        deadlineTracker.close();
+        batchProgressStore.close();
+        changes.close();
+    }
+
+    @Test
+    void failedAttemptIsRetriedUntilItSucceeds() {
+        String id = UUID.randomUUID().toString();
+        AtomicInteger attempts = new AtomicInteger();
+
+        NotificationResult result = scheduler.execute("EMAIL", id, () -> CompletableFuture.completedFuture(
+                attempts.incrementAndGet() < 3 ? failure(id) : success(id))).join();
+
+        assertTrue(result.success());
+        assertEquals(3, attempts.get());
+        assertFalse(scheduler.isInFlight(id));
+        assertTrue(statusStore.findById(id).isEmpty());
+    }
+
+    @Test
+    void exhaustedAttemptsRecordTheFinalFailure() {
+        String id = UUID.randomUUID().toString();
+        AtomicInteger attempts = new AtomicInteger();
+
+        NotificationResult result = scheduler.execute("EMAIL", id, () -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.completedFuture(failure(id));
+        }).join();
+
+        assertFalse(result.success());
+        assertEquals(3, attempts.get());
+        assertEquals(ProcessingStatus.FAILED.name(), statusStore.findById(id).orElseThrow().status());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    void validationErrorIsNotRetried() {
+        String id = UUID.randomUUID().toString();
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<NotificationResult> outcome = scheduler.execute("SMS", id, () -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new ValidationException("teléfono inválido"));
+        });
+
+        CompletionException error = assertThrows(CompletionException.class, outcome::join);
+        assertInstanceOf(ValidationException.class, error.getCause());
+        assertEquals(1, attempts.get());
+        assertEquals(ProcessingStatus.FAILED.name(), statusStore.findById(id).orElseThrow().status());
+    }
+
+    @Test
+    void overlappingDeliveriesOfTheSameIdDoNotReleaseEachOther() {
+        String id = UUID.randomUUID().toString();
+        CompletableFuture<NotificationResult> first = new CompletableFuture<>();
+        CompletableFuture<NotificationResult> second = new CompletableFuture<>();
+
+        scheduler.execute("EMAIL", id, () -> first);
+        scheduler.execute("EMAIL", id, () -> second);
+        first.complete(success(id));
+
+        assertTrue(scheduler.isInFlight(id));
+        assertEquals(1, scheduler.pending());
+
+        second.complete(success(id));
+
+        assertFalse(scheduler.isInFlight(id));
+        assertEquals(0, scheduler.pending());
+    }
+
+    private static NotificationResult success(String id) {
+        return new NotificationResult(UUID.fromString(id), "email", ChannelType.EMAIL, true, null);
+    }
+
+    private static NotificationResult failure(String id) {
+        return new NotificationResult(UUID.fromString(id), "email", ChannelType.EMAIL, false, "timeout");
+    }
+}
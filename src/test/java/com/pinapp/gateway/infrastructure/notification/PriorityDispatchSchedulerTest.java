@@ -0,0 +1,98 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.gateway.domain.model.TransactionStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Orden de despacho de {@link PriorityDispatchScheduler}: prioridades, antigüedad y lugares
+ * liberados.
+ */
+class PriorityDispatchSchedulerTest {
+
+    private final List<String> started = new ArrayList<>();
+    private final List<String> runningNames = new ArrayList<>();
+    private final List<CompletableFuture<String>> running = new ArrayList<>();
+
+    @Test
+    void freedSlotGoesToTheHighestPriority() {
+        PriorityDispatchScheduler scheduler = scheduler(Duration.ofHours(1), "");
+        scheduler.submit(PriorityDispatchScheduler.Priority.NORMAL, () -> attempt("inicial"));
+        scheduler.submit(PriorityDispatchScheduler.Priority.LOW, () -> attempt("low"));
+        scheduler.submit(PriorityDispatchScheduler.Priority.NORMAL, () -> attempt("normal"));
+        scheduler.submit(PriorityDispatchScheduler.Priority.HIGH, () -> attempt("high"));
+
+        finishRunning();
+        finishRunning();
+        finishRunning();
+
+        assertEquals(List.of("inicial", "high", "normal", "low"), started);
+        assertEquals(1, scheduler.inFlight());
+    }
+
+    @Test
+    void lowPriorityThatWaitedLongerThanTheAgingGoesFirst() throws InterruptedException {
+        PriorityDispatchScheduler scheduler = scheduler(Duration.ofMillis(1), "");
+        scheduler.submit(PriorityDispatchScheduler.Priority.NORMAL, () -> attempt("inicial"));
+        scheduler.submit(PriorityDispatchScheduler.Priority.LOW, () -> attempt("low"));
+        Thread.sleep(20);
+        scheduler.submit(PriorityDispatchScheduler.Priority.HIGH, () -> attempt("high"));
+
+        finishRunning();
+
+        assertEquals(List.of("inicial", "low"), started);
+    }
+
+    @Test
+    void attemptThatThrowsFailsItsFutureAndFreesTheSlot() {
+        PriorityDispatchScheduler scheduler = scheduler(Duration.ofHours(1), "");
+
+        CompletableFuture<String> failed = scheduler.submit(PriorityDispatchScheduler.Priority.HIGH, () -> {
+            throw new IllegalStateException("SDK caído");
+        });
+        CompletableFuture<String> next = scheduler.submit(PriorityDispatchScheduler.Priority.LOW, () -> attempt("low"));
+
+        CompletionException error = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        finishRunning();
+        assertEquals("low", next.join());
+        assertEquals(0, scheduler.inFlight());
+    }
+
+    @Test
+    void configuredChannelPriorityOverridesTheStatus() {
+        PriorityDispatchScheduler scheduler = scheduler(Duration.ofHours(1), "high");
+
+        assertEquals(PriorityDispatchScheduler.Priority.HIGH, scheduler.priorityFor("PUSH", TransactionStatus.PENDING));
+        assertEquals(PriorityDispatchScheduler.Priority.LOW, scheduler.priorityFor("EMAIL", TransactionStatus.PENDING));
+        assertEquals(PriorityDispatchScheduler.Priority.HIGH, scheduler.priorityFor("SMS", TransactionStatus.REJECTED));
+    }
+
+    private CompletableFuture<String> attempt(String name) {
+        started.add(name);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        runningNames.add(name);
+        running.add(result);
+        return result;
+    }
+
+    /**
+     * Completa el envío en curso más antiguo con su nombre.
+     */
+    private void finishRunning() {
+        running.removeFirst().complete(runningNames.removeFirst());
+    }
+
+    private static PriorityDispatchScheduler scheduler(Duration aging, String pushPriority) {
+        return new PriorityDispatchScheduler(1, aging, "", "", pushPriority);
+    }
+}
@@ -0,0 +1,99 @@
+package com.pinapp.gateway.infrastructure.notification;
+
+import com.pinapp.notify.domain.Notification;
+import com.pinapp.notify.domain.NotificationResult;
+import com.pinapp.notify.domain.vo.ChannelType;
+import com.pinapp.notify.ports.in.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Turnos de {@link RateLimiter} y el hilo en que {@link RateLimitedNotificationService} continúa
+ * los envíos que esperaron.
+ */
+class RateLimitedNotificationServiceTest {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("test-send-", 0).factory());
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void burstIsFreeAndLaterTurnsAreSpacedAtTheRate() {
+        RateLimiter limiter = new RateLimiter("EMAIL", 10, 2, Duration.ofSeconds(1));
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        long third = limiter.reserve();
+        long fourth = limiter.reserve();
+
+        assertTrue(third > Duration.ofMillis(50).toNanos() && third <= Duration.ofMillis(100).toNanos());
+        assertTrue(fourth - third > Duration.ofMillis(90).toNanos());
+    }
+
+    @Test
+    void turnBeyondTheQueueWaitIsDroppedWithoutBeingConsumed() {
+        RateLimiter limiter = new RateLimiter("SMS", 10, 1, Duration.ofMillis(250));
+
+        limiter.reserve();
+        limiter.reserve();
+        long kept = limiter.reserve();
+
+        assertEquals(RateLimiter.DROPPED, limiter.reserve());
+        assertEquals(1, limiter.dropped());
+        assertTrue(kept > Duration.ofMillis(150).toNanos() && kept <= Duration.ofMillis(200).toNanos());
+    }
+
+    @Test
+    void disabledLimiterNeverWaits() {
+        RateLimiter limiter = new RateLimiter("PUSH", 0, 1, Duration.ZERO);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+    }
+
+    @Test
+    void sendThatWaitedForItsTurnContinuesOnTheSendExecutor() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        NotificationService delegate = new NotificationService() {
+            @Override
+            public NotificationResult send(Notification notification, ChannelType channelType) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<NotificationResult> sendAsync(Notification notification,
+                    ChannelType channelType) {
+                threads.add(Thread.currentThread().getName());
+                return CompletableFuture.completedFuture(new NotificationResult(notification.id(), "email",
+                        channelType, true, null));
+            }
+        };
+        RateLimiter limiter = new RateLimiter("EMAIL", 20, 1, Duration.ofSeconds(1));
+        RateLimitedNotificationService service = new RateLimitedNotificationService(delegate, limiter,
+                ChannelType.EMAIL, "email", executor);
+        Notification notification = new Notification(UUID.randomUUID(), null, "hola");
+
+        service.sendAsync(notification, ChannelType.EMAIL).join();
+        service.sendAsync(notification, ChannelType.EMAIL).join();
+
+        assertEquals(2, threads.size());
+        assertTrue(threads.get(1).startsWith("test-send-"), threads.get(1));
+        assertEquals(0, limiter.waiting());
+    }
+}
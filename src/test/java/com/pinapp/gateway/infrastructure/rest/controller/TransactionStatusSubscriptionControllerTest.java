@@ -0,0 +1,125 @@
+package com.pinapp.gateway.infrastructure.rest.controller;
+
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.infrastructure.store.BatchProgressStore;
+import com.pinapp.gateway.infrastructure.store.NotificationStatusStore;
+import com.pinapp.gateway.infrastructure.store.StatusChangeRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Suscripciones de {@link TransactionStatusSubscriptionController}: long-poll y SSE sobre los
+ * stores reales.
+ */
+class TransactionStatusSubscriptionControllerTest {
+
+    private StatusChangeRegistry changes;
+    private NotificationStatusStore statusStore;
+    private BatchProgressStore batchProgressStore;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        changes = new StatusChangeRegistry(1024);
+        Duration ttl = Duration.ofHours(1);
+        statusStore = new NotificationStatusStore(changes, 1000, ttl, ttl, ttl, ttl);
+        batchProgressStore = new BatchProgressStore(ttl, ttl, 100);
+        mockMvc = MockMvcBuilders.standaloneSetup(new TransactionStatusSubscriptionController(statusStore,
+                batchProgressStore, changes, Duration.ofMinutes(1), Duration.ofSeconds(30))).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchProgressStore.close();
+        changes.close();
+    }
+
+    @Test
+    void longPollAnswersAtOnceWhenAnIdIsAlreadyTerminal() throws Exception {
+        String id = UUID.randomUUID().toString();
+        statusStore.save(info(id, ProcessingStatus.COMPLETED));
+
+        MvcResult result = mockMvc.perform(get("/v1/transactions/status/poll").param("ids", id)).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(id))
+                .andExpect(jsonPath("$[0].status").value(ProcessingStatus.COMPLETED.name()));
+    }
+
+    @Test
+    void longPollAnswersWhenAnIdReachesATerminalStatus() throws Exception {
+        String id = UUID.randomUUID().toString();
+        statusStore.save(info(id, ProcessingStatus.PROCESSING));
+
+        MvcResult result = mockMvc.perform(get("/v1/transactions/status/poll").param("ids", id)).andReturn();
+        statusStore.transition(info(id, ProcessingStatus.FAILED));
+        result.getAsyncResult(10_000);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(ProcessingStatus.FAILED.name()));
+    }
+
+    @Test
+    void streamSendsTheCurrentStatusAndEachChangeUntilTerminal() throws Exception {
+        String id = UUID.randomUUID().toString();
+        statusStore.save(info(id, ProcessingStatus.PROCESSING));
+
+        MvcResult result = mockMvc.perform(get("/v1/transactions/status/stream").param("ids", id)).andReturn();
+        awaitTrue(() -> content(result).contains(ProcessingStatus.PROCESSING.name()));
+        statusStore.transition(info(id, ProcessingStatus.COMPLETED));
+        awaitTrue(() -> content(result).contains(ProcessingStatus.COMPLETED.name()));
+
+        String body = content(result);
+        assertEquals(2, body.split("event:status", -1).length - 1);
+        assertTrue(body.indexOf(ProcessingStatus.PROCESSING.name()) < body.indexOf(ProcessingStatus.COMPLETED.name()));
+    }
+
+    @Test
+    void unknownBatchIsNotFound() throws Exception {
+        mockMvc.perform(get("/v1/transactions/status/stream").param("batchId", "desconocido"))
+                .andExpect(status().isNotFound());
+
+        MvcResult result = mockMvc.perform(get("/v1/transactions/status/poll").param("batchId", "desconocido"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+    }
+
+    private static String content(MvcResult result) {
+        try {
+            return result.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "la condición no se cumplió a tiempo");
+            Thread.sleep(10);
+        }
+    }
+
+    private static TransactionStatusInfo info(String id, ProcessingStatus status) {
+        return new TransactionStatusInfo(id, status.name(), null);
+    }
+}
@@ -0,0 +1,79 @@
+package com.pinapp.gateway.infrastructure.rest.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pinapp.gateway.domain.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lectura NDJSON de {@link TransactionStreamReader}: saltos de línea y líneas demasiado largas.
+ */
+class TransactionStreamReaderTest {
+
+    private static final int MAX_LINE_LENGTH = 128;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsOneTransactionPerLineWithAnyLineEnding() {
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+        String third = UUID.randomUUID().toString();
+
+        TransactionStreamReader reader = read(record(first) + "\r\n\n" + record(second) + "\n" + record(third));
+
+        assertEquals(List.of(first, second, third), ids(reader));
+        assertEquals(0, reader.rejected());
+    }
+
+    @Test
+    void lineAboveTheLimitIsRejectedAndReadingContinues() {
+        String before = UUID.randomUUID().toString();
+        String after = UUID.randomUUID().toString();
+        String huge = "{\"customerName\":\"" + "x".repeat(64 * 1024) + "\"}";
+
+        TransactionStreamReader reader = read(record(before) + "\n" + huge + "\n" + record(after) + "\n");
+
+        assertEquals(List.of(before, after), ids(reader));
+        assertEquals(1, reader.rejected());
+        assertTrue(reader.errors().getFirst().startsWith("#2: "));
+    }
+
+    @Test
+    void lineOfExactlyTheLimitIsAccepted() {
+        String id = UUID.randomUUID().toString();
+        String line = record(id);
+        String padded = line.substring(0, line.length() - 1) + " ".repeat(MAX_LINE_LENGTH - line.length()) + "}";
+
+        TransactionStreamReader reader = read(padded + "\r\n" + padded + " \n");
+
+        assertEquals(List.of(id), ids(reader));
+        assertEquals(1, reader.rejected());
+    }
+
+    private TransactionStreamReader read(String body) {
+        return TransactionStreamReader.ndjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                objectMapper, MAX_LINE_LENGTH);
+    }
+
+    private static List<String> ids(TransactionStreamReader reader) {
+        List<String> ids = new ArrayList<>();
+        while (reader.hasNext()) {
+            Transaction transaction = reader.next();
+            ids.add(transaction.id().toString());
+        }
+        return ids;
+    }
+
+    private static String record(String id) {
+        return "{\"id\":\"" + id + "\",\"status\":\"COMPLETED\"}";
+    }
+}
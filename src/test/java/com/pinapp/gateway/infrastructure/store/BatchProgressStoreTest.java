@@ -0,0 +1,138 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.BatchProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contadores de {@link BatchProgressStore}: resultados después del plazo y transacciones repetidas.
+ */
+class BatchProgressStoreTest {
+
+    private BatchProgressStore store;
+    private String batchId;
+
+    @BeforeEach
+    void setUp() {
+        store = new BatchProgressStore(Duration.ofHours(1), Duration.ofHours(1), 100);
+        batchId = store.open(true);
+        store.track(batchId, "tx-1", "EMAIL");
+        store.track(batchId, "tx-2", "EMAIL");
+        store.seal(batchId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void timeoutCountsAsFailedAndCompletesTheBatch() {
+        store.recordTimeout("tx-1", "EMAIL");
+        store.recordOutcome("tx-2", "EMAIL", true);
+
+        BatchProgress progress = store.findById(batchId).orElseThrow();
+        assertEquals(1, progress.completed());
+        assertEquals(1, progress.failed());
+        assertEquals(0, progress.processing());
+        assertTrue(progress.done());
+    }
+
+    @Test
+    void laterSuccessMovesATimeoutToCompleted() {
+        store.recordTimeout("tx-1", "EMAIL");
+        store.recordOutcome("tx-1", "EMAIL", true);
+        // Un evento duplicado ya no altera los contadores
+        store.recordOutcome("tx-1", "EMAIL", true);
+
+        BatchProgress progress = store.findById(batchId).orElseThrow();
+        assertEquals(1, progress.completed());
+        assertEquals(0, progress.failed());
+        assertEquals(1, progress.processing());
+    }
+
+    @Test
+    void laterFailureKeepsTheTimeoutAsFailed() {
+        store.recordTimeout("tx-1", "EMAIL");
+        store.recordOutcome("tx-1", "EMAIL", false);
+        store.recordOutcome("tx-1", "EMAIL", true);
+
+        BatchProgress progress = store.findById(batchId).orElseThrow();
+        assertEquals(0, progress.completed());
+        assertEquals(1, progress.failed());
+    }
+
+    @Test
+    void timeoutAfterTheOutcomeIsIgnored() {
+        store.recordOutcome("tx-1", "EMAIL", true);
+        store.recordTimeout("tx-1", "EMAIL");
+
+        BatchProgress progress = store.findById(batchId).orElseThrow();
+        assertEquals(1, progress.completed());
+        assertEquals(0, progress.failed());
+    }
+
+    @Test
+    void sameTransactionOnTwoChannelsCountsEachOutcome() {
+        String batch = store.open(true);
+        store.track(batch, "tx-3", "PUSH");
+        store.track(batch, "tx-3", "EMAIL");
+        store.seal(batch);
+
+        store.recordOutcome("tx-3", "PUSH", true);
+        store.recordOutcome("tx-3", "EMAIL", false);
+
+        BatchProgress progress = store.findById(batch).orElseThrow();
+        assertEquals(1, progress.completed());
+        assertEquals(1, progress.failed());
+        assertTrue(progress.done());
+    }
+
+    @Test
+    void repeatedTransactionOnTheSameChannelDoesNotBlockTheBatch() {
+        String batch = store.open(true);
+        store.track(batch, "tx-3", "EMAIL");
+        store.track(batch, "tx-3", "EMAIL");
+        store.seal(batch);
+
+        store.recordOutcome("tx-3", "EMAIL", true);
+
+        BatchProgress progress = store.findById(batch).orElseThrow();
+        assertEquals(0, progress.processing());
+        assertTrue(progress.done());
+    }
+
+    @Test
+    void transactionIdsAreListedInTrackingOrder() {
+        assertEquals(List.of("tx-1", "tx-2"), store.findTransactionIds(batchId).orElseThrow());
+        assertTrue(store.findTransactionIds("desconocido").isEmpty());
+    }
+
+    @Test
+    void batchOpenedWithoutRetentionKeepsOnlyCounters() {
+        String streamed = store.open(false);
+        store.track(streamed, "tx-3", "EMAIL");
+        store.seal(streamed);
+
+        assertTrue(store.findTransactionIds(streamed).isEmpty());
+        assertEquals(1, store.findById(streamed).orElseThrow().total());
+    }
+
+    @Test
+    void batchAboveTheRetentionCapStopsListingIds() {
+        String large = store.open(true);
+        for (int i = 0; i < 101; i++) {
+            store.track(large, "large-" + i, "EMAIL");
+        }
+
+        assertTrue(store.findTransactionIds(large).isEmpty());
+        assertEquals(101, store.findById(large).orElseThrow().total());
+    }
+}
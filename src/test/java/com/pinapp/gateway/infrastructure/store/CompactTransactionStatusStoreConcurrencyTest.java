@@ -0,0 +1,230 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de estrés de {@link CompactTransactionStatusStore}: transiciones concurrentes sobre los
+ * mismos IDs, lecturas optimistas mientras se escribe, altas concurrentes que hacen crecer los
+ * segmentos y desalojo por capacidad y por TTL.
+ */
+class CompactTransactionStatusStoreConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS = 2_000;
+    private static final ProcessingStatus[] LIFECYCLE = ProcessingStatus.values();
+
+    private StatusChangeRegistry changes;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        changes = new StatusChangeRegistry(1024);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        changes.close();
+    }
+
+    @Test
+    void concurrentTransitionsConvergeOnCompletedExactlyOnce() throws Exception {
+        CompactTransactionStatusStore store = newStore();
+        String[] ids = ids(IDS);
+        AtomicIntegerArray completedApplied = new AtomicIntegerArray(IDS);
+
+        runAll(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < IDS; i++) {
+                for (ProcessingStatus status : shuffled(random)) {
+                    if (store.transition(info(ids[i], status)) && status == ProcessingStatus.COMPLETED) {
+                        completedApplied.incrementAndGet(i);
+                    }
+                }
+            }
+        });
+
+        for (int i = 0; i < IDS; i++) {
+            assertEquals(1, completedApplied.get(i), "transiciones a COMPLETED aplicadas para " + ids[i]);
+            assertEquals(ProcessingStatus.COMPLETED.name(), store.findById(ids[i]).orElseThrow().status());
+        }
+    }
+
+    @Test
+    void readersNeverSeeTheLifecycleGoBackwards() throws Exception {
+        CompactTransactionStatusStore store = newStore();
+        String[] ids = ids(IDS);
+
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int r = 0; r < THREADS / 2; r++) {
+            tasks.add(executor.submit(() -> {
+                int[] lastRank = new int[IDS];
+                Arrays.fill(lastRank, -1);
+                for (int round = 0; round < 50; round++) {
+                    for (int i = 0; i < IDS; i++) {
+                        int rank = store.findById(ids[i])
+                                .map(found -> ProcessingStatus.of(found.status()).ordinal())
+                                .orElse(-1);
+                        assertTrue(rank >= lastRank[i], "estado retrocedió para " + ids[i]);
+                        lastRank[i] = rank;
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int w = 0; w < THREADS / 2; w++) {
+            int writer = w;
+            tasks.add(executor.submit(() -> {
+                Random random = new Random(writer);
+                for (int i = 0; i < IDS; i++) {
+                    for (ProcessingStatus status : shuffled(random)) {
+                        store.transition(info(ids[i], status));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : tasks) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void concurrentSavesWhileSegmentsGrowKeepEveryEntry() throws Exception {
+        CompactTransactionStatusStore store = newStore();
+        int perThread = 10_000;
+        String[][] idsByThread = new String[THREADS][];
+        for (int t = 0; t < THREADS; t++) {
+            idsByThread[t] = ids(perThread);
+        }
+
+        runAll(thread -> {
+            for (String id : idsByThread[thread]) {
+                store.save(info(id, ProcessingStatus.PROCESSING));
+                store.transition(info(id, ProcessingStatus.FAILED));
+            }
+        });
+
+        assertEquals((long) THREADS * perThread, store.size());
+        for (String[] ids : idsByThread) {
+            for (String id : ids) {
+                TransactionStatusInfo found = store.findById(id).orElseThrow();
+                assertEquals(ProcessingStatus.FAILED.name(), found.status());
+                assertEquals(id, found.notificationStatus().messageId());
+            }
+        }
+    }
+
+    @Test
+    void concurrentSavesNeverExceedCapacity() throws Exception {
+        long maxSize = 6_400;
+        CompactTransactionStatusStore store = newStore(maxSize, Duration.ofHours(1));
+        int perThread = 10_000;
+        String[][] idsByThread = new String[THREADS][];
+        for (int t = 0; t < THREADS; t++) {
+            idsByThread[t] = ids(perThread);
+        }
+
+        runAll(thread -> {
+            for (String id : idsByThread[thread]) {
+                store.save(info(id, ProcessingStatus.PROCESSING));
+                assertTrue(store.size() <= maxSize, "el store retiene " + store.size() + " entradas");
+            }
+        });
+
+        assertEquals((long) THREADS * perThread - store.size(), store.evictionCount());
+        // Las entradas que sobrevivieron al desalojo siguen encontrándose tras los desplazamientos
+        long found = 0;
+        for (String[] ids : idsByThread) {
+            found += store.findAllById(List.of(ids)).size();
+        }
+        assertEquals(store.size(), found);
+    }
+
+    @Test
+    void expiredEntriesAreNeitherReturnedNorTransitionedFrom() throws Exception {
+        CompactTransactionStatusStore store = newStore(1_000_000, Duration.ZERO);
+        String[] ids = ids(IDS);
+
+        runAll(thread -> {
+            for (int i = thread; i < IDS; i += THREADS) {
+                store.save(info(ids[i], ProcessingStatus.COMPLETED));
+                assertTrue(store.findById(ids[i]).isEmpty());
+                // Un COMPLETED vencido ya no impide volver a registrar la transacción
+                assertTrue(store.transition(info(ids[i], ProcessingStatus.PROCESSING)));
+            }
+        });
+    }
+
+    private CompactTransactionStatusStore newStore() {
+        return newStore(1_000_000, Duration.ofHours(1));
+    }
+
+    private CompactTransactionStatusStore newStore(long maxSize, Duration ttl) {
+        return new CompactTransactionStatusStore(changes, 65_536, maxSize, ttl, ttl, ttl, ttl);
+    }
+
+    private void runAll(ThreadBody body) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                body.run(thread);
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(tasks, 60, TimeUnit.SECONDS)) {
+            future.get();
+        }
+    }
+
+    private static String[] ids(int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+        return ids;
+    }
+
+    private static List<ProcessingStatus> shuffled(Random random) {
+        List<ProcessingStatus> statuses = new ArrayList<>(List.of(LIFECYCLE));
+        Collections.shuffle(statuses, random);
+        return statuses;
+    }
+
+    private static TransactionStatusInfo info(String id, ProcessingStatus status) {
+        NotificationStatus notification = status.isTerminal()
+                ? new NotificationStatus(status == ProcessingStatus.COMPLETED, id, "test", null)
+                : null;
+        return new TransactionStatusInfo(id, status.name(), notification);
+    }
+
+    @FunctionalInterface
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+}
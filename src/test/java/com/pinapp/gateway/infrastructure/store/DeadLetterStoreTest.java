@@ -0,0 +1,92 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.DeadLetter;
+import com.pinapp.gateway.domain.model.DeadLetterFilter;
+import com.pinapp.gateway.domain.model.Transaction;
+import com.pinapp.gateway.domain.model.TransactionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Claves y reservas de {@link DeadLetterStore}.
+ */
+class DeadLetterStoreTest {
+
+    private static final DeadLetterFilter ALL = new DeadLetterFilter(null, null, null, null, null);
+
+    private final DeadLetterStore store = new DeadLetterStore(1000, Duration.ofDays(7));
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void lettersOfTheSameTransactionOnDifferentChannelsAreKeptApart() {
+        Transaction transaction = transaction();
+        store.record(letter(transaction, "PUSH", Instant.now()));
+        store.record(letter(transaction, "EMAIL", Instant.now()));
+
+        store.resolve(transaction.id().toString(), "PUSH");
+
+        List<DeadLetter> remaining = store.find(ALL, 10);
+        assertEquals(1, remaining.size());
+        assertEquals("EMAIL", remaining.getFirst().channel());
+    }
+
+    @Test
+    void reservedLetterStaysUntilItIsRemoved() {
+        store.record(letter(transaction(), "SMS", Instant.now()));
+
+        List<DeadLetter> reserved = store.reserve(ALL, 10);
+
+        assertEquals(1, reserved.size());
+        assertTrue(store.reserve(ALL, 10).isEmpty());
+        assertEquals(1, store.size());
+        store.remove(reserved.getFirst());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void releasedLetterCanBeReservedAgain() {
+        store.record(letter(transaction(), "SMS", Instant.now()));
+        DeadLetter reserved = store.reserve(ALL, 10).getFirst();
+
+        store.release(reserved);
+
+        assertEquals(1, store.reserve(ALL, 10).size());
+    }
+
+    @Test
+    void newerFailureRecordedDuringTheReplayIsKept() {
+        Transaction transaction = transaction();
+        Instant failedAt = Instant.now().minusSeconds(60);
+        store.record(letter(transaction, "EMAIL", failedAt));
+        DeadLetter reserved = store.reserve(ALL, 10).getFirst();
+
+        store.record(letter(transaction, "EMAIL", Instant.now()));
+        store.remove(reserved);
+
+        List<DeadLetter> remaining = store.find(ALL, 10);
+        assertEquals(1, remaining.size());
+        assertTrue(remaining.getFirst().failedAt().isAfter(failedAt));
+    }
+
+    private static DeadLetter letter(Transaction transaction, String channel, Instant failedAt) {
+        return new DeadLetter(transaction, channel, "mensaje", "provider", "timeout", failedAt);
+    }
+
+    private static Transaction transaction() {
+        return new Transaction(UUID.randomUUID(), BigDecimal.TEN, "Cliente", "cliente@example.com", "+5411",
+                TransactionStatus.COMPLETED, null);
+    }
+}
@@ -0,0 +1,200 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recuperación de {@link JournalTransactionStatusStore} tras un reinicio, un registro final roto y
+ * snapshots.
+ */
+class JournalTransactionStatusStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private StatusChangeRegistry changes;
+    private final List<JournalTransactionStatusStore> stores = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        changes = new StatusChangeRegistry(1024);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (JournalTransactionStatusStore store : stores) {
+            store.close();
+        }
+        changes.close();
+    }
+
+    @Test
+    void statusesSurviveARestart() throws Exception {
+        JournalTransactionStatusStore store = open(1_000_000);
+        String completed = id();
+        String failed = id();
+        store.save(info(completed, ProcessingStatus.PROCESSING));
+        store.transition(info(completed, ProcessingStatus.COMPLETED));
+        store.saveAll(List.of(info(failed, ProcessingStatus.PROCESSING)));
+        store.transitionAll(List.of(info(failed, ProcessingStatus.FAILED), info(completed, ProcessingStatus.FAILED)));
+        store.close();
+
+        JournalTransactionStatusStore reopened = open(1_000_000);
+        assertEquals(ProcessingStatus.COMPLETED.name(), reopened.findById(completed).orElseThrow().status());
+        assertEquals(ProcessingStatus.FAILED.name(), reopened.findById(failed).orElseThrow().status());
+        assertEquals(2, reopened.size());
+    }
+
+    @Test
+    void tornTailIsTruncatedAndLaterWritesSurvive() throws Exception {
+        JournalTransactionStatusStore store = open(1_000_000);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(id());
+            store.save(info(ids.get(i), ProcessingStatus.PROCESSING));
+        }
+        store.close();
+        // Registro a medio escribir: cabecera con longitud y CRC, payload incompleto
+        Path segment = lastSegment();
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 5, 6}, StandardOpenOption.APPEND);
+        long tornSize = Files.size(segment);
+
+        JournalTransactionStatusStore reopened = open(1_000_000);
+        assertEquals(100, reopened.size());
+        assertEquals(tornSize - 10, Files.size(segment));
+        String later = id();
+        reopened.save(info(later, ProcessingStatus.PROCESSING));
+        reopened.transition(info(ids.get(0), ProcessingStatus.COMPLETED));
+        reopened.close();
+
+        JournalTransactionStatusStore again = open(1_000_000);
+        assertEquals(101, again.size());
+        assertTrue(again.findById(later).isPresent());
+        assertEquals(ProcessingStatus.COMPLETED.name(), again.findById(ids.get(0)).orElseThrow().status());
+    }
+
+    @Test
+    void segmentsAfterATornOneAreStillReplayed() throws Exception {
+        // Lo que deja el escritor al abandonar un segmento tras un error: cola rota y un segmento nuevo
+        JournalTransactionStatusStore store = open(1_000_000);
+        String before = id();
+        store.save(info(before, ProcessingStatus.PROCESSING));
+        store.close();
+        Files.write(lastSegment(), new byte[] {0, 0, 0, 40, 9, 9}, StandardOpenOption.APPEND);
+
+        JournalTransactionStatusStore next = open(1_000_000);
+        String after = id();
+        next.save(info(after, ProcessingStatus.PROCESSING));
+        next.transition(info(before, ProcessingStatus.COMPLETED));
+        next.close();
+
+        JournalTransactionStatusStore reopened = open(1_000_000);
+        assertTrue(reopened.findById(after).isPresent());
+        assertEquals(ProcessingStatus.COMPLETED.name(), reopened.findById(before).orElseThrow().status());
+    }
+
+    @Test
+    void writesAfterAFailedBatchGoToANewSegment() throws Exception {
+        JournalTransactionStatusStore store = open(1_000_000);
+        String before = id();
+        store.save(info(before, ProcessingStatus.PROCESSING));
+        // Simula un write a medias seguido de un error de E/S en el segmento activo
+        Files.write(lastSegment(), new byte[] {0, 0, 0, 40, 9, 9}, StandardOpenOption.APPEND);
+        Field segment = JournalTransactionStatusStore.class.getDeclaredField("segment");
+        segment.setAccessible(true);
+        ((FileChannel) segment.get(store)).close();
+
+        String lost = id();
+        assertThrows(UncheckedIOException.class, () -> store.save(info(lost, ProcessingStatus.PROCESSING)));
+        assertTrue(store.findById(lost).isEmpty(), "el índice conserva un estado que no llegó al disco");
+        String after = id();
+        store.save(info(after, ProcessingStatus.PROCESSING));
+        store.transition(info(before, ProcessingStatus.COMPLETED));
+        store.close();
+
+        JournalTransactionStatusStore reopened = open(1_000_000);
+        assertTrue(reopened.findById(after).isPresent());
+        assertTrue(reopened.findById(lost).isEmpty());
+        assertEquals(ProcessingStatus.COMPLETED.name(), reopened.findById(before).orElseThrow().status());
+    }
+
+    @Test
+    void snapshotReplacesOlderSegments() throws Exception {
+        JournalTransactionStatusStore store = open(50);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(id());
+            store.save(info(ids.get(i), ProcessingStatus.PROCESSING));
+        }
+        for (int i = 0; i < 500; i += 2) {
+            store.transition(info(ids.get(i), ProcessingStatus.COMPLETED));
+        }
+        store.close();
+
+        JournalTransactionStatusStore reopened = open(1_000_000);
+        assertEquals(500, reopened.size());
+        for (int i = 0; i < 500; i++) {
+            ProcessingStatus expected = i % 2 == 0 ? ProcessingStatus.COMPLETED : ProcessingStatus.PROCESSING;
+            assertEquals(expected.name(), reopened.findById(ids.get(i)).orElseThrow().status());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.anyMatch(path -> path.toString().endsWith(".tmp")));
+        }
+    }
+
+    private JournalTransactionStatusStore open(long snapshotEveryRecords) throws IOException {
+        JournalTransactionStatusStore store = new JournalTransactionStatusStore(changes, directory.toString(),
+                "batch", Duration.ofMillis(50), snapshotEveryRecords, 1024);
+        stores.add(store);
+        return store;
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-"))
+                    .filter(path -> {
+                        try {
+                            return Files.size(path) > 0;
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .max(Path::compareTo)
+                    .orElseThrow();
+        }
+    }
+
+    private static String id() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static TransactionStatusInfo info(String id, ProcessingStatus status) {
+        NotificationStatus notification = status.isTerminal()
+                ? new NotificationStatus(status == ProcessingStatus.COMPLETED, id, "test", null)
+                : null;
+        return new TransactionStatusInfo(id, status.name(), notification);
+    }
+}
@@ -0,0 +1,175 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de estrés de {@link NotificationStatusStore}: transiciones concurrentes sobre los mismos
+ * IDs, lecturas mientras se escribe y escrituras por encima de la capacidad.
+ */
+class NotificationStatusStoreConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS = 2_000;
+    private static final ProcessingStatus[] LIFECYCLE = ProcessingStatus.values();
+
+    private StatusChangeRegistry changes;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        changes = new StatusChangeRegistry(1024);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        changes.close();
+    }
+
+    @Test
+    void concurrentTransitionsConvergeOnCompletedExactlyOnce() throws Exception {
+        NotificationStatusStore store = newStore(1_000_000);
+        String[] ids = ids(IDS);
+        AtomicIntegerArray completedApplied = new AtomicIntegerArray(IDS);
+
+        runAll(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < IDS; i++) {
+                for (ProcessingStatus status : shuffled(random)) {
+                    if (store.transition(info(ids[i], status)) && status == ProcessingStatus.COMPLETED) {
+                        completedApplied.incrementAndGet(i);
+                    }
+                }
+            }
+        });
+
+        for (int i = 0; i < IDS; i++) {
+            assertEquals(1, completedApplied.get(i), "transiciones a COMPLETED aplicadas para " + ids[i]);
+            assertEquals(ProcessingStatus.COMPLETED.name(), store.findById(ids[i]).orElseThrow().status());
+        }
+    }
+
+    @Test
+    void readersNeverSeeTheLifecycleGoBackwards() throws Exception {
+        NotificationStatusStore store = newStore(1_000_000);
+        String[] ids = ids(IDS);
+
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int r = 0; r < THREADS / 2; r++) {
+            tasks.add(executor.submit(() -> {
+                int[] lastRank = new int[IDS];
+                Arrays.fill(lastRank, -1);
+                for (int round = 0; round < 50; round++) {
+                    for (int i = 0; i < IDS; i++) {
+                        int rank = store.findById(ids[i])
+                                .map(found -> ProcessingStatus.of(found.status()).ordinal())
+                                .orElse(-1);
+                        assertTrue(rank >= lastRank[i], "estado retrocedió para " + ids[i]);
+                        lastRank[i] = rank;
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int w = 0; w < THREADS / 2; w++) {
+            int writer = w;
+            tasks.add(executor.submit(() -> {
+                Random random = new Random(writer);
+                for (int i = 0; i < IDS; i++) {
+                    for (ProcessingStatus status : shuffled(random)) {
+                        store.transition(info(ids[i], status));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : tasks) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void concurrentSavesStayNearCapacity() throws Exception {
+        long maxSize = 1_000;
+        NotificationStatusStore store = newStore(maxSize);
+        int perThread = 10_000;
+
+        runAll(thread -> {
+            for (int i = 0; i < perThread; i++) {
+                store.save(info(UUID.randomUUID().toString(), ProcessingStatus.PROCESSING));
+            }
+        });
+
+        assertTrue(store.size() <= 2 * maxSize, "el store retiene " + store.size() + " entradas");
+        assertTrue(store.evictionCount() >= (long) THREADS * perThread - 2 * maxSize);
+    }
+
+    private NotificationStatusStore newStore(long maxSize) {
+        Duration ttl = Duration.ofHours(1);
+        return new NotificationStatusStore(changes, maxSize, ttl, ttl, ttl, ttl);
+    }
+
+    private void runAll(ThreadBody body) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                body.run(thread);
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(tasks, 60, TimeUnit.SECONDS)) {
+            future.get();
+        }
+    }
+
+    private static String[] ids(int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+        return ids;
+    }
+
+    private static List<ProcessingStatus> shuffled(Random random) {
+        List<ProcessingStatus> statuses = new ArrayList<>(List.of(LIFECYCLE));
+        Collections.shuffle(statuses, random);
+        return statuses;
+    }
+
+    private static TransactionStatusInfo info(String id, ProcessingStatus status) {
+        NotificationStatus notification = status.isTerminal()
+                ? new NotificationStatus(status == ProcessingStatus.COMPLETED, id, "test", null)
+                : null;
+        return new TransactionStatusInfo(id, status.name(), notification);
+    }
+
+    @FunctionalInterface
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+}
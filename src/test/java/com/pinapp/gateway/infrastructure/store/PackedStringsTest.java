@@ -0,0 +1,45 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Empaquetado de {@link PackedStrings}: nulos, texto multibyte y truncado en un carácter completo.
+ */
+class PackedStringsTest {
+
+    @Test
+    void valuesAndNullsRoundTrip() {
+        String[] values = {"Cliente", null, "", "Ñandú 🚀", null};
+
+        assertArrayEquals(values, PackedStrings.unpack(PackedStrings.pack(values), values.length));
+    }
+
+    @Test
+    void longValueIsCutBeforeASplitCharacter() {
+        // 'é' ocupa dos bytes: el límite cae entre el primero y el segundo
+        String value = "é".repeat(PackedStrings.MAX_BYTES);
+
+        String unpacked = PackedStrings.unpack(PackedStrings.pack(value), 1)[0];
+
+        assertEquals(PackedStrings.MAX_BYTES - 1, unpacked.getBytes(StandardCharsets.UTF_8).length);
+        assertTrue(value.startsWith(unpacked));
+    }
+
+    @Test
+    void longValueIsCutBeforeASplitSurrogatePair() {
+        // Cada emoji ocupa cuatro bytes y dos chars; el límite cae en el medio del último
+        String value = "🚀".repeat(PackedStrings.MAX_BYTES / 4 + 1);
+
+        String[] unpacked = PackedStrings.unpack(PackedStrings.pack(value, "siguiente"), 2);
+
+        assertEquals(PackedStrings.MAX_BYTES / 4 * 4, unpacked[0].getBytes(StandardCharsets.UTF_8).length);
+        assertTrue(value.startsWith(unpacked[0]));
+        assertEquals("siguiente", unpacked[1]);
+    }
+}
@@ -0,0 +1,101 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Entrega de {@link StatusChangeRegistry}: orden por suscripción y cierre de suscriptores lentos.
+ */
+class StatusChangeRegistryTest {
+
+    private StatusChangeRegistry changes;
+
+    @BeforeEach
+    void setUp() {
+        changes = new StatusChangeRegistry(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        changes.close();
+    }
+
+    @Test
+    void changesAreDeliveredInPublicationOrder() throws InterruptedException {
+        List<String> received = new CopyOnWriteArrayList<>();
+        StatusChangeRegistry.StatusWatch watch = changes.watch(List.of("tx-1"), () -> { },
+                info -> received.add(info.status()));
+
+        changes.publish(info("tx-1", ProcessingStatus.PROCESSING));
+        changes.publish(info("tx-2", ProcessingStatus.PROCESSING));
+        changes.publish(info("tx-1", ProcessingStatus.COMPLETED));
+
+        awaitTrue(() -> received.size() == 2);
+        assertEquals(List.of(ProcessingStatus.PROCESSING.name(), ProcessingStatus.COMPLETED.name()), received);
+        watch.close();
+        assertEquals(0, changes.activeWatchCount());
+    }
+
+    @Test
+    void slowSubscriberIsClosedInsteadOfQueueingWithoutBound() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean overflowed = new AtomicBoolean();
+        changes.watch(List.of("tx-1"), () -> overflowed.set(true), info -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Uno queda retenido en el listener; los siguientes llenan la cola
+        for (int i = 0; i < 10; i++) {
+            changes.publish(info("tx-1", ProcessingStatus.PROCESSING));
+        }
+
+        awaitTrue(overflowed::get);
+        assertEquals(0, changes.activeWatchCount());
+        release.countDown();
+    }
+
+    @Test
+    void initialStatusesDoNotCountAgainstTheBacklog() throws InterruptedException {
+        List<String> ids = List.of("a", "b", "c", "d", "e", "f", "g", "h");
+        List<String> received = new CopyOnWriteArrayList<>();
+        AtomicBoolean overflowed = new AtomicBoolean();
+        StatusChangeRegistry.StatusWatch watch = changes.watch(ids, () -> overflowed.set(true),
+                info -> received.add(info.id()));
+
+        watch.offerAll(ids.stream().map(id -> info(id, ProcessingStatus.PROCESSING)).toList());
+
+        awaitTrue(() -> received.size() == ids.size());
+        assertFalse(overflowed.get());
+        watch.close();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "la condición no se cumplió a tiempo");
+            Thread.sleep(10);
+        }
+    }
+
+    private static TransactionStatusInfo info(String id, ProcessingStatus status) {
+        return new TransactionStatusInfo(id, status.name(), null);
+    }
+}
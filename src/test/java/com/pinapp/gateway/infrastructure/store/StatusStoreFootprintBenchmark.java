@@ -0,0 +1,109 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import com.pinapp.gateway.domain.ports.out.TransactionStatusPort;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mide el heap retenido por entrada y la latencia de {@code findById} de
+ * {@link NotificationStatusStore} y {@link CompactTransactionStatusStore} con la misma carga.
+ * <p>
+ * No es un test: se ejecuta a mano, con un heap fijo para que las mediciones sean comparables.
+ * </p>
+ * <pre>
+ * java -Xms4g -Xmx4g -cp target/classes:target/test-classes \
+ *     com.pinapp.gateway.infrastructure.store.StatusStoreFootprintBenchmark [entradas] [consultas]
+ * </pre>
+ */
+public final class StatusStoreFootprintBenchmark {
+
+    private StatusStoreFootprintBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        String[] ids = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+        Duration ttl = Duration.ofHours(1);
+        // Con holgura, para que el desalojo no altere la medición
+        long maxSize = 2L * entries;
+
+        StatusChangeRegistry changes = new StatusChangeRegistry(1024);
+        try {
+            run("memory", ids, lookups, () -> new NotificationStatusStore(changes, maxSize, ttl, ttl, ttl, ttl));
+            run("compact", ids, lookups,
+                    () -> new CompactTransactionStatusStore(changes, 65_536, maxSize, ttl, ttl, ttl, ttl));
+        } finally {
+            changes.close();
+        }
+    }
+
+    private static void run(String name, String[] ids, int lookups, StoreFactory factory) throws InterruptedException {
+        long before = usedHeap();
+        TransactionStatusPort store = factory.create();
+        for (int i = 0; i < ids.length; i++) {
+            store.save(info(ids[i], i));
+        }
+        long retained = usedHeap() - before;
+
+        // Calentamiento para que el JIT compile el camino de lectura antes de medir
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < lookups; i++) {
+            store.findById(ids[random.nextInt(ids.length)]);
+        }
+        long[] latencies = new long[lookups];
+        long started = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            String id = ids[random.nextInt(ids.length)];
+            long start = System.nanoTime();
+            store.findById(id);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long elapsed = System.nanoTime() - started;
+        Arrays.sort(latencies);
+
+        System.out.printf("%-8s entries=%d retainedMiB=%.1f bytesPerEntry=%.1f lookupsPerSec=%.0f "
+                        + "p50Ns=%d p99Ns=%d p999Ns=%d%n",
+                name, ids.length, retained / (1024.0 * 1024.0), (double) retained / ids.length,
+                lookups * 1e9 / elapsed, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                percentile(latencies, 0.999));
+        // Mantiene el store alcanzable hasta después de medir el heap
+        if (store.findById(ids[0]).isEmpty()) {
+            System.out.println(name + ": primera entrada desalojada");
+        }
+    }
+
+    private static TransactionStatusInfo info(String id, int i) {
+        boolean completed = (i & 3) != 0;
+        return new TransactionStatusInfo(id,
+                (completed ? ProcessingStatus.COMPLETED : ProcessingStatus.FAILED).name(),
+                new NotificationStatus(completed, id, "sendgrid", completed ? null : "Proveedor no disponible"));
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))];
+    }
+
+    @FunctionalInterface
+    private interface StoreFactory {
+        TransactionStatusPort create();
+    }
+}
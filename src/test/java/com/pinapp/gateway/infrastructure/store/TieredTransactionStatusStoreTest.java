@@ -0,0 +1,129 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import com.pinapp.gateway.domain.model.NotificationStatus;
+import com.pinapp.gateway.domain.model.ProcessingStatus;
+import com.pinapp.gateway.domain.model.TransactionStatusInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migración entre niveles de {@link TieredTransactionStatusStore}: estados terminales, estados
+ * "PROCESSING" que nunca se resuelven y fusión de segmentos.
+ */
+class TieredTransactionStatusStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private StatusChangeRegistry changes;
+    private final List<TieredTransactionStatusStore> stores = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        changes = new StatusChangeRegistry(1024);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (TieredTransactionStatusStore store : stores) {
+            store.close();
+        }
+        changes.close();
+    }
+
+    @Test
+    void terminalStatusesMoveToColdAndStayReadable() throws Exception {
+        TieredTransactionStatusStore store = open(Duration.ofHours(1), 16);
+        String id = id();
+        store.save(info(id, ProcessingStatus.PROCESSING));
+        store.transition(info(id, ProcessingStatus.COMPLETED));
+
+        awaitTrue(() -> store.hotSize() == 0);
+        assertEquals(1, store.coldSize());
+        assertEquals(ProcessingStatus.COMPLETED.name(), store.findById(id).orElseThrow().status());
+        // El estado frío sigue protegiendo el ciclo de vida
+        assertFalse(store.transition(info(id, ProcessingStatus.FAILED)));
+        assertEquals(1, store.findAllById(List.of(id, id())).size());
+    }
+
+    @Test
+    void stuckProcessingStatusesAreDemotedAfterTheirRetention() throws Exception {
+        TieredTransactionStatusStore store = open(Duration.ofMillis(300), 16);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(id());
+            store.save(info(ids.get(i), ProcessingStatus.PROCESSING));
+        }
+
+        awaitTrue(() -> store.hotSize() == 0);
+        assertEquals(200, store.coldSize());
+        assertEquals(ProcessingStatus.PROCESSING.name(), store.findById(ids.get(0)).orElseThrow().status());
+        // Un resultado tardío avanza desde el nivel frío y gana sobre la copia migrada
+        assertTrue(store.transition(info(ids.get(0), ProcessingStatus.COMPLETED)));
+        assertEquals(ProcessingStatus.COMPLETED.name(), store.findById(ids.get(0)).orElseThrow().status());
+        store.close();
+
+        TieredTransactionStatusStore reopened = open(Duration.ofMillis(300), 16);
+        assertEquals(ProcessingStatus.PROCESSING.name(), reopened.findById(ids.get(1)).orElseThrow().status());
+    }
+
+    @Test
+    void mergedSegmentsKeepTheNewestVersion() throws Exception {
+        TieredTransactionStatusStore store = open(Duration.ofMillis(100), 2);
+        String id = id();
+        store.save(info(id, ProcessingStatus.PROCESSING));
+        awaitTrue(() -> store.hotSize() == 0);
+        store.transition(info(id, ProcessingStatus.TIMED_OUT));
+        awaitTrue(() -> store.hotSize() == 0);
+        store.transition(info(id, ProcessingStatus.COMPLETED));
+        awaitTrue(() -> store.hotSize() == 0);
+        for (int i = 0; i < 3; i++) {
+            store.save(info(id(), ProcessingStatus.FAILED));
+            awaitTrue(() -> store.hotSize() == 0);
+        }
+
+        awaitTrue(() -> store.coldSize() == 4);
+        assertEquals(ProcessingStatus.COMPLETED.name(), store.findById(id).orElseThrow().status());
+    }
+
+    private TieredTransactionStatusStore open(Duration processingHotRetention, int maxSegments) throws IOException {
+        TieredTransactionStatusStore store = new TieredTransactionStatusStore(changes, directory.toString(),
+                Duration.ZERO, processingHotRetention, Duration.ofDays(1), Duration.ofMillis(20), maxSegments,
+                1_000_000, 16);
+        stores.add(store);
+        return store;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "la condición no se cumplió a tiempo");
+            Thread.sleep(10);
+        }
+    }
+
+    private static String id() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static TransactionStatusInfo info(String id, ProcessingStatus status) {
+        NotificationStatus notification = status.isTerminal()
+                ? new NotificationStatus(status == ProcessingStatus.COMPLETED, id, "test", null)
+                : null;
+        return new TransactionStatusInfo(id, status.name(), notification);
+    }
+}
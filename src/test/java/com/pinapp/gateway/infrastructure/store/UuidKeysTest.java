@@ -0,0 +1,44 @@
+package com.pinapp.gateway.infrastructure.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validación y conversión de IDs canónicos en {@link UuidKeys}.
+ */
+class UuidKeysTest {
+
+    @Test
+    void canonicalIdsRoundTrip() {
+        for (int i = 0; i < 1_000; i++) {
+            UUID uuid = UUID.randomUUID();
+            String id = uuid.toString();
+            assertTrue(UuidKeys.isCanonical(id));
+            assertEquals(id, UuidKeys.toString(UuidKeys.mostSignificantBits(id), UuidKeys.leastSignificantBits(id)));
+        }
+        assertTrue(UuidKeys.isCanonical("0F8FAD5B-D9CB-469F-A165-70867728950E"));
+    }
+
+    @Test
+    void rejectsNonCanonicalForms() {
+        assertFalse(UuidKeys.isCanonical(null));
+        assertFalse(UuidKeys.isCanonical("1-2-3-4-5"));
+        assertFalse(UuidKeys.isCanonical("0f8fad5b-d9cb-469f-a165-70867728950e0"));
+        assertFalse(UuidKeys.isCanonical("0f8fad5bxd9cb-469f-a165-70867728950e"));
+        assertFalse(UuidKeys.isCanonical("0f8fad5b-d9cb-469f-a165-70867728950g"));
+    }
+
+    @Test
+    void rejectsNonAsciiDigits() {
+        String id = "0f8fad5b-d9cb-469f-a165-70867728950e";
+        // Dígitos arábigo-índicos y de ancho completo: Character.digit los acepta
+        assertFalse(UuidKeys.isCanonical('\u0660' + id.substring(1)));
+        assertFalse(UuidKeys.isCanonical('\uFF10' + id.substring(1)));
+        assertFalse(UuidKeys.isCanonical(id.substring(0, 35) + '\uFF41'));
+    }
+}